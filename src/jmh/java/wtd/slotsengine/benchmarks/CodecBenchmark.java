@@ -0,0 +1,36 @@
+package wtd.slotsengine.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wtd.slotsengine.utils.SlotConstants;
+import wtd.slotsengine.utils.SlotUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the reel codec, {@link SlotUtils#encodeGzipBase64(byte[])} and
+ * {@link SlotUtils#decodeGzipBase64(String)}, on the demo reel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+    private byte[] reelBytes;
+
+    @Setup
+    public void setUp() {
+        reelBytes = SlotUtils.decodeGzipBase64(SlotConstants.DEMO_MACHINE);
+    }
+
+    @Benchmark
+    public String encode() {
+        return SlotUtils.encodeGzipBase64(reelBytes);
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return SlotUtils.decodeGzipBase64(SlotConstants.DEMO_MACHINE);
+    }
+}
@@ -0,0 +1,70 @@
+package wtd.slotsengine.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
+import wtd.slotsengine.slots.machines.BasicSlotMachine;
+import wtd.slotsengine.slots.machines.records.SpinOutcome;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the spin path of the demo machine: the bare {@link BasicSlotMachine#doSpin(long)} and the
+ * full {@code AbstractSlotMachine.spin}, including the funds check and the wallet settlement, at 1, 8
+ * and 32 concurrent spinners sharing one machine. Every spinner plays with its own wallet, so the
+ * shared state is the reel cursor of the machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBenchmark {
+    private static final long BET = 10L;
+    private final AtomicLong players = new AtomicLong();
+    private BasicSlotMachine machine;
+
+    @Setup
+    public void setUp() {
+        machine = new BasicSlotMachine();
+    }
+
+    /**
+     * The wallet of one spinner thread, funded so that it never runs out during a run.
+     */
+    @State(Scope.Thread)
+    public static class Player {
+        long id;
+
+        @Setup
+        public void setUp(EngineBenchmark benchmark) {
+            id = benchmark.players.incrementAndGet();
+            benchmark.machine.deposit(id, Long.MAX_VALUE / 2);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long doSpin() {
+        return machine.doSpin(BET);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public SpinOutcome spin01(Player player) throws InsufficientFundsException {
+        return machine.spin(player.id, BET);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public SpinOutcome spin08(Player player) throws InsufficientFundsException {
+        return machine.spin(player.id, BET);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public SpinOutcome spin32(Player player) throws InsufficientFundsException {
+        return machine.spin(player.id, BET);
+    }
+}
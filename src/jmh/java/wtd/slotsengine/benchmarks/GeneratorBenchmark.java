@@ -0,0 +1,63 @@
+package wtd.slotsengine.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.utils.SlotConstants;
+import wtd.slotsengine.utils.generator.GeneratedResult;
+import wtd.slotsengine.utils.generator.ReelBufferedGenerator;
+import wtd.slotsengine.utils.generator.ReelOptimizer;
+import wtd.slotsengine.utils.generator.RunCountCondition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reel generation: a single {@link ReelBufferedGenerator#generateReel()}, and a fixed number
+ * of optimizer runs with the parallel {@link ReelOptimizer#run} against the sequential
+ * {@link ReelOptimizer#runSingle}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+    private static final double TARGET_RTP = 0.98;
+    private static final int HISTORY_SIZE = 100;
+    private static final int OPTIMIZER_RUNS = 10_000;
+    private PayTable payTable;
+    private ReelOptimizer optimizer;
+
+    @Setup
+    public void setUp() {
+        payTable = PayTable.parse(SlotConstants.DEMO_PAYTABLE);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpOptimizer() {
+        optimizer = new ReelOptimizer(HISTORY_SIZE, TARGET_RTP, payTable);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownOptimizer() throws Exception {
+        optimizer.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public GeneratedResult generateReel() {
+        return new ReelBufferedGenerator(TARGET_RTP, payTable).generateReel();
+    }
+
+    @Benchmark
+    public double optimizerRun() {
+        optimizer.run(new RunCountCondition(OPTIMIZER_RUNS));
+        return optimizer.getBestRtp();
+    }
+
+    @Benchmark
+    public double optimizerRunSingle() {
+        optimizer.runSingle(new RunCountCondition(OPTIMIZER_RUNS));
+        return optimizer.getBestRtp();
+    }
+}
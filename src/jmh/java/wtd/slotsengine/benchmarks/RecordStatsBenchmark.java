@@ -0,0 +1,59 @@
+package wtd.slotsengine.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wtd.slotsengine.rest.records.BetResultMessage;
+import wtd.slotsengine.services.RecordStatsService;
+import wtd.slotsengine.slots.interfaces.SlotMachine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures {@link RecordStatsService#recordBet(long, BetResultMessage)} at 1 and 8 concurrent recorders.
+ * Records are written by the writer thread of the service, so the score includes the backpressure
+ * applied when the writer falls behind. The service records into a temporary directory, so the
+ * results of the application are never touched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordStatsBenchmark {
+    private final BetResultMessage bet = new BetResultMessage(1_700_000_000_000L, 10, 50, 1_000, 5);
+    private Path resultsDir;
+    private RecordStatsService service;
+
+    @Setup
+    public void setUp() throws IOException {
+        resultsDir = Files.createTempDirectory("slots-bench");
+        service = new RecordStatsService(resultsDir.toString(), resultsDir.resolve("results.csv").toString(), 1 << 16,
+                100, 1000, 60_000, 1 << 20, 3_600_000, 604_800_000, 3_600_000);
+        service.init();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        service.destroy();
+        try (Stream<Path> files = Files.list(resultsDir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(resultsDir);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void recordBet01() {
+        service.recordBet(SlotMachine.DEFAULT_PLAYER, bet);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordBet08() {
+        service.recordBet(SlotMachine.DEFAULT_PLAYER, bet);
+    }
+}
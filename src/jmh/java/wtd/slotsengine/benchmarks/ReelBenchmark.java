@@ -0,0 +1,33 @@
+package wtd.slotsengine.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wtd.slotsengine.slots.machines.reels.VirtualReel;
+import wtd.slotsengine.utils.SlotConstants;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures symbol lookups on the demo reel, {@link VirtualReel#get(int)}, walking the reel one stop
+ * at a time as the reel cursor does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReelBenchmark {
+    private VirtualReel reel;
+    private int position;
+
+    @Setup
+    public void setUp() {
+        reel = VirtualReel.loadFromString(SlotConstants.DEMO_MACHINE);
+        position = 0;
+    }
+
+    @Benchmark
+    public int get() {
+        return reel.get(position++ & Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,80 @@
+package wtd.slotsengine.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wtd.slotsengine.slots.machines.reels.ReelCursor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of reel position allocation at 1, 8 and 32 concurrent spinners.
+ * <p>
+ * The {@code cursor} benchmarks allocate stops from a {@link ReelCursor}, whose padded 64-bit position
+ * is advanced with one fetch-and-add and reduced modulo the reel size. The {@code locked} benchmarks
+ * allocate them from an {@code int} that wraps at the reel size inside a {@code synchronized} block.
+ * <p>
+ * With one spinner both are expected to run within a few nanoseconds of each other, the monitor being
+ * uncontended. From 8 spinners on the monitor inflates and parks its waiters, while the fetch-and-add
+ * completes in one step on every thread, so the cursor is expected to lead by a growing margin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReelCursorBenchmark {
+    private static final int REEL_SIZE = 3550;
+    private final Object lock = new Object();
+    private ReelCursor cursor;
+    private int lockedCounter;
+
+    @Setup
+    public void setUp() {
+        cursor = new ReelCursor(REEL_SIZE);
+        lockedCounter = 0;
+    }
+
+    private int lockedNext() {
+        synchronized (lock) {
+            final int position = lockedCounter;
+            lockedCounter = position + 1 == REEL_SIZE ? 0 : position + 1;
+            return position;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int cursor01() {
+        return cursor.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int cursor08() {
+        return cursor.next();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public int cursor32() {
+        return cursor.next();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int locked01() {
+        return lockedNext();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int locked08() {
+        return lockedNext();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public int locked32() {
+        return lockedNext();
+    }
+}
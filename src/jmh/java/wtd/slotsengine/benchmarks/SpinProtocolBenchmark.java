@@ -0,0 +1,102 @@
+package wtd.slotsengine.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import wtd.slotsengine.rest.records.BetResultMessage;
+import wtd.slotsengine.rest.websocket.SpinCommandProcessor;
+import wtd.slotsengine.rest.websocket.SpinProtocol;
+import wtd.slotsengine.services.recorder.RecordHandler;
+import wtd.slotsengine.slots.machines.BasicSlotMachine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import static wtd.slotsengine.utils.SlotUtils.now;
+
+/**
+ * Compares the server-side cost of a spin served by the binary WebSocket protocol with the work the
+ * REST endpoint does for the same spin, excluding the transport.
+ * <p>
+ * {@link #restSpin()} spins into a {@link BetResultMessage}, records it and serializes it with Jackson,
+ * as {@code POST /api/spin/{amount}} does. {@link #binarySpin()} and {@link #pipelinedSpins()} execute
+ * frames of one and of {@value #PIPELINE} spin commands through a {@link SpinCommandProcessor} into a
+ * response buffer; the pipelined result is reported per spin. Recording only counts the spins, so the
+ * results writer is left out of every variant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpinProtocolBenchmark {
+    private static final long PLAYER = 1L;
+    private static final long BET = 10L;
+    private static final int PIPELINE = 64;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private BasicSlotMachine machine;
+    private SpinCommandProcessor processor;
+    private RecordHandler recorder;
+    private ByteBuffer single;
+    private ByteBuffer pipelined;
+    private ByteBuffer responses;
+    private long recorded;
+
+    @Setup
+    public void setUp() {
+        machine = new BasicSlotMachine();
+        machine.deposit(PLAYER, Long.MAX_VALUE / 2);
+        recorder = (timestampMs, playerId, betAmount, winAmount, balance, result) -> recorded++;
+        processor = new SpinCommandProcessor(machine, recorder, () -> {
+        });
+        single = frame(1);
+        pipelined = frame(PIPELINE);
+        responses = ByteBuffer.allocate(PIPELINE * SpinProtocol.RESPONSE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Creates a frame of spin commands.
+     *
+     * @param count the number of commands.
+     * @return the frame, ready to be read.
+     */
+    private static ByteBuffer frame(int count) {
+        final ByteBuffer frame = ByteBuffer.allocate(count * SpinProtocol.COMMAND_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; i++) SpinProtocol.putCommand(frame, i, SpinProtocol.OP_SPIN, PLAYER, BET);
+        return frame.flip();
+    }
+
+    @Benchmark
+    public byte[] restSpin() throws Exception {
+        final BetResultMessage message = machine.spin(PLAYER, BET,
+                (bet, win, symbol, balance) -> new BetResultMessage(now(), bet, win, balance, symbol));
+        recorder.accept(message.timestampMs(), PLAYER, message.betAmount(), message.winAmount(), message.balance(),
+                message.result());
+        return mapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public ByteBuffer binarySpin() {
+        return execute(single);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE)
+    public ByteBuffer pipelinedSpins() {
+        return execute(pipelined);
+    }
+
+    /**
+     * Executes a frame of commands into the response buffer.
+     *
+     * @param frame the frame of commands.
+     * @return the responses, ready to be sent.
+     */
+    private ByteBuffer execute(ByteBuffer frame) {
+        frame.rewind();
+        responses.clear();
+        processor.execute(frame, responses);
+        return responses.flip();
+    }
+}
@@ -0,0 +1,102 @@
+package wtd.slotsengine.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
+import wtd.slotsengine.slots.machines.WeightedSlotMachine;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.reels.WeightedReel;
+import wtd.slotsengine.slots.rng.RngProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares the platform thread and virtual thread modes of the web tier under load: every operation
+ * serves a burst of {@value #REQUESTS} spin requests and waits for all of them.
+ * <p>
+ * In {@code platform} mode the requests run on a fixed pool of {@value #POOL_SIZE} threads, the default
+ * maximum of the Tomcat pool; in {@code virtual} mode every request runs on its own virtual thread, as
+ * with {@code spring.threads.virtual.enabled}. Each request blocks for {@code blockMicros}, standing for
+ * the network and client I/O of a real request, then spins a weighted machine drawing from a stream
+ * borrowed from its {@link RngProvider}. Virtual threads require Java 21, run with
+ * {@code mvn -Pbenchmark,java21 test-compile exec:exec -Djmh.args="ThreadMode"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadModeBenchmark {
+    private static final int REQUESTS = 10_000;
+    private static final int POOL_SIZE = 200;
+    private static final int PLAYERS = 1_000;
+    private static final long BET = 10L;
+    private static final String REEL = "0:3000,1:90,2:80,3:70,4:60,5:50,6:40,7:30,8:20,9:10,10:5";
+    private static final String PAY_TABLE = "0:0,1:1,2:2,3:3,4:4,5:5,6:6,7:7,8:8,9:9,10:100";
+
+    @Param({"platform", "virtual"})
+    public String mode;
+    @Param({"L64X128MixRandom", "DRBG"})
+    public String rng;
+    @Param({"0", "1000"})
+    public int blockMicros;
+
+    private WeightedSlotMachine machine;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        machine = new WeightedSlotMachine(WeightedReel.parse(REEL), PayTable.parse(PAY_TABLE), RngProvider.of(rng));
+        for (long player = 0; player < PLAYERS; player++) machine.deposit(player, Long.MAX_VALUE / PLAYERS);
+        executor = "virtual".equals(mode) ? newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(POOL_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates the executor starting a virtual thread per task, looked up reflectively so that the
+     * benchmarks still compile for Java 17.
+     *
+     * @return the new executor.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require Java 21, run with -Pjava21.", e);
+        }
+    }
+
+    @Benchmark
+    public long requests() throws Exception {
+        final List<Future<Long>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            final long player = i % PLAYERS;
+            responses.add(executor.submit(() -> request(player)));
+        }
+        long won = 0;
+        for (Future<Long> response : responses) won += response.get();
+        return won;
+    }
+
+    /**
+     * Serves one spin request.
+     *
+     * @param player the player spinning.
+     * @return the amount won.
+     * @throws InsufficientFundsException never, the players are funded for every run.
+     */
+    private long request(long player) throws InsufficientFundsException {
+        if (blockMicros > 0) LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(blockMicros));
+        return machine.spin(player, BET).winAmount();
+    }
+}
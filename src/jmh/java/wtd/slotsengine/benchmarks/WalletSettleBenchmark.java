@@ -0,0 +1,89 @@
+package wtd.slotsengine.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
+import wtd.slotsengine.slots.wallet.WalletStore;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Measures the throughput of spin settlement when 1 and 32 concurrent spinners share one wallet.
+ * <p>
+ * The {@code settle} benchmarks run the wallet updates of a spin as the slot machines do: the bet is
+ * reserved by {@link WalletStore#debit(long, long, String)} and the win paid by
+ * {@link WalletStore#credit(long, long)}, two compare-and-sets on the balance. The {@code locked}
+ * benchmarks apply the same two updates to a balance guarded by a {@link ReentrantLock}, checking the
+ * bet against the balance under the lock. The win equals the bet so the balance never runs out.
+ * <p>
+ * With one spinner the lock is uncontended and both are expected to stay within a small factor of each
+ * other. With 32 spinners the lock queues and parks its waiters between every update, while a failed
+ * compare-and-set only retries, so the wallet store is expected to sustain several times the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalletSettleBenchmark {
+    private static final long PLAYER = 1L;
+    private static final long BET = 10L;
+    private static final long INITIAL_BALANCE = Long.MAX_VALUE / 2;
+    private final ReentrantLock lock = new ReentrantLock();
+    private WalletStore store;
+    private long lockedBalance;
+
+    @Setup
+    public void setUp() {
+        store = new WalletStore();
+        store.credit(PLAYER, INITIAL_BALANCE);
+        lockedBalance = INITIAL_BALANCE;
+    }
+
+    private long settle() throws InsufficientFundsException {
+        store.debit(PLAYER, BET, "spin");
+        return store.credit(PLAYER, BET);
+    }
+
+    private long lockedSettle() throws InsufficientFundsException {
+        lock.lock();
+        try {
+            if (lockedBalance < BET) throw new InsufficientFundsException("Insufficient credits to spin.");
+            lockedBalance -= BET;
+        } finally {
+            lock.unlock();
+        }
+        lock.lock();
+        try {
+            lockedBalance += BET;
+            return lockedBalance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long settle01() throws InsufficientFundsException {
+        return settle();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public long settle32() throws InsufficientFundsException {
+        return settle();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long locked01() throws InsufficientFundsException {
+        return lockedSettle();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public long locked32() throws InsufficientFundsException {
+        return lockedSettle();
+    }
+}
@@ -0,0 +1,125 @@
+package wtd.slotsengine.components;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import wtd.slotsengine.services.RecordStatsService;
+import wtd.slotsengine.services.SlotManagerService;
+import wtd.slotsengine.services.StatsFeedService;
+import wtd.slotsengine.slots.interfaces.SlotMachine;
+import wtd.slotsengine.slots.interfaces.SpinObserver;
+import wtd.slotsengine.slots.machines.abstracts.AbstractSlotMachine;
+import wtd.slotsengine.slots.wallet.WalletStore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the metrics of the slot engine to the Micrometer registry, where they are served by
+ * {@code /actuator/metrics}.
+ * <p>
+ * Metrics of this component:
+ * - {@code slots.spin.latency}: timers of the engine, settle and record phases of a spin, tagged by
+ * {@code phase}. A batch is timed once per phase.
+ * - {@code slots.spins} and {@code slots.wins}: counters of the settled spins and of those that won.
+ * - {@code slots.spins.rejected}: counter of the spins and batches rejected for insufficient funds.
+ * - {@code slots.recorder.queue.depth}: gauge of the recorded bets waiting to be written.
+ * - {@code slots.recorder.dropped}: counter of the recorded bets that could not be written.
+ * - {@code slots.wallet.accounts} and {@code slots.wallet.balance}: gauges of the number of wallets
+ * and of their total balance.
+ * - {@code slots.feed.subscribers}: gauge of the clients subscribed to the statistics feed.
+ * <p>
+ * The engine and settle phases and the spin counters are fed by the machine as its
+ * {@link SpinObserver}, with primitive values only. The hot path therefore only increments the
+ * counters and timers of the registry; the gauges and function counters are read from the services
+ * when the metrics are collected. The wallet total is summed over every wallet at each collection.
+ */
+@Component
+public class SlotMetrics implements SpinObserver {
+    private final Timer engineTimer;
+    private final Timer settleTimer;
+    private final Timer recordTimer;
+    private final Counter spins;
+    private final Counter wins;
+    private final Counter rejections;
+
+    /**
+     * Constructs a new SlotMetrics, registers its meters and starts observing the managed machine.
+     *
+     * @param registry    the registry the meters are published to
+     * @param slotManager the service managing the slot machine
+     * @param stats       the service recording the bets
+     * @param feed        the service pushing the statistics to subscribers
+     */
+    public SlotMetrics(MeterRegistry registry, SlotManagerService slotManager, RecordStatsService stats,
+                       StatsFeedService feed) {
+        this.engineTimer = phaseTimer(registry, "engine");
+        this.settleTimer = phaseTimer(registry, "settle");
+        this.recordTimer = phaseTimer(registry, "record");
+        this.spins = Counter.builder("slots.spins").description("Settled spins").register(registry);
+        this.wins = Counter.builder("slots.wins").description("Settled spins that won").register(registry);
+        this.rejections = Counter.builder("slots.spins.rejected").description("Spins rejected for insufficient funds")
+                .tag("reason", "insufficient-funds").register(registry);
+        Gauge.builder("slots.recorder.queue.depth", stats, RecordStatsService::getQueueDepth)
+                .description("Recorded bets waiting to be written").register(registry);
+        FunctionCounter.builder("slots.recorder.dropped", stats, RecordStatsService::getDroppedRecords)
+                .description("Recorded bets that could not be written").register(registry);
+        Gauge.builder("slots.feed.subscribers", feed, StatsFeedService::getSubscriberCount)
+                .description("Clients subscribed to the statistics feed").register(registry);
+        final SlotMachine machine = slotManager.getSlotMachine();
+        if (machine instanceof AbstractSlotMachine abstractMachine) {
+            final WalletStore wallets = abstractMachine.getWallets();
+            Gauge.builder("slots.wallet.accounts", wallets, WalletStore::size)
+                    .description("Player wallets").register(registry);
+            Gauge.builder("slots.wallet.balance", wallets, WalletStore::totalBalance)
+                    .description("Total balance of the player wallets").register(registry);
+        }
+        machine.setSpinObserver(this);
+    }
+
+    /**
+     * Creates the timer of a phase of the spins.
+     *
+     * @param registry the registry the timer is published to
+     * @param phase    the name of the phase
+     * @return the registered timer
+     */
+    private static Timer phaseTimer(MeterRegistry registry, String phase) {
+        return Timer.builder("slots.spin.latency").description("Latency of a phase of a spin or batch of spins")
+                .tag("phase", phase).register(registry);
+    }
+
+    /**
+     * Counts a settled spin or batch of spins and times its engine and settle phases.
+     *
+     * @param spins       the number of spins settled together
+     * @param hits        the number of those spins that won something
+     * @param engineNanos the time in nanoseconds spent drawing and evaluating the outcomes
+     * @param settleNanos the time in nanoseconds spent settling the outcomes in the wallet
+     */
+    @Override
+    public void onSpins(int spins, int hits, long engineNanos, long settleNanos) {
+        engineTimer.record(engineNanos, TimeUnit.NANOSECONDS);
+        settleTimer.record(settleNanos, TimeUnit.NANOSECONDS);
+        this.spins.increment(spins);
+        if (hits > 0) wins.increment(hits);
+    }
+
+    /**
+     * Times the record phase of a spin or batch of spins, the time taken to enqueue its records.
+     *
+     * @param recordNanos the time in nanoseconds spent recording the spins
+     */
+    public void recorded(long recordNanos) {
+        recordTimer.record(recordNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a spin or batch of spins rejected for insufficient funds.
+     */
+    public void rejected() {
+        rejections.increment();
+    }
+}
@@ -0,0 +1,43 @@
+package wtd.slotsengine.components;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+import wtd.slotsengine.services.RecordStatsService;
+
+/**
+ * Reports whether the recorded statistics of earlier runs are loaded, as the {@code statsLoad} health
+ * indicator.
+ * <p>
+ * The statistics are restored in the background after startup, see {@link RecordStatsService}. The
+ * indicator is out of service while they load, up once they are complete and down if loading failed.
+ * It is part of the readiness group, so the instance only receives traffic once its statistics are
+ * complete, while liveness is unaffected by a long replay.
+ */
+@Component
+public class StatsLoadHealthIndicator implements HealthIndicator {
+    private final RecordStatsService stats;
+
+    /**
+     * Constructs a new StatsLoadHealthIndicator.
+     *
+     * @param stats the service restoring the recorded statistics
+     */
+    public StatsLoadHealthIndicator(RecordStatsService stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Reports the loading state of the recorded statistics.
+     *
+     * @return UP once the statistics are loaded, DOWN with the error if loading failed, OUT_OF_SERVICE
+     * while they are loading
+     */
+    @Override
+    public Health health() {
+        final Throwable failure = stats.getLoadFailure();
+        if (failure != null) return Health.down(failure).build();
+        if (stats.isLoaded()) return Health.up().build();
+        return Health.outOfService().withDetail("reason", "Loading recorded statistics").build();
+    }
+}
@@ -0,0 +1,42 @@
+package wtd.slotsengine.configurations;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import wtd.slotsengine.rest.websocket.SpinSocketHandler;
+
+/**
+ * Configuration class registering the WebSocket endpoints of the application.
+ * <p>
+ * - {@code /api/ws/spin}: the binary spin protocol served by {@link SpinSocketHandler}, see
+ * {@link wtd.slotsengine.rest.websocket.SpinProtocol}.
+ * <p>
+ * Annotations:
+ * - @Configuration indicates that this class provides configuration metadata to the application context.
+ * - @EnableWebSocket enables the processing of WebSocket requests.
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfiguration implements WebSocketConfigurer {
+    private final SpinSocketHandler spinHandler;
+
+    /**
+     * Constructs a new WebSocketConfiguration.
+     *
+     * @param spinHandler the handler of the binary spin protocol
+     */
+    public WebSocketConfiguration(SpinSocketHandler spinHandler) {
+        this.spinHandler = spinHandler;
+    }
+
+    /**
+     * Registers the handler of the binary spin protocol.
+     *
+     * @param registry the registry of the WebSocket handlers
+     */
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(spinHandler, "/api/ws/spin");
+    }
+}
@@ -4,19 +4,33 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import wtd.slotsengine.components.SlotMetrics;
 import wtd.slotsengine.rest.records.*;
 import wtd.slotsengine.services.RecordStatsService;
 import wtd.slotsengine.services.SlotManagerService;
+import wtd.slotsengine.services.StatsFeedService;
 import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
 import wtd.slotsengine.slots.interfaces.SlotMachine;
-import wtd.slotsengine.slots.machines.records.SpinOutcome;
+import wtd.slotsengine.slots.machines.records.RegisteredReel;
+import wtd.slotsengine.slots.machines.records.SpinBatchOutcome;
+import wtd.slotsengine.utils.stats.WindowSnapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 
 import static wtd.slotsengine.utils.SlotUtils.now;
+import static wtd.slotsengine.utils.SlotUtils.parseDuration;
 
 /**
  * This class serves as a REST API controller to manage slot machine operations and related functionalities.
@@ -24,6 +38,8 @@ import static wtd.slotsengine.utils.SlotUtils.now;
  * and managing account balance (deposit and withdrawal).
  * <p>
  * The controller relies on SlotMachine for slot machine operations and RecordStatsService for managing statistics.
+ * SlotMetrics times the recording of the spins and counts the spins rejected for insufficient funds.
+ * StatsFeedService pushes the statistics and balances to the clients subscribed to the feed.
  * Configuration properties, such as application version, are injected via @Value annotations.
  */
 @RestController
@@ -35,6 +51,15 @@ public class RestApiController {
      * of logging capabilities.
      */
     private static final Logger log = LoggerFactory.getLogger(RestApiController.class);
+    /**
+     * The maximum number of spins that can be requested in a single batch call.
+     * Bounds the size of the response and the time a single request can hold the machine.
+     */
+    private static final int MAX_BATCH_COUNT = 10_000;
+    /**
+     * The request header holding the token of the admin endpoints.
+     */
+    private static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
     /**
      * Represents a slot machine instance used in the application.
      * This variable is a final reference to a specific SlotMachine object,
@@ -50,6 +75,18 @@ public class RestApiController {
      * statistical data related to records.
      */
     private final RecordStatsService stats;
+    /**
+     * The service managing the slot machine, used to inspect and hot-swap its reel.
+     */
+    private final SlotManagerService slotManager;
+    /**
+     * The metrics of the slot engine, timing the record phase of the spins and counting rejections.
+     */
+    private final SlotMetrics metrics;
+    /**
+     * The service pushing the statistics and balances to the subscribers of the feed.
+     */
+    private final StatsFeedService feed;
 
     /**
      * Represents the current version of the application.
@@ -59,16 +96,30 @@ public class RestApiController {
     @Value("${slots-engine.version}")
     private String appVersion;
 
+    /**
+     * The token the clients of the admin endpoints must send in the {@value #ADMIN_TOKEN_HEADER} header.
+     * Retrieved from the configuration property `slots-engine.admin-token`; the admin endpoints are
+     * disabled while it is empty.
+     */
+    @Value("${slots-engine.admin-token:}")
+    private String adminToken;
+
     /**
      * Constructs a new RestApiController instance.
      *
      * @param slotManagerService the service responsible for managing slot machine operations
      * @param stats              the service responsible for recording and managing statistics
+     * @param metrics            the metrics of the slot engine
+     * @param feed               the service pushing the statistics and balances to subscribers
      */
-    public RestApiController(SlotManagerService slotManagerService, RecordStatsService stats) {
+    public RestApiController(SlotManagerService slotManagerService, RecordStatsService stats, SlotMetrics metrics,
+                             StatsFeedService feed) {
         log.info("API controller is initializing");
         this.machine = slotManagerService.getSlotMachine();
+        this.slotManager = slotManagerService;
         this.stats = stats;
+        this.metrics = metrics;
+        this.feed = feed;
     }
 
     /**
@@ -84,82 +135,242 @@ public class RestApiController {
     /**
      * Handles the HTTP GET request for loading the application state.
      *
+     * @param player the id of the player whose balance is reported, 0 by default
      * @return a StateMessage object containing the current application state, including
      * app version, current time, machine RTP, state details, and balance information.
      */
     @GetMapping("/api/load")
-    public StateMessage load() {
-        return new StateMessage(appVersion, now(), machine.getMachineRtp(), 1, 0, machine.getBalance(), 0);
+    public StateMessage load(@RequestParam(value = "player", defaultValue = "0") long player) {
+        return new StateMessage(appVersion, now(), machine.getMachineRtp(), 1, 0, machine.getBalance(player), 0);
     }
 
     /**
      * Retrieves the current machine statistics, including RTP (Return to Player),
-     * bet statistics, and win statistics.
+     * bet statistics, win statistics, the exact outcome statistics of the machine and the observed
+     * distribution of the wins and symbols, optionally with the statistics of a rolling time window
+     * ending now.
      *
+     * @param window the length of the rolling window, such as {@code 1m}, {@code 5m}, {@code 60m} or
+     *               {@code 24h}, at most one day; no window by default
      * @return a SpinStatsMessage object containing the current machine statistics.
+     * @throws ResponseStatusException if the window is invalid or longer than a day
      */
-    public @GetMapping("/api/machine-stats") SpinStatsMessage getMachineStats() {
-        return new SpinStatsMessage(now(), machine.getMachineRtp(), stats.getBetStats(), stats.getWinStats());
+    public @GetMapping("/api/machine-stats") SpinStatsMessage getMachineStats(
+            @RequestParam(value = "window", required = false) String window) {
+        WindowSnapshot windowStats = null;
+        if (window != null) {
+            try {
+                windowStats = stats.getWindowStats(parseDuration(window));
+            } catch (IllegalArgumentException ex) {
+                throw new ResponseStatusException(HttpStatusCode.valueOf(400),
+                        "Invalid window %s, expected a duration such as 5m of at most 24h.".formatted(window));
+            }
+        }
+        return new SpinStatsMessage(now(), machine.getMachineRtp(), stats.getBetStats(), stats.getWinStats(),
+                machine.getMachineStats(), stats.getWinDistribution(), windowStats);
     }
 
     /**
-     * Spins the machine with the specified bet amount and returns the result of the spin.
+     * Subscribes to the server-sent event stream of the statistics and of the balance of a player.
+     * A {@code stats} event holding a StatsFeedMessage is sent at most once per tick, coalescing every
+     * bet recorded since the previous tick, and a {@code balance} event holding a BalanceMessage
+     * whenever the balance of the player changed.
+     *
+     * @param player the id of the player whose balance is pushed, 0 by default
+     * @return the emitter of the event stream
+     * @throws ResponseStatusException when the feed has reached its maximum number of subscribers
+     */
+    @GetMapping(value = "/api/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter feed(@RequestParam(value = "player", defaultValue = "0") long player) {
+        try {
+            return feed.subscribe(player);
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatusCode.valueOf(503), ex.getMessage());
+        }
+    }
+
+    /**
+     * Spins the machine for a player with the specified bet amount and returns the result of the spin.
      *
      * @param amount the amount to bet for the spin
+     * @param player the id of the player placing the bet, 0 by default
      * @return a BetResultMessage containing details of the spin outcome, including bet amount,
      * win amount, updated balance, and spin result symbols
-     * @throws ResponseStatusException when there are insufficient funds to complete the spin
+     * @throws ResponseStatusException when there are insufficient funds to complete the spin, or the
+     *                                 machine does not accept the bet amount
      */
     @PostMapping("/api/spin/{amount}")
-    public BetResultMessage spin(@PathVariable("amount") Long amount) {
+    public BetResultMessage spin(@PathVariable("amount") long amount, @RequestParam(value = "player", defaultValue = "0") long player) {
         try {
-            SpinOutcome spinResult = machine.spin(amount);
-
-            BetResultMessage betResultMessage =
-                    new BetResultMessage(
-                            now(), spinResult.betAmount(), spinResult.winAmount(), spinResult.balance(),
-                            spinResult.symbol());
-            stats.recordBet(betResultMessage);
+            BetResultMessage betResultMessage = machine.spin(player, amount, RestApiController::toBetResult);
+            final long start = System.nanoTime();
+            stats.recordBet(player, betResultMessage);
+            metrics.recorded(System.nanoTime() - start);
             return betResultMessage;
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatusCode.valueOf(400), ex.getMessage());
+        } catch (InsufficientFundsException ex) {
+            metrics.rejected();
+            throw new ResponseStatusException(
+                    HttpStatusCode.valueOf(400),
+                    "Insufficient funds to spin. Required: %d Have: %d".formatted(amount, machine.getBalance(player)));
+        }
+    }
+
+    /**
+     * Creates the response of a spin directly from the settled primitive values of the spin, so the
+     * response is the only object allocated for it.
+     *
+     * @param betAmount the amount bet on the spin
+     * @param winAmount the amount won by the spin
+     * @param symbol    the resulting symbol of the spin
+     * @param balance   the balance of the player after the spin
+     * @return a BetResultMessage stamped with the current time
+     */
+    private static BetResultMessage toBetResult(long betAmount, long winAmount, int symbol, long balance) {
+        return new BetResultMessage(now(), betAmount, winAmount, balance, symbol);
+    }
+
+    /**
+     * Spins the machine the specified number of times with the specified bet amount and returns the
+     * results of all the spins. The total bet is debited and the total win is credited once.
+     *
+     * @param amount the amount to bet on each spin
+     * @param count  the number of spins to execute, between 1 and {@value #MAX_BATCH_COUNT}
+     * @param player the id of the player placing the bets, 0 by default
+     * @return a BatchResultMessage containing the symbol and win amount of every spin, the aggregated
+     * bet and win amounts, and the updated balance
+     * @throws ResponseStatusException when the count is out of range, the machine does not accept the
+     *                                 bet amount or there are insufficient funds to cover the total bet
+     */
+    @PostMapping("/api/spin/batch")
+    public BatchResultMessage spinBatch(@RequestParam("amount") long amount, @RequestParam("count") int count,
+                                         @RequestParam(value = "player", defaultValue = "0") long player) {
+        if (count < 1 || count > MAX_BATCH_COUNT) {
+            throw new ResponseStatusException(
+                    HttpStatusCode.valueOf(400), "Spin count must be between 1 and %d.".formatted(MAX_BATCH_COUNT));
+        }
+        try {
+            SpinBatchOutcome batch = machine.spinBatch(player, amount, count);
+            BatchResultMessage batchResultMessage = new BatchResultMessage(
+                    now(), batch.betAmount(), batch.count(), batch.totalBet(), batch.totalWin(), batch.balance(),
+                    batch.symbols(), batch.wins());
+            final long start = System.nanoTime();
+            stats.recordBatch(player, batchResultMessage);
+            metrics.recorded(System.nanoTime() - start);
+            return batchResultMessage;
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatusCode.valueOf(400), ex.getMessage());
         } catch (InsufficientFundsException ex) {
+            metrics.rejected();
             throw new ResponseStatusException(
                     HttpStatusCode.valueOf(400),
-                    "Insufficient funds to spin. Required: %d Have: %d".formatted(amount, machine.getBalance()));
+                    "Insufficient funds to spin. Required: %d Have: %d".formatted(
+                            amount * count, machine.getBalance(player)));
         }
     }
 
     /**
-     * Handles the deposit operation for the given amount.
+     * Retrieves the virtual reel currently spun by the machine.
+     *
+     * @param token the admin token, sent in the {@value #ADMIN_TOKEN_HEADER} header
+     * @return a ReelMessage holding the content hash, size and RTP of the active reel
+     * @throws ResponseStatusException if the token is invalid or the machine does not spin virtual reels
+     */
+    @GetMapping("/api/admin/reel")
+    public ReelMessage getReel(@RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token) {
+        authorizeAdmin(token);
+        try {
+            return toReelMessage(slotManager.getActiveReel());
+        } catch (SlotUserException ex) {
+            throw new ResponseStatusException(HttpStatusCode.valueOf(400), ex.getMessage());
+        }
+    }
+
+    /**
+     * Atomically replaces the virtual reel of the machine without interrupting spins in flight.
+     * Reels that were activated before are served from the reel registry without being decoded again.
+     *
+     * @param token       the admin token, sent in the {@value #ADMIN_TOKEN_HEADER} header
+     * @param encodedReel the Base64-encoded, GZIP-compressed reel, sent as the request body
+     * @return a ReelMessage holding the content hash, size and RTP of the newly active reel
+     * @throws ResponseStatusException if the token is invalid, the reel is invalid or too large, or the
+     *                                 machine does not spin virtual reels
+     */
+    @PostMapping("/api/admin/reel")
+    public ReelMessage swapReel(@RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token,
+                                @RequestBody String encodedReel) {
+        authorizeAdmin(token);
+        try {
+            RegisteredReel reel = slotManager.swapReel(encodedReel.trim());
+            log.info("Reel swapped to {} (RTP {})", reel.hash(), reel.stats().rtp());
+            return toReelMessage(reel);
+        } catch (SlotUserException ex) {
+            throw new ResponseStatusException(HttpStatusCode.valueOf(400), ex.getMessage());
+        }
+    }
+
+    /**
+     * Rejects the requests of the admin endpoints that do not carry the configured admin token. The
+     * tokens are compared in constant time, so their content cannot be guessed from response times.
+     *
+     * @param token the token sent by the client, or null if none was sent
+     * @throws ResponseStatusException 404 if no admin token is configured, 403 if the token does not match
+     */
+    private void authorizeAdmin(String token) {
+        if (adminToken.isEmpty()) {
+            throw new ResponseStatusException(HttpStatusCode.valueOf(404), "Admin endpoints are disabled.");
+        }
+        if (token == null || !MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatusCode.valueOf(403), "Invalid admin token.");
+        }
+    }
+
+    /**
+     * Converts a registered reel to its REST representation.
+     *
+     * @param reel the registered reel
+     * @return a ReelMessage holding the content hash, size and RTP of the reel
+     */
+    private static ReelMessage toReelMessage(RegisteredReel reel) {
+        return new ReelMessage(reel.hash(), reel.reel().size(), reel.stats().rtp());
+    }
+
+    /**
+     * Handles the deposit operation for the given amount into the wallet of a player.
      *
      * @param amount the amount to be deposited; must be a positive number
+     * @param player the id of the player, 0 by default
      * @return a BalanceMessage object containing the updated balance information
      * @throws ResponseStatusException if the amount is negative
      */
     @PostMapping(value = "/api/deposit/{amount}")
-    public BalanceMessage deposit(@PathVariable("amount") Long amount) {
+    public BalanceMessage deposit(@PathVariable("amount") long amount, @RequestParam(value = "player", defaultValue = "0") long player) {
         if (amount < 0) {
             throw new ResponseStatusException(HttpStatusCode.valueOf(400), "Only positive numbers are allowed.");
         }
-        log.info("Deposit request received: {}", amount);
-        return new BalanceMessage(machine.deposit(amount));
+        log.info("Deposit request received: {} for player {}", amount, player);
+        return new BalanceMessage(machine.deposit(player, amount));
     }
 
     /**
-     * Processes a withdrawal request with the specified amount.
+     * Processes a withdrawal request with the specified amount from the wallet of a player.
      *
      * @param amount the amount to be withdrawn.
+     * @param player the id of the player, 0 by default.
      * @return a {@code BalanceMessage} containing the updated balance after the withdrawal.
      * @throws ResponseStatusException if there are insufficient funds to fulfill the withdrawal.
      */
     @PostMapping("/api/withdraw/{amount}")
-    public BalanceMessage withdraw(@PathVariable("amount") Long amount) {
-        log.info("Withdraw request received: {}", amount);
+    public BalanceMessage withdraw(@PathVariable("amount") long amount, @RequestParam(value = "player", defaultValue = "0") long player) {
+        log.info("Withdraw request received: {} for player {}", amount, player);
         try {
-            return new BalanceMessage(machine.withdraw(amount));
+            return new BalanceMessage(machine.withdraw(player, amount));
         } catch (InsufficientFundsException e) {
             throw new ResponseStatusException(
                     HttpStatusCode.valueOf(400),
-                    "Insufficient funds to spin. Required: %d Have: %d".formatted(amount, machine.getBalance()));
+                    "Insufficient funds to spin. Required: %d Have: %d".formatted(amount, machine.getBalance(player)));
         }
     }
 }
\ No newline at end of file
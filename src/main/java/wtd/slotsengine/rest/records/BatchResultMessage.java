@@ -0,0 +1,20 @@
+package wtd.slotsengine.rest.records;
+
+/**
+ * Represents a message that contains the results of a batch of bets in the slot engine system.
+ * This record encapsulates the timestamp of the batch, the amount bet on each spin, the number of
+ * spins, the aggregated bet and win amounts, the resulting balance, and the per-spin outcomes.
+ * <p>
+ * Fields:
+ * - timestampMs: The timestamp in milliseconds of when the batch was processed.
+ * - betAmount: The amount wagered on each spin of the batch.
+ * - count: The number of spins in the batch.
+ * - totalBet: The total amount wagered by the batch.
+ * - totalWin: The total amount won by the batch.
+ * - balance: The updated balance after the batch is processed.
+ * - results: The outcome result code of each spin, in spin order.
+ * - wins: The amount won by each spin, in spin order.
+ */
+public record BatchResultMessage(long timestampMs, long betAmount, int count, long totalBet, long totalWin,
+                                 long balance, int[] results, long[] wins) {
+}
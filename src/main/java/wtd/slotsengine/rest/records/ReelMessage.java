@@ -0,0 +1,12 @@
+package wtd.slotsengine.rest.records;
+
+/**
+ * Represents the virtual reel currently spun by the slot machine.
+ * <p>
+ * Fields:
+ * - hash: The hex encoded SHA-256 digest of the encoded reel, identifying its content.
+ * - size: The number of stops of the reel.
+ * - rtp: The exact theoretical Return to Player of the reel.
+ */
+public record ReelMessage(String hash, int size, double rtp) {
+}
@@ -1,6 +1,9 @@
 package wtd.slotsengine.rest.records;
 
-import java.util.LongSummaryStatistics;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.utils.stats.StatsSnapshot;
+import wtd.slotsengine.utils.stats.WinDistribution;
+import wtd.slotsengine.utils.stats.WindowSnapshot;
 
 /**
  * Represents statistical information related to spins in a slot engine.
@@ -12,9 +15,16 @@ import java.util.LongSummaryStatistics;
  * - rtp: Real-Time Performance (RTP), usually expressed as a ratio or percentage,
  * which reflects the payout performance.
  * - betStats: Summary statistics for bets placed during the recorded period
- * (e.g., count, sum, average, min, max).
- * - winStats: Summary statistics for wins accrued during the recorded period
+ * (e.g., count, sum, average, min, max), as a consistent snapshot.
+ * - winStats: Summary statistics for wins accrued during the recorded period, as a consistent snapshot.
+ * - machineStats: The exact outcome statistics of the machine (RTP, variance, hit frequency,
+ * volatility index and maximum win probability), derived from its configuration.
+ * - winDistribution: The p50, p99 and p99.9 win multipliers of the winning spins and the observed
+ * frequency of every symbol.
+ * - window: The bets, wins, observed RTP and hit rate of the requested rolling time window, or
+ * {@code null} if no window was requested.
  **/
-public record SpinStatsMessage(long timestampMs, double rtp, LongSummaryStatistics betStats,
-                               LongSummaryStatistics winStats) {
+public record SpinStatsMessage(long timestampMs, double rtp, StatsSnapshot betStats,
+                               StatsSnapshot winStats, OutcomeStats machineStats, WinDistribution winDistribution,
+                               WindowSnapshot window) {
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package wtd.slotsengine.rest.records;
+
+import wtd.slotsengine.utils.stats.StatsSnapshot;
+
+/**
+ * Represents a tick of the statistics feed pushed to the subscribers of {@code /api/feed}.
+ * This record coalesces every bet recorded since the previous tick into one update.
+ * <p>
+ * Fields:
+ * - timestampMs: The timestamp in milliseconds of the tick.
+ * - rtp: The theoretical Return to Player (RTP) of the machine.
+ * - betStats: Summary statistics for all the recorded bets, as a consistent snapshot.
+ * - winStats: Summary statistics for all the recorded wins, as a consistent snapshot.
+ * - newSpins: The number of spins recorded since the previous tick.
+ **/
+public record StatsFeedMessage(long timestampMs, double rtp, StatsSnapshot betStats, StatsSnapshot winStats,
+                               long newSpins) {
+}
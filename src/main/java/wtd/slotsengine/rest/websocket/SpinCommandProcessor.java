@@ -0,0 +1,117 @@
+package wtd.slotsengine.rest.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import wtd.slotsengine.services.recorder.RecordHandler;
+import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
+import wtd.slotsengine.slots.interfaces.SlotMachine;
+import wtd.slotsengine.slots.interfaces.SpinOutcomeFactory;
+
+import java.nio.ByteBuffer;
+
+import static wtd.slotsengine.rest.websocket.SpinProtocol.*;
+import static wtd.slotsengine.utils.SlotUtils.now;
+
+/**
+ * Executes the commands of one connection of the {@link SpinProtocol} against the shared
+ * {@link SlotMachine}, writing the responses into a buffer.
+ * <p>
+ * The processor is the {@link SpinOutcomeFactory} of its own spins: the settled primitive fields of a
+ * spin are recorded and written straight into the response buffer, so a spin allocates nothing beyond
+ * the buffer shared by the commands of its frame. A processor holds the state of the command being
+ * executed and must therefore only be used by one thread at a time, like the connection it serves.
+ */
+public final class SpinCommandProcessor implements SpinOutcomeFactory<Void> {
+    private static final Logger log = LoggerFactory.getLogger(SpinCommandProcessor.class);
+    private final SlotMachine machine;
+    private final RecordHandler recorder;
+    private final Runnable rejected;
+    private ByteBuffer responses;
+    private int requestId;
+    private long playerId;
+
+    /**
+     * Constructs a new SpinCommandProcessor.
+     *
+     * @param machine  the machine executing the commands.
+     * @param recorder the handler recording every settled spin.
+     * @param rejected the callback notified of every spin rejected for insufficient funds.
+     */
+    public SpinCommandProcessor(SlotMachine machine, RecordHandler recorder, Runnable rejected) {
+        this.machine = machine;
+        this.recorder = recorder;
+        this.rejected = rejected;
+    }
+
+    /**
+     * Executes every whole command remaining in a little-endian buffer, in order, and writes their
+     * responses into another one. Every command gets a response, even when it fails unexpectedly.
+     *
+     * @param commands  the commands, read from the position of the buffer.
+     * @param responses the buffer the responses are written to, with {@value SpinProtocol#RESPONSE_SIZE}
+     *                  bytes remaining per command.
+     */
+    public void execute(ByteBuffer commands, ByteBuffer responses) {
+        this.responses = responses;
+        while (commands.remaining() >= COMMAND_SIZE) {
+            requestId = commands.getInt();
+            final byte operation = commands.get();
+            commands.position(commands.position() + 3);
+            playerId = commands.getLong();
+            final long amount = commands.getLong();
+            try {
+                switch (operation) {
+                    case OP_SPIN -> machine.spin(playerId, amount, this);
+                    case OP_DEPOSIT -> reply(operation, STATUS_OK, machine.deposit(playerId, amount));
+                    case OP_WITHDRAW -> reply(operation, STATUS_OK, machine.withdraw(playerId, amount));
+                    case OP_BALANCE -> reply(operation, STATUS_OK, machine.getBalance(playerId));
+                    default -> reply(operation, STATUS_INVALID, machine.getBalance(playerId));
+                }
+            } catch (InsufficientFundsException ex) {
+                if (operation == OP_SPIN) rejected.run();
+                reply(operation, STATUS_INSUFFICIENT_FUNDS, machine.getBalance(playerId));
+            } catch (IllegalArgumentException | ArithmeticException ex) {
+                reply(operation, STATUS_INVALID, machine.getBalance(playerId));
+            } catch (RuntimeException ex) {
+                log.error("Failed to execute command {} of player {}", requestId, playerId, ex);
+                reply(operation, STATUS_ERROR, machine.getBalance(playerId));
+            }
+        }
+        this.responses = null;
+    }
+
+    /**
+     * Writes the response of a settled spin and records it.
+     * <p>
+     * The wallet is already settled when this is called, so the client always gets the win and balance
+     * of the spin. A spin that cannot be recorded, for instance while the results writer shuts down, is
+     * logged rather than reported as a failed spin.
+     *
+     * @param betAmount the amount of credits wagered for the spin.
+     * @param winAmount the amount of credits won by the spin.
+     * @param symbol    the resulting symbol of the spin.
+     * @param balance   the balance of the player after the spin was settled.
+     * @return nothing, the response is written into the response buffer.
+     */
+    @Override
+    public Void create(long betAmount, long winAmount, int symbol, long balance) {
+        putResponse(responses, requestId, OP_SPIN, STATUS_OK, winAmount, balance, symbol);
+        try {
+            recorder.accept(now(), playerId, betAmount, winAmount, balance, symbol);
+        } catch (RuntimeException ex) {
+            log.error("Failed to record spin {} of player {}", requestId, playerId, ex);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the response of a command other than a settled spin.
+     *
+     * @param operation the operation of the command.
+     * @param status    the status of the command.
+     * @param balance   the balance of the player after the command.
+     */
+    private void reply(byte operation, byte status, long balance) {
+        putResponse(responses, requestId, operation, status, 0, balance, 0);
+    }
+}
@@ -0,0 +1,117 @@
+package wtd.slotsengine.rest.websocket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The binary protocol of the spin WebSocket endpoint {@code /api/ws/spin}, for clients that spin back to
+ * back, such as kiosks and bots.
+ * <p>
+ * A client sends binary frames holding one or more commands, up to {@value #MAX_COMMANDS}, and may send
+ * further frames without waiting for the replies. The server executes the commands of a connection in
+ * order and replies to every frame with one binary frame holding one response per command, in the same
+ * order. All values are little-endian.
+ * <p>
+ * Command, {@value #COMMAND_SIZE} bytes:
+ * - 0, int: the request id, chosen by the client and echoed in the response.
+ * - 4, byte: the operation, {@link #OP_SPIN}, {@link #OP_DEPOSIT}, {@link #OP_WITHDRAW} or {@link #OP_BALANCE}.
+ * - 5, 3 bytes: reserved, zero.
+ * - 8, long: the id of the player.
+ * - 16, long: the bet amount of a spin, or the amount deposited or withdrawn; ignored by balance queries.
+ * <p>
+ * Response, {@value #RESPONSE_SIZE} bytes:
+ * - 0, int: the request id of the command.
+ * - 4, byte: the operation of the command.
+ * - 5, byte: the status, {@link #STATUS_OK}, {@link #STATUS_INSUFFICIENT_FUNDS}, {@link #STATUS_INVALID} or
+ * {@link #STATUS_ERROR}.
+ * - 6, 2 bytes: reserved, zero.
+ * - 8, long: the amount won by a spin, otherwise zero.
+ * - 16, long: the balance of the player after the command, or the unchanged balance if it failed.
+ * - 24, int: the resulting symbol of a spin, otherwise zero.
+ * - 28, 4 bytes: reserved, zero.
+ * <p>
+ * Frames whose length is not a positive multiple of {@value #COMMAND_SIZE} bytes, or that hold more than
+ * {@value #MAX_COMMANDS} commands, close the connection with status 1007 (bad data).
+ */
+public final class SpinProtocol {
+    /**
+     * The size of a command in bytes.
+     */
+    public static final int COMMAND_SIZE = 24;
+    /**
+     * The size of a response in bytes.
+     */
+    public static final int RESPONSE_SIZE = 32;
+    /**
+     * The maximum number of commands in a frame, keeping frames within the default 8 KiB message buffer
+     * of the servlet containers.
+     */
+    public static final int MAX_COMMANDS = 256;
+    /**
+     * Spins the machine for the player with the bet amount.
+     */
+    public static final byte OP_SPIN = 1;
+    /**
+     * Deposits the amount into the wallet of the player.
+     */
+    public static final byte OP_DEPOSIT = 2;
+    /**
+     * Withdraws the amount from the wallet of the player.
+     */
+    public static final byte OP_WITHDRAW = 3;
+    /**
+     * Reads the balance of the player.
+     */
+    public static final byte OP_BALANCE = 4;
+    /**
+     * The command was executed.
+     */
+    public static final byte STATUS_OK = 0;
+    /**
+     * The balance of the player does not cover the bet or the withdrawal, or the bet is not positive.
+     */
+    public static final byte STATUS_INSUFFICIENT_FUNDS = 1;
+    /**
+     * The operation is unknown, the amount of a deposit or withdrawal is not positive, or a deposit would
+     * overflow the balance.
+     */
+    public static final byte STATUS_INVALID = 2;
+    /**
+     * The server failed to execute the command unexpectedly. The balance of the response is the current
+     * balance of the player. A settled spin is always answered with {@link #STATUS_OK}, even if it could
+     * not be recorded.
+     */
+    public static final byte STATUS_ERROR = 3;
+
+    private SpinProtocol() {
+    }
+
+    /**
+     * Writes a command at the position of a little-endian buffer and advances it.
+     *
+     * @param out       the buffer the command is written to.
+     * @param requestId the request id of the command.
+     * @param operation the operation of the command.
+     * @param playerId  the id of the player.
+     * @param amount    the amount of the command.
+     */
+    public static void putCommand(ByteBuffer out, int requestId, byte operation, long playerId, long amount) {
+        out.putInt(requestId).put(operation).put((byte) 0).putShort((short) 0).putLong(playerId).putLong(amount);
+    }
+
+    /**
+     * Writes a response at the position of a little-endian buffer and advances it.
+     *
+     * @param out       the buffer the response is written to.
+     * @param requestId the request id of the command.
+     * @param operation the operation of the command.
+     * @param status    the status of the command.
+     * @param winAmount the amount won by a spin, otherwise zero.
+     * @param balance   the balance of the player after the command.
+     * @param symbol    the resulting symbol of a spin, otherwise zero.
+     */
+    public static void putResponse(ByteBuffer out, int requestId, byte operation, byte status, long winAmount,
+                                   long balance, int symbol) {
+        out.putInt(requestId).put(operation).put(status).putShort((short) 0).putLong(winAmount).putLong(balance)
+                .putInt(symbol).putInt(0);
+    }
+}
@@ -0,0 +1,91 @@
+package wtd.slotsengine.rest.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import wtd.slotsengine.components.SlotMetrics;
+import wtd.slotsengine.services.RecordStatsService;
+import wtd.slotsengine.services.SlotManagerService;
+import wtd.slotsengine.services.recorder.RecordHandler;
+import wtd.slotsengine.slots.interfaces.SlotMachine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static wtd.slotsengine.rest.websocket.SpinProtocol.*;
+
+/**
+ * Serves the binary {@link SpinProtocol} on the WebSocket endpoint {@code /api/ws/spin}, sharing the slot
+ * machine, the recording of the spins and the metrics with the REST API.
+ * <p>
+ * Every connection gets its own {@link SpinCommandProcessor}. The frames of a connection are delivered
+ * one at a time, so the commands of a connection are executed in order, and the responses of a frame are
+ * sent as one frame before the next frame is read. The commands of different connections run
+ * concurrently, exactly like concurrent REST requests.
+ */
+@Component
+public class SpinSocketHandler extends BinaryWebSocketHandler {
+    private static final Logger log = LoggerFactory.getLogger(SpinSocketHandler.class);
+    /**
+     * The session attribute holding the processor of a connection.
+     */
+    private static final String PROCESSOR = "spinProcessor";
+    private final SlotMachine machine;
+    private final RecordHandler recorder;
+    private final SlotMetrics metrics;
+
+    /**
+     * Constructs a new SpinSocketHandler.
+     *
+     * @param slotManager the service managing the slot machine
+     * @param stats       the service recording the spins
+     * @param metrics     the metrics of the slot engine, timing the recording and counting rejections
+     */
+    public SpinSocketHandler(SlotManagerService slotManager, RecordStatsService stats, SlotMetrics metrics) {
+        this.machine = slotManager.getSlotMachine();
+        this.metrics = metrics;
+        this.recorder = (timestampMs, playerId, betAmount, winAmount, balance, result) -> {
+            final long start = System.nanoTime();
+            stats.recordSpin(timestampMs, playerId, betAmount, winAmount, balance, result);
+            metrics.recorded(System.nanoTime() - start);
+        };
+    }
+
+    /**
+     * Creates the processor of a new connection.
+     *
+     * @param session the new connection
+     */
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        session.getAttributes().put(PROCESSOR, new SpinCommandProcessor(machine, recorder, metrics::rejected));
+    }
+
+    /**
+     * Executes the commands of a frame and replies with a frame holding their responses.
+     *
+     * @param session the connection the frame was received on
+     * @param message the frame holding the commands
+     * @throws IOException if the responses cannot be sent or the connection cannot be closed
+     */
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        final ByteBuffer commands = message.getPayload().order(ByteOrder.LITTLE_ENDIAN);
+        final int count = commands.remaining() / COMMAND_SIZE;
+        if (count == 0 || count > MAX_COMMANDS || commands.remaining() % COMMAND_SIZE != 0) {
+            log.warn("Closing spin connection {} after an invalid frame of {} bytes", session.getId(),
+                    commands.remaining());
+            session.close(CloseStatus.BAD_DATA.withReason("Expected 1 to %d commands of %d bytes."
+                    .formatted(MAX_COMMANDS, COMMAND_SIZE)));
+            return;
+        }
+        final ByteBuffer responses = ByteBuffer.allocate(count * RESPONSE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        ((SpinCommandProcessor) session.getAttributes().get(PROCESSOR)).execute(commands, responses);
+        session.sendMessage(new BinaryMessage(responses.flip()));
+    }
+}
@@ -4,47 +4,153 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import wtd.slotsengine.rest.records.BatchResultMessage;
 import wtd.slotsengine.rest.records.BetResultMessage;
+import wtd.slotsengine.services.recorder.RecordHandler;
+import wtd.slotsengine.services.recorder.ResultsLogWriter;
+import wtd.slotsengine.services.recorder.SegmentedSpinLog;
+import wtd.slotsengine.services.recorder.SpinAggregate;
+import wtd.slotsengine.services.recorder.StatsCheckpoint;
+import wtd.slotsengine.slots.interfaces.SlotMachine;
+import wtd.slotsengine.utils.stats.StatsSnapshot;
+import wtd.slotsengine.utils.stats.StripedStats;
+import wtd.slotsengine.utils.stats.TimeWindowStats;
+import wtd.slotsengine.utils.stats.WinDistribution;
+import wtd.slotsengine.utils.stats.WinDistributionStats;
+import wtd.slotsengine.utils.stats.WindowSnapshot;
 
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.LongSummaryStatistics;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+
+import static wtd.slotsengine.utils.SlotUtils.now;
 
 /**
  * Service for recording and managing statistics related to bets and wins.
- * This class maintains cumulative statistics for bets and wins, persists the data in a CSV
- * file, and supports safe concurrent updates.
+ * This class maintains cumulative statistics for bets and wins, persists the data in a binary
+ * {@link SegmentedSpinLog}, and supports safe concurrent updates.
+ * <p>
+ * The statistics are loaded and saved automatically using a results directory, ensuring
+ * the system updates persist across application restarts. The spin log keeps every record of the
+ * retention window in detail and older records as per-interval aggregates, which are replayed into
+ * the statistics like the records they replace.
+ * <p>
+ * Recording a bet only enqueues it for a {@link ResultsLogWriter}, so request threads never do disk
+ * I/O and never drop a record; they are held back only while the writer is behind by a full buffer.
+ * The writer thread appends the records to the spin log in large batches and updates the
+ * statistics, which therefore reflect every record accepted for persistence.
+ * <p>
+ * The statistics are kept in {@link StripedStats} accumulators and exposed as immutable
+ * {@link StatsSnapshot} instances, so readers always see a consistent view and never block writers.
  * <p>
- * The statistics are loaded and saved automatically using a results file, ensuring
- * the system updates persist across application restarts.
+ * The writer periodically saves a {@link StatsCheckpoint} of the statistics together with the number
+ * of log records they cover. At startup the service starts recording immediately and restores the
+ * statistics in the background from the latest checkpoint and the records appended after it, so
+ * startup time does not grow with the lifetime spin count. Because the statistics are sums, records of
+ * the current run can be added while the history is still being replayed. {@link #isLoaded()} reports
+ * when the restored statistics are complete.
+ * <p>
+ * Rolling windows of the last hour are summarized from a {@link TimeWindowStats} ring of one-second
+ * buckets and longer windows, up to a day, from a ring of one-minute buckets, both updated by the
+ * writer thread with the records of the current run. Window queries read at most one ring, so their
+ * cost does not depend on the number of spins.
+ * <p>
+ * The distribution of the spins, a histogram of the win multipliers and the count of every resulting
+ * symbol, is kept in a {@link WinDistributionStats} accumulator updated with every record and saved
+ * with the checkpoints, so its percentiles are always available without scanning the log. Records
+ * compacted into aggregates keep no symbols or multipliers, so the distribution only covers them
+ * through the checkpoints taken before they were compacted.
  */
 @Service
 public class RecordStatsService {
     private static final Logger log = LoggerFactory.getLogger(RecordStatsService.class);
-    private static final String RESULTS_FILE = "results.csv";
+    private final StripedStats winStats = new StripedStats();
+    private final StripedStats betStats = new StripedStats();
+    private final WinDistributionStats winDistribution = new WinDistributionStats();
     /**
-     * Lock for managing concurrent write operations in a thread-safe manner.
-     * Ensures that only one thread can execute critical sections involving
-     * write access, such as recording and persisting bet data, at any given time.
+     * The bets and wins of the last hour, in one-second buckets.
      */
-    private final ReentrantLock writeLock = new ReentrantLock();
-    private final LongSummaryStatistics winStats = new LongSummaryStatistics(0, 0, 0, 0);
-    private final LongSummaryStatistics betStats = new LongSummaryStatistics(0, 0, 0, 0);
-    private PrintWriter writeStream;
+    private final TimeWindowStats hourWindows = new TimeWindowStats(1_000, 3_600);
+    /**
+     * The bets and wins of the last day, in one-minute buckets.
+     */
+    private final TimeWindowStats dayWindows = new TimeWindowStats(60_000, 1_440);
+    /**
+     * The directory of the spin log holding the recorded bets, configured through
+     * {@code slots-engine.results-dir}.
+     */
+    private final String resultsDir;
+    /**
+     * The path of the CSV results file of earlier versions, imported into the spin log once, configured
+     * through {@code slots-engine.results-legacy-file}.
+     */
+    private final String legacyResultsFile;
+    private final int capacity;
+    private final long flushIntervalMs;
+    private final long fsyncIntervalMs;
+    private final long checkpointIntervalMs;
+    private final long segmentRecords;
+    private final long segmentMs;
+    private final long retentionMs;
+    private final long aggregateMs;
+    private final Path checkpointFile;
+    private SegmentedSpinLog spinLog;
+    private ResultsLogWriter writer;
+    private Thread loader;
+    private volatile boolean loaded;
+    private volatile Throwable loadFailure;
+
+    /**
+     * Constructs a new RecordStatsService persisting its records in the given directory.
+     *
+     * @param resultsDir           the directory of the spin log holding the recorded bets
+     * @param legacyResultsFile    the path of the CSV results file of earlier versions, imported once
+     * @param capacity             the number of records that can wait to be written before request threads
+     *                             are held back
+     * @param flushIntervalMs      the maximum time in milliseconds a record waits before it is written
+     * @param fsyncIntervalMs      the minimum time in milliseconds between two syncs of the file to the
+     *                             device, 0 to sync after every write
+     * @param checkpointIntervalMs the minimum time in milliseconds between two checkpoints of the
+     *                             statistics, 0 to only checkpoint at shutdown
+     * @param segmentRecords       the maximum number of records of a segment of the spin log
+     * @param segmentMs            the maximum time span in milliseconds of the records of a segment
+     * @param retentionMs          the age in milliseconds after which a segment is compacted into aggregates
+     * @param aggregateMs          the length in milliseconds of the interval of an aggregate
+     */
+    public RecordStatsService(@Value("${slots-engine.results-dir:results}") String resultsDir,
+                              @Value("${slots-engine.results-legacy-file:results.csv}") String legacyResultsFile,
+                              @Value("${slots-engine.results-capacity:65536}") int capacity,
+                              @Value("${slots-engine.results-flush-ms:100}") long flushIntervalMs,
+                              @Value("${slots-engine.results-fsync-ms:1000}") long fsyncIntervalMs,
+                              @Value("${slots-engine.results-checkpoint-ms:60000}") long checkpointIntervalMs,
+                              @Value("${slots-engine.results-segment-records:1048576}") long segmentRecords,
+                              @Value("${slots-engine.results-segment-ms:3600000}") long segmentMs,
+                              @Value("${slots-engine.results-retention-ms:604800000}") long retentionMs,
+                              @Value("${slots-engine.results-aggregate-ms:3600000}") long aggregateMs) {
+        this.resultsDir = resultsDir;
+        this.legacyResultsFile = legacyResultsFile;
+        this.capacity = capacity;
+        this.flushIntervalMs = flushIntervalMs;
+        this.fsyncIntervalMs = fsyncIntervalMs;
+        this.checkpointIntervalMs = checkpointIntervalMs;
+        this.segmentRecords = segmentRecords;
+        this.segmentMs = segmentMs;
+        this.retentionMs = retentionMs;
+        this.aggregateMs = aggregateMs;
+        this.checkpointFile = Path.of(resultsDir, "stats.ckpt");
+    }
 
     /**
      * Initializes the RecordStatsService by performing the following tasks:
      * - Logs an initialization message to indicate the service is starting.
-     * - Ensures the results file exists by creating it if it does not.
-     * - Loads previously recorded statistics from the results file to restore state.
+     * - Imports the legacy CSV results file into the spin log if the spin log does not exist yet.
+     * - Opens the spin log and starts the writer appending new records to it.
+     * - Starts a background thread restoring the statistics of earlier runs from the latest checkpoint
+     * and the spin log.
      * <p>
      * This method is automatically invoked after the bean initialization phase as
      * it is annotated with {@code @PostConstruct}.
@@ -52,136 +158,314 @@ public class RecordStatsService {
     @PostConstruct
     public void init() {
         log.info("RecordStats is initialized");
-        createResultsFileIfNotExists();
-        loadPreviousStats();
+        importLegacyResults();
+        try {
+            spinLog = openSpinLog();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        spinLog.suspendCompaction();
+        writer = new ResultsLogWriter(spinLog, capacity, flushIntervalMs, fsyncIntervalMs,
+                (timestampMs, playerId, betAmount, winAmount, balance, result) -> {
+                    addStats(betAmount, winAmount, result);
+                    hourWindows.accept(timestampMs, betAmount, winAmount);
+                    dayWindows.accept(timestampMs, betAmount, winAmount);
+                }, checkpointIntervalMs, this::saveCheckpoint);
+        final long end = writer.getStartRecord();
+        loader = new Thread(() -> loadPreviousStats(end), "stats-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Opens the spin log in the results directory with the configured segment and retention policy.
+     *
+     * @return the opened spin log
+     * @throws IOException if the spin log cannot be opened
+     */
+    private SegmentedSpinLog openSpinLog() throws IOException {
+        return SegmentedSpinLog.open(Path.of(resultsDir), segmentRecords, segmentMs, retentionMs, aggregateMs);
     }
 
     /**
-     * Ensures that the results file used for persisting statistics exists in the system.
-     * If the file does not exist, this method creates a new file with the predefined name.
-     * If the file creation fails, an exception is thrown.
+     * Imports the records of the legacy CSV results file into the spin log, once.
      * <p>
-     * This method is used during the initialization process to guarantee that the results
-     * file is available for loading and saving statistics.
+     * Earlier versions persisted bets as CSV lines of timestamp, bet amount, win amount and symbol. If
+     * the results directory does not exist yet and the legacy file does, every line is appended to a new spin
+     * log, attributed to the default player with an unknown balance of 0, and the legacy file is renamed
+     * with an {@code .imported} suffix so it is never imported twice.
      * <p>
      * Throws:
-     * - RuntimeException if the file cannot be created due to an IOException or a
-     * failure in the file creation process.
-     */
-    private void createResultsFileIfNotExists() {
-        File csvResultsFile = new File(RESULTS_FILE);
-        if (!csvResultsFile.exists()) {
-            try {
-                if (!csvResultsFile.createNewFile()) {
-                    throw new RuntimeException("Failed to create %s file".formatted(RESULTS_FILE));
-                }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+     * - RuntimeException if the legacy file cannot be read or the spin log cannot be written.
+     */
+    private void importLegacyResults() {
+        final Path logDir = Path.of(resultsDir);
+        final Path legacy = Path.of(legacyResultsFile);
+        if (Files.exists(logDir) || !Files.isRegularFile(legacy)) return;
+        long imported = 0;
+        try (SegmentedSpinLog importLog = openSpinLog(); Scanner scanner = new Scanner(legacy)) {
+            while (scanner.hasNextLine()) {
+                String[] cols = scanner.nextLine().split(",");
+                if (cols.length < 4) continue;
+                importLog.append(Long.parseLong(cols[0]), SlotMachine.DEFAULT_PLAYER, Long.parseLong(cols[1]),
+                        Long.parseLong(cols[2]), 0, Integer.parseInt(cols[3]));
+                imported++;
             }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
+        try {
+            Files.move(legacy, legacy.resolveSibling(legacy.getFileName() + ".imported"));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        log.info("Imported {} records from {} into {}", imported, legacy, logDir);
     }
 
     /**
-     * Loads previous statistics from a file and processes the data.
-     * This method reads lines from the specified file, splits each line
-     * by commas, and then processes the extracted columns as numerical data.
-     * Each line is assumed to represent a record, with specific fields
-     * at positions defined in the code.
-     * <p>
-     * If the file cannot be found, a {@link RuntimeException} is thrown.
+     * Loads previous statistics from the latest checkpoint and the spin log, on the loader thread.
+     * The statistics of the checkpoint are restored first, then only the records appended after it
+     * are replayed with a sequential scan of the fixed-width binary records of the log. A checkpoint
+     * that cannot be read, covers more records than the log holds, for example after the log lost
+     * unsynced records, or ends inside records compacted since, is ignored and the whole log is
+     * replayed, compacted segments as their aggregates.
      * <p>
-     * The method uses a try-with-resources block to ensure proper handling
-     * and closing of resources such as the {@link Scanner}. It also initializes
-     * a {@link PrintWriter} for writing back to the file after processing.
+     * Compaction is suspended until the replay is over, so the replayed segments are not compacted
+     * while they are read.
      * <p>
-     * Throws:
-     * - RuntimeException if the specified file does not exist or cannot be read.
+     * New records are appended after the loaded ones, so the history of earlier runs is preserved.
+     * A failure is logged and reported by {@link #getLoadFailure()}.
+     *
+     * @param end the number of records of the log written by earlier runs
      */
-    private void loadPreviousStats() {
-        try (Scanner scanner = new Scanner(new File(RESULTS_FILE))) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                String[] cols = line.split(",");
-                addStats(Long.parseLong(cols[1]), Long.parseLong(cols[2]));
+    private void loadPreviousStats(long end) {
+        final long start = System.nanoTime();
+        try {
+            long from = 0;
+            final StatsCheckpoint checkpoint = readCheckpoint();
+            if (checkpoint != null && checkpoint.records() <= end
+                    && checkpoint.records() >= spinLog.getFirstDetailedRecord()) {
+                betStats.merge(checkpoint.bets());
+                winStats.merge(checkpoint.wins());
+                winDistribution.merge(checkpoint.winCounts(), checkpoint.symbolCounts());
+                from = checkpoint.records();
+            } else if (checkpoint != null) {
+                log.warn("Ignoring checkpoint of {} records, the log holds {}", checkpoint.records(), end);
             }
-            writeStream = new PrintWriter(RESULTS_FILE);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(e);
+            long replayed = spinLog.replay(from, end,
+                    (timestampMs, playerId, betAmount, winAmount, balance, result) ->
+                            addStats(betAmount, winAmount, result),
+                    this::addAggregate);
+            loaded = true;
+            log.info("Loaded {} records from checkpoint and replayed {} records of {} in {} ms", from, replayed,
+                    resultsDir, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            loadFailure = e;
+            log.error("Failed to load the statistics of {}", resultsDir, e);
+        } finally {
+            spinLog.resumeCompaction();
+        }
+    }
+
+    /**
+     * Updates statistics for bets and wins with the aggregate of the records of a compacted interval.
+     *
+     * @param aggregate the aggregate of the bets and positive wins of the interval
+     */
+    private void addAggregate(SpinAggregate aggregate) {
+        betStats.merge(aggregate.bets());
+        winStats.merge(aggregate.wins());
+    }
+
+    /**
+     * Reads the latest checkpoint of the statistics.
+     *
+     * @return the checkpoint, or {@code null} if there is none or it cannot be read
+     */
+    private StatsCheckpoint readCheckpoint() {
+        try {
+            return StatsCheckpoint.read(checkpointFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable checkpoint {}", checkpointFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves a checkpoint of the statistics, on the writer thread. The statistics then cover exactly the
+     * given number of records of the spin log. Nothing is saved until the statistics of earlier runs are
+     * loaded, since the checkpoint would miss them. Failures are logged and the previous checkpoint is
+     * kept.
+     *
+     * @param records the number of committed and synced records of the spin log
+     */
+    private void saveCheckpoint(long records) {
+        if (!loaded) return;
+        try {
+            new StatsCheckpoint(records, betStats.snapshot(), winStats.snapshot(), winDistribution.winCounts(),
+                    winDistribution.symbolCounts()).write(checkpointFile);
+        } catch (IOException e) {
+            log.error("Failed to save checkpoint {}", checkpointFile, e);
         }
     }
 
     /**
-     * Updates statistics for bets and wins by recording the bet amount and win amount.
+     * Checks whether the statistics of earlier runs are fully loaded. Until then the statistics only
+     * cover part of the history.
+     *
+     * @return {@code true} once the checkpoint and the spin log are loaded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Retrieves the error that stopped the statistics of earlier runs from loading.
+     *
+     * @return the error, or {@code null} if loading has not failed
+     */
+    public Throwable getLoadFailure() {
+        return loadFailure;
+    }
+
+    /**
+     * Retrieves the number of recorded bets waiting to be written to the spin log.
+     *
+     * @return a recent estimate of the depth of the queue of the results writer.
+     */
+    public int getQueueDepth() {
+        return writer.getQueueDepth();
+    }
+
+    /**
+     * Retrieves the number of recorded bets that could not be written to the spin log.
+     *
+     * @return the number of records dropped by the results writer since startup.
+     */
+    public long getDroppedRecords() {
+        return writer.getDroppedRecords();
+    }
+
+    /**
+     * Updates statistics for bets and wins by recording the bet amount and win amount, and the win
+     * distribution with the resulting symbol.
      *
      * @param betAmount the amount of the bet placed
      * @param winAmount the amount won, should be greater than zero to be recorded
+     * @param symbol    the resulting symbol of the spin
      */
-    private void addStats(long betAmount, long winAmount) {
+    private void addStats(long betAmount, long winAmount, int symbol) {
         betStats.accept(betAmount);
         if (winAmount > 0) winStats.accept(winAmount);
+        winDistribution.accept(betAmount, winAmount, symbol);
     }
 
     /**
      * Cleans up resources and performs necessary shutdown tasks when the object is being destroyed.
      * This method is annotated with @PreDestroy to ensure it is invoked during the destruction phase of the lifecycle.
-     * It logs the initiation and completion of the destruction process as well as closes the stream resource.
+     * It logs the initiation and completion of the destruction process, waits for the statistics of
+     * earlier runs to be loaded, and waits until every recorded bet is written and synced to the spin log
+     * and a final checkpoint is saved.
      */
     @PreDestroy
     public void destroy() {
         log.info("RecordStats is destroying");
-        writeStream.close();
+        try {
+            loader.join();
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while draining {}", resultsDir, e);
+        }
         log.info("RecordStats is destroyed");
     }
 
     /**
-     * Retrieves the statistics of win records.
+     * Retrieves a consistent snapshot of the statistics of win records.
      *
-     * @return a LongSummaryStatistics object representing the statistical summary of win data,
-     * including count, sum, min, average, and max values.
+     * @return an immutable StatsSnapshot of the win data, including count, sum, min, average, and max values.
      */
-    public LongSummaryStatistics getWinStats() {
-        return winStats;
+    public StatsSnapshot getWinStats() {
+        return winStats.snapshot();
     }
 
     /**
-     * Retrieves the betting statistics.
+     * Retrieves a consistent snapshot of the betting statistics.
      *
-     * @return a LongSummaryStatistics object containing statistical data on bets,
-     * including count, sum, min, average, and max.
+     * @return an immutable StatsSnapshot of the bet data, including count, sum, min, average, and max.
      */
-    public LongSummaryStatistics getBetStats() {
-        return betStats;
+    public StatsSnapshot getBetStats() {
+        return betStats.snapshot();
     }
 
     /**
-     * Records the result of a bet by formatting the bet result, writing it to the output stream,
-     * updating statistics, and ensuring thread safety using a write lock.
+     * Retrieves the distribution of the recorded spins.
      *
-     * @param bet the bet result message containing information about the bet, such as bet amount and win amount
+     * @return a WinDistribution holding the p50, p99 and p99.9 win multipliers of the winning spins and
+     * the observed frequency of every symbol.
      */
-    public void recordBet(BetResultMessage bet) {
-        try {
-            if (writeLock.tryLock(1, TimeUnit.SECONDS)) {
-                String output = formatBetResult(bet);
-                writeStream.append(output).append("\n");
-                writeStream.flush();
-                addStats(bet.betAmount(), bet.winAmount());
-                writeLock.unlock();
-            }
-        } catch (InterruptedException e) {
-            log.error("Failed to acquire write lock", e);
-        }
+    public WinDistribution getWinDistribution() {
+        return winDistribution.snapshot();
+    }
+
+    /**
+     * Retrieves a consistent summary of the bets and wins of the rolling window ending now. Windows of
+     * up to an hour are aligned on seconds and longer windows on minutes; the window may include the
+     * records of the partial bucket before its start. Only the records of the current run are covered.
+     *
+     * @param windowMs the length of the window in milliseconds, at most one day
+     * @return an immutable WindowSnapshot of the bets and wins of the window, with their observed RTP
+     * and hit rate
+     * @throws IllegalArgumentException if the window is not positive or longer than a day
+     */
+    public WindowSnapshot getWindowStats(long windowMs) {
+        final TimeWindowStats windows = windowMs <= hourWindows.getSpanMs() ? hourWindows : dayWindows;
+        return windows.window(now(), windowMs);
     }
 
     /**
-     * Formats the given BetResultMessage into a comma-separated string.
+     * Records the result of a bet by enqueuing it for the results writer. The statistics are
+     * updated by the writer thread once the record is taken from the queue.
      *
-     * @param bet the BetResultMessage object containing bet details, such as timestamp,
-     *            bet amount, win amount, and result.
-     * @return a string representation of the bet details, with each field separated by a comma.
+     * @param playerId the id of the player who placed the bet
+     * @param bet      the bet result message containing information about the bet, such as bet amount and win amount
      */
-    private String formatBetResult(BetResultMessage bet) {
-        return Stream.of(bet.timestampMs(), bet.betAmount(), bet.winAmount(), bet.result()).map(
-                String::valueOf).collect(Collectors.joining(","));
+    public void recordBet(long playerId, BetResultMessage bet) {
+        recordSpin(bet.timestampMs(), playerId, bet.betAmount(), bet.winAmount(), bet.balance(), bet.result());
+    }
+
+    /**
+     * Records the result of a spin from its primitive fields, without an intermediate message. The
+     * signature matches {@link RecordHandler}, so this method can serve as one.
+     *
+     * @param timestampMs the timestamp of the spin in milliseconds
+     * @param playerId    the id of the player who placed the bet
+     * @param betAmount   the amount of the bet placed
+     * @param winAmount   the amount won
+     * @param balance     the balance of the player after the spin
+     * @param result      the resulting symbol of the spin
+     */
+    public void recordSpin(long timestampMs, long playerId, long betAmount, long winAmount, long balance,
+                           int result) {
+        writer.append(timestampMs, playerId, betAmount, winAmount, balance, result);
+    }
+
+    /**
+     * Records the results of a batch of bets, enqueuing one record per spin for the results writer.
+     * <p>
+     * The batch is settled at once, so the balance recorded after each spin is derived from the balance
+     * before the batch as if the spins had been settled one by one; the last record holds the balance
+     * after the batch.
+     *
+     * @param playerId the id of the player who placed the bets
+     * @param batch    the batch result message containing the bet amount, the timestamp and the per-spin outcomes
+     */
+    public void recordBatch(long playerId, BatchResultMessage batch) {
+        long balance = batch.balance() - batch.totalWin() + batch.totalBet();
+        for (int i = 0; i < batch.count(); i++) {
+            balance += batch.wins()[i] - batch.betAmount();
+            writer.append(batch.timestampMs(), playerId, batch.betAmount(), batch.wins()[i], balance,
+                    batch.results()[i]);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,22 @@
 package wtd.slotsengine.services;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
 import wtd.slotsengine.slots.interfaces.SlotMachine;
 import wtd.slotsengine.slots.machines.BasicSlotMachine;
+import wtd.slotsengine.slots.machines.WeightedSlotMachine;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.records.RegisteredReel;
+import wtd.slotsengine.slots.machines.reels.ReelRegistry;
+import wtd.slotsengine.slots.machines.reels.WeightedReel;
+import wtd.slotsengine.slots.rng.RngProvider;
+import wtd.slotsengine.utils.SlotConstants;
 
 /**
  * The SlotManagerService class is responsible for managing the slot machine service implementation.
- * It initializes and provides access to a SlotMachine instance, specifically a BasicSlotMachine.
+ * It initializes and provides access to a SlotMachine instance, a BasicSlotMachine by default, or a
+ * WeightedSlotMachine when a weighted reel is configured.
  */
 @Service
 public class SlotManagerService {
@@ -19,13 +29,69 @@ public class SlotManagerService {
      * such as BasicSlotMachine, to handle slot machine operations.
      */
     private final SlotMachine sm;
+    /**
+     * The registry decoding and caching the virtual reels of the managed machine, keyed by content hash.
+     */
+    private final ReelRegistry registry;
 
     /**
      * SlotManagerService is responsible for managing the slot machine service.
-     * It provides an instance of a SlotMachine, specifically a BasicSlotMachine implementation.
+     * It provides an instance of a SlotMachine, specifically a BasicSlotMachine implementation, or a
+     * WeightedSlotMachine if `slots-engine.reel` holds a weighted reel specification.
+     *
+     * @param payTableSpec the pay table specification, retrieved from the configuration property
+     *                     `slots-engine.paytable`. It is parsed and validated once at startup.
+     * @param rngAlgorithm the random number generator algorithm, retrieved from the configuration property
+     *                     `slots-engine.rng`, e.g. `L64X128MixRandom` or `DRBG`.
+     * @param reelSpec     the optional weighted reel specification, retrieved from the configuration property
+     *                     `slots-engine.reel` as comma separated `symbol:weight` pairs. When empty, the
+     *                     demo virtual reel is used.
+     */
+    public SlotManagerService(@Value("${slots-engine.paytable}") String payTableSpec,
+                              @Value("${slots-engine.rng}") String rngAlgorithm,
+                              @Value("${slots-engine.reel:}") String reelSpec) {
+        final PayTable payTable = PayTable.parse(payTableSpec);
+        final RngProvider rng = RngProvider.of(rngAlgorithm);
+        registry = new ReelRegistry(payTable, rng);
+        sm = reelSpec.isBlank()
+                ? new BasicSlotMachine(registry, SlotConstants.DEMO_MACHINE)
+                : new WeightedSlotMachine(WeightedReel.parse(reelSpec), payTable, rng);
+    }
+
+    /**
+     * Atomically replaces the virtual reel of the managed machine while it keeps serving spins.
+     *
+     * @param encodedReel the Base64-encoded, GZIP-compressed reel to activate.
+     * @return the registered reel that became active.
+     * @throws SlotUserException if the managed machine does not spin virtual reels, or the reel is invalid.
+     */
+    public RegisteredReel swapReel(String encodedReel) {
+        if (!(sm instanceof BasicSlotMachine basic)) {
+            throw new SlotUserException("Active machine does not use virtual reels.");
+        }
+        return basic.swapReel(encodedReel);
+    }
+
+    /**
+     * Retrieves the virtual reel currently spun by the managed machine.
+     *
+     * @return the active registered reel.
+     * @throws SlotUserException if the managed machine does not spin virtual reels.
+     */
+    public RegisteredReel getActiveReel() {
+        if (!(sm instanceof BasicSlotMachine basic)) {
+            throw new SlotUserException("Active machine does not use virtual reels.");
+        }
+        return basic.getActiveReel();
+    }
+
+    /**
+     * Provides access to the reel registry of the service.
+     *
+     * @return the registry caching the decoded reels
      */
-    public SlotManagerService() {
-        sm = new BasicSlotMachine();
+    public ReelRegistry getReelRegistry() {
+        return registry;
     }
 
     /**
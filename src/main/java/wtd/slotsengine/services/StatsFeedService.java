@@ -0,0 +1,365 @@
+package wtd.slotsengine.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import wtd.slotsengine.rest.records.BalanceMessage;
+import wtd.slotsengine.rest.records.StatsFeedMessage;
+import wtd.slotsengine.slots.interfaces.SlotMachine;
+import wtd.slotsengine.utils.stats.StatsSnapshot;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static wtd.slotsengine.utils.SlotUtils.now;
+
+/**
+ * Pushes the statistics of the recorded bets and the balances of the players to the clients subscribed
+ * to the server-sent event stream of {@code /api/feed}, instead of letting them poll after every spin.
+ * <p>
+ * A single "stats-feed" thread ticks at a fixed interval, configured by {@code slots-engine.feed-tick-ms}.
+ * At each tick, if bets were recorded since the previous tick, the statistics are read and serialized
+ * once into a {@link StatsFeedMessage} that is sent as a {@code stats} event to every subscriber. The
+ * serving cost therefore grows with the number of ticks and subscribers, never with the number of spins.
+ * A {@code balance} event is sent to a subscriber whenever the balance of its player changed. New
+ * subscribers receive both at the next tick, and idle subscribers a keep-alive comment every
+ * {@value #HEARTBEAT_MS} ms, so that disconnected clients are detected and dropped.
+ * <p>
+ * The feed thread never writes to a client itself: the events of a subscriber are sent by a
+ * "stats-feed-send" thread, with at most one send in flight per subscriber. Sends are never queued
+ * behind each other, so a client whose socket is stuck only holds its own thread and never delays the
+ * others. A subscriber whose previous send is still in flight skips the tick and gets the latest events
+ * at the next one, and a subscriber whose send has been running for more than {@value #SEND_DEADLINE_MS}
+ * ms is dropped and its sending thread interrupted.
+ * <p>
+ * At most {@code slots-engine.feed-max-subscribers} clients can subscribe at the same time. A dropped
+ * subscriber keeps its place until its stuck send returns, so the number of sending threads is bounded
+ * by the same limit.
+ * <p>
+ * Subscriptions end after {@value #SUBSCRIPTION_TIMEOUT_MS} ms, after which {@code EventSource} clients
+ * reconnect on their own.
+ */
+@Service
+public class StatsFeedService {
+    private static final Logger log = LoggerFactory.getLogger(StatsFeedService.class);
+    /**
+     * The time in milliseconds after which a subscription ends.
+     */
+    static final long SUBSCRIPTION_TIMEOUT_MS = 30 * 60_000L;
+    /**
+     * The maximum time in milliseconds between two events sent to a subscriber.
+     */
+    static final long HEARTBEAT_MS = 15_000L;
+    /**
+     * The maximum time in milliseconds a send to a subscriber can take before the subscriber is dropped.
+     */
+    static final long SEND_DEADLINE_MS = 5_000L;
+    /**
+     * The time in seconds an idle sending thread is kept.
+     */
+    private static final long SENDER_KEEP_ALIVE_S = 60;
+    private final SlotMachine machine;
+    private final RecordStatsService stats;
+    private final ObjectMapper mapper;
+    private final long tickMs;
+    private final int maxSubscribers;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger places = new AtomicInteger();
+    private ScheduledExecutorService ticker;
+    private ExecutorService sender;
+    private long lastCount = -1;
+    private long statsVersion;
+    private String lastStats;
+
+    /**
+     * Constructs a new StatsFeedService. The feed starts ticking in {@link #init()}.
+     *
+     * @param slotManager the service managing the slot machine whose balances are pushed
+     * @param stats       the service recording the bets whose statistics are pushed
+     * @param mapper      the mapper serializing the events
+     * @param tickMs         the interval in milliseconds between two ticks, configured by
+     *                       {@code slots-engine.feed-tick-ms}
+     * @param maxSubscribers the maximum number of clients subscribed at the same time, configured by
+     *                       {@code slots-engine.feed-max-subscribers}
+     */
+    public StatsFeedService(SlotManagerService slotManager, RecordStatsService stats, ObjectMapper mapper,
+                            @Value("${slots-engine.feed-tick-ms:250}") long tickMs,
+                            @Value("${slots-engine.feed-max-subscribers:1024}") int maxSubscribers) {
+        this.machine = slotManager.getSlotMachine();
+        this.stats = stats;
+        this.mapper = mapper;
+        this.tickMs = tickMs;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Starts the thread ticking the feed and the threads sending its events. This method is called
+     * automatically after the service is constructed since it is annotated with {@code @PostConstruct}.
+     */
+    @PostConstruct
+    public void init() {
+        ticker = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "stats-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sender = new ThreadPoolExecutor(0, maxSubscribers, SENDER_KEEP_ALIVE_S, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), task -> {
+            final Thread thread = new Thread(task, "stats-feed-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(() -> tick(sender, now()), tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the feed and ends every subscription. This method is called automatically before the
+     * service is destroyed since it is annotated with {@code @PreDestroy}.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (ticker != null) ticker.shutdownNow();
+        if (sender != null) sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) subscriber.emitter.complete();
+        subscribers.clear();
+    }
+
+    /**
+     * Subscribes a client to the feed.
+     *
+     * @param player the id of the player whose balance is pushed
+     * @return the emitter of the event stream of the subscriber
+     * @throws IllegalStateException if the maximum number of subscribers is reached
+     */
+    public SseEmitter subscribe(long player) {
+        return subscribe(player, new SseEmitter(SUBSCRIPTION_TIMEOUT_MS));
+    }
+
+    /**
+     * Subscribes a client to the feed through the given emitter, removing it once the emitter completes,
+     * times out or fails.
+     *
+     * @param player  the id of the player whose balance is pushed
+     * @param emitter the emitter of the event stream of the subscriber
+     * @return the emitter
+     * @throws IllegalStateException if the maximum number of subscribers is reached, counting the dropped
+     *                               subscribers whose send has not returned yet
+     */
+    synchronized SseEmitter subscribe(long player, SseEmitter emitter) {
+        if (places.get() >= maxSubscribers) {
+            throw new IllegalStateException("The feed has reached its %d subscribers.".formatted(maxSubscribers));
+        }
+        places.incrementAndGet();
+        final Subscriber subscriber = new Subscriber(emitter, player);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(ex -> unsubscribe(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Retrieves the number of clients currently subscribed to the feed.
+     *
+     * @return the number of subscribers.
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Hands the events of a tick to the senders of every subscriber that has no send in flight, and drops
+     * the subscribers whose send has been running for more than {@value #SEND_DEADLINE_MS} ms. Called by
+     * the feed thread only, it never throws so that the feed keeps ticking.
+     *
+     * @param sender the executor sending the events
+     * @param nowMs  the time of the tick in milliseconds
+     */
+    void tick(Executor sender, long nowMs) {
+        if (subscribers.isEmpty()) return;
+        try {
+            final StatsSnapshot bets = stats.getBetStats();
+            if (bets.count() != lastCount) {
+                final long newSpins = lastCount < 0 ? bets.count() : bets.count() - lastCount;
+                lastStats = mapper.writeValueAsString(new StatsFeedMessage(nowMs, machine.getMachineRtp(), bets,
+                        stats.getWinStats(), newSpins));
+                lastCount = bets.count();
+                statsVersion++;
+            }
+            final String statsJson = lastStats;
+            final long version = statsVersion;
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.startSend()) {
+                    if (nowMs - subscriber.sendStartMs > SEND_DEADLINE_MS) {
+                        drop(subscriber, new IOException("Send exceeded %d ms.".formatted(SEND_DEADLINE_MS)));
+                        subscriber.task.cancel(true);
+                    }
+                    continue;
+                }
+                final FutureTask<Void> task = new FutureTask<>(() -> subscriber.send(statsJson, version, nowMs),
+                        null);
+                subscriber.task = task;
+                try {
+                    sender.execute(task);
+                } catch (RejectedExecutionException ex) {
+                    subscriber.endSend();
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.error("Failed to push the statistics feed", ex);
+        }
+    }
+
+    /**
+     * Removes a subscriber and ends its event stream with an error.
+     *
+     * @param subscriber the subscriber to drop
+     * @param ex         the reason it is dropped
+     */
+    private void drop(Subscriber subscriber, Exception ex) {
+        if (unsubscribe(subscriber)) subscriber.emitter.completeWithError(ex);
+    }
+
+    /**
+     * Removes a subscriber, giving its place back once it has no send in flight.
+     *
+     * @param subscriber the subscriber to remove
+     * @return true if the subscriber was subscribed
+     */
+    private boolean unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) return false;
+        subscriber.remove();
+        return true;
+    }
+
+    /**
+     * A client subscribed to the feed, together with what it was last sent. Its events are sent by one
+     * sender thread at a time; the feed thread only hands them over once the previous send completed.
+     * The send and removal flags are guarded by the subscriber itself, so that its place is given back
+     * exactly once, when it is removed and has no send in flight.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final long player;
+        private boolean fresh = true;
+        private long sentVersion = -1;
+        private long lastBalance;
+        private long lastSendMs;
+        private boolean sending;
+        private boolean removed;
+        /**
+         * The time in milliseconds the send in flight started, set by the sender thread when it picks the
+         * send up, or {@link Long#MAX_VALUE} while it has not.
+         */
+        private volatile long sendStartMs = Long.MAX_VALUE;
+        /**
+         * The send in flight or last sent, cancelled when the subscriber is dropped for exceeding the
+         * deadline. Only accessed by the feed thread.
+         */
+        private FutureTask<Void> task;
+
+        /**
+         * Constructs a new Subscriber that has not been sent anything yet.
+         *
+         * @param emitter the emitter of the event stream of the subscriber
+         * @param player  the id of the player whose balance is pushed
+         */
+        private Subscriber(SseEmitter emitter, long player) {
+            this.emitter = emitter;
+            this.player = player;
+        }
+
+        /**
+         * Sends the events of a tick on a sender thread, dropping the subscriber if it cannot be reached.
+         *
+         * @param statsJson the serialized statistics of the tick
+         * @param version   the version of the statistics, increased whenever they change
+         * @param nowMs     the time of the tick in milliseconds
+         */
+        private void send(String statsJson, long version, long nowMs) {
+            sendStartMs = now();
+            try {
+                push(statsJson, version, nowMs);
+            } catch (IOException | RuntimeException ex) {
+                drop(this, ex);
+            } finally {
+                endSend();
+            }
+        }
+
+        /**
+         * Marks a send as in flight, unless one already is or the subscriber was removed.
+         *
+         * @return true if the caller must hand a send over
+         */
+        private synchronized boolean startSend() {
+            if (sending || removed) return false;
+            sending = true;
+            sendStartMs = Long.MAX_VALUE;
+            return true;
+        }
+
+        /**
+         * Marks the send in flight as returned, giving the place of a removed subscriber back.
+         */
+        private synchronized void endSend() {
+            sending = false;
+            if (removed) places.decrementAndGet();
+        }
+
+        /**
+         * Marks the subscriber as removed, giving its place back unless a send is still in flight.
+         */
+        private synchronized void remove() {
+            if (removed) return;
+            removed = true;
+            if (!sending) places.decrementAndGet();
+        }
+
+        /**
+         * Sends the events of a tick: the shared statistics if they changed or were never sent, the
+         * balance of the player if it changed, or a keep-alive comment if nothing was sent for too long.
+         *
+         * @param statsJson the serialized statistics of the tick
+         * @param version   the version of the statistics, increased whenever they change
+         * @param nowMs     the time of the tick in milliseconds
+         * @throws IOException if the client cannot be reached
+         */
+        private void push(String statsJson, long version, long nowMs) throws IOException {
+            boolean sent = false;
+            if (version != sentVersion) {
+                emitter.send(SseEmitter.event().name("stats").data(statsJson, MediaType.APPLICATION_JSON));
+                sentVersion = version;
+                sent = true;
+            }
+            final long balance = machine.getBalance(player);
+            if (fresh || balance != lastBalance) {
+                emitter.send(SseEmitter.event().name("balance")
+                        .data(mapper.writeValueAsString(new BalanceMessage(balance)), MediaType.APPLICATION_JSON));
+                lastBalance = balance;
+                sent = true;
+            }
+            fresh = false;
+            if (!sent && nowMs - lastSendMs < HEARTBEAT_MS) return;
+            if (!sent) emitter.send(SseEmitter.event().comment("keep-alive"));
+            lastSendMs = nowMs;
+        }
+    }
+}
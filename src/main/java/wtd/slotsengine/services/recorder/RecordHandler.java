@@ -0,0 +1,20 @@
+package wtd.slotsengine.services.recorder;
+
+/**
+ * Receives the fields of a recorded bet as primitives, so that records can be passed around without
+ * creating an object per record.
+ */
+@FunctionalInterface
+public interface RecordHandler {
+    /**
+     * Handles one recorded bet.
+     *
+     * @param timestampMs the timestamp of the bet in milliseconds.
+     * @param playerId    the id of the player who placed the bet.
+     * @param betAmount   the amount of the bet placed.
+     * @param winAmount   the amount won.
+     * @param balance     the balance of the player after the bet.
+     * @param result      the resulting symbol of the bet.
+     */
+    void accept(long timestampMs, long playerId, long betAmount, long winAmount, long balance, int result);
+}
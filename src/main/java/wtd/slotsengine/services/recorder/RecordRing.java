@@ -0,0 +1,194 @@
+package wtd.slotsengine.services.recorder;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded multi-producer, single-consumer ring buffer of bet records.
+ * <p>
+ * Records are stored field by field in parallel primitive arrays, so enqueuing a record allocates
+ * nothing. Every slot carries a sequence number: a producer claims a position with a compare-and-set
+ * on the shared tail, writes the fields and publishes the slot by releasing its sequence, and the
+ * consumer frees the slot for the next lap by releasing its sequence again once the record is read.
+ * Producers therefore never wait for each other's writes, only for a free slot.
+ * <p>
+ * When the ring is full, {@link #put(long, long, long, long, long, int)} applies backpressure: the producer spins
+ * briefly and then parks until the consumer frees a slot, instead of dropping the record.
+ */
+public final class RecordRing {
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int SPINS_BEFORE_PARK = 64;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private final int mask;
+    private final long[] sequences;
+    private final long[] timestamps;
+    private final long[] players;
+    private final long[] bets;
+    private final long[] wins;
+    private final long[] balances;
+    private final int[] results;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder activeProducers = new LongAdder();
+    private volatile long head;
+    private volatile boolean closed;
+
+    /**
+     * Constructs an empty {@code RecordRing}.
+     *
+     * @param capacity the number of records the ring can hold, rounded up to the next power of two.
+     *                 Must be positive.
+     * @throws IllegalArgumentException if the capacity is not a positive value or is too large.
+     */
+    public RecordRing(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("Invalid ring capacity.");
+        final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new long[size];
+        this.timestamps = new long[size];
+        this.players = new long[size];
+        this.bets = new long[size];
+        this.wins = new long[size];
+        this.balances = new long[size];
+        this.results = new int[size];
+        for (int i = 0; i < size; i++) sequences[i] = i;
+    }
+
+    /**
+     * Enqueues a record if the ring has a free slot. Unlike {@link #put(long, long, long, long, long, int)}, this
+     * does not check whether the ring is closed.
+     *
+     * @param timestampMs the timestamp of the bet in milliseconds.
+     * @param playerId    the id of the player who placed the bet.
+     * @param betAmount   the amount of the bet placed.
+     * @param winAmount   the amount won.
+     * @param balance     the balance of the player after the bet.
+     * @param result      the resulting symbol of the bet.
+     * @return {@code true} if the record was enqueued, {@code false} if the ring is full.
+     */
+    boolean offer(long timestampMs, long playerId, long betAmount, long winAmount, long balance, int result) {
+        long position = tail.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = (long) SEQUENCES.getAcquire(sequences, index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    timestamps[index] = timestampMs;
+                    players[index] = playerId;
+                    bets[index] = betAmount;
+                    wins[index] = winAmount;
+                    balances[index] = balance;
+                    results[index] = result;
+                    SEQUENCES.setRelease(sequences, index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Enqueues a record, waiting for a free slot while the ring is full.
+     *
+     * @param timestampMs the timestamp of the bet in milliseconds.
+     * @param playerId    the id of the player who placed the bet.
+     * @param betAmount   the amount of the bet placed.
+     * @param winAmount   the amount won.
+     * @param balance     the balance of the player after the bet.
+     * @param result      the resulting symbol of the bet.
+     * @throws IllegalStateException if the ring is closed.
+     */
+    public void put(long timestampMs, long playerId, long betAmount, long winAmount, long balance, int result) {
+        activeProducers.increment();
+        try {
+            for (int attempt = 0; ; attempt++) {
+                if (closed) throw new IllegalStateException("Record ring is closed.");
+                if (offer(timestampMs, playerId, betAmount, winAmount, balance, result)) return;
+                if (attempt < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        } finally {
+            activeProducers.decrement();
+        }
+    }
+
+    /**
+     * Dequeues up to {@code limit} records in enqueue order and hands them to the handler. Must only
+     * be called by the single consumer thread.
+     *
+     * @param handler the handler receiving the records.
+     * @param limit   the maximum number of records to dequeue.
+     * @return the number of records dequeued.
+     */
+    public int drain(RecordHandler handler, int limit) {
+        long position = head;
+        int count = 0;
+        while (count < limit) {
+            final int index = (int) position & mask;
+            if ((long) SEQUENCES.getAcquire(sequences, index) != position + 1) break;
+            handler.accept(timestamps[index], players[index], bets[index], wins[index], balances[index], results[index]);
+            SEQUENCES.setRelease(sequences, index, position + mask + 1);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    /**
+     * Closes the ring: further calls to {@link #put(long, long, long, long, long, int)} fail, while records
+     * already enqueued remain available to {@link #drain(RecordHandler, int)}.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Checks whether the ring is closed and no producer is still inside
+     * {@link #put(long, long, long, long, long, int)}. Once this returns {@code true}, no record can be enqueued
+     * anymore, so a last {@link #drain(RecordHandler, int)} dequeues every remaining record.
+     *
+     * @return {@code true} if the ring is closed and quiescent.
+     */
+    public boolean isQuiescent() {
+        return closed && activeProducers.sum() == 0;
+    }
+
+    /**
+     * Checks whether the ring is closed.
+     *
+     * @return {@code true} if {@link #close()} was called.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Retrieves the number of records waiting in the ring. Producers may be adding records and the
+     * consumer removing them concurrently, so the result is only a recent estimate.
+     *
+     * @return the number of enqueued records not yet dequeued, between 0 and the capacity.
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(mask + 1, tail.get() - head));
+    }
+
+    /**
+     * Retrieves the number of records the ring can hold.
+     *
+     * @return the capacity of the ring, a power of two.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,287 @@
+package wtd.slotsengine.services.recorder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * Appends bet records to the results log from a dedicated writer thread.
+ * <p>
+ * Request threads only enqueue records into a bounded {@link RecordRing}; they never touch the disk
+ * and are held back only when the ring is full. The writer thread drains the ring in batches and
+ * appends the records as fixed-width binary records to a memory-mapped {@link SegmentedSpinLog}, so
+ * writing a record is a few stores into the page cache with no formatting and no system call. The appended
+ * records are committed to the log when the flush interval has elapsed since the last commit, and the
+ * log is forced to the device at most once per fsync interval. This group commit turns one write and
+ * flush per spin into one header update per batch.
+ * <p>
+ * Once per checkpoint interval if the log changed, and when the writer is closed, every written record
+ * is committed and synced and the checkpoint listener is notified with the number of records of the
+ * log, on the writer thread. The records handed to {@code onWritten} at that point are exactly the
+ * records of the log, so the listener can save an aggregate of them that is consistent with the log.
+ * <p>
+ * The writer thread also rotates the segments of the log as records are appended and compacts the
+ * segments that left the retention window, at most once per second. New records are appended after
+ * the records of earlier runs. {@link #close()} waits until every enqueued record is written and synced.
+ */
+public final class ResultsLogWriter implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ResultsLogWriter.class);
+    private static final int DRAIN_BATCH = 1 << 12;
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long COMPACTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private final Path file;
+    private final RecordRing ring;
+    private final SegmentedSpinLog spinLog;
+    private final RecordHandler onWritten;
+    private final RecordHandler appender = this::write;
+    private final long flushIntervalNanos;
+    private final long fsyncIntervalNanos;
+    private final long checkpointIntervalNanos;
+    private final LongConsumer onCheckpoint;
+    private final long startRecord;
+    private final long idleNanos;
+    private final Thread thread;
+    private long lastFlush;
+    private long lastFsync;
+    private long lastCheckpoint;
+    private long lastCompaction;
+    private long checkpointed;
+    private boolean uncommitted;
+    private boolean unsynced;
+    /**
+     * The number of records that could not be written, only updated by the writer thread.
+     */
+    private volatile long dropped;
+
+    /**
+     * Starts the writer thread appending to a results log, without checkpoints.
+     *
+     * @param spinLog         the results log, open for appending. The writer closes it when it is closed.
+     * @param capacity        the number of records that can wait in the ring before request threads are held back.
+     * @param flushIntervalMs the maximum time in milliseconds a record stays uncommitted after it is written.
+     * @param fsyncIntervalMs the minimum time in milliseconds between two syncs of the file to the device;
+     *                        0 syncs after every commit.
+     * @param onWritten       the handler notified of every record, on the writer thread, in log order.
+     * @throws IllegalArgumentException if the capacity or an interval is invalid.
+     */
+    public ResultsLogWriter(SegmentedSpinLog spinLog, int capacity, long flushIntervalMs, long fsyncIntervalMs,
+                            RecordHandler onWritten) {
+        this(spinLog, capacity, flushIntervalMs, fsyncIntervalMs, onWritten, 0, records -> {
+        });
+    }
+
+    /**
+     * Starts the writer thread appending to a results log.
+     *
+     * @param spinLog              the results log, open for appending. The writer closes it when it is closed.
+     * @param capacity             the number of records that can wait in the ring before request threads are
+     *                             held back.
+     * @param flushIntervalMs      the maximum time in milliseconds a record stays uncommitted after it is
+     *                             written.
+     * @param fsyncIntervalMs      the minimum time in milliseconds between two syncs of the file to the device;
+     *                             0 syncs after every commit.
+     * @param onWritten            the handler notified of every record, on the writer thread, in log order.
+     * @param checkpointIntervalMs the minimum time in milliseconds between two checkpoints; 0 only
+     *                             checkpoints when the writer is closed.
+     * @param onCheckpoint         the listener notified with the number of committed and synced records of
+     *                             the log at every checkpoint, on the writer thread.
+     * @throws IllegalArgumentException if the capacity or an interval is invalid.
+     */
+    public ResultsLogWriter(SegmentedSpinLog spinLog, int capacity, long flushIntervalMs, long fsyncIntervalMs,
+                            RecordHandler onWritten, long checkpointIntervalMs, LongConsumer onCheckpoint) {
+        if (flushIntervalMs < 0 || fsyncIntervalMs < 0 || checkpointIntervalMs < 0) {
+            throw new IllegalArgumentException("Invalid interval.");
+        }
+        this.file = spinLog.getDirectory();
+        this.ring = new RecordRing(capacity);
+        this.onWritten = onWritten;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.checkpointIntervalNanos = checkpointIntervalMs == 0 ? Long.MAX_VALUE
+                : TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMs);
+        this.onCheckpoint = onCheckpoint;
+        this.idleNanos = Math.max(1, Math.min(MAX_IDLE_NANOS, flushIntervalNanos));
+        this.spinLog = spinLog;
+        this.startRecord = this.checkpointed = spinLog.size();
+        this.lastFlush = this.lastFsync = this.lastCheckpoint = this.lastCompaction = System.nanoTime();
+        this.thread = new Thread(this::run, "results-log-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Enqueues a bet record for writing. Returns as soon as the record is in the ring, waiting only
+     * while the ring is full.
+     *
+     * @param timestampMs the timestamp of the bet in milliseconds.
+     * @param playerId    the id of the player who placed the bet.
+     * @param betAmount   the amount of the bet placed.
+     * @param winAmount   the amount won.
+     * @param balance     the balance of the player after the bet.
+     * @param result      the resulting symbol of the bet.
+     * @throws IllegalStateException if the writer is closed.
+     */
+    public void append(long timestampMs, long playerId, long betAmount, long winAmount, long balance, int result) {
+        ring.put(timestampMs, playerId, betAmount, winAmount, balance, result);
+    }
+
+    /**
+     * Retrieves the number of records the log held when it was opened. Records appended by this writer
+     * follow them, so the records before this index can be read concurrently with the writer.
+     *
+     * @return the index of the first record appended by this writer.
+     */
+    public long getStartRecord() {
+        return startRecord;
+    }
+
+    /**
+     * Retrieves the number of records waiting to be written.
+     *
+     * @return a recent estimate of the number of records enqueued and not yet taken by the writer thread.
+     */
+    public int getQueueDepth() {
+        return ring.size();
+    }
+
+    /**
+     * Retrieves the number of records that could not be written to the spin log since the writer started.
+     *
+     * @return the number of dropped records.
+     */
+    public long getDroppedRecords() {
+        return dropped;
+    }
+
+    /**
+     * Stops accepting records, waits until every enqueued record is written and synced to the device,
+     * and closes the results log.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer thread.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        ring.close();
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    /**
+     * The loop of the writer thread: drains the ring until it is closed and empty, committing and
+     * syncing the written records as their intervals elapse.
+     */
+    private void run() {
+        try {
+            while (true) {
+                final boolean quiescent = ring.isQuiescent();
+                int drained = 0;
+                for (int n; (n = ring.drain(appender, DRAIN_BATCH)) > 0; ) drained += n;
+                if (drained == 0 && quiescent) break;
+                final long now = System.nanoTime();
+                if (uncommitted && now - lastFlush >= flushIntervalNanos) flush(now);
+                if (unsynced && now - lastFsync >= fsyncIntervalNanos) fsync(now);
+                if (now - lastCheckpoint >= checkpointIntervalNanos) checkpoint(now);
+                if (now - lastCompaction >= COMPACTION_INTERVAL_NANOS) compact(now);
+                if (drained == 0) LockSupport.parkNanos(idleNanos);
+            }
+        } finally {
+            try {
+                spinLog.close();
+                onCheckpoint.accept(spinLog.size());
+            } catch (IOException e) {
+                log.error("Failed to close {}", file, e);
+            }
+            if (dropped > 0) log.error("Dropped {} records that could not be written to {}", dropped, file);
+        }
+    }
+
+    /**
+     * Appends a record to the spin log and notifies the handler. A record whose region of the log
+     * cannot be mapped, or that cannot start a new segment, is logged and dropped, so a failing disk
+     * cannot block request threads. Dropped records are not handed to the handler, so the aggregates it
+     * keeps always match the records of the log.
+     *
+     * @param timestampMs the timestamp of the bet in milliseconds.
+     * @param playerId    the id of the player who placed the bet.
+     * @param betAmount   the amount of the bet placed.
+     * @param winAmount   the amount won.
+     * @param balance     the balance of the player after the bet.
+     * @param result      the resulting symbol of the bet.
+     */
+    private void write(long timestampMs, long playerId, long betAmount, long winAmount, long balance, int result) {
+        try {
+            spinLog.append(timestampMs, playerId, betAmount, winAmount, balance, result);
+        } catch (IOException e) {
+            if (dropped++ == 0) log.error("Failed to append to {}", file, e);
+            return;
+        }
+        uncommitted = true;
+        onWritten.accept(timestampMs, playerId, betAmount, winAmount, balance, result);
+    }
+
+    /**
+     * Commits the written records to the spin log, making them part of the log.
+     *
+     * @param now the current value of {@link System#nanoTime()}.
+     */
+    private void flush(long now) {
+        lastFlush = now;
+        spinLog.commit();
+        uncommitted = false;
+        unsynced = true;
+        if (fsyncIntervalNanos == 0) fsync(now);
+    }
+
+    /**
+     * Commits and syncs every written record and notifies the checkpoint listener, unless the log did
+     * not change since the last checkpoint or cannot be synced.
+     *
+     * @param now the current value of {@link System#nanoTime()}.
+     */
+    private void checkpoint(long now) {
+        lastCheckpoint = now;
+        if (spinLog.size() == checkpointed) return;
+        flush(now);
+        fsync(now);
+        if (unsynced) return;
+        checkpointed = spinLog.size();
+        onCheckpoint.accept(checkpointed);
+    }
+
+    /**
+     * Compacts the segments of the log that left the retention window. Failures are logged and the
+     * segments are compacted again at the next attempt.
+     *
+     * @param now the current value of {@link System#nanoTime()}.
+     */
+    private void compact(long now) {
+        lastCompaction = now;
+        try {
+            final int compacted = spinLog.compact(System.currentTimeMillis());
+            if (compacted > 0) log.info("Compacted {} segments of {}", compacted, file);
+        } catch (IOException e) {
+            log.error("Failed to compact {}", file, e);
+        }
+    }
+
+    /**
+     * Forces the committed records to the storage device.
+     *
+     * @param now the current value of {@link System#nanoTime()}.
+     */
+    private void fsync(long now) {
+        lastFsync = now;
+        if (!unsynced) return;
+        try {
+            spinLog.sync();
+            unsynced = false;
+        } catch (IOException e) {
+            log.error("Failed to sync {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,584 @@
+package wtd.slotsengine.services.recorder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.utils.stats.StatsSnapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * A spin log split into bounded {@link SpinLog} segments, with a retention policy compacting old
+ * segments into per-interval {@link SpinAggregate} records.
+ * <p>
+ * Records are appended to a live segment. The live segment is closed and a new one started when it
+ * holds {@code segmentRecords} records or spans {@code segmentMs} milliseconds. Once the last record of
+ * a closed segment is older than {@code retentionMs}, {@link #compact(long)} replaces the segment with
+ * one aggregate per {@code aggregateMs} interval of its records and deletes it. Full detail is therefore
+ * kept for the retention window only. Disk usage and replay time are bounded by the window and grow
+ * with the lifetime of the log only by a few aggregates per interval.
+ * <p>
+ * Records keep a global index across segments, so a number of records identifies the same prefix of
+ * the log whether its segments are detailed or compacted. The directory of the log holds:
+ * - one {@code <first record>.slog} file per detailed segment, named after the global index of its
+ * first record.
+ * - the index file {@value #INDEX_FILE}, listing the closed segments.
+ * - the aggregates file {@value #AGGREGATES_FILE}, holding the aggregates of the compacted segments.
+ * <p>
+ * The index is a little-endian header of magic {@value #INDEX_MAGIC}, version, entry count and a
+ * reserved int, followed by one entry per closed segment: its first record, record count, first and
+ * last timestamps, and the range of its aggregates, or -1 while it is detailed. The index is rewritten
+ * to a temporary file and atomically moved into place whenever a segment is closed or compacted, and
+ * a file is only deleted after the index no longer refers to it, so the log survives a crash at any
+ * point.
+ * <p>
+ * The log is appended to, rotated and compacted by a single writer thread. Other threads may
+ * {@link #replay(long, long, RecordHandler, Consumer)} the committed records concurrently.
+ */
+public final class SegmentedSpinLog implements AutoCloseable {
+    /**
+     * The name of the index file in the directory of the log.
+     */
+    public static final String INDEX_FILE = "index.sidx";
+    /**
+     * The name of the aggregates file in the directory of the log.
+     */
+    public static final String AGGREGATES_FILE = "aggregates.sagg";
+    /**
+     * The magic number identifying an index file, the ASCII characters {@code SIDX}.
+     */
+    public static final int INDEX_MAGIC = 0x53494458;
+    /**
+     * The version of the index and aggregates formats written by this class.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The size of an aggregate record: the interval start and the count, sum, min and max of the bets
+     * and of the wins, as longs.
+     */
+    public static final int AGGREGATE_SIZE = 9 * Long.BYTES;
+    private static final Logger log = LoggerFactory.getLogger(SegmentedSpinLog.class);
+    private static final String SEGMENT_SUFFIX = ".slog";
+    private static final int INDEX_HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 6 * Long.BYTES;
+    private final Path directory;
+    private final long segmentRecords;
+    private final long segmentMs;
+    private final long retentionMs;
+    private final long aggregateMs;
+    private final Semaphore compactionPermit = new Semaphore(1);
+    private volatile State state;
+    private SpinLog live;
+    private long liveFirstTimestampMs;
+    private long liveLastTimestampMs;
+
+    /**
+     * A closed segment of the log, as listed by the index.
+     *
+     * @param first            the global index of the first record of the segment.
+     * @param records          the number of records of the segment.
+     * @param firstTimestampMs the timestamp of the first record of the segment.
+     * @param lastTimestampMs  the timestamp of the last record of the segment.
+     * @param aggregateFrom    the index of the first aggregate of the segment, or -1 if it is detailed.
+     * @param aggregateTo      the index after the last aggregate of the segment, or -1 if it is detailed.
+     */
+    private record Segment(long first, long records, long firstTimestampMs, long lastTimestampMs,
+                           long aggregateFrom, long aggregateTo) {
+        private boolean compacted() {
+            return aggregateFrom >= 0;
+        }
+
+        private long end() {
+            return first + records;
+        }
+    }
+
+    /**
+     * The published layout of the log: its closed segments and the first record of the live segment.
+     *
+     * @param closed    the closed segments, in record order.
+     * @param liveFirst the global index of the first record of the live segment.
+     */
+    private record State(List<Segment> closed, long liveFirst) {
+        private long aggregates() {
+            for (int i = closed.size() - 1; i >= 0; i--) {
+                if (closed.get(i).compacted()) return closed.get(i).aggregateTo();
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Constructs a {@code SegmentedSpinLog} around a loaded index. The live segment is opened by
+     * {@link #openLive(long)}.
+     *
+     * @param directory      the directory of the log.
+     * @param segmentRecords the maximum number of records of a segment.
+     * @param segmentMs      the maximum time span in milliseconds of the records of a segment.
+     * @param retentionMs    the age in milliseconds after which a closed segment is compacted.
+     * @param aggregateMs    the length in milliseconds of the interval of an aggregate.
+     * @param state          the layout of the log read from its index.
+     */
+    private SegmentedSpinLog(Path directory, long segmentRecords, long segmentMs, long retentionMs,
+                             long aggregateMs, State state) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.segmentMs = segmentMs;
+        this.retentionMs = retentionMs;
+        this.aggregateMs = aggregateMs;
+        this.state = state;
+    }
+
+    /**
+     * Opens a segmented spin log for appending, creating its directory if it does not exist. New
+     * records are appended after the committed records of the live segment.
+     *
+     * @param directory      the directory of the log.
+     * @param segmentRecords the maximum number of records of a segment. Must be positive.
+     * @param segmentMs      the maximum time span in milliseconds of the records of a segment. Must be positive.
+     * @param retentionMs    the age in milliseconds after which a closed segment is compacted. Must not be negative.
+     * @param aggregateMs    the length in milliseconds of the interval of an aggregate. Must be positive.
+     * @return the opened log.
+     * @throws IOException              if the directory, the index or the live segment cannot be read or created.
+     * @throws SlotUserException        if the index or the live segment is invalid.
+     * @throws IllegalArgumentException if a bound of the policy is invalid.
+     */
+    public static SegmentedSpinLog open(Path directory, long segmentRecords, long segmentMs, long retentionMs,
+                                        long aggregateMs) throws IOException {
+        if (segmentRecords <= 0 || segmentMs <= 0 || retentionMs < 0 || aggregateMs <= 0) {
+            throw new IllegalArgumentException("Invalid segment policy.");
+        }
+        Files.createDirectories(directory);
+        final List<Segment> closed = readIndex(directory);
+        final long liveFirst = closed.isEmpty() ? 0 : closed.get(closed.size() - 1).end();
+        final State state = new State(List.copyOf(closed), liveFirst);
+        for (Segment segment : closed) {
+            if (segment.compacted()) Files.deleteIfExists(segmentPath(directory, segment.first()));
+        }
+        try (FileChannel aggregates = FileChannel.open(directory.resolve(AGGREGATES_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            aggregates.truncate(state.aggregates() * AGGREGATE_SIZE);
+        }
+        final SegmentedSpinLog log = new SegmentedSpinLog(directory, segmentRecords, segmentMs, retentionMs,
+                aggregateMs, state);
+        log.openLive(liveFirst);
+        return log;
+    }
+
+    /**
+     * Appends a record to the live segment, first starting a new segment if the live one is full or
+     * spans the maximum time. The record becomes part of the log with the next {@link #commit()}.
+     *
+     * @param timestampMs the timestamp of the spin in milliseconds.
+     * @param playerId    the id of the player who placed the bet.
+     * @param betAmount   the amount of the bet placed.
+     * @param winAmount   the amount won.
+     * @param balance     the balance of the player after the spin.
+     * @param result      the resulting symbol of the spin.
+     * @throws IOException if a new segment or the region holding the record cannot be created.
+     */
+    public void append(long timestampMs, long playerId, long betAmount, long winAmount, long balance, int result)
+            throws IOException {
+        if (live.size() >= segmentRecords || (live.size() > 0 && timestampMs - liveFirstTimestampMs >= segmentMs)) {
+            rotate();
+        }
+        if (live.size() == 0) liveFirstTimestampMs = timestampMs;
+        live.append(timestampMs, playerId, betAmount, winAmount, balance, result);
+        liveLastTimestampMs = timestampMs;
+    }
+
+    /**
+     * Makes every appended record part of the log, see {@link SpinLog#commit()}.
+     */
+    public void commit() {
+        live.commit();
+    }
+
+    /**
+     * Forces the committed records of the live segment to the storage device. Closed segments are
+     * synced when they are closed.
+     *
+     * @throws IOException if the live segment cannot be synced.
+     */
+    public void sync() throws IOException {
+        live.sync();
+    }
+
+    /**
+     * Retrieves the number of records of the log, including compacted records and records appended
+     * but not yet committed.
+     *
+     * @return the global index after the last record.
+     */
+    public long size() {
+        return state.liveFirst() + live.size();
+    }
+
+    /**
+     * Retrieves the global index of the first record that is still kept in detail. Records before it
+     * are only available as aggregates.
+     *
+     * @return the first record of the oldest detailed segment.
+     */
+    public long getFirstDetailedRecord() {
+        final State current = state;
+        for (Segment segment : current.closed()) {
+            if (!segment.compacted()) return segment.first();
+        }
+        return current.liveFirst();
+    }
+
+    /**
+     * Retrieves the directory of the log.
+     *
+     * @return the directory holding the segments, the index and the aggregates.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Prevents {@link #compact(long)} from compacting segments until {@link #resumeCompaction()} is
+     * called, so that a range of detailed records stays available while it is replayed. The two calls
+     * may be made by different threads.
+     */
+    public void suspendCompaction() {
+        compactionPermit.acquireUninterruptibly();
+    }
+
+    /**
+     * Allows {@link #compact(long)} to compact segments again after {@link #suspendCompaction()}.
+     */
+    public void resumeCompaction() {
+        compactionPermit.release();
+    }
+
+    /**
+     * Compacts the closed segments whose last record is older than the retention window, oldest first.
+     * The records of each segment are aggregated per interval, the aggregates are appended and synced,
+     * the index is updated and only then the segment is deleted. Does nothing while compaction is
+     * suspended.
+     *
+     * @param nowMs the current time in milliseconds.
+     * @return the number of compacted segments.
+     * @throws IOException if a segment cannot be read or the aggregates or the index cannot be written.
+     */
+    public int compact(long nowMs) throws IOException {
+        if (!compactionPermit.tryAcquire()) return 0;
+        try {
+            int compacted = 0;
+            for (Segment segment : state.closed()) {
+                if (segment.compacted()) continue;
+                if (nowMs - segment.lastTimestampMs() < retentionMs) break;
+                compactSegment(segment);
+                compacted++;
+            }
+            return compacted;
+        } finally {
+            compactionPermit.release();
+        }
+    }
+
+    /**
+     * Replays the records of the range {@code [from, to)} in log order. Detailed records are handed to
+     * the record handler; compacted segments are handed to the aggregate consumer as their aggregates.
+     * Compaction must be suspended while the range is chosen and replayed, see
+     * {@link #suspendCompaction()}, so that its detailed segments are not deleted meanwhile.
+     *
+     * @param from       the global index of the first record to replay. Must not fall inside a compacted
+     *                   segment.
+     * @param to         the global index after the last record to replay, at most the committed size of the log.
+     * @param records    the handler receiving the detailed records.
+     * @param aggregates the consumer receiving the aggregates of compacted segments.
+     * @return the number of records replayed, in detail or as aggregates.
+     * @throws IOException              if a segment or the aggregates cannot be read.
+     * @throws IllegalArgumentException if the range is invalid or starts inside a compacted segment.
+     */
+    public long replay(long from, long to, RecordHandler records, Consumer<SpinAggregate> aggregates)
+            throws IOException {
+        if (from < 0 || to < from) throw new IllegalArgumentException("Invalid record range.");
+        final State current = state;
+        long replayed = 0;
+        for (Segment segment : current.closed()) {
+            if (segment.end() <= from) continue;
+            if (segment.first() >= to) return replayed;
+            if (segment.compacted()) {
+                if (from > segment.first()) throw new IllegalArgumentException("Range starts in a compacted segment.");
+                readAggregates(segment, aggregates);
+                replayed += segment.records();
+            } else {
+                replayed += SpinLog.scan(segmentPath(directory, segment.first()), Math.max(0, from - segment.first()),
+                        Math.min(segment.records(), to - segment.first()), records);
+            }
+        }
+        if (to > current.liveFirst()) {
+            replayed += SpinLog.scan(segmentPath(directory, current.liveFirst()),
+                    Math.max(0, from - current.liveFirst()), to - current.liveFirst(), records);
+        }
+        return replayed;
+    }
+
+    /**
+     * Commits, syncs and closes the live segment. The live segment is not added to the index, it is
+     * reopened as the live segment by the next {@link #open(Path, long, long, long, long)}.
+     *
+     * @throws IOException if the live segment cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        live.close();
+    }
+
+    /**
+     * Lists the detailed segments of a log in record order, closed segments first and the live segment
+     * last, without opening the log for appending.
+     *
+     * @param directory the directory of the log.
+     * @return the paths of the detailed segments that exist.
+     * @throws IOException       if the index cannot be read.
+     * @throws SlotUserException if the index is invalid.
+     */
+    public static List<Path> detailedSegments(Path directory) throws IOException {
+        final List<Segment> closed = readIndex(directory);
+        final List<Path> paths = new ArrayList<>();
+        for (Segment segment : closed) {
+            if (!segment.compacted()) paths.add(segmentPath(directory, segment.first()));
+        }
+        final Path live = segmentPath(directory, closed.isEmpty() ? 0 : closed.get(closed.size() - 1).end());
+        if (Files.exists(live)) paths.add(live);
+        return paths;
+    }
+
+    /**
+     * Closes the live segment, records it in the index and starts a new live segment after it.
+     * <p>
+     * The live segment is committed and synced, then the new segment is created and the index written,
+     * before anything is switched. If any of these steps fails, the live segment stays open and keeps
+     * taking records, and the rotation is attempted again by the next {@link #append}. Closing the
+     * previous segment once the new one is live only truncates its unused tail, so a failure there is
+     * logged and does not fail the rotation.
+     *
+     * @throws IOException if the live segment cannot be synced, or the new segment or the index cannot be
+     *                     written.
+     */
+    private void rotate() throws IOException {
+        final State current = state;
+        final long records = live.size();
+        live.commit();
+        live.sync();
+        final List<Segment> closed = new ArrayList<>(current.closed());
+        closed.add(new Segment(current.liveFirst(), records, liveFirstTimestampMs, liveLastTimestampMs, -1, -1));
+        final Path next = segmentPath(directory, current.liveFirst() + records);
+        final SpinLog opened = SpinLog.open(next);
+        try {
+            writeIndex(closed);
+        } catch (IOException e) {
+            try {
+                opened.close();
+                Files.deleteIfExists(next);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        final SpinLog previous = live;
+        live = opened;
+        state = new State(List.copyOf(closed), current.liveFirst() + records);
+        try {
+            previous.close();
+        } catch (IOException e) {
+            log.warn("Failed to close segment {} of {}, its records are synced", current.liveFirst(), directory, e);
+        }
+    }
+
+    /**
+     * Opens the live segment starting at a record, reading the timestamps of its existing records.
+     *
+     * @param first the global index of the first record of the segment.
+     * @throws IOException if the segment cannot be opened.
+     */
+    private void openLive(long first) throws IOException {
+        final Path path = segmentPath(directory, first);
+        live = SpinLog.open(path);
+        final long records = live.size();
+        if (records == 0) return;
+        SpinLog.scan(path, 0, 1, (ts, player, bet, win, balance, result) -> liveFirstTimestampMs = ts);
+        SpinLog.scan(path, records - 1, records, (ts, player, bet, win, balance, result) -> liveLastTimestampMs = ts);
+    }
+
+    /**
+     * Replaces a closed segment with its aggregates.
+     *
+     * @param segment the detailed segment to compact.
+     * @throws IOException if the segment cannot be read or the aggregates or the index cannot be written.
+     */
+    private void compactSegment(Segment segment) throws IOException {
+        final Path path = segmentPath(directory, segment.first());
+        final Map<Long, long[]> intervals = new TreeMap<>();
+        SpinLog.scan(path, (ts, player, bet, win, balance, result) -> {
+            final long[] a = intervals.computeIfAbsent(Math.floorDiv(ts, aggregateMs) * aggregateMs, k -> new long[]{
+                    0, 0, Long.MAX_VALUE, Long.MIN_VALUE, 0, 0, Long.MAX_VALUE, Long.MIN_VALUE});
+            a[0]++;
+            a[1] += bet;
+            a[2] = Math.min(a[2], bet);
+            a[3] = Math.max(a[3], bet);
+            if (win > 0) {
+                a[4]++;
+                a[5] += win;
+                a[6] = Math.min(a[6], win);
+                a[7] = Math.max(a[7], win);
+            }
+        });
+        final State current = state;
+        final long aggregateFrom = current.aggregates();
+        final ByteBuffer buffer = ByteBuffer.allocate(intervals.size() * AGGREGATE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (Map.Entry<Long, long[]> interval : intervals.entrySet()) {
+            final long[] a = interval.getValue();
+            buffer.putLong(interval.getKey());
+            writeStats(buffer, StatsSnapshot.of(a[0], a[1], a[2], a[3]));
+            writeStats(buffer, StatsSnapshot.of(a[4], a[5], a[6], a[7]));
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(directory.resolve(AGGREGATES_FILE), StandardOpenOption.WRITE)) {
+            long position = aggregateFrom * AGGREGATE_SIZE;
+            while (buffer.hasRemaining()) position += channel.write(buffer, position);
+            channel.force(false);
+        }
+        final List<Segment> closed = new ArrayList<>(current.closed());
+        closed.set(closed.indexOf(segment), new Segment(segment.first(), segment.records(), segment.firstTimestampMs(),
+                segment.lastTimestampMs(), aggregateFrom, aggregateFrom + intervals.size()));
+        writeIndex(closed);
+        state = new State(List.copyOf(closed), current.liveFirst());
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Reads the aggregates of a compacted segment.
+     *
+     * @param segment    the compacted segment.
+     * @param aggregates the consumer receiving the aggregates.
+     * @throws IOException if the aggregates file cannot be read.
+     */
+    private void readAggregates(Segment segment, Consumer<SpinAggregate> aggregates) throws IOException {
+        final int count = (int) (segment.aggregateTo() - segment.aggregateFrom());
+        final ByteBuffer buffer = ByteBuffer.allocate(count * AGGREGATE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(directory.resolve(AGGREGATES_FILE), StandardOpenOption.READ)) {
+            long position = segment.aggregateFrom() * AGGREGATE_SIZE;
+            while (buffer.hasRemaining()) {
+                final int read = channel.read(buffer, position);
+                if (read < 0) throw new SlotUserException("Truncated aggregates of " + directory);
+                position += read;
+            }
+        }
+        buffer.flip();
+        for (int i = 0; i < count; i++) {
+            aggregates.accept(new SpinAggregate(buffer.getLong(), readStats(buffer), readStats(buffer)));
+        }
+    }
+
+    /**
+     * Writes the index listing the closed segments, replacing the previous one atomically.
+     *
+     * @param closed the closed segments, in record order.
+     * @throws IOException if the index cannot be written or moved into place.
+     */
+    private void writeIndex(List<Segment> closed) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(INDEX_HEADER_SIZE + closed.size() * ENTRY_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(INDEX_MAGIC).putInt(VERSION).putInt(closed.size()).putInt(0);
+        for (Segment segment : closed) {
+            buffer.putLong(segment.first()).putLong(segment.records())
+                    .putLong(segment.firstTimestampMs()).putLong(segment.lastTimestampMs())
+                    .putLong(segment.aggregateFrom()).putLong(segment.aggregateTo());
+        }
+        buffer.flip();
+        final Path index = directory.resolve(INDEX_FILE);
+        final Path temp = directory.resolve(INDEX_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the closed segments listed by the index of a log.
+     *
+     * @param directory the directory of the log.
+     * @return the closed segments in record order, empty if there is no index.
+     * @throws IOException       if the index cannot be read.
+     * @throws SlotUserException if the index is invalid.
+     */
+    private static List<Segment> readIndex(Path directory) throws IOException {
+        final Path index = directory.resolve(INDEX_FILE);
+        if (!Files.exists(index)) return List.of();
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(index)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < INDEX_HEADER_SIZE || buffer.getInt() != INDEX_MAGIC) {
+            throw new SlotUserException("Not a spin log index " + index);
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) throw new SlotUserException("Unsupported spin log index version " + version);
+        final int count = buffer.getInt();
+        buffer.getInt();
+        if (count < 0 || buffer.remaining() != (long) count * ENTRY_SIZE) {
+            throw new SlotUserException("Truncated spin log index " + index);
+        }
+        final List<Segment> closed = new ArrayList<>(count);
+        long next = 0;
+        for (int i = 0; i < count; i++) {
+            final Segment segment = new Segment(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                    buffer.getLong(), buffer.getLong());
+            if (segment.first() != next || segment.records() < 0) {
+                throw new SlotUserException("Invalid spin log index " + index);
+            }
+            closed.add(segment);
+            next = segment.end();
+        }
+        return closed;
+    }
+
+    /**
+     * Resolves the file of a segment.
+     *
+     * @param directory the directory of the log.
+     * @param first     the global index of the first record of the segment.
+     * @return the path of the segment file.
+     */
+    private static Path segmentPath(Path directory, long first) {
+        return directory.resolve("%020d%s".formatted(first, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Reads the count, sum, min and max of a statistics block.
+     *
+     * @param buffer the buffer positioned at the block.
+     * @return the statistics of the block.
+     */
+    private static StatsSnapshot readStats(ByteBuffer buffer) {
+        return StatsSnapshot.of(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Writes the count, sum, min and max of a statistics block.
+     *
+     * @param buffer the buffer positioned at the block.
+     * @param stats  the statistics to write.
+     */
+    private static void writeStats(ByteBuffer buffer, StatsSnapshot stats) {
+        buffer.putLong(stats.count()).putLong(stats.sum()).putLong(stats.min()).putLong(stats.max());
+    }
+}
@@ -0,0 +1,14 @@
+package wtd.slotsengine.services.recorder;
+
+import wtd.slotsengine.utils.stats.StatsSnapshot;
+
+/**
+ * The aggregate of the spins of one time interval, kept in place of the individual records of a
+ * compacted segment of a {@link SegmentedSpinLog}.
+ *
+ * @param intervalStartMs the start of the interval in milliseconds, a multiple of the aggregation interval.
+ * @param bets            the statistics of the bet amounts of the spins of the interval.
+ * @param wins            the statistics of the positive win amounts of the spins of the interval.
+ */
+public record SpinAggregate(long intervalStartMs, StatsSnapshot bets, StatsSnapshot wins) {
+}
@@ -0,0 +1,347 @@
+package wtd.slotsengine.services.recorder;
+
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static wtd.slotsengine.utils.SlotUtils.appendAscii;
+
+/**
+ * An append-only log of spins stored as fixed-width binary records in a memory-mapped file.
+ * <p>
+ * Every record has the same size, so appending one is a handful of stores into the mapping at an
+ * offset computed from the record count, and reading the log back is a sequential scan that decodes
+ * fields at fixed offsets without any parsing. Records are appended into mapped regions of
+ * {@value #REGION_RECORDS} records; the file grows by one region whenever the current one is full.
+ * <p>
+ * The file starts with a fixed-size little-endian header followed by the records:
+ * - magic: the int {@value #MAGIC}, identifying the format.
+ * - version: the int {@value #VERSION}.
+ * - record size: the int {@value #RECORD_SIZE}.
+ * - reserved: an int, currently 0.
+ * - count: the long number of committed records.
+ * - reserved: a long, currently 0.
+ * <p>
+ * Each record holds the timestamp in milliseconds, the player id, the bet amount, the win amount and
+ * the balance after the spin as longs, followed by the resulting symbol as an int and 4 bytes of
+ * padding. Appended records only become part of the log once {@link #commit()} stores the new count
+ * in the header, so a process that dies while appending leaves the log at its last commit, and
+ * records past the committed count are overwritten by the next append.
+ * <p>
+ * Instances are not thread-safe: a log is appended to by a single writer.
+ */
+public final class SpinLog implements AutoCloseable {
+    /**
+     * The magic number identifying a spin log file, the ASCII characters {@code SLOG}.
+     */
+    public static final int MAGIC = 0x534C4F47;
+    /**
+     * The version of the log format written by this class.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The size of the file header, in bytes.
+     */
+    public static final int HEADER_SIZE = 32;
+    /**
+     * The size of a record, in bytes.
+     */
+    public static final int RECORD_SIZE = 48;
+    /**
+     * The number of records mapped at once while appending or scanning.
+     */
+    public static final int REGION_RECORDS = 1 << 16;
+    /**
+     * The header line of the CSV export, naming the exported columns.
+     */
+    public static final String CSV_HEADER = "timestampMs,player,betAmount,winAmount,balance,symbol";
+    private static final int COUNT_OFFSET = 16;
+    private static final int MAX_CSV_LINE = 6 * 20 + 6;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long count;
+    private long committed;
+
+    /**
+     * Constructs a {@code SpinLog} around an open and validated file.
+     *
+     * @param path    the path of the log.
+     * @param channel the channel of the log, open for reading and writing.
+     * @param header  the read-write mapping of the header.
+     */
+    private SpinLog(Path path, FileChannel channel, MappedByteBuffer header) {
+        this.path = path;
+        this.channel = channel;
+        this.header = header;
+        this.count = this.committed = header.getLong(COUNT_OFFSET);
+    }
+
+    /**
+     * Opens a spin log for appending, creating it if it does not exist. New records are appended after
+     * the committed records of the file.
+     *
+     * @param path the path of the log.
+     * @return the opened log.
+     * @throws IOException       if the file cannot be opened or mapped.
+     * @throws SlotUserException if the file exists but is not a valid spin log.
+     */
+    public static SpinLog open(Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            final long size = channel.size();
+            if (size > 0 && size < HEADER_SIZE) throw new SlotUserException("Truncated spin log " + path);
+            final boolean created = size == 0;
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (created) {
+                header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, RECORD_SIZE).putLong(COUNT_OFFSET, 0);
+                header.force();
+            } else {
+                validate(path, header, size);
+            }
+            return new SpinLog(path, channel, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a record to the log. The record is written straight into the mapping and becomes part of
+     * the log with the next {@link #commit()}.
+     *
+     * @param timestampMs the timestamp of the spin in milliseconds.
+     * @param playerId    the id of the player who placed the bet.
+     * @param betAmount   the amount of the bet placed.
+     * @param winAmount   the amount won.
+     * @param balance     the balance of the player after the spin.
+     * @param result      the resulting symbol of the spin.
+     * @throws IOException if the region holding the record cannot be mapped.
+     */
+    public void append(long timestampMs, long playerId, long betAmount, long winAmount, long balance, int result)
+            throws IOException {
+        if (region == null || count - regionStart >= REGION_RECORDS) mapRegion(count);
+        final int offset = (int) (count - regionStart) * RECORD_SIZE;
+        region.putLong(offset, timestampMs)
+                .putLong(offset + 8, playerId)
+                .putLong(offset + 16, betAmount)
+                .putLong(offset + 24, winAmount)
+                .putLong(offset + 32, balance)
+                .putInt(offset + 40, result)
+                .putInt(offset + 44, 0);
+        count++;
+    }
+
+    /**
+     * Makes every appended record part of the log by storing the record count in the header. The
+     * records are then visible to readers of the file, but not necessarily on the storage device; see
+     * {@link #sync()}.
+     */
+    public void commit() {
+        if (committed == count) return;
+        header.putLong(COUNT_OFFSET, count);
+        committed = count;
+    }
+
+    /**
+     * Forces the committed records, then the header, to the storage device.
+     *
+     * @throws IOException if the file cannot be synced.
+     */
+    public void sync() throws IOException {
+        if (region != null) region.force();
+        channel.force(false);
+        header.force();
+    }
+
+    /**
+     * Retrieves the number of records of the log, including records appended but not yet committed.
+     *
+     * @return the number of records.
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Commits and syncs the appended records, trims the file to its committed records and closes it.
+     *
+     * @throws IOException if the file cannot be synced, trimmed or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            commit();
+            sync();
+            region = null;
+            channel.truncate(HEADER_SIZE + committed * RECORD_SIZE);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Maps the region of the file holding a record, growing the file if needed. Regions start at
+     * multiples of {@value #REGION_RECORDS} records.
+     *
+     * @param record the index of the record.
+     * @throws IOException if the region cannot be mapped.
+     */
+    private void mapRegion(long record) throws IOException {
+        regionStart = record - record % REGION_RECORDS;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + regionStart * RECORD_SIZE,
+                (long) REGION_RECORDS * RECORD_SIZE);
+        region.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Reads every committed record of a spin log in append order and hands it to the handler. The file
+     * is mapped read-only region by region, so records are decoded straight from the page cache.
+     *
+     * @param path    the path of the log.
+     * @param handler the handler receiving the records.
+     * @return the number of records read.
+     * @throws IOException       if the file cannot be read.
+     * @throws SlotUserException if the file is not a valid spin log.
+     */
+    public static long scan(Path path, RecordHandler handler) throws IOException {
+        return scan(path, 0, -1, handler);
+    }
+
+    /**
+     * Reads the committed records of a spin log in the range {@code [from, to)} in append order and
+     * hands them to the handler. The log may be appended to concurrently; only records committed when
+     * the scan starts are read.
+     *
+     * @param path    the path of the log.
+     * @param from    the index of the first record to read.
+     * @param to      the index after the last record to read, or -1 to read up to the last committed record.
+     * @param handler the handler receiving the records.
+     * @return the number of records read.
+     * @throws IOException              if the file cannot be read.
+     * @throws SlotUserException        if the file is not a valid spin log or holds fewer than {@code to}
+     *                                  committed records.
+     * @throws IllegalArgumentException if the range is invalid.
+     */
+    public static long scan(Path path, long from, long to, RecordHandler handler) throws IOException {
+        if (from < 0 || (to >= 0 && to < from)) throw new IllegalArgumentException("Invalid record range.");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < HEADER_SIZE) throw new SlotUserException("Truncated spin log " + path);
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            final long committed = validate(path, header, size);
+            final long count = to < 0 ? committed : to;
+            if (count > committed) throw new SlotUserException("Truncated spin log " + path);
+            for (long start = Math.min(from, count); start < count; start += REGION_RECORDS) {
+                final int records = (int) Math.min(REGION_RECORDS, count - start);
+                final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + start * RECORD_SIZE, (long) records * RECORD_SIZE);
+                region.order(ByteOrder.LITTLE_ENDIAN);
+                for (int offset = 0, end = records * RECORD_SIZE; offset < end; offset += RECORD_SIZE) {
+                    handler.accept(region.getLong(offset), region.getLong(offset + 8), region.getLong(offset + 16),
+                            region.getLong(offset + 24), region.getLong(offset + 32), region.getInt(offset + 40));
+                }
+            }
+            return Math.max(0, count - from);
+        }
+    }
+
+    /**
+     * Exports every committed record of a spin log as CSV, one line per record after the
+     * {@value #CSV_HEADER} header line. CSV is an export format only; the engine never reads it back.
+     *
+     * @param path   the path of the log.
+     * @param target the path of the CSV file, replaced if it exists.
+     * @return the number of records exported.
+     * @throws IOException       if the log cannot be read or the CSV file cannot be written.
+     * @throws SlotUserException if the file is not a valid spin log.
+     */
+    public static long exportCsv(Path path, Path target) throws IOException {
+        return exportCsv(List.of(path), target);
+    }
+
+    /**
+     * Exports every committed record of several spin logs, in the given order, as one CSV file with a
+     * single {@value #CSV_HEADER} header line, for example the segments of a {@link SegmentedSpinLog}.
+     *
+     * @param paths  the paths of the logs.
+     * @param target the path of the CSV file, replaced if it exists.
+     * @return the number of records exported.
+     * @throws IOException       if a log cannot be read or the CSV file cannot be written.
+     * @throws SlotUserException if a file is not a valid spin log.
+     */
+    public static long exportCsv(List<Path> paths, Path target) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), 1 << 16)) {
+            out.write((CSV_HEADER + "\n").getBytes(StandardCharsets.US_ASCII));
+            final byte[] line = new byte[MAX_CSV_LINE];
+            final RecordHandler formatter = (timestampMs, playerId, betAmount, winAmount, balance, result) -> {
+                int pos = appendAscii(line, 0, timestampMs);
+                line[pos++] = ',';
+                pos = appendAscii(line, pos, playerId);
+                line[pos++] = ',';
+                pos = appendAscii(line, pos, betAmount);
+                line[pos++] = ',';
+                pos = appendAscii(line, pos, winAmount);
+                line[pos++] = ',';
+                pos = appendAscii(line, pos, balance);
+                line[pos++] = ',';
+                pos = appendAscii(line, pos, result);
+                line[pos++] = '\n';
+                try {
+                    out.write(line, 0, pos);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            };
+            long exported = 0;
+            for (Path path : paths) exported += scan(path, formatter);
+            return exported;
+        }
+    }
+
+    /**
+     * Validates the header of a spin log against the size of its file.
+     *
+     * @param path   the path of the log, used for error reporting.
+     * @param header the mapping of the header.
+     * @param size   the size of the file, in bytes.
+     * @return the number of committed records.
+     * @throws SlotUserException if the header is invalid or the file is shorter than its committed records.
+     */
+    private static long validate(Path path, MappedByteBuffer header, long size) {
+        if (header.getInt(0) != MAGIC) throw new SlotUserException("Not a spin log " + path);
+        final int version = header.getInt(4);
+        if (version != VERSION) throw new SlotUserException("Unsupported spin log version " + version);
+        final int recordSize = header.getInt(8);
+        if (recordSize != RECORD_SIZE) throw new SlotUserException("Unsupported spin log record size " + recordSize);
+        final long count = header.getLong(COUNT_OFFSET);
+        if (count < 0 || count > (size - HEADER_SIZE) / RECORD_SIZE) {
+            throw new SlotUserException("Truncated spin log " + path);
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the path of the log.
+     *
+     * @return the path of the log file.
+     */
+    public Path getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,172 @@
+package wtd.slotsengine.services.recorder;
+
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.utils.stats.LogHistogram;
+import wtd.slotsengine.utils.stats.StatsSnapshot;
+import wtd.slotsengine.utils.stats.WinDistributionStats;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An aggregate checkpoint of the recorded statistics: the bet and win statistics and the win
+ * distribution of the first {@code records} records of a {@link SpinLog}. Loading a checkpoint and
+ * replaying only the records after it restores the same statistics as replaying the whole log.
+ * <p>
+ * A checkpoint is stored in a little-endian file of fixed size:
+ * - magic: the int {@value #MAGIC}, identifying the format.
+ * - version: the int {@value #VERSION}.
+ * - records: the long number of log records covered by the checkpoint.
+ * - bets: the count, sum, min and max of the bet amounts, as longs.
+ * - wins: the count, sum, min and max of the win amounts, as longs.
+ * - win multipliers: the {@value LogHistogram#BUCKETS} counts of the win multiplier histogram, as longs.
+ * - symbols: the {@value WinDistributionStats#SYMBOL_COUNT} counts of the symbols, as longs.
+ * <p>
+ * Checkpoints of version 1 end after the wins and are read with an empty win distribution.
+ * <p>
+ * The file is written next to its final path and atomically moved into place, so a checkpoint is
+ * either the previous one or the new one, never a partially written file.
+ *
+ * @param records      the number of log records covered by the checkpoint.
+ * @param bets         the statistics of the bet amounts of those records.
+ * @param wins         the statistics of the win amounts of those records.
+ * @param winCounts    the counts of the win multiplier histogram of those records.
+ * @param symbolCounts the counts of the symbols of those records.
+ */
+public record StatsCheckpoint(long records, StatsSnapshot bets, StatsSnapshot wins, long[] winCounts,
+                              long[] symbolCounts) {
+    /**
+     * The magic number identifying a checkpoint file, the ASCII characters {@code SCKP}.
+     */
+    public static final int MAGIC = 0x53434B50;
+    /**
+     * The version of the checkpoint format written by this class.
+     */
+    public static final int VERSION = 2;
+    /**
+     * The size of a checkpoint file of version 1, without the win distribution, in bytes.
+     */
+    private static final int V1_SIZE = 16 + 8 * Long.BYTES;
+    /**
+     * The size of a checkpoint file, in bytes.
+     */
+    public static final int SIZE = V1_SIZE + (LogHistogram.BUCKETS + WinDistributionStats.SYMBOL_COUNT) * Long.BYTES;
+
+    /**
+     * Creates a checkpoint without win distribution.
+     *
+     * @param records the number of log records covered by the checkpoint.
+     * @param bets    the statistics of the bet amounts of those records.
+     * @param wins    the statistics of the win amounts of those records.
+     */
+    public StatsCheckpoint(long records, StatsSnapshot bets, StatsSnapshot wins) {
+        this(records, bets, wins, new long[LogHistogram.BUCKETS], new long[WinDistributionStats.SYMBOL_COUNT]);
+    }
+
+    /**
+     * Validates the sizes of the counts of the win distribution.
+     *
+     * @throws IllegalArgumentException if the counts do not have one entry per bucket and per symbol.
+     */
+    public StatsCheckpoint {
+        if (winCounts.length != LogHistogram.BUCKETS || symbolCounts.length != WinDistributionStats.SYMBOL_COUNT) {
+            throw new IllegalArgumentException("Invalid win distribution.");
+        }
+    }
+
+    /**
+     * Reads a checkpoint file.
+     *
+     * @param path the path of the checkpoint.
+     * @return the checkpoint, or {@code null} if the file does not exist.
+     * @throws IOException       if the file cannot be read.
+     * @throws SlotUserException if the file is not a valid checkpoint.
+     */
+    public static StatsCheckpoint read(Path path) throws IOException {
+        if (!Files.exists(path)) return null;
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < V1_SIZE || buffer.getInt() != MAGIC) {
+            throw new SlotUserException("Not a checkpoint " + path);
+        }
+        final int version = buffer.getInt();
+        if (version != 1 && version != VERSION) {
+            throw new SlotUserException("Unsupported checkpoint version " + version);
+        }
+        if (buffer.capacity() != (version == 1 ? V1_SIZE : SIZE)) {
+            throw new SlotUserException("Not a checkpoint " + path);
+        }
+        final long records = buffer.getLong();
+        if (records < 0) throw new SlotUserException("Invalid checkpoint " + path);
+        final StatsSnapshot bets = readStats(buffer), wins = readStats(buffer);
+        if (version == 1) return new StatsCheckpoint(records, bets, wins);
+        return new StatsCheckpoint(records, bets, wins, readCounts(buffer, LogHistogram.BUCKETS),
+                readCounts(buffer, WinDistributionStats.SYMBOL_COUNT));
+    }
+
+    /**
+     * Writes the checkpoint, replacing any previous checkpoint at the same path. The file is forced to
+     * the storage device before it replaces the previous one.
+     *
+     * @param path the path of the checkpoint.
+     * @throws IOException if the file cannot be written or moved into place.
+     */
+    public void write(Path path) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(records);
+        writeStats(buffer, bets);
+        writeStats(buffer, wins);
+        for (long count : winCounts) buffer.putLong(count);
+        for (long count : symbolCounts) buffer.putLong(count);
+        buffer.flip();
+        final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the count, sum, min and max of a statistics block.
+     *
+     * @param buffer the buffer positioned at the block.
+     * @return the statistics of the block.
+     */
+    private static StatsSnapshot readStats(ByteBuffer buffer) {
+        return StatsSnapshot.of(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Reads a block of counts.
+     *
+     * @param buffer the buffer positioned at the block.
+     * @param length the number of counts of the block.
+     * @return the counts of the block.
+     * @throws SlotUserException if a count is negative.
+     */
+    private static long[] readCounts(ByteBuffer buffer, int length) {
+        final long[] counts = new long[length];
+        for (int i = 0; i < length; i++) {
+            counts[i] = buffer.getLong();
+            if (counts[i] < 0) throw new SlotUserException("Invalid checkpoint counts.");
+        }
+        return counts;
+    }
+
+    /**
+     * Writes the count, sum, min and max of a statistics block.
+     *
+     * @param buffer the buffer positioned at the block.
+     * @param stats  the statistics to write.
+     */
+    private static void writeStats(ByteBuffer buffer, StatsSnapshot stats) {
+        buffer.putLong(stats.count()).putLong(stats.sum()).putLong(stats.min()).putLong(stats.max());
+    }
+}
@@ -0,0 +1,14 @@
+package wtd.slotsengine.slots.exceptions;
+
+/**
+ * Represents a {@link SlotUserException} thrown when data received from a user is larger than the limit
+ * accepted for it, such as a compressed reel that expands past the largest accepted reel.
+ * <p>
+ * Callers catch it apart from the other user errors to report the limit in their own terms, while
+ * malformed data keeps its own exception and message.
+ */
+public class SizeLimitExceededException extends SlotUserException {
+    public SizeLimitExceededException(String message) {
+        super(message);
+    }
+}
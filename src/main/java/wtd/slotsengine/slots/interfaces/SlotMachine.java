@@ -1,6 +1,8 @@
 package wtd.slotsengine.slots.interfaces;
 
 import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.records.SpinBatchOutcome;
 import wtd.slotsengine.slots.machines.records.SpinOutcome;
 
 
@@ -10,7 +12,12 @@ import wtd.slotsengine.slots.machines.records.SpinOutcome;
  */
 public interface SlotMachine {
     /**
-     * Executes a spin on the slot machine with the specified bet amount.
+     * The id of the player whose wallet is used by the operations that take no player id.
+     */
+    long DEFAULT_PLAYER = 0L;
+
+    /**
+     * Executes a spin on the slot machine for a player with the specified bet amount.
      * <p>
      * This method deducts the bet amount from the player's balance and performs
      * a spin operation to determine the outcome. The outcome includes the win
@@ -18,38 +25,135 @@ public interface SlotMachine {
      * current balance is insufficient to cover the bet amount, an
      * {@link InsufficientFundsException} is thrown.
      *
+     * @param playerId  the id of the player placing the bet
+     * @param betAmount the amount of credits to bet on the spin
+     * @return the result of the spin, encapsulated in a {@code SpinOutcome} record
+     * @throws InsufficientFundsException if the player's balance is insufficient
+     *                                    to place the specified bet amount
+     */
+    default SpinOutcome spin(long playerId, long betAmount) throws InsufficientFundsException {
+        return spin(playerId, betAmount, SpinOutcome::new);
+    }
+
+    /**
+     * Executes a spin on the slot machine for a player with the specified bet amount, reporting the
+     * outcome through the given factory.
+     * <p>
+     * The spin is evaluated and settled on primitive values, and the factory is called once with the
+     * result, so the only object allocated for the spin is the one the factory creates.
+     *
+     * @param playerId  the id of the player placing the bet
+     * @param betAmount the amount of credits to bet on the spin
+     * @param factory   the factory creating the object reporting the outcome of the spin
+     * @param <T>       the type of the object reporting the outcome of the spin
+     * @return the object created by the factory for the spin
+     * @throws InsufficientFundsException if the player's balance is insufficient
+     *                                    to place the specified bet amount
+     */
+    <T> T spin(long playerId, long betAmount, SpinOutcomeFactory<T> factory) throws InsufficientFundsException;
+
+    /**
+     * Executes a spin on the slot machine for the {@link #DEFAULT_PLAYER}.
+     *
      * @param betAmount the amount of credits to bet on the spin
      * @return the result of the spin, encapsulated in a {@code SpinOutcome} record
      * @throws InsufficientFundsException if the player's balance is insufficient
      *                                    to place the specified bet amount
+     * @see #spin(long, long)
+     */
+    default SpinOutcome spin(long betAmount) throws InsufficientFundsException {
+        return spin(DEFAULT_PLAYER, betAmount);
+    }
+
+    /**
+     * Executes a batch of spins on the slot machine for a player, all with the specified bet amount.
+     * <p>
+     * The total bet of the batch is deducted from the player's balance once, the spins are
+     * executed back to back, and the total win is credited once. If the player's current
+     * balance is insufficient to cover the total bet, an {@link InsufficientFundsException}
+     * is thrown and no spin is executed.
+     *
+     * @param playerId  the id of the player placing the bets
+     * @param betAmount the amount of credits to bet on each spin
+     * @param count     the number of spins to execute, must be a positive value
+     * @return the results of the spins, encapsulated in a {@code SpinBatchOutcome} record
+     * @throws InsufficientFundsException if the player's balance is insufficient
+     *                                    to place the total bet of the batch
+     */
+    SpinBatchOutcome spinBatch(long playerId, long betAmount, int count) throws InsufficientFundsException;
+
+    /**
+     * Executes a batch of spins on the slot machine for the {@link #DEFAULT_PLAYER}.
+     *
+     * @param betAmount the amount of credits to bet on each spin
+     * @param count     the number of spins to execute, must be a positive value
+     * @return the results of the spins, encapsulated in a {@code SpinBatchOutcome} record
+     * @throws InsufficientFundsException if the player's balance is insufficient
+     *                                    to place the total bet of the batch
+     * @see #spinBatch(long, long, int)
      */
-    SpinOutcome spin(long betAmount) throws InsufficientFundsException;
+    default SpinBatchOutcome spinBatch(long betAmount, int count) throws InsufficientFundsException {
+        return spinBatch(DEFAULT_PLAYER, betAmount, count);
+    }
 
     /**
-     * Deposits the specified amount into the slot machine's balance.
+     * Deposits the specified amount into the balance of a player.
+     *
+     * @param playerId the id of the player
+     * @param amount   the amount to be deposited, must be a positive value
+     * @return the updated balance of the player after the deposit
+     */
+    long deposit(long playerId, long amount);
+
+    /**
+     * Deposits the specified amount into the balance of the {@link #DEFAULT_PLAYER}.
      *
      * @param amount the amount to be deposited, must be a positive value
      * @return the updated balance after the deposit
      */
-    long deposit(long amount);
+    default long deposit(long amount) {
+        return deposit(DEFAULT_PLAYER, amount);
+    }
 
     /**
-     * Withdraws a specified amount from the machine's balance.
+     * Withdraws a specified amount from the balance of a player.
      * If the balance is insufficient to cover the requested amount,
      * an InsufficientFundsException is thrown.
      *
-     * @param amount the amount to withdraw from the machine's balance
-     * @return the updated balance of the machine after the withdrawal
+     * @param playerId the id of the player
+     * @param amount   the amount to withdraw from the player's balance
+     * @return the updated balance of the player after the withdrawal
+     * @throws InsufficientFundsException if the current balance is less than the requested amount to withdraw
+     */
+    long withdraw(long playerId, long amount) throws InsufficientFundsException;
+
+    /**
+     * Withdraws a specified amount from the balance of the {@link #DEFAULT_PLAYER}.
+     *
+     * @param amount the amount to withdraw from the balance
+     * @return the updated balance after the withdrawal
      * @throws InsufficientFundsException if the current balance is less than the requested amount to withdraw
      */
-    long withdraw(long amount) throws InsufficientFundsException;
+    default long withdraw(long amount) throws InsufficientFundsException {
+        return withdraw(DEFAULT_PLAYER, amount);
+    }
 
     /**
-     * Retrieves the current balance available in the slot machine.
+     * Retrieves the current balance of a player.
+     *
+     * @param playerId the id of the player
+     * @return the current balance as a long value, 0 for players that never deposited
+     */
+    long getBalance(long playerId);
+
+    /**
+     * Retrieves the current balance of the {@link #DEFAULT_PLAYER}.
      *
      * @return the current balance as a long value
      */
-    long getBalance();
+    default long getBalance() {
+        return getBalance(DEFAULT_PLAYER);
+    }
 
     /**
      * Retrieves the RTP (Return to Player) percentage of the slot machine.
@@ -62,4 +166,24 @@ public interface SlotMachine {
      * expressed as a percentage (e.g., 96.5 for 96.5% RTP).
      */
     double getMachineRtp();
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the exact outcome statistics of the slot machine.
+     * <p>
+     * Besides the RTP, the statistics describe the spread of a single spin result per unit bet:
+     * its variance and standard deviation, the hit frequency, a volatility index, and the size and
+     * probability of the maximum win. They are derived from the machine's configuration rather than
+     * from the spins played so far.
+     *
+     * @return the outcome statistics of the slot machine.
+     */
+    OutcomeStats getMachineStats();
+
+    /**
+     * Sets the observer notified of every spin and batch of spins settled by the machine, replacing
+     * the previous one.
+     *
+     * @param observer the observer, {@link SpinObserver#NONE} to stop observing the machine.
+     */
+    void setSpinObserver(SpinObserver observer);
+}
@@ -0,0 +1,28 @@
+package wtd.slotsengine.slots.interfaces;
+
+/**
+ * Observes the spins settled by a slot machine, for example to publish latency and volume metrics.
+ * <p>
+ * The machine reports every settled spin or batch of spins once, on the spinning thread, with the time
+ * spent drawing the outcomes and the time spent settling them in the wallet. Only primitive values are
+ * passed, so an observer adds no allocation to the spin path; it must return quickly and must not
+ * throw.
+ */
+@FunctionalInterface
+public interface SpinObserver {
+    /**
+     * The observer of a machine that nobody observes.
+     */
+    SpinObserver NONE = (spins, hits, engineNanos, settleNanos) -> {
+    };
+
+    /**
+     * Reports a settled spin or batch of spins.
+     *
+     * @param spins       the number of spins settled together.
+     * @param hits        the number of those spins that won something.
+     * @param engineNanos the time in nanoseconds spent drawing and evaluating the outcomes.
+     * @param settleNanos the time in nanoseconds spent settling the outcomes in the wallet.
+     */
+    void onSpins(int spins, int hits, long engineNanos, long settleNanos);
+}
@@ -0,0 +1,24 @@
+package wtd.slotsengine.slots.interfaces;
+
+/**
+ * Builds the object reporting the outcome of a spin from its primitive fields.
+ * <p>
+ * A slot machine settles a spin on primitive values only and hands them to the factory once, so the
+ * caller decides which single object, if any, is allocated for the spin: for example the REST response
+ * itself, instead of an intermediate outcome that is copied into it.
+ *
+ * @param <T> the type of the object created for the spin.
+ */
+@FunctionalInterface
+public interface SpinOutcomeFactory<T> {
+    /**
+     * Creates the object reporting the outcome of a spin.
+     *
+     * @param betAmount the amount of credits wagered for the spin.
+     * @param winAmount the amount of credits won by the spin.
+     * @param symbol    the resulting symbol of the spin.
+     * @param balance   the balance of the player after the spin was settled.
+     * @return the object reporting the outcome of the spin.
+     */
+    T create(long betAmount, long winAmount, int symbol, long balance);
+}
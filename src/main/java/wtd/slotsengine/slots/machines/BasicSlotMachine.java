@@ -2,38 +2,133 @@ package wtd.slotsengine.slots.machines;
 
 import wtd.slotsengine.slots.exceptions.SlotUserException;
 import wtd.slotsengine.slots.machines.abstracts.AbstractSlotMachine;
+import wtd.slotsengine.slots.machines.analysis.ReelAnalyzer;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.records.RegisteredReel;
 import wtd.slotsengine.slots.machines.records.SpinRecord;
 import wtd.slotsengine.slots.machines.reels.IReel;
+import wtd.slotsengine.slots.machines.reels.MappedReel;
+import wtd.slotsengine.slots.machines.reels.ReelCursor;
+import wtd.slotsengine.slots.machines.reels.ReelRegistry;
 import wtd.slotsengine.slots.machines.reels.VirtualReel;
+import wtd.slotsengine.slots.rng.RngProvider;
 import wtd.slotsengine.utils.SlotConstants;
 
+import java.nio.file.Path;
+import java.util.random.RandomGenerator;
+
 /**
  * Represents a basic slot machine implementation extending {@link AbstractSlotMachine}.
  * This class uses a predefined {@link VirtualReel} for spin operations and provides methods
  * for RTP (Return to Player) calculation and payout computation.
  * <p>
- * The machine operates with fixed paylines and symbol payouts as defined in this class.
- * It also calculates theoretical RTP based on the virtual reel configuration.
+ * Reels are obtained from a {@link ReelRegistry}, which decodes, validates against the {@link PayTable}
+ * and analyzes every distinct reel exactly once. The active reel, its cursor and its statistics are held
+ * in a single immutable state published through a volatile field, so the reel can be swapped with
+ * {@link #swapReel(String)} while spins are in flight: each spin reads the state once and completes
+ * against either the old or the new reel, without any lock on the spin path.
  */
 final public class BasicSlotMachine extends AbstractSlotMachine {
-    private final VirtualReel reel;
-    private int counter;
-    private Double cachedRtp = 0.0;
+    private final ReelRegistry registry;
+    private final PayTable payTable;
+    private volatile ReelState state;
 
     /**
      * Constructs a new instance of the BasicSlotMachine with a predefined virtual reel configuration.
      * <p>
      * This constructor initializes the slot machine by loading a virtual reel from a predefined
-     * configuration string stored in {@link SlotConstants#DEMO_MACHINE}. It also calculates and caches
-     * the theoretical Return to Player (RTP) value based on the reel's configuration.
+     * configuration string stored in {@link SlotConstants#DEMO_MACHINE}, paying according to
+     * {@link SlotConstants#DEMO_PAYTABLE}. It also calculates and caches the theoretical Return
+     * to Player (RTP) value based on the reel's configuration.
      * <p>
      * The virtual reel is shuffled during initialization to ensure randomness, and the resulting
      * instance is ready for spin operations and RTP querying.
      */
     public BasicSlotMachine() {
+        this(PayTable.parse(SlotConstants.DEMO_PAYTABLE));
+    }
+
+    /**
+     * Constructs a new instance of the BasicSlotMachine with the predefined virtual reel configuration
+     * stored in {@link SlotConstants#DEMO_MACHINE} and the given pay table.
+     *
+     * @param payTable the pay table used to evaluate spin outcomes.
+     * @throws SlotUserException if the reel contains a symbol that is not defined by the pay table.
+     */
+    public BasicSlotMachine(PayTable payTable) {
+        this(payTable, RngProvider.DEFAULT);
+    }
+
+    /**
+     * Constructs a new instance of the BasicSlotMachine with the predefined virtual reel configuration
+     * stored in {@link SlotConstants#DEMO_MACHINE}, the given pay table and random number provider.
+     *
+     * @param payTable the pay table used to evaluate spin outcomes.
+     * @param rng      the random number provider used to shuffle the reel.
+     * @throws SlotUserException if the reel contains a symbol that is not defined by the pay table.
+     */
+    public BasicSlotMachine(PayTable payTable, RngProvider rng) {
+        this(new ReelRegistry(payTable, rng), SlotConstants.DEMO_MACHINE);
+    }
+
+    /**
+     * Constructs a new instance of the BasicSlotMachine spinning the given encoded reel, obtained from
+     * the given registry. The machine pays according to the registry's pay table.
+     *
+     * @param registry    the registry decoding and caching the reels of the machine.
+     * @param encodedReel the Base64-encoded, GZIP-compressed reel to spin.
+     * @throws SlotUserException if the reel is invalid or contains a symbol that is not defined by the pay table.
+     */
+    public BasicSlotMachine(ReelRegistry registry, String encodedReel) {
         super();
-        reel = VirtualReel.loadFromString(SlotConstants.DEMO_MACHINE);
-        cachedRtp = calculateRTP();
+        this.registry = registry;
+        this.payTable = registry.getPayTable();
+        this.state = new ReelState(registry.register(encodedReel));
+    }
+
+    /**
+     * Atomically replaces the active reel of the machine.
+     * <p>
+     * The reel is taken from the registry, so a reel that was used before is neither decoded nor analyzed
+     * again. Spins already in flight complete against the previous reel; every spin starting after this
+     * method returns uses the new reel, resuming its cycle where it was left, see {@link RegisteredReel}.
+     *
+     * @param encodedReel the Base64-encoded, GZIP-compressed reel to activate.
+     * @return the registered reel that became active.
+     * @throws SlotUserException if the reel is invalid or contains a symbol that is not defined by the pay table.
+     */
+    public RegisteredReel swapReel(String encodedReel) {
+        final RegisteredReel reel = registry.register(encodedReel);
+        state = new ReelState(reel);
+        return reel;
+    }
+
+    /**
+     * Atomically replaces the active reel of the machine with a memory-mapped reel strip.
+     * <p>
+     * The strip is registered like an encoded reel, see {@link ReelRegistry#register(Path)}, and its stops
+     * are read straight from the mapping, so strips with hundreds of millions of stops can be spun
+     * without being copied onto the heap.
+     *
+     * @param strip the path of a reel strip file written by {@link MappedReel#write(Path, IReel)}.
+     * @return the registered reel that became active.
+     * @throws SlotUserException if the file is not a valid reel strip or contains a symbol that is not
+     *                           defined by the pay table.
+     */
+    public RegisteredReel swapReel(Path strip) {
+        final RegisteredReel reel = registry.register(strip);
+        state = new ReelState(reel);
+        return reel;
+    }
+
+    /**
+     * Retrieves the reel currently spun by the machine.
+     *
+     * @return the active {@link RegisteredReel}, including its content hash and statistics.
+     */
+    public RegisteredReel getActiveReel() {
+        return state.registered();
     }
 
     /**
@@ -48,15 +143,15 @@ final public class BasicSlotMachine extends AbstractSlotMachine {
      * For example, an RTP of 0.98 indicates a 98% payout rate.
      */
     public double calculateRTP() {
-        return calculateRTP(reel);
+        return calculateRTP(state.registered().reel());
     }
 
     /**
      * Calculates the theoretical Return to Player (RTP) for a given virtual reel configuration.
      * <p>
-     * This method simulates spinning through all possible outcomes of the provided reel and
-     * computes the RTP as the ratio of the total payout to the total cost over all spins. The RTP
-     * is returned as a double value representing the average percentage payout per unit cost.
+     * The RTP is derived from the symbol histogram of the reel by the registry's {@link ReelAnalyzer},
+     * so every reel is only walked once; subsequent calls for the same reel are served from its cache.
+     * The RTP is returned as a double value representing the average percentage payout per unit cost.
      *
      * @param reel The virtual reel implementing the {@link IReel} interface, representing the
      *             configuration to calculate the RTP for. Must provide access to its size and individual symbols.
@@ -64,79 +159,112 @@ final public class BasicSlotMachine extends AbstractSlotMachine {
      * the total simulated cost. For example, an RTP of 0.98 represents a 98% payout rate.
      */
     public double calculateRTP(IReel reel) {
-        long cost = 0L;
-        long winAmount = 0L;
-        for (int i = 0; i < reel.size(); i++) {
-            winAmount += calculatePayout(1, reel.get(i));
-            cost += 1;
-        }
-        return winAmount / (double) cost;
+        return registry.getAnalyzer().analyze(reel).rtp();
     }
 
     /**
      * Calculates the payout amount based on the bet amount and the resulting symbol.
      * <p>
-     * The payout is determined by multiplying the bet amount by a predefined multiplier
-     * associated with the provided symbol. If the symbol is invalid, a {@code SlotUserException}
-     * is thrown.
+     * The payout is determined by multiplying the bet amount by the multiplier associated with
+     * the provided symbol in the machine's {@link PayTable}. Symbols are validated against the
+     * pay table when the machine is created, so the lookup does not perform any range checks.
      *
      * @param betAmount The amount of credits bet by the user. Must be a positive value.
      * @param symbol    The resulting symbol from the slot machine spin. Defines the payout multiplier.
-     *                  Valid values typically range between 0 and 10 inclusive.
-     * @return The calculated win amount based on the bet amount and the provided symbol multiplier.
-     * @throws SlotUserException if the provided symbol is not within the valid range.
+     * @return The calculated win amount based on the bet amount and the provided symbol multiplier,
+     * or 0 if the symbol does not pay.
      */
     public long calculatePayout(final long betAmount, final int symbol) {
-        long winAmount;
-        switch (symbol) {
-            case 0 -> winAmount = 0;
-            case 1 -> winAmount = betAmount;
-            case 2 -> winAmount = betAmount * 2;
-            case 3 -> winAmount = betAmount * 3;
-            case 4 -> winAmount = betAmount * 4;
-            case 5 -> winAmount = betAmount * 5;
-            case 6 -> winAmount = betAmount * 6;
-            case 7 -> winAmount = betAmount * 7;
-            case 8 -> winAmount = betAmount * 8;
-            case 9 -> winAmount = betAmount * 9;
-            case 10 -> winAmount = betAmount * 100;
-            default -> throw new SlotUserException("Invalid symbol " + symbol);
-        }
-        return winAmount;
+        return payTable.payout(betAmount, symbol);
+    }
+
+    /**
+     * Retrieves the pay table used by this machine.
+     *
+     * @return the {@link PayTable} used to evaluate spin outcomes.
+     */
+    public PayTable getPayTable() {
+        return payTable;
     }
 
     /**
      * Retrieves the cached theoretical Return to Player (RTP) value for the slot machine.
      * <p>
      * This method returns the precomputed RTP value, which represents the expected payout
-     * percentage over time based on the current configuration of the virtual reel. The value
-     * is calculated and stored during the initialization of the slot machine to optimize
-     * performance for subsequent queries.
+     * percentage over time based on the configuration of the active virtual reel. The value
+     * is calculated once, when the reel is registered, to optimize performance for subsequent queries.
      *
      * @return The cached RTP as a double, indicating the theoretical payout percentage.
      * For instance, a returned value of 0.98 corresponds to a 98% payout rate.
      */
     @Override
     public double getMachineRtp() {
-        return cachedRtp;
+        return state.registered().stats().rtp();
+    }
+
+    /**
+     * Retrieves the cached exact outcome statistics of the slot machine.
+     * <p>
+     * The statistics are derived from the symbol histogram of the active reel when it is registered,
+     * and describe the payout of a single spin per unit bet.
+     *
+     * @return the {@link OutcomeStats} of the machine's active reel.
+     */
+    @Override
+    public OutcomeStats getMachineStats() {
+        return state.registered().stats();
     }
 
     /**
      * Performs a slot machine spin based on the specified bet amount.
      * <p>
-     * This method retrieves the next symbol from the virtual reel and calculates
+     * This method retrieves the next symbol from the virtual reel, allocated by a {@link ReelCursor}
+     * so that concurrent spins consume every stop of the reel exactly once per cycle, and calculates
      * the payout based on the bet amount and the resulting symbol. The spin result
      * includes the bet amount, the calculated win amount, and the resulting symbol.
      *
      * @param betAmount The amount of credits bet by the user. Must be a positive value.
-     * @return A {@link SpinRecord} object containing the bet amount, the win amount,
-     * and the resulting symbol for the spin.
-     * @throws SlotUserException if an invalid symbol is encountered during payout calculation.
+     * @return the win amount and the resulting symbol of the spin, packed with
+     * {@link SpinRecord#pack(long, int)}.
      */
     @Override
-    public SpinRecord doSpin(final long betAmount) {
-        final int res = reel.get(counter++);
-        final long winAmount = calculatePayout(betAmount, res);
-        return new SpinRecord(betAmount, winAmount, res);
+    public long doSpin(final long betAmount) {
+        final ReelState current = state;
+        final int res = current.reel().get(current.cursor().next());
+        return SpinRecord.pack(calculatePayout(betAmount, res), res);
+    }
+
+    /**
+     * Performs a slot machine spin on a stop of the active reel drawn uniformly from the given
+     * generator, leaving the {@link ReelCursor} of the live spins untouched.
+     *
+     * @param betAmount The amount of credits bet by the user. Must be a positive value.
+     * @param random    the random number generator owned by the calling thread.
+     * @return the win amount and the resulting symbol of the spin, packed with
+     * {@link SpinRecord#pack(long, int)}.
+     */
+    @Override
+    public long doSpin(final long betAmount, final RandomGenerator random) {
+        final IReel reel = state.reel();
+        final int res = reel.get(random.nextInt(reel.size()));
+        return SpinRecord.pack(calculatePayout(betAmount, res), res);
+    }
+
+    /**
+     * The active reel of the machine together with the cursor allocating its stops.
+     *
+     * @param registered the registered reel, including its statistics.
+     * @param reel       the decoded reel, cached from {@code registered} for the spin path.
+     * @param cursor     the cursor of the registered reel, cached from {@code registered} for the spin path.
+     */
+    private record ReelState(RegisteredReel registered, IReel reel, ReelCursor cursor) {
+        /**
+         * Creates the state of a newly activated reel, keeping the cursor of the registered reel.
+         *
+         * @param registered the registered reel to activate.
+         */
+        ReelState(RegisteredReel registered) {
+            this(registered, registered.reel(), registered.cursor());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package wtd.slotsengine.slots.machines;
+
+import wtd.slotsengine.slots.machines.abstracts.AbstractSlotMachine;
+import wtd.slotsengine.slots.machines.lines.LineWinEvaluator;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.records.SpinRecord;
+import wtd.slotsengine.slots.rng.RngProvider;
+import wtd.slotsengine.utils.LeasePool;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents a slot machine with several reels, a visible window of rows and configurable paylines,
+ * extending {@link AbstractSlotMachine}.
+ * <p>
+ * Paylines, left-to-right line pays and scatter pays are compiled into a {@link LineWinEvaluator} when
+ * the machine is built, so a spin consists of drawing one stop per reel followed by a few table lookups
+ * per payline. Instances are created through {@link MultiReelSlotMachineBuilder}.
+ * <p>
+ * The bet amount is the total bet and is spread evenly across all paylines. Line pays are multiples of
+ * the line bet, scatter pays are multiples of the total bet.
+ */
+final public class MultiReelSlotMachine extends AbstractSlotMachine {
+    private final LineWinEvaluator evaluator;
+    private final RngProvider rng;
+    private final LeasePool<int[]> stopsBuffers;
+    private final double cachedRtp;
+    private volatile OutcomeStats cachedStats;
+
+    /**
+     * Constructs a new MultiReelSlotMachine around the given compiled evaluator and caches its
+     * theoretical Return to Player (RTP).
+     *
+     * @param evaluator the compiled win evaluator holding the reels, paylines and pay tables.
+     * @param rng       the random number provider used to draw reel stops.
+     */
+    MultiReelSlotMachine(LineWinEvaluator evaluator, RngProvider rng) {
+        super();
+        this.evaluator = evaluator;
+        this.rng = rng;
+        this.stopsBuffers = new LeasePool<>(() -> new int[evaluator.getReelCount()]);
+        this.cachedRtp = evaluator.calculateRTP();
+    }
+
+    /**
+     * Retrieves the cached theoretical Return to Player (RTP) value for the slot machine.
+     * <p>
+     * The value is computed exactly from the reel symbol frequencies when the machine is built.
+     *
+     * @return The cached RTP as a double. For instance, a returned value of 0.96 corresponds to a 96% payout rate.
+     */
+    @Override
+    public double getMachineRtp() {
+        return cachedRtp;
+    }
+
+    /**
+     * Retrieves the outcome statistics of the slot machine.
+     * <p>
+     * The statistics enumerate every stop combination, or a large sample of them on big machines, see
+     * {@link LineWinEvaluator#calculateStats()}, so they are computed on first use and cached.
+     * Concurrent first calls may compute them more than once, with identical results.
+     *
+     * @return the {@link OutcomeStats} of the machine, per unit of total bet.
+     */
+    @Override
+    public OutcomeStats getMachineStats() {
+        OutcomeStats stats = cachedStats;
+        if (stats == null) {
+            stats = evaluator.calculateStats();
+            cachedStats = stats;
+        }
+        return stats;
+    }
+
+    /**
+     * Retrieves the compiled win evaluator of this machine.
+     *
+     * @return the {@link LineWinEvaluator} used to evaluate spins.
+     */
+    public LineWinEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Performs a slot machine spin based on the specified bet amount.
+     * <p>
+     * A random stop is drawn for each reel from a stream borrowed from the machine's
+     * {@link RngProvider} into a pooled buffer, and the resulting window is
+     * evaluated by the compiled {@link LineWinEvaluator}. The total multiplier is expressed in line
+     * bet units, so the win amount is the line bet, the bet amount divided by the payline count,
+     * multiplied by it. The bet splits evenly across the paylines, see {@link #validateBet(long)}, so
+     * no fraction of a win is ever rounded away.
+     *
+     * @param betAmount The total amount of credits bet by the user. Must be a positive multiple of
+     *                  the payline count.
+     * @return the win amount and the highest paying symbol of the spin, or 0 if the spin did not win,
+     * packed with {@link SpinRecord#pack(long, int)}.
+     */
+    @Override
+    public long doSpin(final long betAmount) {
+        final RandomGenerator random = rng.acquire();
+        final long result = doSpin(betAmount, random);
+        rng.release(random);
+        return result;
+    }
+
+    /**
+     * Performs a slot machine spin with the stop of every reel drawn from the given generator.
+     *
+     * @param betAmount The total amount of credits bet by the user. Must be a positive multiple of
+     *                  the payline count.
+     * @param random    the random number generator owned by the calling thread.
+     * @return the win amount and the highest paying symbol of the spin, or 0 if the spin did not win,
+     * packed with {@link SpinRecord#pack(long, int)}.
+     */
+    @Override
+    public long doSpin(final long betAmount, final RandomGenerator random) {
+        final int[] stops = stopsBuffers.acquire();
+        for (int r = 0; r < stops.length; r++) {
+            stops[r] = random.nextInt(evaluator.reelSize(r));
+        }
+        final long result = evaluator.evaluate(stops);
+        stopsBuffers.release(stops);
+        final long winAmount = betAmount / evaluator.getLineCount() * LineWinEvaluator.multiplierOf(result);
+        return SpinRecord.pack(winAmount, LineWinEvaluator.symbolOf(result));
+    }
+
+    /**
+     * Accepts only bet amounts that split evenly across the paylines, so that every line is played with
+     * a whole line bet and the realized payout matches {@link #getMachineRtp()}.
+     *
+     * @param betAmount the total amount of credits wagered on one spin.
+     * @throws IllegalArgumentException if the bet amount is not a multiple of the payline count.
+     */
+    @Override
+    protected void validateBet(long betAmount) {
+        if (betAmount % evaluator.getLineCount() != 0) {
+            throw new IllegalArgumentException(
+                    "Bet amount must be a multiple of the %d paylines.".formatted(evaluator.getLineCount()));
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package wtd.slotsengine.slots.machines;
+
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.slots.machines.lines.LineWinEvaluator;
+import wtd.slotsengine.slots.machines.reels.IReel;
+import wtd.slotsengine.slots.rng.RngProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A builder class for creating instances of {@link MultiReelSlotMachine}.
+ * <p>
+ * The builder collects the reels, the number of visible rows, the paylines and the pay rules of the
+ * machine. All of them are validated and compiled into a {@link LineWinEvaluator} when {@link #build()}
+ * is called, so invalid layouts are rejected once instead of on every spin.
+ */
+public class MultiReelSlotMachineBuilder {
+    private static final int MAX_ROWS = 64;
+    private final List<IReel> reels = new ArrayList<>();
+    private final List<int[]> paylines = new ArrayList<>();
+    private final Map<Long, Long> linePays = new HashMap<>();
+    private final Map<Integer, Long> scatterPays = new HashMap<>();
+    private int rows = 3;
+    private int scatterSymbol = -1;
+    private RngProvider rng = RngProvider.DEFAULT;
+
+    /**
+     * Creates and returns a new instance of {@code MultiReelSlotMachineBuilder}.
+     *
+     * @return a new builder for constructing {@code MultiReelSlotMachine} objects.
+     */
+    public static MultiReelSlotMachineBuilder builder() {
+        return new MultiReelSlotMachineBuilder();
+    }
+
+    /**
+     * Sets the number of visible rows of the machine window. Defaults to 3.
+     *
+     * @param rows the number of visible rows, between 1 and 64.
+     * @return the current instance of {@code MultiReelSlotMachineBuilder}, enabling method chaining.
+     */
+    public MultiReelSlotMachineBuilder rows(int rows) {
+        this.rows = rows;
+        return this;
+    }
+
+    /**
+     * Adds a reel to the right of the previously added reels.
+     *
+     * @param reel the reel to add. Must not be empty.
+     * @return the current instance of {@code MultiReelSlotMachineBuilder}, enabling method chaining.
+     */
+    public MultiReelSlotMachineBuilder addReel(IReel reel) {
+        reels.add(reel);
+        return this;
+    }
+
+    /**
+     * Adds a payline to the machine.
+     *
+     * @param rowPerReel the visible row crossed by the payline on each reel, from left to right.
+     * @return the current instance of {@code MultiReelSlotMachineBuilder}, enabling method chaining.
+     */
+    public MultiReelSlotMachineBuilder addPayline(int... rowPerReel) {
+        paylines.add(rowPerReel.clone());
+        return this;
+    }
+
+    /**
+     * Adds a left-to-right line pay rule.
+     *
+     * @param symbol     the symbol that has to appear on consecutive reels, starting from the leftmost reel.
+     * @param count      the exact number of consecutive reels showing the symbol.
+     * @param multiplier the pay multiplier, expressed in line bet units.
+     * @return the current instance of {@code MultiReelSlotMachineBuilder}, enabling method chaining.
+     */
+    public MultiReelSlotMachineBuilder addLinePay(int symbol, int count, long multiplier) {
+        linePays.put(((long) symbol << 32) | count, multiplier);
+        return this;
+    }
+
+    /**
+     * Sets the scatter symbol of the machine. Scatter symbols pay anywhere in the visible window
+     * and never pay on paylines.
+     *
+     * @param symbol the scatter symbol.
+     * @return the current instance of {@code MultiReelSlotMachineBuilder}, enabling method chaining.
+     */
+    public MultiReelSlotMachineBuilder scatter(int symbol) {
+        this.scatterSymbol = symbol;
+        return this;
+    }
+
+    /**
+     * Adds a scatter pay rule.
+     *
+     * @param count      the exact number of scatter symbols visible in the window.
+     * @param multiplier the pay multiplier, expressed in total bet units.
+     * @return the current instance of {@code MultiReelSlotMachineBuilder}, enabling method chaining.
+     */
+    public MultiReelSlotMachineBuilder addScatterPay(int count, long multiplier) {
+        scatterPays.put(count, multiplier);
+        return this;
+    }
+
+    /**
+     * Sets the random number provider used to draw reel stops. Defaults to {@link RngProvider#DEFAULT}.
+     *
+     * @param rng the random number provider of the machine.
+     * @return the current instance of {@code MultiReelSlotMachineBuilder}, enabling method chaining.
+     */
+    public MultiReelSlotMachineBuilder rng(RngProvider rng) {
+        this.rng = rng;
+        return this;
+    }
+
+    /**
+     * Validates the configured layout and compiles it into a new {@link MultiReelSlotMachine}.
+     *
+     * @return a new {@code MultiReelSlotMachine} instance.
+     * @throws SlotUserException if the layout is invalid, e.g. a payline does not match the reel count,
+     *                           a pay rule references an invalid symbol or count, or the scatter symbol
+     *                           is given line pays.
+     */
+    public MultiReelSlotMachine build() {
+        final int reelCount = reels.size();
+        if (reelCount == 0) throw new SlotUserException("At least one reel is required.");
+        if (rows < 1 || rows > MAX_ROWS) throw new SlotUserException("Invalid row count " + rows);
+        if (paylines.isEmpty()) throw new SlotUserException("At least one payline is required.");
+        for (IReel reel : reels) {
+            if (reel.size() == 0) throw new SlotUserException("Reels must not be empty.");
+        }
+        final int[][] lines = paylines.toArray(new int[0][]);
+        for (int[] line : lines) {
+            if (line.length != reelCount) {
+                throw new SlotUserException("Invalid payline " + Arrays.toString(line));
+            }
+            for (int row : line) {
+                if (row < 0 || row >= rows) throw new SlotUserException("Invalid payline " + Arrays.toString(line));
+            }
+        }
+        if (scatterSymbol >= LineWinEvaluator.SYMBOL_COUNT) {
+            throw new SlotUserException("Invalid scatter symbol " + scatterSymbol);
+        }
+        return new MultiReelSlotMachine(new LineWinEvaluator(
+                reels.toArray(new IReel[0]), rows, lines, compileLinePays(reelCount), scatterSymbol,
+                compileScatterPays(reelCount)), rng);
+    }
+
+    /**
+     * Compiles the line pay rules into a flat table indexed by {@code symbol * (reelCount + 1) + count}.
+     *
+     * @param reelCount the number of reels of the machine.
+     * @return the compiled line pay table.
+     */
+    private long[] compileLinePays(int reelCount) {
+        final long[] table = new long[LineWinEvaluator.SYMBOL_COUNT * (reelCount + 1)];
+        linePays.forEach((key, multiplier) -> {
+            final int symbol = (int) (key >>> 32);
+            final int count = (int) (long) key;
+            if (symbol < 0 || symbol >= LineWinEvaluator.SYMBOL_COUNT) {
+                throw new SlotUserException("Invalid symbol " + symbol);
+            }
+            if (count < 1 || count > reelCount) throw new SlotUserException("Invalid line pay count " + count);
+            if (symbol == scatterSymbol) throw new SlotUserException("Scatter symbol cannot pay on lines.");
+            if (multiplier < 0) throw new SlotUserException("Invalid multiplier " + multiplier);
+            table[symbol * (reelCount + 1) + count] = multiplier;
+        });
+        return table;
+    }
+
+    /**
+     * Compiles the scatter pay rules into a flat table indexed by the number of visible scatter symbols.
+     *
+     * @param reelCount the number of reels of the machine.
+     * @return the compiled scatter pay table.
+     */
+    private long[] compileScatterPays(int reelCount) {
+        final long[] table = new long[reelCount * rows + 1];
+        if (!scatterPays.isEmpty() && scatterSymbol < 0) {
+            throw new SlotUserException("Scatter pays require a scatter symbol.");
+        }
+        scatterPays.forEach((count, multiplier) -> {
+            if (count < 1 || count >= table.length) throw new SlotUserException("Invalid scatter count " + count);
+            if (multiplier < 0) throw new SlotUserException("Invalid multiplier " + multiplier);
+            table[count] = multiplier;
+        });
+        return table;
+    }
+}
@@ -0,0 +1,124 @@
+package wtd.slotsengine.slots.machines;
+
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.slots.machines.abstracts.AbstractSlotMachine;
+import wtd.slotsengine.slots.machines.analysis.ReelAnalyzer;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.records.SpinRecord;
+import wtd.slotsengine.slots.machines.reels.WeightedReel;
+import wtd.slotsengine.slots.rng.RngProvider;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents a single reel slot machine backed by a {@link WeightedReel}, extending {@link AbstractSlotMachine}.
+ * <p>
+ * Every spin samples a symbol from the reel's alias table in constant time, drawing from a stream
+ * borrowed from the machine's {@link RngProvider} for the duration of the spin. The reel only stores its symbol weights, so a
+ * machine costs memory proportional to its number of symbols, and its statistics are derived from the
+ * weights without walking any stops.
+ */
+final public class WeightedSlotMachine extends AbstractSlotMachine {
+    private final WeightedReel reel;
+    private final PayTable payTable;
+    private final RngProvider rng;
+    private final OutcomeStats cachedStats;
+
+    /**
+     * Constructs a new WeightedSlotMachine drawing from {@link RngProvider#DEFAULT}.
+     *
+     * @param reel     the weighted reel of the machine.
+     * @param payTable the pay table used to evaluate spin outcomes.
+     * @throws SlotUserException if the reel contains a symbol that is not defined by the pay table.
+     */
+    public WeightedSlotMachine(WeightedReel reel, PayTable payTable) {
+        this(reel, payTable, RngProvider.DEFAULT);
+    }
+
+    /**
+     * Constructs a new WeightedSlotMachine with the given reel, pay table and random number provider.
+     *
+     * @param reel     the weighted reel of the machine.
+     * @param payTable the pay table used to evaluate spin outcomes.
+     * @param rng      the random number provider used to sample the reel.
+     * @throws SlotUserException if the reel contains a symbol that is not defined by the pay table.
+     */
+    public WeightedSlotMachine(WeightedReel reel, PayTable payTable, RngProvider rng) {
+        super();
+        payTable.validate(reel);
+        this.reel = reel;
+        this.payTable = payTable;
+        this.rng = rng;
+        this.cachedStats = new ReelAnalyzer(payTable).analyze(reel);
+    }
+
+    /**
+     * Retrieves the weighted reel of this machine.
+     *
+     * @return the {@link WeightedReel} sampled by the machine.
+     */
+    public WeightedReel getReel() {
+        return reel;
+    }
+
+    /**
+     * Retrieves the pay table used by this machine.
+     *
+     * @return the {@link PayTable} used to evaluate spin outcomes.
+     */
+    public PayTable getPayTable() {
+        return payTable;
+    }
+
+    /**
+     * Retrieves the exact theoretical Return to Player (RTP), derived from the reel weights.
+     *
+     * @return The cached RTP as a double. For instance, a returned value of 0.98 corresponds to a 98% payout rate.
+     */
+    @Override
+    public double getMachineRtp() {
+        return cachedStats.rtp();
+    }
+
+    /**
+     * Retrieves the exact outcome statistics of the machine, derived from the reel weights.
+     *
+     * @return the cached {@link OutcomeStats} of the machine's reel.
+     */
+    @Override
+    public OutcomeStats getMachineStats() {
+        return cachedStats;
+    }
+
+    /**
+     * Performs a slot machine spin based on the specified bet amount.
+     * <p>
+     * A symbol is sampled from the weighted reel in constant time and paid according to the pay table.
+     *
+     * @param betAmount The amount of credits bet by the user. Must be a positive value.
+     * @return the win amount and the resulting symbol of the spin, packed with
+     * {@link SpinRecord#pack(long, int)}.
+     */
+    @Override
+    public long doSpin(final long betAmount) {
+        final RandomGenerator random = rng.acquire();
+        final long result = doSpin(betAmount, random);
+        rng.release(random);
+        return result;
+    }
+
+    /**
+     * Performs a slot machine spin with the symbol sampled from the given generator.
+     *
+     * @param betAmount The amount of credits bet by the user. Must be a positive value.
+     * @param random    the random number generator owned by the calling thread.
+     * @return the win amount and the resulting symbol of the spin, packed with
+     * {@link SpinRecord#pack(long, int)}.
+     */
+    @Override
+    public long doSpin(final long betAmount, final RandomGenerator random) {
+        final int symbol = reel.sample(random);
+        return SpinRecord.pack(payTable.payout(betAmount, symbol), symbol);
+    }
+}
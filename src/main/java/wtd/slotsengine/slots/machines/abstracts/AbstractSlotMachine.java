@@ -2,11 +2,14 @@ package wtd.slotsengine.slots.machines.abstracts;
 
 import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
 import wtd.slotsengine.slots.interfaces.SlotMachine;
-import wtd.slotsengine.slots.machines.records.SpinOutcome;
+import wtd.slotsengine.slots.interfaces.SpinObserver;
+import wtd.slotsengine.slots.interfaces.SpinOutcomeFactory;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.records.SpinBatchOutcome;
 import wtd.slotsengine.slots.machines.records.SpinRecord;
+import wtd.slotsengine.slots.wallet.WalletStore;
 
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
 
 /**
  * An abstract base class for implementing slot machine mechanics.
@@ -17,81 +20,189 @@ import java.util.concurrent.atomic.AtomicReference;
  * abstract.
  * <p>
  * Features of this class include:
- * - Managing wallet balances with thread-safe operations.
+ * - Managing per-player wallet balances in a sharded {@link WalletStore} of primitive balances.
  * - Enforcing rules for betting, depositing, and withdrawing credits.
- * - Utilizing an atomic reference for tracking the last bet outcome.
  * - Abstract definitions for spin logic and machine RTP (Return to Player) calculation.
+ * - Reporting the engine and settlement time of every spin to a {@link SpinObserver}.
  * <p>
  * All extending classes must implement specific slot mechanics, such as the spin behavior and
  * calculating the RTP value.
  */
 public abstract class AbstractSlotMachine implements SlotMachine {
-    private final AtomicLong walletBalance = new AtomicLong(0);
-    private final AtomicReference<SpinOutcome> lastBet = new AtomicReference<>(null);
+    private final WalletStore wallets;
+    private volatile SpinObserver spinObserver = SpinObserver.NONE;
 
     /**
-     * Executes a spin operation in the slot machine, deducting the bet amount from the wallet balance
-     * and determining the outcome of the spin.
+     * Constructs a slot machine with its own empty {@link WalletStore}.
+     */
+    protected AbstractSlotMachine() {
+        this(new WalletStore());
+    }
+
+    /**
+     * Constructs a slot machine holding its player balances in the given store. Several machines may
+     * share one store, so that players keep a single balance across them.
+     *
+     * @param wallets the store of player wallet balances.
+     */
+    protected AbstractSlotMachine(WalletStore wallets) {
+        this.wallets = wallets;
+    }
+
+    /**
+     * Executes a spin operation in the slot machine for a player, determining the outcome of the spin
+     * and settling it in the player's wallet.
+     * <p>
+     * The bet is reserved first: it is validated against the balance and debited in a single atomic
+     * step, see {@link WalletStore#debit(long, long, String)}. Only then is the outcome drawn, and the
+     * win credited. Concurrent spins of one player can therefore never overdraw the wallet, and a spin
+     * the wallet cannot cover is rejected before it draws anything: every outcome drawn, such as a stop
+     * of a shared reel cursor, belongs to a settled spin. The returned balance is the one produced by
+     * the credit of this spin, or by its debit if it did not win.
+     * <p>
+     * The spin is evaluated into a packed primitive result and the factory is called once, so the
+     * engine itself allocates nothing per spin. The time spent drawing and settling the spin is
+     * reported to the {@link SpinObserver} of the machine.
      *
+     * @param playerId  the id of the player.
      * @param betAmount the amount to wager for the spin. Must be positive and less than or equal to
-     *                  the current wallet balance.
-     * @return a SpinOutcome object representing the result of the spin, including the bet amount,
-     * win amount, resulting symbol, and remaining wallet balance.
+     *                  the player's wallet balance.
+     * @param factory   the factory creating the object reporting the outcome of the spin.
+     * @param <T>       the type of the object reporting the outcome of the spin.
+     * @return the object created by the factory from the bet amount, win amount, resulting symbol,
+     * and remaining wallet balance.
      * @throws InsufficientFundsException if the bet amount exceeds the available
      *                                    wallet balance or is invalid (e.g., negative).
+     * @throws IllegalArgumentException   if the machine does not accept the bet amount, see
+     *                                    {@link #validateBet(long)}.
+     */
+    @Override
+    public <T> T spin(long playerId, long betAmount, SpinOutcomeFactory<T> factory)
+            throws InsufficientFundsException {
+        validateBet(betAmount);
+        final long start = System.nanoTime();
+        long balance = wallets.debit(playerId, betAmount, "spin");
+        final long reserved = System.nanoTime();
+        final long result = doSpin(betAmount);
+        final long winAmount = SpinRecord.winOf(result);
+        final long drawn = System.nanoTime();
+        if (winAmount > 0) balance = wallets.credit(playerId, winAmount);
+        spinObserver.onSpins(1, winAmount > 0 ? 1 : 0, drawn - reserved,
+                reserved - start + System.nanoTime() - drawn);
+        return factory.create(betAmount, winAmount, SpinRecord.symbolOf(result), balance);
+    }
+
+    /**
+     * Executes a batch of spins with the same bet amount for a player, debiting the total bet from the
+     * player's wallet in a single atomic step before any spin is drawn and crediting the total win once
+     * they all are.
+     * <p>
+     * The spins are executed back to back through {@link #doSpin(long)}, and their results are
+     * collected into primitive arrays rather than individual outcome objects. The batch is reported to
+     * the {@link SpinObserver} of the machine once.
+     *
+     * @param playerId  the id of the player.
+     * @param betAmount the amount to wager on each spin. Must be positive.
+     * @param count     the number of spins to execute. Must be greater than zero.
+     * @return a SpinBatchOutcome object holding the symbol and win amount of every spin, the aggregated
+     * bet and win amounts, and the remaining wallet balance.
+     * @throws InsufficientFundsException if the total bet exceeds the available wallet balance
+     *                                    or is invalid (e.g., negative).
+     * @throws IllegalArgumentException   if the spin count is not a positive value, or if the machine
+     *                                    does not accept the bet amount, see {@link #validateBet(long)}.
      */
     @Override
-    public SpinOutcome spin(long betAmount) throws InsufficientFundsException {
-        assertFunds(betAmount, "spin");
-        walletBalance.addAndGet(-betAmount);
-        SpinRecord result = doSpin(betAmount);
-        lastBet.set(new SpinOutcome(
-                result.betAmount(), result.winAmount(), result.symbol(),
-                walletBalance.addAndGet(result.winAmount())));
-        return lastBet.get();
+    public SpinBatchOutcome spinBatch(long playerId, long betAmount, int count) throws InsufficientFundsException {
+        if (count <= 0) throw new IllegalArgumentException("Spin count must be positive.");
+        validateBet(betAmount);
+        final long totalBet;
+        try {
+            totalBet = Math.multiplyExact(betAmount, count);
+        } catch (ArithmeticException e) {
+            throw new InsufficientFundsException("Total bet is out of range.");
+        }
+        final long start = System.nanoTime();
+        long balance = wallets.debit(playerId, totalBet, "spin");
+        final long reserved = System.nanoTime();
+        final int[] symbols = new int[count];
+        final long[] wins = new long[count];
+        long totalWin = 0;
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            final long result = doSpin(betAmount);
+            symbols[i] = SpinRecord.symbolOf(result);
+            wins[i] = SpinRecord.winOf(result);
+            totalWin += wins[i];
+            if (wins[i] > 0) hits++;
+        }
+        final long drawn = System.nanoTime();
+        if (totalWin > 0) balance = wallets.credit(playerId, totalWin);
+        spinObserver.onSpins(count, hits, drawn - reserved, reserved - start + System.nanoTime() - drawn);
+        return new SpinBatchOutcome(betAmount, count, totalBet, totalWin, balance, symbols, wins);
     }
 
     /**
-     * Deposits the specified amount into the wallet balance of the slot machine.
-     * The deposit amount must be a positive value.
+     * Deposits the specified amount into the wallet of a player, creating the wallet on the first
+     * deposit. The deposit amount must be a positive value.
      *
+     * @param playerId      the id of the player.
      * @param depositAmount the amount to deposit into the wallet balance.
      *                      Must be greater than zero.
      * @return the updated wallet balance after the deposit operation.
      * @throws IllegalArgumentException if the deposit amount is zero or negative.
      */
     @Override
-    public long deposit(long depositAmount) {
+    public long deposit(long playerId, long depositAmount) {
         if (depositAmount <= 0) throw new IllegalArgumentException("Deposit amount must be positive.");
-        return walletBalance.addAndGet(depositAmount);
+        return wallets.credit(playerId, depositAmount);
     }
 
     /**
-     * Withdraws the specified amount from the wallet balance.
-     * The withdrawal amount must be a positive value and less than or equal to the current wallet balance.
+     * Withdraws the specified amount from the wallet of a player.
+     * The withdrawal amount must be a positive value and less than or equal to the player's wallet balance.
      *
+     * @param playerId       the id of the player.
      * @param withdrawAmount the amount to be withdrawn from the wallet balance. Must be greater than zero and
      *                       not exceed the current wallet balance.
      * @return the updated wallet balance after the withdrawal operation.
-     * @throws InsufficientFundsException if the withdrawal amount exceeds the available wallet balance
-     *                                    or is invalid (e.g., negative).
+     * @throws InsufficientFundsException if the withdrawal amount exceeds the available wallet balance.
      * @throws IllegalArgumentException   if the withdrawal amount is not a positive value.
      */
     @Override
-    public long withdraw(long withdrawAmount) throws InsufficientFundsException {
+    public long withdraw(long playerId, long withdrawAmount) throws InsufficientFundsException {
         if (withdrawAmount <= 0) throw new IllegalArgumentException("Withdraw amount must be positive.");
-        assertFunds(withdrawAmount, "withdraw");
-        return walletBalance.addAndGet(-withdrawAmount);
+        return wallets.debit(playerId, withdrawAmount, "withdraw");
+    }
+
+    /**
+     * Retrieves the current balance of a player's wallet.
+     *
+     * @param playerId the id of the player.
+     * @return the current wallet balance as a long value, or 0 if the player never deposited.
+     */
+    @Override
+    public long getBalance(long playerId) {
+        return wallets.balance(playerId);
     }
 
     /**
-     * Retrieves the current balance available in the slot machine's wallet.
+     * Sets the observer notified of every spin and batch of spins settled by the machine. Spins that
+     * are rejected for insufficient funds are not reported.
      *
-     * @return the current wallet balance as a long value.
+     * @param observer the observer, {@link SpinObserver#NONE} to stop observing the machine.
      */
     @Override
-    public long getBalance() {
-        return walletBalance.get();
+    public void setSpinObserver(SpinObserver observer) {
+        this.spinObserver = observer;
+    }
+
+    /**
+     * Retrieves the store holding the player wallet balances of this machine.
+     *
+     * @return the {@link WalletStore} of the machine.
+     */
+    public WalletStore getWallets() {
+        return wallets;
     }
 
     /**
@@ -107,30 +218,76 @@ public abstract class AbstractSlotMachine implements SlotMachine {
     public abstract double getMachineRtp();
 
     /**
-     * Validates whether sufficient funds are available in the wallet for the specified action
-     * and ensures that the requested amount is positive.
+     * Retrieves the exact outcome statistics of the slot machine, such as its RTP, variance,
+     * hit frequency and maximum win probability.
      *
-     * @param requiredAmount the amount required to perform the specified action. Must be a positive value
-     *                       and less than or equal to the current wallet balance.
-     * @param actionName     the name of the action being performed, used for error reporting.
-     * @throws InsufficientFundsException if the required amount exceeds the available wallet balance
-     *                                    or is a negative value.
-     */
-    protected void assertFunds(long requiredAmount, String actionName) throws InsufficientFundsException {
-        if (requiredAmount > getBalance()) throw new InsufficientFundsException(
-                "Insufficient credits to %s. Required: %d Have: %d".formatted(
-                        actionName, requiredAmount,
-                        walletBalance.get()));
-        if (requiredAmount < 0) {
-            throw new InsufficientFundsException("Only positive numbers are allowed.");
-        }
+     * @return the machine's outcome statistics.
+     */
+    public abstract OutcomeStats getMachineStats();
+
+    /**
+     * Evaluates a spin without touching any wallet balance.
+     * <p>
+     * This is intended for offline simulations that drive the machine's spin logic directly, e.g.
+     * to certify its payout over billions of spins. It is never exposed to players.
+     *
+     * @param betAmount the amount of credits wagered for the simulated spin. Must be a positive value.
+     * @return the win amount and resulting symbol of the spin, packed as described by
+     * {@link SpinRecord#pack(long, int)}.
+     * @throws IllegalArgumentException if the machine does not accept the bet amount, see
+     *                                  {@link #validateBet(long)}.
+     */
+    public long simulateSpin(long betAmount) {
+        validateBet(betAmount);
+        return doSpin(betAmount);
+    }
+
+    /**
+     * Evaluates a spin without touching any wallet balance or any state shared with live spins.
+     * <p>
+     * Unlike {@link #simulateSpin(long)}, the outcome is drawn from the given generator instead of the
+     * machine's own reel cursor or random streams, so concurrent simulation workers each sample
+     * independent, identically distributed spins and leave the live sequence of outcomes untouched.
+     *
+     * @param betAmount the amount of credits wagered for the simulated spin. Must be a positive value.
+     * @param random    the random number generator owned by the calling thread.
+     * @return the win amount and resulting symbol of the spin, packed as described by
+     * {@link SpinRecord#pack(long, int)}.
+     * @throws IllegalArgumentException if the machine does not accept the bet amount, see
+     *                                  {@link #validateBet(long)}.
+     */
+    public long simulateSpin(long betAmount, RandomGenerator random) {
+        validateBet(betAmount);
+        return doSpin(betAmount, random);
+    }
+
+    /**
+     * Validates a bet amount before its funds are checked and its outcome drawn. Every bet amount is
+     * accepted by default; machines that only accept some amounts, such as bets splitting evenly across
+     * their paylines, override this method.
+     *
+     * @param betAmount the amount of credits wagered on one spin.
+     * @throws IllegalArgumentException if the machine does not accept the bet amount.
+     */
+    protected void validateBet(long betAmount) {
     }
 
     /**
      * Executes the core logic of a spin operation in the slot machine and determines the outcome.
+     * The result is returned as a primitive, so that the spin path allocates nothing.
+     *
+     * @param betAmount the amount of credits wagered for the spin. Must be a positive value.
+     * @return the win amount and resulting symbol of the spin, packed with {@link SpinRecord#pack(long, int)}.
+     */
+    protected abstract long doSpin(long betAmount);
+
+    /**
+     * Executes the core logic of a spin operation with outcomes drawn from the given generator only,
+     * without advancing any state of the machine.
      *
      * @param betAmount the amount of credits wagered for the spin. Must be a positive value.
-     * @return a SpinRecord containing the details of the spin, including the bet amount, win amount, and resulting symbol.
+     * @param random    the random number generator owned by the calling thread.
+     * @return the win amount and resulting symbol of the spin, packed with {@link SpinRecord#pack(long, int)}.
      */
-    protected abstract SpinRecord doSpin(long betAmount);
+    protected abstract long doSpin(long betAmount, RandomGenerator random);
 }
\ No newline at end of file
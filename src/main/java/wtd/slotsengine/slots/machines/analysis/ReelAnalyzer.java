@@ -0,0 +1,99 @@
+package wtd.slotsengine.slots.machines.analysis;
+
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.reels.IReel;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Computes the exact outcome distribution of single-symbol reels against a {@link PayTable}.
+ * <p>
+ * A reel is walked once to build a histogram of its symbols, or not at all when the reel knows its
+ * symbol weights. Every statistic, such as the RTP, the
+ * variance, the hit frequency or the probability of the maximum win, is then derived from the
+ * histogram in time proportional to the number of distinct symbols instead of the number of stops.
+ * <p>
+ * Reels are immutable, so the statistics of a reel are computed once and cached for as long as the
+ * reel is reachable. The analyzer is thread-safe and can be shared between machines using the same
+ * pay table.
+ */
+public final class ReelAnalyzer {
+    private final PayTable payTable;
+    private final long[] symbolMultipliers;
+    private final Map<IReel, OutcomeStats> cache = new WeakHashMap<>();
+    private final ReentrantLock cacheLock = new ReentrantLock();
+
+    /**
+     * Constructs a {@code ReelAnalyzer} evaluating reels against the given pay table.
+     *
+     * @param payTable the pay table defining the multiplier of every symbol.
+     */
+    public ReelAnalyzer(PayTable payTable) {
+        this.payTable = payTable;
+        this.symbolMultipliers = new long[PayTable.SYMBOL_COUNT];
+        for (int symbol = 0; symbol < PayTable.SYMBOL_COUNT; symbol++) {
+            symbolMultipliers[symbol] = payTable.multiplier(symbol);
+        }
+    }
+
+    /**
+     * Builds the symbol histogram of the given reel, see {@link IReel#histogram()}.
+     * <p>
+     * Most reels are walked once; weighted reels derive the histogram directly from their weights.
+     *
+     * @param reel the reel to analyze.
+     * @return the number of stops showing each symbol, indexed by symbol.
+     */
+    public static long[] histogram(IReel reel) {
+        return reel.histogram();
+    }
+
+    /**
+     * Retrieves the statistics of the given reel, computing and caching them on first use.
+     * <p>
+     * The reel is only walked the first time it is analyzed; subsequent calls return the cached result.
+     *
+     * @param reel the reel to analyze.
+     * @return the exact outcome statistics of the reel, per unit bet.
+     */
+    public OutcomeStats analyze(IReel reel) {
+        cacheLock.lock();
+        try {
+            final OutcomeStats cached = cache.get(reel);
+            if (cached != null) return cached;
+        } finally {
+            cacheLock.unlock();
+        }
+        final OutcomeStats stats = analyze(histogram(reel));
+        cacheLock.lock();
+        try {
+            cache.putIfAbsent(reel, stats);
+            return cache.get(reel);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    /**
+     * Derives the statistics of a reel from its symbol histogram, without walking the reel.
+     *
+     * @param histogram the number of stops showing each symbol, indexed by symbol, as built by
+     *                  {@link #histogram(IReel)}.
+     * @return the exact outcome statistics of the histogram, per unit bet.
+     */
+    public OutcomeStats analyze(long[] histogram) {
+        return OutcomeStats.of(symbolMultipliers, histogram, 1);
+    }
+
+    /**
+     * Retrieves the pay table used by this analyzer.
+     *
+     * @return the {@link PayTable} defining the symbol multipliers.
+     */
+    public PayTable getPayTable() {
+        return payTable;
+    }
+}
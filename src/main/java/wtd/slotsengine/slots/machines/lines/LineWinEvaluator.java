@@ -0,0 +1,412 @@
+package wtd.slotsengine.slots.machines.lines;
+
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.reels.IReel;
+import wtd.slotsengine.slots.machines.reels.MappedReel;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * A precompiled win evaluator for multi-reel, multi-payline slot machines.
+ * <p>
+ * All the expensive parts of a win evaluation are resolved once, when the evaluator is built:
+ * - Every on-heap reel is unrolled into a window strip, so the symbol shown at a given stop and row is a
+ * single array read without modulo arithmetic. A {@link MappedReel} is read straight from its mapping
+ * instead, so strips with hundreds of millions of stops are never copied onto the heap.
+ * - Paylines are flattened into a single array of row offsets.
+ * - Left-to-right line pays are stored in a flat table indexed by symbol and run length.
+ * - The number of visible scatter symbols is precomputed for every stop of every on-heap reel, and scatter
+ * pays are stored in a flat table indexed by the total scatter count.
+ * <p>
+ * A spin evaluation is therefore a handful of table lookups per payline and does not allocate.
+ * Line pays are expressed in line bet units, scatter pays in total bet units.
+ */
+public final class LineWinEvaluator {
+    /**
+     * The number of distinct symbol values a reel can hold.
+     */
+    public static final int SYMBOL_COUNT = 256;
+    /**
+     * The largest number of stop combinations {@link #calculateStats()} is allowed to enumerate.
+     */
+    public static final long MAX_ENUMERATED_WINDOWS = 1L << 28;
+    /**
+     * The number of windows drawn by {@link #calculateStats()} for machines too large to be enumerated.
+     */
+    public static final int SAMPLED_WINDOWS = 1 << 22;
+    /**
+     * The seed of the windows drawn for machines too large to be enumerated.
+     */
+    private static final long SAMPLE_SEED = 0x51075EEDL;
+    /**
+     * The largest total multiplier of a window, which must fit in the upper bits of a packed result.
+     */
+    public static final long MAX_MULTIPLIER = Long.MAX_VALUE >>> 8;
+    private final int reelCount;
+    private final int rows;
+    private final int lineCount;
+    private final int[] reelSizes;
+    private final IReel[] reels;
+    private final byte[][] windows;
+    private final byte[][] scatterCounts;
+    private final int[] lineRows;
+    private final long[] linePays;
+    private final long[] scatterPays;
+    private final int scatterSymbol;
+
+    /**
+     * Compiles a new evaluator from the given machine layout.
+     *
+     * @param reels         the reels of the machine, from left to right.
+     * @param rows          the number of visible rows of the window.
+     * @param paylines      the paylines, each holding one row index per reel.
+     * @param linePays      the line pay multipliers indexed by {@code symbol * (reels + 1) + count}.
+     * @param scatterSymbol the scatter symbol, or a negative value if the machine has no scatter.
+     * @param scatterPays   the scatter pay multipliers indexed by the number of visible scatters.
+     * @throws SlotUserException if a window could pay more than {@link #MAX_MULTIPLIER}.
+     */
+    public LineWinEvaluator(IReel[] reels, int rows, int[][] paylines, long[] linePays, int scatterSymbol,
+                            long[] scatterPays) {
+        this.reelCount = reels.length;
+        this.rows = rows;
+        this.lineCount = paylines.length;
+        this.reelSizes = new int[reelCount];
+        this.reels = reels.clone();
+        this.windows = new byte[reelCount][];
+        this.scatterCounts = new byte[reelCount][];
+        this.scatterSymbol = scatterSymbol;
+        this.linePays = linePays;
+        this.scatterPays = scatterPays;
+        this.lineRows = new int[lineCount * reelCount];
+        for (int r = 0; r < reelCount; r++) {
+            compileReel(r, reels[r]);
+        }
+        for (int l = 0; l < lineCount; l++) {
+            System.arraycopy(paylines[l], 0, lineRows, l * reelCount, reelCount);
+        }
+        if (maxMultiplier() > MAX_MULTIPLIER) throw new SlotUserException("Pay multipliers are too large.");
+    }
+
+    /**
+     * Bounds the total multiplier of any window: every payline paying the highest line pay, plus the
+     * highest scatter pay.
+     *
+     * @return the bound, or {@link Long#MAX_VALUE} if it does not fit in a {@code long}.
+     */
+    private long maxMultiplier() {
+        long maxLinePay = 0;
+        for (long pay : linePays) maxLinePay = Math.max(maxLinePay, pay);
+        long maxScatterPay = 0;
+        for (long pay : scatterPays) maxScatterPay = Math.max(maxScatterPay, pay);
+        try {
+            return Math.addExact(Math.multiplyExact(maxLinePay, lineCount),
+                    Math.multiplyExact(maxScatterPay, lineCount));
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Unrolls the given reel into its window strip and precomputes the visible scatter count for each stop.
+     * A {@link MappedReel} is left in its mapping and read through {@link IReel#get(int)}.
+     *
+     * @param index the index of the reel within the machine.
+     * @param reel  the reel to compile.
+     */
+    private void compileReel(int index, IReel reel) {
+        final int size = reel.size();
+        reelSizes[index] = size;
+        if (reel instanceof MappedReel) return;
+        final byte[] window = new byte[size + rows - 1];
+        for (int i = 0; i < window.length; i++) {
+            window[i] = (byte) reel.get(i % size);
+        }
+        final byte[] scatters = new byte[size];
+        if (scatterSymbol >= 0) {
+            for (int stop = 0; stop < size; stop++) {
+                int count = 0;
+                for (int row = 0; row < rows; row++) {
+                    if ((window[stop + row] & 0xFF) == scatterSymbol) count++;
+                }
+                scatters[stop] = (byte) count;
+            }
+        }
+        windows[index] = window;
+        scatterCounts[index] = scatters;
+    }
+
+    /**
+     * Evaluates the window defined by the given reel stops.
+     * <p>
+     * The result is packed into a single {@code long}: the total multiplier, in line bet units, occupies
+     * the upper bits and the symbol of the highest paying combination the lowest 8 bits. Use
+     * {@link #multiplierOf(long)} and {@link #symbolOf(long)} to unpack it.
+     *
+     * @param stops the stop position of each reel, each within {@code [0, reelSize(reel))}.
+     * @return the packed evaluation result.
+     */
+    public long evaluate(final int[] stops) {
+        final int width = reelCount + 1;
+        long total = 0;
+        long topPay = 0;
+        int topSymbol = 0;
+        for (int base = 0; base < lineRows.length; base += reelCount) {
+            final int first = symbolAt(0, stops[0] + lineRows[base]);
+            int count = 1;
+            while (count < reelCount && symbolAt(count, stops[count] + lineRows[base + count]) == first) {
+                count++;
+            }
+            final long pay = linePays[first * width + count];
+            total += pay;
+            if (pay > topPay) {
+                topPay = pay;
+                topSymbol = first;
+            }
+        }
+        if (scatterSymbol >= 0) {
+            int scatters = 0;
+            for (int r = 0; r < reelCount; r++) {
+                scatters += scattersAt(r, stops[r]);
+            }
+            final long pay = scatterPays[scatters] * lineCount;
+            total += pay;
+            if (pay > topPay) topSymbol = scatterSymbol;
+        }
+        return (total << 8) | topSymbol;
+    }
+
+    /**
+     * Reads the symbol at the given index of the window strip of a reel, from the unrolled strip of an
+     * on-heap reel or from the mapping of a {@link MappedReel}.
+     *
+     * @param reel  the index of the reel within the machine.
+     * @param index the stop plus the row, within {@code [0, reelSize(reel) + rows - 1)}.
+     * @return the unsigned symbol shown at that index.
+     */
+    private int symbolAt(int reel, int index) {
+        final byte[] window = windows[reel];
+        return (window != null ? window[index] : reels[reel].get(index)) & 0xFF;
+    }
+
+    /**
+     * Counts the scatter symbols visible on a reel stopped at the given position.
+     *
+     * @param reel the index of the reel within the machine.
+     * @param stop the stop of the reel.
+     * @return the number of visible scatter symbols.
+     */
+    private int scattersAt(int reel, int stop) {
+        final byte[] counts = scatterCounts[reel];
+        if (counts != null) return counts[stop];
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (symbolAt(reel, stop + row) == scatterSymbol) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Extracts the total multiplier, in line bet units, from a packed evaluation result.
+     *
+     * @param packed the value returned by {@link #evaluate(int[])}.
+     * @return the total multiplier of the evaluated window.
+     */
+    public static long multiplierOf(long packed) {
+        return packed >>> 8;
+    }
+
+    /**
+     * Extracts the symbol of the highest paying combination from a packed evaluation result.
+     *
+     * @param packed the value returned by {@link #evaluate(int[])}.
+     * @return the highest paying symbol, or 0 when the window did not win.
+     */
+    public static int symbolOf(long packed) {
+        return (int) (packed & 0xFF);
+    }
+
+    /**
+     * Computes the exact theoretical Return to Player of the compiled machine.
+     * <p>
+     * Reel stops are independent and uniformly distributed, so every payline has the same expected pay,
+     * which only depends on the per-reel symbol frequencies. The scatter distribution is obtained by
+     * convolving the per-reel distributions of visible scatter counts. The computation is therefore
+     * linear in the reel sizes and does not enumerate stop combinations.
+     *
+     * @return the theoretical RTP as a ratio, e.g. 0.96 for a 96% payout rate.
+     */
+    public double calculateRTP() {
+        final double[][] frequencies = new double[reelCount][SYMBOL_COUNT];
+        for (int r = 0; r < reelCount; r++) {
+            final long[] counts = reels[r].histogram();
+            for (int symbol = 0; symbol < SYMBOL_COUNT; symbol++) {
+                frequencies[r][symbol] = counts[symbol] / (double) reelSizes[r];
+            }
+        }
+        final int width = reelCount + 1;
+        double lineRtp = 0.0;
+        for (int symbol = 0; symbol < SYMBOL_COUNT; symbol++) {
+            double runProbability = 1.0;
+            for (int count = 1; count <= reelCount; count++) {
+                runProbability *= frequencies[count - 1][symbol];
+                if (runProbability == 0.0) break;
+                final double endProbability = count < reelCount ? 1.0 - frequencies[count][symbol] : 1.0;
+                lineRtp += runProbability * endProbability * linePays[symbol * width + count];
+            }
+        }
+        return lineRtp + calculateScatterRTP();
+    }
+
+    /**
+     * Computes the expected scatter pay, in total bet units, by convolving the per-reel distributions
+     * of visible scatter counts.
+     *
+     * @return the scatter contribution to the RTP, or 0 if the machine has no scatter symbol.
+     */
+    private double calculateScatterRTP() {
+        if (scatterSymbol < 0) return 0.0;
+        double[] total = {1.0};
+        for (int r = 0; r < reelCount; r++) {
+            final double[] reelDist = new double[rows + 1];
+            for (int stop = 0; stop < reelSizes[r]; stop++) {
+                reelDist[scattersAt(r, stop)]++;
+            }
+            for (int j = 0; j <= rows; j++) {
+                reelDist[j] /= reelSizes[r];
+            }
+            final double[] next = new double[total.length + rows];
+            for (int i = 0; i < total.length; i++) {
+                for (int j = 0; j <= rows; j++) {
+                    next[i + j] += total[i] * reelDist[j];
+                }
+            }
+            total = next;
+        }
+        double rtp = 0.0;
+        for (int count = 0; count < total.length; count++) {
+            rtp += total[count] * scatterPays[count];
+        }
+        return rtp;
+    }
+
+    /**
+     * Computes the outcome statistics of the compiled machine.
+     * <p>
+     * Unlike the RTP, the variance and the maximum win depend on how paylines and scatters overlap within
+     * the same window, so the distribution of the total multiplier is collected. Machines with at most
+     * {@link #MAX_ENUMERATED_WINDOWS} stop combinations are enumerated, which makes every statistic exact.
+     * Larger machines, such as five reels of a hundred stops, are analyzed on {@link #SAMPLED_WINDOWS}
+     * uniformly drawn windows instead: the RTP is still the exact value of {@link #calculateRTP()}, while
+     * the variance, the hit frequency and the maximum win are estimates, and {@code outcomes} holds the
+     * sample size. The sample is seeded, so repeated analyses of a machine agree. The statistics are
+     * expressed per unit of total bet.
+     *
+     * @return the outcome statistics of the machine.
+     */
+    public OutcomeStats calculateStats() {
+        long windowCount = 1;
+        for (int size : reelSizes) {
+            if (windowCount > MAX_ENUMERATED_WINDOWS / size) return sampleStats();
+            windowCount *= size;
+        }
+        final Map<Long, long[]> distribution = new HashMap<>();
+        final int[] stops = new int[reelCount];
+        do {
+            distribution.computeIfAbsent(multiplierOf(evaluate(stops)), k -> new long[1])[0]++;
+        } while (nextWindow(stops));
+        return statsOf(distribution);
+    }
+
+    /**
+     * Estimates the outcome statistics from a seeded sample of {@link #SAMPLED_WINDOWS} windows, keeping
+     * the exact RTP.
+     *
+     * @return the estimated outcome statistics of the machine.
+     */
+    private OutcomeStats sampleStats() {
+        final SplittableRandom random = new SplittableRandom(SAMPLE_SEED);
+        final Map<Long, long[]> distribution = new HashMap<>();
+        final int[] stops = new int[reelCount];
+        for (int i = 0; i < SAMPLED_WINDOWS; i++) {
+            for (int r = 0; r < reelCount; r++) {
+                stops[r] = random.nextInt(reelSizes[r]);
+            }
+            distribution.computeIfAbsent(multiplierOf(evaluate(stops)), k -> new long[1])[0]++;
+        }
+        final OutcomeStats sampled = statsOf(distribution);
+        return new OutcomeStats(sampled.outcomes(), calculateRTP(), sampled.variance(),
+                sampled.standardDeviation(), sampled.hitFrequency(), sampled.volatilityIndex(),
+                sampled.maxMultiplier(), sampled.maxWinProbability());
+    }
+
+    /**
+     * Derives the statistics of a distribution of total multipliers.
+     *
+     * @param distribution the number of windows of each total multiplier, in line bet units.
+     * @return the statistics of the distribution, per unit of total bet.
+     */
+    private OutcomeStats statsOf(Map<Long, long[]> distribution) {
+        final long[] multipliers = new long[distribution.size()];
+        final long[] weights = new long[distribution.size()];
+        int i = 0;
+        for (Map.Entry<Long, long[]> entry : distribution.entrySet()) {
+            multipliers[i] = entry.getKey();
+            weights[i++] = entry.getValue()[0];
+        }
+        return OutcomeStats.of(multipliers, weights, lineCount);
+    }
+
+    /**
+     * Advances the given stops to the next stop combination, the last reel turning fastest.
+     *
+     * @param stops the stop position of each reel, updated in place.
+     * @return {@code true} if there is a next combination, {@code false} once every combination was visited.
+     */
+    private boolean nextWindow(int[] stops) {
+        for (int r = reelCount - 1; r >= 0; r--) {
+            if (++stops[r] < reelSizes[r]) return true;
+            stops[r] = 0;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of reels of the compiled machine.
+     *
+     * @return the reel count.
+     */
+    public int getReelCount() {
+        return reelCount;
+    }
+
+    /**
+     * Returns the number of visible rows of the compiled machine.
+     *
+     * @return the row count.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of paylines of the compiled machine.
+     *
+     * @return the payline count.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Returns the number of stops of the given reel.
+     *
+     * @param reel the index of the reel.
+     * @return the number of stops of the reel.
+     */
+    public int reelSize(int reel) {
+        return reelSizes[reel];
+    }
+}
@@ -0,0 +1,180 @@
+package wtd.slotsengine.slots.machines.paytable;
+
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.slots.machines.reels.IReel;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Represents a data-driven pay table mapping reel symbols to payout multipliers.
+ * <p>
+ * A pay table is loaded from a textual specification of comma separated {@code symbol:multiplier}
+ * pairs, e.g. {@code "0:0,1:1,2:2,10:100"}. The specification is validated once at load time and
+ * compiled into a flat primitive table covering every possible byte symbol, so evaluating a payout is
+ * a single branch-free array lookup. Symbols not listed in the specification pay nothing; reels can
+ * be checked against the table with {@link #validate(IReel)} before they are used.
+ * <p>
+ * Instances are immutable and can be shared between machines, generators and optimizers.
+ */
+public final class PayTable {
+    /**
+     * The number of distinct symbol values a reel can hold.
+     */
+    public static final int SYMBOL_COUNT = 256;
+    private final long[] multipliers;
+    private final boolean[] defined;
+    private final int[] symbols;
+    private final int[] payingSymbols;
+    private final int losingSymbol;
+
+    /**
+     * Constructs a {@code PayTable} from already validated tables.
+     *
+     * @param multipliers the multiplier of every symbol, indexed by symbol.
+     * @param defined     whether each symbol is part of the specification, indexed by symbol.
+     */
+    private PayTable(long[] multipliers, boolean[] defined) {
+        this.multipliers = multipliers;
+        this.defined = defined;
+        int count = 0;
+        for (boolean d : defined) if (d) count++;
+        this.symbols = new int[count];
+        for (int symbol = 0, i = 0; symbol < SYMBOL_COUNT; symbol++) {
+            if (defined[symbol]) symbols[i++] = symbol;
+        }
+        this.payingSymbols = Arrays.stream(symbols).filter(s -> multipliers[s] > 0).boxed()
+                .sorted((a, b) -> Long.compare(multipliers[b], multipliers[a]))
+                .mapToInt(Integer::intValue).toArray();
+        this.losingSymbol = Arrays.stream(symbols).filter(s -> multipliers[s] == 0).findFirst().orElse(-1);
+    }
+
+    /**
+     * Parses and validates a pay table specification.
+     *
+     * @param spec comma separated {@code symbol:multiplier} pairs, e.g. {@code "0:0,1:1,10:100"}.
+     * @return the compiled {@code PayTable}.
+     * @throws SlotUserException if the specification is empty or malformed, a symbol is outside the
+     *                           {@code [0, 255]} range or defined twice, or a multiplier is negative.
+     */
+    public static PayTable parse(String spec) {
+        if (spec == null || spec.isBlank()) throw new SlotUserException("Pay table specification is empty.");
+        final long[] multipliers = new long[SYMBOL_COUNT];
+        final boolean[] defined = new boolean[SYMBOL_COUNT];
+        for (String entry : spec.split(",")) {
+            final String[] parts = entry.trim().split(":");
+            if (parts.length != 2) throw new SlotUserException("Invalid pay table entry " + entry);
+            final int symbol;
+            final long multiplier;
+            try {
+                symbol = Integer.parseInt(parts[0].trim());
+                multiplier = Long.parseLong(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new SlotUserException("Invalid pay table entry " + entry);
+            }
+            if (symbol < 0 || symbol >= SYMBOL_COUNT) throw new SlotUserException("Invalid symbol " + symbol);
+            if (defined[symbol]) throw new SlotUserException("Duplicate symbol " + symbol);
+            if (multiplier < 0) throw new SlotUserException("Invalid multiplier " + multiplier);
+            multipliers[symbol] = multiplier;
+            defined[symbol] = true;
+        }
+        return new PayTable(multipliers, defined);
+    }
+
+    /**
+     * Retrieves the payout multiplier of the given symbol.
+     *
+     * @param symbol the symbol to look up. Only the lowest 8 bits are used.
+     * @return the payout multiplier of the symbol, or 0 if the symbol does not pay.
+     */
+    public long multiplier(final int symbol) {
+        return multipliers[symbol & 0xFF];
+    }
+
+    /**
+     * Calculates the payout of the given symbol for the given bet amount.
+     *
+     * @param betAmount the amount of credits bet.
+     * @param symbol    the resulting symbol. Only the lowest 8 bits are used.
+     * @return the bet amount multiplied by the symbol multiplier.
+     */
+    public long payout(final long betAmount, final int symbol) {
+        return betAmount * multipliers[symbol & 0xFF];
+    }
+
+    /**
+     * Checks whether the given symbol is part of the pay table specification.
+     *
+     * @param symbol the symbol to check.
+     * @return true if the symbol is defined by this pay table, false otherwise.
+     */
+    public boolean contains(int symbol) {
+        return symbol >= 0 && symbol < SYMBOL_COUNT && defined[symbol];
+    }
+
+    /**
+     * Retrieves the symbols defined by this pay table in ascending order.
+     *
+     * @return a copy of the defined symbols.
+     */
+    public int[] getSymbols() {
+        return symbols.clone();
+    }
+
+    /**
+     * Retrieves the symbols with a positive multiplier, ordered from the highest to the lowest multiplier.
+     *
+     * @return a copy of the paying symbols.
+     */
+    public int[] getPayingSymbols() {
+        return payingSymbols.clone();
+    }
+
+    /**
+     * Retrieves the lowest defined symbol that does not pay, typically used to pad reels.
+     *
+     * @return the losing symbol, or -1 if every defined symbol pays.
+     */
+    public int getLosingSymbol() {
+        return losingSymbol;
+    }
+
+    /**
+     * Retrieves the highest payout multiplier of this pay table.
+     *
+     * @return the maximum multiplier over all defined symbols.
+     */
+    public long getMaxMultiplier() {
+        return Arrays.stream(multipliers).max().orElse(0);
+    }
+
+    /**
+     * Validates that every symbol of the given reel is defined by this pay table.
+     * <p>
+     * This is intended to be called once when a reel is bound to a machine, so that payouts can
+     * afterwards be evaluated without range checks.
+     *
+     * @param reel the reel to validate.
+     * @throws SlotUserException if the reel contains a symbol that is not defined by this pay table.
+     */
+    public void validate(IReel reel) {
+        final long[] histogram = reel.histogram();
+        for (int symbol = 0; symbol < SYMBOL_COUNT; symbol++) {
+            if (histogram[symbol] > 0 && !defined[symbol]) throw new SlotUserException("Invalid symbol " + symbol);
+        }
+    }
+
+    /**
+     * Converts this pay table back to its textual specification.
+     *
+     * @return comma separated {@code symbol:multiplier} pairs in ascending symbol order.
+     */
+    @Override
+    public String toString() {
+        final StringJoiner joiner = new StringJoiner(",");
+        for (int symbol : symbols) {
+            joiner.add(symbol + ":" + multipliers[symbol]);
+        }
+        return joiner.toString();
+    }
+}
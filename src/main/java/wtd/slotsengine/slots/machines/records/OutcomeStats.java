@@ -0,0 +1,67 @@
+package wtd.slotsengine.slots.machines.records;
+
+/**
+ * Represents the exact statistical profile of a slot machine outcome distribution, expressed per unit bet.
+ * <p>
+ * Fields:
+ * - outcomes: The number of equally likely outcomes the distribution was derived from, e.g. the reel size,
+ * or the number of sampled windows when a machine is too large to be enumerated.
+ * - rtp: The expected payout per unit bet (Return to Player), e.g. 0.98 for a 98% payout rate.
+ * - variance: The variance of the payout per unit bet.
+ * - standardDeviation: The standard deviation of the payout per unit bet.
+ * - hitFrequency: The probability that a spin pays anything at all.
+ * - volatilityIndex: The standard deviation scaled by 1.645, i.e. the half width of the 90% confidence
+ * interval of a single spin result, commonly used to compare the volatility of machines.
+ * - maxMultiplier: The highest payout per unit bet the distribution can produce.
+ * - maxWinProbability: The probability of hitting {@code maxMultiplier}.
+ */
+public record OutcomeStats(long outcomes, double rtp, double variance, double standardDeviation,
+                           double hitFrequency, double volatilityIndex, double maxMultiplier,
+                           double maxWinProbability) {
+    /**
+     * The z-score of a two-sided 90% confidence interval, used to derive the volatility index.
+     */
+    public static final double VOLATILITY_Z = 1.645;
+
+    /**
+     * Derives the statistical profile of a discrete payout distribution in a single pass.
+     * <p>
+     * The distribution is given as parallel arrays, where {@code weights[i]} is the number of outcomes
+     * paying {@code multipliers[i] / unit} times the bet. Entries with a zero weight are ignored, so a
+     * sparse histogram can be passed as is.
+     *
+     * @param multipliers the payout multiplier of each entry, expressed in {@code 1 / unit} bet units.
+     * @param weights     the number of outcomes of each entry.
+     * @param unit        the divisor converting multipliers to bet units, e.g. the payline count.
+     * @return the statistical profile of the distribution.
+     */
+    public static OutcomeStats of(long[] multipliers, long[] weights, long unit) {
+        long outcomes = 0;
+        long hits = 0;
+        long maxMultiplier = 0;
+        long maxWeight = 0;
+        double sum = 0.0;
+        double sumSquares = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            final long weight = weights[i];
+            if (weight == 0) continue;
+            final long multiplier = multipliers[i];
+            outcomes += weight;
+            sum += (double) weight * multiplier;
+            sumSquares += (double) weight * multiplier * multiplier;
+            if (multiplier > 0) hits += weight;
+            if (multiplier > maxMultiplier) {
+                maxMultiplier = multiplier;
+                maxWeight = weight;
+            } else if (multiplier == maxMultiplier) {
+                maxWeight += weight;
+            }
+        }
+        if (outcomes == 0) return new OutcomeStats(0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+        final double rtp = sum / outcomes / unit;
+        final double variance = Math.max(0.0, sumSquares / outcomes / ((double) unit * unit) - rtp * rtp);
+        final double deviation = Math.sqrt(variance);
+        return new OutcomeStats(outcomes, rtp, variance, deviation, hits / (double) outcomes,
+                VOLATILITY_Z * deviation, maxMultiplier / (double) unit, maxWeight / (double) outcomes);
+    }
+}
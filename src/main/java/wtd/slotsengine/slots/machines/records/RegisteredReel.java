@@ -0,0 +1,19 @@
+package wtd.slotsengine.slots.machines.records;
+
+import wtd.slotsengine.slots.machines.reels.IReel;
+import wtd.slotsengine.slots.machines.reels.ReelCursor;
+
+/**
+ * Represents a reel decoded and analyzed once by a {@code ReelRegistry}.
+ * <p>
+ * Fields:
+ * - hash: The hex encoded SHA-256 digest of the encoded reel, or of the stops of a mapped strip,
+ * identifying its content.
+ * - reel: The decoded and shuffled virtual reel, or the memory-mapped strip, read through {@link IReel}.
+ * - stats: The exact outcome statistics of the reel against the registry's pay table, including its RTP.
+ * - cursor: The cursor allocating the stops of the reel, created at a random position on registration and
+ * kept for as long as the reel is registered, so a reel swapped out and back in resumes its cycle instead
+ * of replaying the stops it already handed out.
+ */
+public record RegisteredReel(String hash, IReel reel, OutcomeStats stats, ReelCursor cursor) {
+}
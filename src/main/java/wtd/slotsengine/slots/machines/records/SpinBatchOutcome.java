@@ -0,0 +1,13 @@
+package wtd.slotsengine.slots.machines.records;
+
+/**
+ * Represents the outcome of a batch of spins placed with the same bet amount.
+ * <p>
+ * Instead of one {@link SpinOutcome} per spin, the per-spin results are stored in compact primitive
+ * arrays, where index {@code i} of {@code symbols} and {@code wins} describes the {@code i}-th spin.
+ * The {@code totalBet} and {@code totalWin} fields aggregate the whole batch, and {@code balance}
+ * is the user's credit balance once the batch has been settled.
+ */
+public record SpinBatchOutcome(long betAmount, int count, long totalBet, long totalWin, long balance,
+                               int[] symbols, long[] wins) {
+}
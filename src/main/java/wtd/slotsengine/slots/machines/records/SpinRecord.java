@@ -12,6 +12,57 @@ package wtd.slotsengine.slots.machines.records;
  * {@code winAmount} represents the amount won during the spin based on the resulting
  * {@code symbol}. The symbol is typically an integer value derived from the slot machine's
  * virtual reel, which determines the payout multiplier or prize.
+ * <p>
+ * On the spin path the win amount and the symbol travel packed into a single {@code long}, see
+ * {@link #pack(long, int)}, so that evaluating a spin allocates nothing. The record is only created
+ * where an object is actually needed.
  */
 public record SpinRecord(long betAmount, long winAmount, int symbol) implements ISpinRecord {
+    /**
+     * The number of low bits of a packed spin result holding the symbol.
+     */
+    public static final int SYMBOL_BITS = 8;
+
+    /**
+     * Packs the result of a spin into a single {@code long}: the win amount in the high bits and the
+     * symbol in the low {@value #SYMBOL_BITS} bits.
+     *
+     * @param winAmount the amount won by the spin. Must be a non-negative value below {@code 2^55}.
+     * @param symbol    the resulting symbol of the spin; only its low 8 bits are kept.
+     * @return the packed spin result.
+     */
+    public static long pack(long winAmount, int symbol) {
+        return (winAmount << SYMBOL_BITS) | (symbol & 0xFF);
+    }
+
+    /**
+     * Extracts the win amount from a packed spin result.
+     *
+     * @param packed the packed spin result, see {@link #pack(long, int)}.
+     * @return the amount won by the spin.
+     */
+    public static long winOf(long packed) {
+        return packed >>> SYMBOL_BITS;
+    }
+
+    /**
+     * Extracts the symbol from a packed spin result.
+     *
+     * @param packed the packed spin result, see {@link #pack(long, int)}.
+     * @return the resulting symbol of the spin, between 0 and 255.
+     */
+    public static int symbolOf(long packed) {
+        return (int) packed & 0xFF;
+    }
+
+    /**
+     * Creates a {@code SpinRecord} from a packed spin result.
+     *
+     * @param betAmount the amount of credits wagered for the spin.
+     * @param packed    the packed spin result, see {@link #pack(long, int)}.
+     * @return a new {@code SpinRecord} holding the bet amount, the win amount and the symbol.
+     */
+    public static SpinRecord unpack(long betAmount, long packed) {
+        return new SpinRecord(betAmount, winOf(packed), symbolOf(packed));
+    }
 }
\ No newline at end of file
@@ -30,4 +30,21 @@ public interface IReel {
      * @return the total number of elements in the reel.
      */
     int size();
-}
\ No newline at end of file
+
+    /**
+     * Builds the symbol histogram of the reel, i.e. the number of positions showing each symbol.
+     * <p>
+     * The default implementation walks every position of the reel once. Implementations that know
+     * their symbol distribution, such as {@link WeightedReel}, override it to avoid the walk.
+     *
+     * @return the number of positions showing each symbol, indexed by symbol, with 256 entries.
+     */
+    default long[] histogram() {
+        final long[] counts = new long[256];
+        final int size = size();
+        for (int i = 0; i < size; i++) {
+            counts[get(i) & 0xFF]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,237 @@
+package wtd.slotsengine.slots.machines.reels;
+
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.utils.SlotUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents a reel strip stored in a file and memory-mapped read-only, for reels with hundreds of
+ * millions of stops.
+ * <p>
+ * The strip is never copied onto the heap: stops are read straight from the mapping, so they live in
+ * the operating system page cache and every JVM on the host mapping the same file shares the same
+ * physical pages. Loading a reel only reads its header, so startup time does not depend on its size.
+ * <p>
+ * The file starts with a fixed-size little-endian header followed by one byte per stop:
+ * - magic: the int {@value #MAGIC}, identifying the format.
+ * - version: the int {@value #VERSION}.
+ * - size: the int number of stops.
+ * - reserved: an int, currently 0.
+ * - histogram: 256 longs holding the number of stops showing each symbol, so statistics can be
+ * computed without walking the strip.
+ * <p>
+ * The mapping is released by the garbage collector once the reel is no longer reachable.
+ */
+public final class MappedReel implements IReel {
+    /**
+     * The magic number identifying a reel strip file, the ASCII characters {@code SLRS}.
+     */
+    public static final int MAGIC = 0x534C5253;
+    /**
+     * The version of the strip format written by this class.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The size of the file header, in bytes.
+     */
+    public static final int HEADER_SIZE = 16 + 256 * Long.BYTES;
+    private static final int WRITE_CHUNK = 1 << 20;
+    private final MappedByteBuffer strip;
+    private final int size;
+    private final long[] histogram;
+
+    /**
+     * Constructs a {@code MappedReel} around an already validated mapping.
+     *
+     * @param strip     the read-only mapping of the stops.
+     * @param size      the number of stops.
+     * @param histogram the number of stops showing each symbol, indexed by symbol.
+     */
+    private MappedReel(MappedByteBuffer strip, int size, long[] histogram) {
+        this.strip = strip;
+        this.size = size;
+        this.histogram = histogram;
+    }
+
+    /**
+     * Maps a reel strip file read-only.
+     *
+     * @param path the path of a file written by {@link #write(Path, IReel)}.
+     * @return the mapped reel.
+     * @throws SlotUserException if the file is not a valid reel strip.
+     * @throws RuntimeException  if an I/O error occurs while reading the header or mapping the file.
+     */
+    public static MappedReel load(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) throw new SlotUserException("Truncated reel " + path);
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) throw new SlotUserException("Not a reel strip " + path);
+            final int version = header.getInt();
+            if (version != VERSION) throw new SlotUserException("Unsupported reel version " + version);
+            final int size = header.getInt();
+            header.getInt();
+            final long[] histogram = new long[256];
+            long total = 0;
+            for (int symbol = 0; symbol < histogram.length; symbol++) {
+                histogram[symbol] = header.getLong();
+                total += histogram[symbol];
+            }
+            if (size < 1 || total != size || channel.size() < HEADER_SIZE + (long) size) {
+                throw new SlotUserException("Corrupted reel " + path);
+            }
+            return new MappedReel(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size), size, histogram);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the stops of the given reel to a strip file, in order, and maps it.
+     * <p>
+     * Stops are streamed through a fixed-size buffer, so the reel does not need to fit on the heap
+     * as a byte array. The strip is written to a temporary sibling file that atomically replaces the
+     * target once it is complete, so a reel mapped from the target by any process is never truncated
+     * or rewritten underneath it.
+     *
+     * @param path the path of the file to create or replace.
+     * @param reel the reel to write, e.g. a {@link WeightedReel} or a {@link VirtualReel}.
+     * @return the mapped reel.
+     * @throws RuntimeException if an I/O error occurs while writing the file.
+     */
+    public static MappedReel write(Path path, IReel reel) {
+        return write(path, reel, null);
+    }
+
+    /**
+     * Writes the stops of the given reel to a strip file, shuffles the strip in place and maps it.
+     * <p>
+     * The shuffle runs on a read-write mapping of the temporary file, before it replaces the target, so
+     * a strip generated from a {@link WeightedReel} gets an exact symbol distribution in a random order
+     * without ever being copied onto the heap.
+     *
+     * @param path   the path of the file to create or replace.
+     * @param reel   the reel to write.
+     * @param random the random number generator used to shuffle the strip, or null to keep the stops
+     *               in order.
+     * @return the mapped reel.
+     * @throws RuntimeException if an I/O error occurs while writing the file.
+     */
+    public static MappedReel write(Path path, IReel reel, RandomGenerator random) {
+        final int size = reel.size();
+        final long[] histogram = new long[256];
+        final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final ByteBuffer chunk = ByteBuffer.allocateDirect(WRITE_CHUNK);
+                long offset = HEADER_SIZE;
+                for (int i = 0; i < size; i++) {
+                    final int symbol = reel.get(i) & 0xFF;
+                    histogram[symbol]++;
+                    chunk.put((byte) symbol);
+                    if (!chunk.hasRemaining()) offset += flush(channel, chunk, offset);
+                }
+                flush(channel, chunk, offset);
+                if (random != null) {
+                    final MappedByteBuffer strip = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, size);
+                    SlotUtils.shuffle(strip, random);
+                    strip.force();
+                }
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(0);
+                for (long count : histogram) header.putLong(count);
+                flush(channel, header, 0);
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return load(path);
+    }
+
+    /**
+     * Writes the content of the given buffer at the given file offset and clears the buffer.
+     *
+     * @param channel the channel to write to.
+     * @param buffer  the buffer to write, from its start to its position.
+     * @param offset  the file offset to write at.
+     * @return the number of bytes written.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static int flush(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        buffer.flip();
+        final int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+        buffer.clear();
+        return length;
+    }
+
+    /**
+     * Retrieves the symbol at the specified position straight from the mapping.
+     * Positions exceeding the reel size wrap around using modulo arithmetic.
+     *
+     * @param position the position in the reel.
+     * @return the symbol located at the specified position.
+     */
+    @Override
+    public int get(int position) {
+        return strip.get(position % size) & 0xFF;
+    }
+
+    /**
+     * Returns the number of stops of the reel.
+     *
+     * @return the total number of stops.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the symbol histogram stored in the file header, without walking the strip.
+     *
+     * @return the number of stops showing each symbol, indexed by symbol.
+     */
+    @Override
+    public long[] histogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * Computes the content hash of the strip, reading it straight from the mapping.
+     * <p>
+     * The whole strip is read once, so the hash is meant to be computed when the reel is registered,
+     * not on the spin path.
+     *
+     * @return the hex encoded SHA-256 digest of the stops of the reel.
+     */
+    public String hash() {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(strip.duplicate().clear());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
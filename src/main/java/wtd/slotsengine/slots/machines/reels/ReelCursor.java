@@ -0,0 +1,120 @@
+package wtd.slotsengine.slots.machines.reels;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A concurrent position allocator that walks a reel cycle one stop at a time.
+ * <p>
+ * Every call to {@link #next()} hands out a distinct position, so over any number of concurrent
+ * callers each stop of the reel is consumed exactly once per cycle and the realized RTP stays equal
+ * to the theoretical one. The position is a 64-bit counter advanced with a single atomic
+ * fetch-and-add, which never retries under contention and does not wrap to negative values.
+ * <p>
+ * The counter is padded on both sides to occupy its own cache lines, so that heavy spinning on one
+ * machine does not slow down unrelated fields placed next to it in memory.
+ */
+public final class ReelCursor extends ReelCursorRhsPadding {
+    private static final VarHandle POSITION;
+
+    static {
+        try {
+            POSITION = MethodHandles.lookup().findVarHandle(ReelCursorValue.class, "position", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int size;
+    private final int start;
+
+    /**
+     * Constructs a {@code ReelCursor} for a reel of the given size, starting at position 0.
+     *
+     * @param size the number of stops of the reel. Must be greater than zero.
+     * @throws IllegalArgumentException if the size is not a positive value.
+     */
+    public ReelCursor(int size) {
+        this(size, 0);
+    }
+
+    /**
+     * Constructs a {@code ReelCursor} for a reel of the given size, starting at the given position, e.g.
+     * a random one so that the first stops handed out cannot be predicted from the reel.
+     *
+     * @param size  the number of stops of the reel. Must be greater than zero.
+     * @param start the first position handed out, within {@code [0, size)}.
+     * @throws IllegalArgumentException if the size is not a positive value or the start is out of range.
+     */
+    public ReelCursor(int size, int start) {
+        if (size <= 0) throw new IllegalArgumentException("Reel size must be positive.");
+        if (start < 0 || start >= size) throw new IllegalArgumentException("Start must be within the reel.");
+        this.size = size;
+        this.start = start;
+        POSITION.setRelease(this, (long) start);
+    }
+
+    /**
+     * Allocates the next position of the reel cycle.
+     *
+     * @return a position within {@code [0, size)}.
+     */
+    public int next() {
+        return (int) ((long) POSITION.getAndAdd(this, 1L) % size);
+    }
+
+    /**
+     * Allocates a run of consecutive positions of the reel cycle with a single atomic operation.
+     * The run starts at the returned position and wraps around the end of the reel.
+     *
+     * @param count the number of positions to allocate. Must be greater than zero.
+     * @return the first position of the run, within {@code [0, size)}.
+     */
+    public int claim(int count) {
+        return (int) ((long) POSITION.getAndAdd(this, (long) count) % size);
+    }
+
+    /**
+     * Returns the number of stops of the reel cycle walked by this cursor.
+     *
+     * @return the reel size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the total number of positions allocated so far.
+     *
+     * @return the number of allocated positions since the cursor was created.
+     */
+    public long allocated() {
+        return (long) POSITION.getVolatile(this) - start;
+    }
+}
+
+/**
+ * Cache line padding placed before the position counter of {@link ReelCursor}.
+ */
+@SuppressWarnings("unused")
+abstract class ReelCursorLhsPadding {
+    private long p01, p02, p03, p04, p05, p06, p07, p08;
+    private long p11, p12, p13, p14, p15, p16, p17;
+}
+
+/**
+ * Holds the position counter of {@link ReelCursor}.
+ */
+abstract class ReelCursorValue extends ReelCursorLhsPadding {
+    @SuppressWarnings("unused")
+    volatile long position;
+}
+
+/**
+ * Cache line padding placed after the position counter of {@link ReelCursor}.
+ */
+@SuppressWarnings("unused")
+abstract class ReelCursorRhsPadding extends ReelCursorValue {
+    private long p01, p02, p03, p04, p05, p06, p07, p08;
+    private long p11, p12, p13, p14, p15, p16, p17;
+}
@@ -0,0 +1,236 @@
+package wtd.slotsengine.slots.machines.reels;
+
+import wtd.slotsengine.slots.exceptions.SizeLimitExceededException;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.slots.machines.analysis.ReelAnalyzer;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.records.RegisteredReel;
+import wtd.slotsengine.slots.rng.RngProvider;
+
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * A registry of decoded reels, keyed by the SHA-256 digest of their encoded form.
+ * <p>
+ * Registering an encoded reel decodes it, shuffles it, validates it against the registry's
+ * {@link PayTable} and computes its outcome statistics exactly once. Later registrations of the same
+ * content, from any thread, return the cached {@link RegisteredReel}, so machines switching between
+ * known reels never decode or analyze them again.
+ * <p>
+ * Encoded reels usually come from clients, so the registry is bounded: decoding stops past
+ * {@link #MAX_REEL_SIZE} stops, and at most a fixed number of reels is kept, evicting the least recently
+ * used one. An evicted reel stays valid for the machines still spinning it, and is only weakly
+ * referenced by the registry from then on.
+ * <p>
+ * Every registered reel owns the {@link ReelCursor} walking its cycle, so machines sharing a registry
+ * also share the cycle of a reel they spin, and each of its stops is handed out once per cycle across
+ * them. Registering an evicted reel that a machine still spins returns that same registered reel, so
+ * its cycle resumes where it stood. Only a reel no machine references any more is decoded again, and
+ * starts a new cycle at a random stop.
+ */
+public final class ReelRegistry {
+    /**
+     * The largest number of stops of an encoded reel, bounding the memory a single registration can
+     * claim. Larger reels are written to strip files and mapped, see {@link #register(Path)}.
+     */
+    public static final int MAX_REEL_SIZE = 1 << 24;
+    /**
+     * The default number of reels kept by a registry.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+    private final PayTable payTable;
+    private final RngProvider rng;
+    private final ReelAnalyzer analyzer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, RegisteredReel> reels;
+    private final Map<String, WeakReference<RegisteredReel>> evicted = new HashMap<>();
+
+    /**
+     * Constructs a {@code ReelRegistry} validating and analyzing reels against the given pay table,
+     * keeping up to {@value #DEFAULT_CAPACITY} reels.
+     *
+     * @param payTable the pay table of the machines using the registered reels.
+     * @param rng      the random number provider used to shuffle decoded reels.
+     */
+    public ReelRegistry(PayTable payTable, RngProvider rng) {
+        this(payTable, rng, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a {@code ReelRegistry} validating and analyzing reels against the given pay table.
+     *
+     * @param payTable the pay table of the machines using the registered reels.
+     * @param rng      the random number provider used to shuffle decoded reels.
+     * @param capacity the number of reels kept before the least recently used one is evicted.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public ReelRegistry(PayTable payTable, RngProvider rng, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive.");
+        this.payTable = payTable;
+        this.rng = rng;
+        this.analyzer = new ReelAnalyzer(payTable);
+        this.reels = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RegisteredReel> eldest) {
+                if (size() <= capacity) return false;
+                evicted.values().removeIf(reference -> reference.refersTo(null));
+                evicted.put(eldest.getKey(), new WeakReference<>(eldest.getValue()));
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Computes the content hash of an encoded reel.
+     *
+     * @param encodedReel the Base64-encoded, GZIP-compressed reel.
+     * @return the hex encoded SHA-256 digest of the encoded reel.
+     */
+    public static String hash(String encodedReel) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(encodedReel.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Registers an encoded reel, decoding and analyzing it unless the same content was registered before.
+     * <p>
+     * Registrations are serialized, so concurrent registrations of the same content decode the reel
+     * exactly once.
+     *
+     * @param encodedReel the Base64-encoded, GZIP-compressed reel, as produced by {@link VirtualReel#toString()}.
+     * @return the registered reel.
+     * @throws SlotUserException if the reel cannot be decoded, is empty, has more than {@link #MAX_REEL_SIZE}
+     *                           stops, or contains a symbol that is not defined by the pay table. Decoding
+     *                           errors keep the message of the Base64 or GZIP decoder.
+     */
+    public RegisteredReel register(String encodedReel) {
+        return register(hash(encodedReel), () -> {
+            final VirtualReel reel;
+            try {
+                reel = VirtualReel.loadFromString(encodedReel, rng.current(), MAX_REEL_SIZE);
+            } catch (SizeLimitExceededException e) {
+                throw new SizeLimitExceededException("Reel exceeds %d stops.".formatted(MAX_REEL_SIZE));
+            } catch (IllegalArgumentException | UncheckedIOException e) {
+                throw new SlotUserException("Invalid reel encoding: " + e.getMessage());
+            }
+            if (reel.size() == 0) throw new SlotUserException("Reel is empty.");
+            return reel;
+        });
+    }
+
+    /**
+     * Registers a reel strip file, mapping it read-only, unless a strip with the same stops was
+     * registered before.
+     * <p>
+     * The strip is spun in the order it was written, see {@link MappedReel#write(Path, IReel, RandomGenerator)},
+     * and is never copied onto the heap. Its statistics are derived from the histogram stored in the
+     * file header.
+     *
+     * @param strip the path of a file written by {@link MappedReel#write(Path, IReel)}.
+     * @return the registered reel.
+     * @throws SlotUserException if the file is not a valid reel strip or contains a symbol that is not
+     *                           defined by the pay table.
+     * @throws RuntimeException  if an I/O error occurs while mapping the file.
+     */
+    public RegisteredReel register(Path strip) {
+        final MappedReel reel = MappedReel.load(strip);
+        return register(reel.hash(), () -> reel);
+    }
+
+    /**
+     * Returns the reel registered under a hash, including an evicted reel still referenced by a machine,
+     * or validates, analyzes and registers the supplied reel.
+     *
+     * @param hash   the content hash of the reel.
+     * @param loader the supplier of the reel, called only if no reel is registered under the hash.
+     * @return the registered reel.
+     * @throws SlotUserException if the reel cannot be loaded or contains a symbol that is not defined by
+     *                           the pay table.
+     */
+    private RegisteredReel register(String hash, Supplier<IReel> loader) {
+        lock.lock();
+        try {
+            final RegisteredReel cached = reels.get(hash);
+            if (cached != null) return cached;
+            final WeakReference<RegisteredReel> reference = evicted.remove(hash);
+            final RegisteredReel spun = reference == null ? null : reference.get();
+            if (spun != null) {
+                reels.put(hash, spun);
+                return spun;
+            }
+            final IReel reel = loader.get();
+            payTable.validate(reel);
+            final ReelCursor cursor = new ReelCursor(reel.size(), rng.current().nextInt(reel.size()));
+            final RegisteredReel registered = new RegisteredReel(hash, reel, analyzer.analyze(reel), cursor);
+            reels.put(hash, registered);
+            return registered;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves a registered reel by its content hash.
+     *
+     * @param hash the hex encoded SHA-256 digest of the encoded reel.
+     * @return the registered reel, or null if no reel with that hash was registered.
+     */
+    public RegisteredReel get(String hash) {
+        lock.lock();
+        try {
+            return reels.get(hash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves every registered reel.
+     *
+     * @return an immutable snapshot of the registered reels, from the least to the most recently used.
+     */
+    public Collection<RegisteredReel> getReels() {
+        lock.lock();
+        try {
+            return List.copyOf(reels.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the analyzer computing the statistics of the registered reels.
+     *
+     * @return the {@link ReelAnalyzer} of the registry, bound to its pay table.
+     */
+    public ReelAnalyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    /**
+     * Retrieves the pay table the registered reels were validated and analyzed against.
+     *
+     * @return the {@link PayTable} of the registry.
+     */
+    public PayTable getPayTable() {
+        return payTable;
+    }
+}
@@ -1,11 +1,12 @@
 package wtd.slotsengine.slots.machines.reels;
 
-import wtd.slotsengine.utils.SlotConstants;
+import wtd.slotsengine.slots.exceptions.SizeLimitExceededException;
+import wtd.slotsengine.slots.rng.RngProvider;
 import wtd.slotsengine.utils.SlotUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a virtual reel for use in slot machine simulations.
@@ -46,32 +47,49 @@ public class VirtualReel implements IReel {
      * Creates a new {@code VirtualReel} instance by decoding and processing data from the provided string.
      * <p>
      * The method takes a Base64-encoded, GZIP-compressed string representing the serialized reel data,
-     * decodes it into a byte array, and constructs a shuffled list of {@code Byte} objects. This shuffled
-     * data is then used to create and initialize a {@code VirtualReel} instance.
+     * decodes it into a byte array and shuffles it in place using the calling thread's stream of
+     * {@link RngProvider#DEFAULT}. This shuffled data is then used to create and initialize a
+     * {@code VirtualReel} instance.
      *
      * @param dataString the Base64-encoded, GZIP-compressed string containing the serialized reel data.
      *                   This string should represent the reel symbols or values in a compressed format.
      * @return a new {@code VirtualReel} instance initialized with the decoded and shuffled reel data.
      */
     static public VirtualReel loadFromString(String dataString) {
-        return new VirtualReel(parseElementsFromString(dataString));
+        return loadFromString(dataString, RngProvider.DEFAULT.current());
     }
 
     /**
-     * Parses a Base64-encoded and GZIP-compressed string and converts it into
-     * a shuffled list of {@code Byte} objects.
+     * Creates a new {@code VirtualReel} instance by decoding the provided string and shuffling the
+     * decoded data with the given random number generator.
      *
-     * @param dataString the Base64-encoded, GZIP-compressed string representing the serialized byte data
-     * @return a {@code List} of {@code Byte} objects, representing the decoded and shuffled data
+     * @param dataString the Base64-encoded, GZIP-compressed string containing the serialized reel data.
+     * @param random     the random number generator used to shuffle the reel.
+     * @return a new {@code VirtualReel} instance initialized with the decoded and shuffled reel data.
      */
-    static private List<Byte> parseElementsFromString(String dataString) {
-        ArrayList<Byte> aList = new ArrayList<>();
+    static public VirtualReel loadFromString(String dataString, RandomGenerator random) {
         byte[] reelBytes = SlotUtils.decodeGzipBase64(dataString);
-        for (byte reelByte : reelBytes) {
-            aList.add(reelByte);
-        }
-        Collections.shuffle(aList, SlotConstants.RANDOM);
-        return aList;
+        SlotUtils.shuffle(reelBytes, random);
+        return new VirtualReel(reelBytes);
+    }
+
+    /**
+     * Creates a new {@code VirtualReel} instance by decoding the provided string, received from an
+     * untrusted source, and shuffling the decoded data with the given random number generator.
+     * Decompression stops as soon as the reel exceeds the given size.
+     *
+     * @param dataString the Base64-encoded, GZIP-compressed string containing the serialized reel data.
+     * @param random     the random number generator used to shuffle the reel.
+     * @param maxSize    the largest accepted number of stops.
+     * @return a new {@code VirtualReel} instance initialized with the decoded and shuffled reel data.
+     * @throws SizeLimitExceededException if the reel has more than {@code maxSize} stops.
+     * @throws IllegalArgumentException    if the string is not valid Base64.
+     * @throws UncheckedIOException        if the decoded data is not valid GZIP.
+     */
+    static public VirtualReel loadFromString(String dataString, RandomGenerator random, int maxSize) {
+        byte[] reelBytes = SlotUtils.decodeGzipBase64(dataString, maxSize);
+        SlotUtils.shuffle(reelBytes, random);
+        return new VirtualReel(reelBytes);
     }
 
     /**
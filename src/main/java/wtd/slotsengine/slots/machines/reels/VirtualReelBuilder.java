@@ -1,7 +1,11 @@
 package wtd.slotsengine.slots.machines.reels;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import wtd.slotsengine.slots.rng.RngProvider;
+import wtd.slotsengine.utils.SlotUtils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
 /**
  * A builder class for creating and customizing instances of {@code VirtualReel}.
@@ -11,18 +15,22 @@ import java.util.Collections;
  * The {@code VirtualReelBuilder} allows dynamic addition of symbols with
  * specified repetitions and ensures flexibility in constructing virtual
  * reels for applications like slot machine simulations.
+ * <p>
+ * Symbols are stored in a growable primitive byte array, so building large reels does not box
+ * every stop.
  */
 public class VirtualReelBuilder implements IReel {
-    private final ArrayList<Byte> newList;
+    private byte[] data;
+    private int size;
 
     /**
      * Constructs a new instance of {@code VirtualReelBuilder}.
-     * Initializes an internal list with a default capacity of 4096 elements to store symbols
+     * Initializes an internal buffer with a default capacity of 4096 elements to store symbols
      * and their repetitions. This builder provides methods to configure and create a
      * {@code VirtualReel} instance.
      */
     public VirtualReelBuilder() {
-        this.newList = new ArrayList<>(4096);
+        this.data = new byte[4096];
     }
 
     /**
@@ -45,69 +53,85 @@ public class VirtualReelBuilder implements IReel {
      * @return the current instance of {@code VirtualReelBuilder}, enabling method chaining.
      */
     public VirtualReelBuilder addSymbol(Byte symbol, int count) {
-        for (int i = 0; i < count; i++) {
-            newList.add(symbol);
+        if (count <= 0) return this;
+        final int newSize = Math.addExact(size, count);
+        if (newSize > data.length) {
+            data = Arrays.copyOf(data, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(newSize, 2L * data.length)));
         }
+        Arrays.fill(data, size, newSize, symbol);
+        size = newSize;
         return this;
     }
 
     /**
-     * Retrieves the value at the specified index from the internal list.
-     * If the index exceeds the size of the list, it wraps around using
+     * Retrieves the value at the specified index from the internal buffer.
+     * If the index exceeds the size of the reel, it wraps around using
      * modulo arithmetic to map the index within the valid range.
      *
-     * @param index the position in the list whose value is to be retrieved.
-     *              If the index exceeds the size of the list, it wraps
-     *              around using the index modulo the list size.
-     * @return the value located at the mapped index in the list.
+     * @param index the position in the reel whose value is to be retrieved.
+     *              If the index exceeds the size of the reel, it wraps
+     *              around using the index modulo the reel size.
+     * @return the value located at the mapped index in the reel.
      */
     public int get(int index) {
-        return newList.get(index % newList.size());
+        return data[index % size];
     }
 
     /**
-     * Returns the number of elements currently in the internal list.
+     * Returns the number of elements currently in the internal buffer.
      * This represents the total count of symbols or values added to the builder.
      *
-     * @return the number of elements in the internal list.
+     * @return the number of elements added to the builder.
      */
     public int size() {
-        return newList.size();
+        return size;
     }
 
     /**
-     * Sorts the internal list of elements in ascending order.
+     * Sorts the internal buffer of elements in ascending order.
      * This method organizes the data to ensure it is arranged
      * in a sequentially sorted manner based on the natural ordering of the elements.
      *
      * @return the current instance of {@code VirtualReelBuilder}, allowing method chaining.
      */
     public VirtualReelBuilder sort() {
-        Collections.sort(newList);
+        Arrays.sort(data, 0, size);
         return this;
     }
 
     /**
-     * Randomly shuffles the order of elements in the internal list.
-     * This method modifies the internal list by rearranging its elements
+     * Randomly shuffles the order of elements in the internal buffer.
+     * This method modifies the internal buffer by rearranging its elements
      * into a random sequence. It is useful for creating a randomized
-     * configuration of symbols or data in the virtual reel.
+     * configuration of symbols or data in the virtual reel. The calling thread's stream of
+     * {@link RngProvider#DEFAULT} is used as the source of randomness.
      *
      * @return the current instance of {@code VirtualReelBuilder}, allowing method chaining.
      */
     public VirtualReelBuilder shuffle() {
-        Collections.shuffle(newList);
+        return shuffle(RngProvider.DEFAULT.current());
+    }
+
+    /**
+     * Randomly shuffles the order of elements in the internal buffer using the Fisher-Yates algorithm
+     * and the given random number generator.
+     *
+     * @param random the random number generator used to pick the permutation.
+     * @return the current instance of {@code VirtualReelBuilder}, allowing method chaining.
+     */
+    public VirtualReelBuilder shuffle(RandomGenerator random) {
+        SlotUtils.shuffle(ByteBuffer.wrap(data, 0, size), random);
         return this;
     }
 
     /**
      * Builds and returns a {@code VirtualReel} instance configured with the current state
-     * of the builder. The {@code VirtualReel} is created using the internal data list
-     * maintained in this builder.
+     * of the builder. The {@code VirtualReel} is created from a copy of the internal data
+     * buffer maintained in this builder.
      *
      * @return a new instance of {@code VirtualReel} constructed from the builder's data.
      */
     public VirtualReel build() {
-        return new VirtualReel(newList);
+        return new VirtualReel(Arrays.copyOf(data, size));
     }
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+package wtd.slotsengine.slots.machines.reels;
+
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+
+import java.util.StringJoiner;
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents a reel described only by the weight of each symbol, sampled with Vose's alias method.
+ * <p>
+ * Instead of one byte per stop, the reel stores one column per distinct symbol, so its memory footprint
+ * is proportional to the number of symbols rather than the number of stops. Each column has the height
+ * of the total weight and is split at a threshold between its own symbol and an alias symbol. The table
+ * is built with integer arithmetic, so every symbol covers exactly {@code weight * columns} of the
+ * {@link #size()} virtual positions and the distribution is exact.
+ * <p>
+ * Sampling a symbol, either through {@link #sample(RandomGenerator)} or through {@link #get(int)} at a
+ * uniformly drawn position, takes constant time. Virtual positions are grouped by column, so
+ * consecutive positions do not form a playable strip; this reel is meant for machines drawing a
+ * random position on every spin.
+ */
+public final class WeightedReel implements IReel {
+    private final byte[] symbols;
+    private final int[] weights;
+    private final byte[] aliases;
+    private final int[] thresholds;
+    private final int totalWeight;
+    private final int size;
+
+    /**
+     * Constructs a {@code WeightedReel} from parallel arrays of symbols and weights.
+     *
+     * @param symbols the distinct symbols of the reel, each within {@code [0, 255]}.
+     * @param weights the weight of each symbol, i.e. the number of stops it would occupy on a strip.
+     * @throws SlotUserException if the arrays are empty or differ in length, a symbol is invalid or
+     *                           repeated, a weight is not positive, or the reel has more than
+     *                           {@link Integer#MAX_VALUE} virtual positions.
+     */
+    public WeightedReel(int[] symbols, int[] weights) {
+        if (symbols.length == 0 || symbols.length != weights.length) {
+            throw new SlotUserException("Weighted reel needs one weight per symbol.");
+        }
+        final int columns = symbols.length;
+        final boolean[] seen = new boolean[256];
+        long total = 0;
+        for (int i = 0; i < columns; i++) {
+            if (symbols[i] < 0 || symbols[i] > 255) throw new SlotUserException("Invalid symbol " + symbols[i]);
+            if (seen[symbols[i]]) throw new SlotUserException("Duplicate symbol " + symbols[i]);
+            if (weights[i] < 1) throw new SlotUserException("Invalid weight " + weights[i]);
+            seen[symbols[i]] = true;
+            total += weights[i];
+        }
+        if (total * columns > Integer.MAX_VALUE) throw new SlotUserException("Weighted reel is too large.");
+        this.totalWeight = (int) total;
+        this.size = (int) (total * columns);
+        this.symbols = new byte[columns];
+        this.weights = weights.clone();
+        this.aliases = new byte[columns];
+        this.thresholds = new int[columns];
+        for (int i = 0; i < columns; i++) {
+            this.symbols[i] = (byte) symbols[i];
+        }
+        buildAliasTable();
+    }
+
+    /**
+     * Builds the alias table with Vose's algorithm, using exact integer heights.
+     * <p>
+     * Every column is scaled to a height of {@code weight * columns}. Columns lower than the total weight
+     * are topped up with the excess of a column higher than it, which becomes their alias.
+     */
+    private void buildAliasTable() {
+        final int columns = symbols.length;
+        final long[] heights = new long[columns];
+        final int[] small = new int[columns];
+        final int[] large = new int[columns];
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < columns; i++) {
+            heights[i] = (long) weights[i] * columns;
+            if (heights[i] < totalWeight) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            final int low = small[--smallCount];
+            final int high = large[--largeCount];
+            thresholds[low] = (int) heights[low];
+            aliases[low] = symbols[high];
+            heights[high] -= totalWeight - heights[low];
+            if (heights[high] < totalWeight) small[smallCount++] = high;
+            else large[largeCount++] = high;
+        }
+        while (largeCount > 0) {
+            final int column = large[--largeCount];
+            thresholds[column] = totalWeight;
+            aliases[column] = symbols[column];
+        }
+        while (smallCount > 0) {
+            final int column = small[--smallCount];
+            thresholds[column] = totalWeight;
+            aliases[column] = symbols[column];
+        }
+    }
+
+    /**
+     * Creates a {@code WeightedReel} from a symbol histogram, e.g. one built by {@link IReel#histogram()}.
+     *
+     * @param histogram the weight of each symbol, indexed by symbol. Symbols with a zero weight are skipped.
+     * @return a new weighted reel with the same symbol distribution.
+     * @throws SlotUserException if the histogram is empty or a weight exceeds {@link Integer#MAX_VALUE}.
+     */
+    public static WeightedReel fromHistogram(long[] histogram) {
+        int count = 0;
+        for (long weight : histogram) if (weight > 0) count++;
+        final int[] symbols = new int[count];
+        final int[] weights = new int[count];
+        for (int symbol = 0, i = 0; symbol < histogram.length; symbol++) {
+            if (histogram[symbol] <= 0) continue;
+            if (histogram[symbol] > Integer.MAX_VALUE) throw new SlotUserException("Invalid weight " + histogram[symbol]);
+            symbols[i] = symbol;
+            weights[i++] = (int) histogram[symbol];
+        }
+        return new WeightedReel(symbols, weights);
+    }
+
+    /**
+     * Creates a {@code WeightedReel} with the same symbol distribution as the given reel.
+     *
+     * @param reel the reel to compress.
+     * @return a new weighted reel with the same symbol distribution.
+     */
+    public static WeightedReel from(IReel reel) {
+        return fromHistogram(reel.histogram());
+    }
+
+    /**
+     * Parses a weighted reel specification.
+     *
+     * @param spec comma separated {@code symbol:weight} pairs, e.g. {@code "0:3000,1:40,10:1"}.
+     * @return the parsed {@code WeightedReel}.
+     * @throws SlotUserException if the specification is empty or malformed, or describes an invalid reel.
+     */
+    public static WeightedReel parse(String spec) {
+        if (spec == null || spec.isBlank()) throw new SlotUserException("Reel specification is empty.");
+        final String[] entries = spec.split(",");
+        final int[] symbols = new int[entries.length];
+        final int[] weights = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            final String[] parts = entries[i].trim().split(":");
+            if (parts.length != 2) throw new SlotUserException("Invalid reel entry " + entries[i]);
+            try {
+                symbols[i] = Integer.parseInt(parts[0].trim());
+                weights[i] = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new SlotUserException("Invalid reel entry " + entries[i]);
+            }
+        }
+        return new WeightedReel(symbols, weights);
+    }
+
+    /**
+     * Draws a random symbol in constant time: one uniform column and one uniform height within it.
+     *
+     * @param random the random number generator of the calling thread.
+     * @return the sampled symbol.
+     */
+    public int sample(RandomGenerator random) {
+        final int column = random.nextInt(symbols.length);
+        return (random.nextInt(totalWeight) < thresholds[column] ? symbols[column] : aliases[column]) & 0xFF;
+    }
+
+    /**
+     * Retrieves the symbol at the specified virtual position in constant time.
+     * Positions exceeding the reel size wrap around using modulo arithmetic.
+     *
+     * @param position the virtual position, grouped by alias column.
+     * @return the symbol located at the specified position.
+     */
+    @Override
+    public int get(int position) {
+        final int p = position % size;
+        final int column = p / totalWeight;
+        return (p - column * totalWeight < thresholds[column] ? symbols[column] : aliases[column]) & 0xFF;
+    }
+
+    /**
+     * Returns the number of virtual positions of the reel, i.e. the total weight times the number of
+     * distinct symbols.
+     *
+     * @return the total number of virtual positions.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Builds the symbol histogram of the reel directly from its weights, without walking its positions.
+     *
+     * @return the number of virtual positions showing each symbol, indexed by symbol.
+     */
+    @Override
+    public long[] histogram() {
+        final long[] counts = new long[256];
+        for (int i = 0; i < symbols.length; i++) {
+            counts[symbols[i] & 0xFF] = (long) weights[i] * symbols.length;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the sum of all symbol weights.
+     *
+     * @return the total weight of the reel.
+     */
+    public int getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Converts this reel to its textual specification, as accepted by {@link #parse(String)}.
+     *
+     * @return comma separated {@code symbol:weight} pairs.
+     */
+    @Override
+    public String toString() {
+        final StringJoiner joiner = new StringJoiner(",");
+        for (int i = 0; i < symbols.length; i++) {
+            joiner.add((symbols[i] & 0xFF) + ":" + weights[i]);
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package wtd.slotsengine.slots.rng;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Provides random number streams to slot machines, reel shuffles and reel generators.
+ * <p>
+ * Each thread obtains its own {@link RandomGenerator} stream from {@link #current()}, so drawing
+ * random values never touches state shared with other threads. Providers are selected by algorithm
+ * name through {@link #of(String)} and can be chosen independently for every machine.
+ * <p>
+ * Code running on short-lived threads, such as the virtual threads serving one request each, borrows
+ * a stream with {@link #acquire()} and gives it back with {@link #release(RandomGenerator)} instead,
+ * so that streams are reused across threads rather than created for every thread.
+ */
+public interface RngProvider {
+    /**
+     * The name of the algorithm used by {@link #DEFAULT}.
+     */
+    String DEFAULT_ALGORITHM = "L64X128MixRandom";
+    /**
+     * A shared provider backed by the {@value #DEFAULT_ALGORITHM} algorithm, used whenever no
+     * provider is configured explicitly. Sharing it is safe since every thread gets its own stream.
+     */
+    RngProvider DEFAULT = new StreamRngProvider(DEFAULT_ALGORITHM);
+
+    /**
+     * Creates a provider for the given algorithm name.
+     * <p>
+     * The names {@code DRBG}, {@code NativePRNG} and {@code SHA1PRNG} select a {@link SecureRngProvider}
+     * backed by the matching {@link java.security.SecureRandom} algorithm. Any other name is looked up
+     * as a {@link java.util.random.RandomGeneratorFactory} algorithm, e.g. {@code L64X128MixRandom}
+     * or {@code Xoshiro256PlusPlus}, and served by a {@link StreamRngProvider}.
+     *
+     * @param algorithm the name of the random number generator algorithm.
+     * @return a new provider for the algorithm.
+     * @throws IllegalArgumentException if the algorithm is not supported.
+     */
+    static RngProvider of(String algorithm) {
+        return switch (algorithm) {
+            case "DRBG", "NativePRNG", "SHA1PRNG" -> new SecureRngProvider(algorithm);
+            default -> new StreamRngProvider(algorithm);
+        };
+    }
+
+    /**
+     * Retrieves the random number stream of the calling thread.
+     * <p>
+     * The returned generator is not thread-safe and must not be handed to other threads.
+     *
+     * @return the random number generator owned by the calling thread.
+     */
+    RandomGenerator current();
+
+    /**
+     * Borrows a random number stream that no other thread uses until it is released.
+     * <p>
+     * Unlike {@link #current()}, the stream does not depend on the identity of the calling thread. The
+     * default implementation lends the stream of the calling thread.
+     *
+     * @return a random number generator owned by the calling thread until it is released.
+     */
+    default RandomGenerator acquire() {
+        return current();
+    }
+
+    /**
+     * Gives back a stream borrowed with {@link #acquire()}. The stream must not be used afterwards.
+     *
+     * @param stream the random number generator borrowed by the calling thread.
+     */
+    default void release(RandomGenerator stream) {
+    }
+
+    /**
+     * Retrieves the name of the algorithm backing this provider.
+     *
+     * @return the algorithm name.
+     */
+    String getAlgorithm();
+}
@@ -0,0 +1,90 @@
+package wtd.slotsengine.slots.rng;
+
+import wtd.slotsengine.utils.LeasePool;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * An {@link RngProvider} backed by one {@link SecureRandom} instance per thread, e.g. a {@code DRBG}.
+ * <p>
+ * Every thread gets its own independently seeded instance, so the internal synchronization of
+ * {@link SecureRandom} is never contended.
+ * <p>
+ * Instances borrowed with {@link #acquire()} come from a {@link LeasePool} instead. A new instance seeds
+ * itself from the entropy source on its first draw, within its synchronized methods; a virtual thread
+ * doing so would stay pinned to its carrier while reading the entropy source. Pooling seeds one instance
+ * per concurrent borrower instead of one per thread.
+ */
+public final class SecureRngProvider implements RngProvider {
+    private final String algorithm;
+    private final ThreadLocal<RandomGenerator> streams;
+    private final LeasePool<RandomGenerator> pool;
+
+    /**
+     * Constructs a {@code SecureRngProvider} for the given {@link SecureRandom} algorithm.
+     *
+     * @param algorithm the name of a {@link SecureRandom} algorithm, e.g. {@code DRBG}.
+     * @throws IllegalArgumentException if the algorithm is not available.
+     */
+    public SecureRngProvider(String algorithm) {
+        this.algorithm = algorithm;
+        newStream();
+        this.streams = ThreadLocal.withInitial(this::newStream);
+        this.pool = new LeasePool<>(this::newStream);
+    }
+
+    /**
+     * Creates the secure random instance of a thread.
+     *
+     * @return a new, self-seeded secure random number generator.
+     */
+    private RandomGenerator newStream() {
+        try {
+            return SecureRandom.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("No such algorithm: " + algorithm, e);
+        }
+    }
+
+    /**
+     * Retrieves the secure random instance of the calling thread, creating it on first use.
+     *
+     * @return the random number generator owned by the calling thread.
+     */
+    @Override
+    public RandomGenerator current() {
+        return streams.get();
+    }
+
+    /**
+     * Borrows a pooled secure random instance, creating a new one if none is available.
+     *
+     * @return a random number generator owned by the calling thread until it is released.
+     */
+    @Override
+    public RandomGenerator acquire() {
+        return pool.acquire();
+    }
+
+    /**
+     * Returns a borrowed secure random instance to the pool.
+     *
+     * @param stream the random number generator borrowed by the calling thread.
+     */
+    @Override
+    public void release(RandomGenerator stream) {
+        pool.release(stream);
+    }
+
+    /**
+     * Retrieves the name of the algorithm backing this provider.
+     *
+     * @return the algorithm name.
+     */
+    @Override
+    public String getAlgorithm() {
+        return algorithm;
+    }
+}
@@ -0,0 +1,99 @@
+package wtd.slotsengine.slots.rng;
+
+import wtd.slotsengine.utils.LeasePool;
+
+import java.security.SecureRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * An {@link RngProvider} handing out independent streams of a {@link RandomGeneratorFactory} algorithm.
+ * <p>
+ * A root generator is seeded from {@link SecureRandom} when the provider is created. The first time a
+ * thread asks for its stream, the root is split (for splittable algorithms such as
+ * {@code L64X128MixRandom}) or jumped ahead (for jumpable algorithms such as {@code Xoshiro256PlusPlus}),
+ * so that every thread draws from a statistically independent stream. Algorithms supporting neither are
+ * seeded from the root. The root is only touched once per thread; afterwards drawing values involves no
+ * shared mutable state.
+ * <p>
+ * Streams borrowed with {@link #acquire()} come from a {@link LeasePool} of streams split the same way,
+ * so short-lived threads reuse them instead of splitting the root under its lock for every thread.
+ */
+public final class StreamRngProvider implements RngProvider {
+    private final String algorithm;
+    private final RandomGeneratorFactory<RandomGenerator> factory;
+    private final RandomGenerator root;
+    private final ReentrantLock rootLock = new ReentrantLock();
+    private final ThreadLocal<RandomGenerator> streams = ThreadLocal.withInitial(this::newStream);
+    private final LeasePool<RandomGenerator> pool = new LeasePool<>(this::newStream);
+
+    /**
+     * Constructs a {@code StreamRngProvider} for the given algorithm, seeding its root generator from
+     * {@link SecureRandom}.
+     *
+     * @param algorithm the name of a {@link RandomGeneratorFactory} algorithm, e.g. {@code L64X128MixRandom}.
+     * @throws IllegalArgumentException if the algorithm is not available.
+     */
+    public StreamRngProvider(String algorithm) {
+        this.algorithm = algorithm;
+        this.factory = RandomGeneratorFactory.of(algorithm);
+        this.root = factory.create(new SecureRandom().generateSeed(32));
+    }
+
+    /**
+     * Creates the stream of a thread by splitting or jumping the root generator.
+     *
+     * @return a new, independent random number generator.
+     */
+    private RandomGenerator newStream() {
+        rootLock.lock();
+        try {
+            if (root instanceof RandomGenerator.SplittableGenerator splittable) return splittable.split();
+            if (root instanceof RandomGenerator.JumpableGenerator jumpable) return jumpable.copyAndJump();
+            return factory.create(root.nextLong());
+        } finally {
+            rootLock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the random number stream of the calling thread, creating it on first use.
+     *
+     * @return the random number generator owned by the calling thread.
+     */
+    @Override
+    public RandomGenerator current() {
+        return streams.get();
+    }
+
+    /**
+     * Borrows a pooled random number stream, splitting a new one if none is available.
+     *
+     * @return a random number generator owned by the calling thread until it is released.
+     */
+    @Override
+    public RandomGenerator acquire() {
+        return pool.acquire();
+    }
+
+    /**
+     * Returns a borrowed random number stream to the pool.
+     *
+     * @param stream the random number generator borrowed by the calling thread.
+     */
+    @Override
+    public void release(RandomGenerator stream) {
+        pool.release(stream);
+    }
+
+    /**
+     * Retrieves the name of the algorithm backing this provider.
+     *
+     * @return the algorithm name.
+     */
+    @Override
+    public String getAlgorithm() {
+        return algorithm;
+    }
+}
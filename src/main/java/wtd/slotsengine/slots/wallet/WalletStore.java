@@ -0,0 +1,335 @@
+package wtd.slotsengine.slots.wallet;
+
+import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent store of player wallet balances, keyed by a numeric player id.
+ * <p>
+ * The store is split into a power-of-two number of shards selected by a hash of the player id. Each
+ * shard maps player ids to dense slot numbers through a primitive open-addressing table, and keeps
+ * the balances of its slots in chunked {@code long} arrays. Neither ids nor balances are ever boxed,
+ * so millions of accounts cost a few tens of bytes each and updating a balance allocates nothing.
+ * <p>
+ * Lookups of existing players never lock: keys are published with release semantics and read with
+ * acquire semantics, and every balance update is a single compare-and-set, debits validating the balance
+ * it replaces. A spin therefore takes two of them: the bet is reserved by a {@link #debit} before the
+ * outcome is drawn, and the win is {@link #credit credited} once it is known. Only the first deposit
+ * of a new player takes the lock of its shard, to claim a slot and, when the table is half full,
+ * publish a table of twice the capacity. Accounts are never removed; an emptied wallet keeps its slot.
+ */
+public final class WalletStore {
+    /**
+     * The default number of shards, enough to keep account creation uncontended on large machines.
+     */
+    public static final int DEFAULT_SHARDS = 64;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 16;
+    private final Shard[] shards;
+    private final int shardMask;
+
+    /**
+     * Constructs an empty {@code WalletStore} with {@link #DEFAULT_SHARDS} shards.
+     */
+    public WalletStore() {
+        this(DEFAULT_SHARDS);
+    }
+
+    /**
+     * Constructs an empty {@code WalletStore} with the given number of shards.
+     *
+     * @param shardCount the number of shards, rounded up to the next power of two. Must be positive.
+     * @throws IllegalArgumentException if the shard count is not a positive value.
+     */
+    public WalletStore(int shardCount) {
+        if (shardCount <= 0 || shardCount > 1 << 16) throw new IllegalArgumentException("Invalid shard count.");
+        final int count = shardCount == 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        this.shards = new Shard[count];
+        this.shardMask = count - 1;
+        for (int i = 0; i < count; i++) shards[i] = new Shard();
+    }
+
+    /**
+     * Retrieves the balance of a player.
+     *
+     * @param playerId the id of the player.
+     * @return the balance of the player, or 0 if the player has no wallet.
+     */
+    public long balance(long playerId) {
+        final long hash = mix(playerId);
+        final Shard shard = shardOf(hash);
+        final int slot = shard.find(playerId, hash);
+        return slot < 0 ? 0 : shard.get(slot);
+    }
+
+    /**
+     * Credits an amount to the wallet of a player, creating the wallet if the player has none.
+     *
+     * @param playerId the id of the player.
+     * @param amount   the amount to credit. Must not be negative.
+     * @return the balance of the player after the credit.
+     * @throws IllegalArgumentException if the amount is negative or the player id is reserved.
+     * @throws ArithmeticException      if the balance would overflow.
+     */
+    public long credit(long playerId, long amount) {
+        if (amount < 0) throw new IllegalArgumentException("Credit amount must not be negative.");
+        final long hash = mix(checkId(playerId));
+        final Shard shard = shardOf(hash);
+        if (amount == 0) return balance(playerId);
+        return shard.add(shard.slotFor(playerId, hash), amount);
+    }
+
+    /**
+     * Debits an amount from the wallet of a player. The balance is checked and updated with a single
+     * atomic operation, so concurrent debits can never overdraw a wallet.
+     *
+     * @param playerId   the id of the player.
+     * @param amount     the amount to debit. Must not be negative.
+     * @param actionName the name of the action being performed, used for error reporting.
+     * @return the balance of the player after the debit.
+     * @throws InsufficientFundsException if the amount is negative or exceeds the balance of the player.
+     */
+    public long debit(long playerId, long amount, String actionName) throws InsufficientFundsException {
+        return settle(playerId, amount, 0, actionName);
+    }
+
+    /**
+     * Settles a wager in the wallet of a player: the debit is validated against the balance and the net
+     * amount {@code credit - debit} is applied in a single compare-and-set. Concurrent settlements can
+     * never overdraw a wallet, and the returned balance is the one produced by this settlement, not a
+     * later read that may include the effect of other operations.
+     *
+     * @param playerId   the id of the player.
+     * @param debit      the amount wagered, which must be covered by the balance. Must not be negative.
+     * @param credit     the amount won. Must not be negative.
+     * @param actionName the name of the action being performed, used for error reporting.
+     * @return the balance of the player after the settlement.
+     * @throws InsufficientFundsException if an amount is negative or the debit exceeds the balance of the player.
+     * @throws ArithmeticException        if the balance would overflow.
+     */
+    public long settle(long playerId, long debit, long credit, String actionName) throws InsufficientFundsException {
+        if (debit < 0 || credit < 0) throw new InsufficientFundsException("Only positive numbers are allowed.");
+        final long hash = mix(playerId);
+        final Shard shard = shardOf(hash);
+        final int slot = shard.find(playerId, hash);
+        if (slot < 0) {
+            if (debit > 0) throw insufficient(actionName, debit, 0);
+            return credit == 0 ? 0 : shard.add(shard.slotFor(checkId(playerId), hash), credit);
+        }
+        return shard.settle(slot, debit, credit, actionName);
+    }
+
+    /**
+     * Retrieves the number of wallets held by the store.
+     *
+     * @return the number of players that received at least one credit.
+     */
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) size += shard.count;
+        return size;
+    }
+
+    /**
+     * Computes the total balance of the wallets held by the store. Balances are read one by one without
+     * blocking concurrent updates, so the total of a busy store is only approximate.
+     *
+     * @return the sum of the balances of every wallet.
+     */
+    public long totalBalance() {
+        long total = 0;
+        for (Shard shard : shards) {
+            final int count = shard.count;
+            for (int slot = 0; slot < count; slot++) total += shard.get(slot);
+        }
+        return total;
+    }
+
+    /**
+     * Retrieves the number of shards of the store.
+     *
+     * @return the number of shards, a power of two.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Selects the shard of a player from the low bits of its mixed id.
+     *
+     * @param hash the mixed id of the player, see {@link #mix(long)}.
+     * @return the shard holding the wallet of the player.
+     */
+    private Shard shardOf(long hash) {
+        return shards[(int) hash & shardMask];
+    }
+
+    /**
+     * Validates a player id before a wallet is created for it. {@link Long#MIN_VALUE} marks empty table
+     * entries and cannot be used as an id.
+     *
+     * @param playerId the id of the player.
+     * @return the validated id.
+     * @throws IllegalArgumentException if the id is reserved.
+     */
+    private static long checkId(long playerId) {
+        if (playerId == EMPTY) throw new IllegalArgumentException("Invalid player id " + playerId);
+        return playerId;
+    }
+
+    /**
+     * Mixes the bits of a player id, so that sequential ids spread evenly over shards and table slots.
+     * The low bits select the shard and the high bits the table slot.
+     *
+     * @param playerId the id of the player.
+     * @return the mixed hash of the id.
+     */
+    private static long mix(long playerId) {
+        long h = playerId * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Creates the exception reported when a wallet cannot cover a debit.
+     *
+     * @param actionName the name of the action being performed.
+     * @param required   the amount required by the action.
+     * @param have       the balance of the wallet.
+     * @return a new {@link InsufficientFundsException}.
+     */
+    private static InsufficientFundsException insufficient(String actionName, long required, long have) {
+        return new InsufficientFundsException("Insufficient credits to %s. Required: %d Have: %d".formatted(
+                actionName, required, have));
+    }
+
+    /**
+     * An immutable-capacity open-addressing table from player ids to slot numbers. Entries are only
+     * ever added; a key is written with release semantics after its slot number, so a reader that
+     * observes the key also observes the slot.
+     */
+    private static final class Index {
+        private final long[] keys;
+        private final int[] slots;
+        private final int mask;
+
+        private Index(int capacity) {
+            this.keys = new long[capacity];
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(keys, EMPTY);
+        }
+
+        private static int home(long hash) {
+            return (int) (hash >>> 32);
+        }
+
+        private int find(long key, long hash) {
+            for (int i = home(hash) & mask; ; i = (i + 1) & mask) {
+                final long k = (long) LONGS.getAcquire(keys, i);
+                if (k == EMPTY) return -1;
+                if (k == key) return slots[i];
+            }
+        }
+
+        private void insert(long key, long hash, int slot) {
+            int i = home(hash) & mask;
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            slots[i] = slot;
+            LONGS.setRelease(keys, i, key);
+        }
+
+        private Index grow() {
+            final Index grown = new Index(keys.length << 1);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) grown.insert(keys[i], mix(keys[i]), slots[i]);
+            }
+            return grown;
+        }
+    }
+
+    /**
+     * A shard of the store: an index of its players and the balances of their slots.
+     */
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Index index = new Index(INITIAL_CAPACITY);
+        private volatile long[][] chunks = new long[1][];
+        private volatile int count;
+
+        private int find(long key, long hash) {
+            return index.find(key, hash);
+        }
+
+        private int slotFor(long key, long hash) {
+            final int found = find(key, hash);
+            if (found >= 0) return found;
+            lock.lock();
+            try {
+                final int existing = find(key, hash);
+                if (existing >= 0) return existing;
+                final int slot = count;
+                ensureChunk(slot);
+                Index current = index;
+                if ((slot + 1) * 2 > current.keys.length) {
+                    current = current.grow();
+                    current.insert(key, hash, slot);
+                    index = current;
+                } else {
+                    current.insert(key, hash, slot);
+                }
+                count = slot + 1;
+                return slot;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void ensureChunk(int slot) {
+            final int chunk = slot >>> CHUNK_BITS;
+            long[][] current = chunks;
+            if (chunk >= current.length) {
+                current = Arrays.copyOf(current, current.length << 1);
+                chunks = current;
+            }
+            if (current[chunk] == null) current[chunk] = new long[CHUNK_SIZE];
+        }
+
+        private long get(int slot) {
+            return (long) LONGS.getVolatile(chunks[slot >>> CHUNK_BITS], slot & CHUNK_MASK);
+        }
+
+        private long add(int slot, long amount) {
+            final long[] chunk = chunks[slot >>> CHUNK_BITS];
+            final int offset = slot & CHUNK_MASK;
+            long current;
+            do {
+                current = (long) LONGS.getVolatile(chunk, offset);
+            } while (!LONGS.compareAndSet(chunk, offset, current, Math.addExact(current, amount)));
+            return current + amount;
+        }
+
+        private long settle(int slot, long debit, long credit, String actionName)
+                throws InsufficientFundsException {
+            final long[] chunk = chunks[slot >>> CHUNK_BITS];
+            final int offset = slot & CHUNK_MASK;
+            final long delta = credit - debit;
+            long current, updated;
+            do {
+                current = (long) LONGS.getVolatile(chunk, offset);
+                if (current < debit) throw insufficient(actionName, debit, current);
+                updated = Math.addExact(current, delta);
+            } while (!LONGS.compareAndSet(chunk, offset, current, updated));
+            return updated;
+        }
+    }
+}
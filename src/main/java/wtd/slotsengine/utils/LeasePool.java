@@ -0,0 +1,107 @@
+package wtd.slotsengine.utils;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * A lock-free pool of objects that are not thread-safe, such as random number generators or scratch
+ * buffers, lent to one thread at a time.
+ * <p>
+ * Unlike a {@link ThreadLocal}, the pool does not tie an object to the identity of a thread. Threads
+ * that only live for one request, such as virtual threads, therefore reuse the objects left by earlier
+ * requests instead of creating one each. An object is created only when no pooled object is found, so
+ * the number of objects follows the number of concurrent borrowers rather than the number of threads.
+ * <p>
+ * The objects sit in a table of slots, starting with a slot derived from the borrowing thread, which
+ * is taken and filled with a single compare-and-set; nothing ever blocks or parks. A released object
+ * that finds no free slot is dropped. Objects must be released by the thread that acquired them, and
+ * must not be used after their release.
+ *
+ * @param <T> the type of the pooled objects.
+ */
+public final class LeasePool<T> {
+    /**
+     * The number of slots visited before an object is created or dropped.
+     */
+    private static final int PROBES = 4;
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final Supplier<? extends T> factory;
+
+    /**
+     * Constructs an empty pool with four slots per available processor.
+     *
+     * @param factory the supplier creating a new object whenever no pooled object is found.
+     */
+    public LeasePool(Supplier<? extends T> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Constructs an empty pool.
+     *
+     * @param factory  the supplier creating a new object whenever no pooled object is found.
+     * @param capacity the number of objects the pool can hold, rounded up to a power of two.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public LeasePool(Supplier<? extends T> factory, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive.");
+        final int size = Math.max(PROBES, Integer.highestOneBit(capacity - 1) << 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.factory = factory;
+    }
+
+    /**
+     * Takes an object from the pool, creating a new one if none is found near the slot of the calling
+     * thread.
+     *
+     * @return an object owned by the calling thread until it is released.
+     */
+    public T acquire() {
+        final int start = home();
+        for (int i = 0; i < PROBES; i++) {
+            final int index = (start + i) & mask;
+            final T object = slots.get(index);
+            if (object != null && slots.compareAndSet(index, object, null)) return object;
+        }
+        return factory.get();
+    }
+
+    /**
+     * Returns an object to the pool, or drops it if no free slot is found near the slot of the calling
+     * thread.
+     *
+     * @param object the object acquired by the calling thread.
+     */
+    public void release(T object) {
+        final int start = home();
+        for (int i = 0; i < PROBES; i++) {
+            final int index = (start + i) & mask;
+            if (slots.get(index) == null && slots.compareAndSet(index, null, object)) return;
+        }
+    }
+
+    /**
+     * Retrieves the number of objects currently waiting in the pool.
+     *
+     * @return the number of pooled objects.
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i <= mask; i++) {
+            if (slots.get(i) != null) size++;
+        }
+        return size;
+    }
+
+    /**
+     * Derives the first slot visited by the calling thread from its identity hash.
+     *
+     * @return the index of the slot.
+     */
+    private int home() {
+        final int hash = System.identityHashCode(Thread.currentThread()) * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+}
@@ -0,0 +1,39 @@
+package wtd.slotsengine.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import wtd.slotsengine.services.recorder.SegmentedSpinLog;
+import wtd.slotsengine.services.recorder.SpinLog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The RunExportResults class serves as the main driver for exporting the binary spin log as CSV.
+ * The engine only reads and writes the binary {@link SegmentedSpinLog}; CSV is produced on demand by
+ * this class for spreadsheets and offline analysis.
+ * <p>
+ * Features of this class include:
+ * - Exporting every committed record still kept in detail, one line per spin after a header line
+ * naming the columns. Records compacted into aggregates are not exported.
+ * - Logging the number of exported records.
+ */
+public class RunExportResults {
+    private static final Logger log = LoggerFactory.getLogger("SpinLogExport");
+
+    /**
+     * The main method serves as the entry point for exporting the spin log.
+     *
+     * @param args Command-line arguments passed to the application. The first argument, if present,
+     *             is the directory of the spin log, {@code results} by default. The second argument, if
+     *             present, is the path of the CSV file to write, {@code results-export.csv} by default.
+     * @throws IOException if the spin log cannot be read or the CSV file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        final Path source = Path.of(args.length > 0 ? args[0] : "results");
+        final Path target = Path.of(args.length > 1 ? args[1] : "results-export.csv");
+        log.info("Exporting {} to {}", source, target);
+        long exported = SpinLog.exportCsv(SegmentedSpinLog.detailedSegments(source), target);
+        log.info("Exported {} records", exported);
+    }
+}
@@ -50,6 +50,8 @@ public class RunGenerateReels {
             log.info("RTP: {}", op.getBestRtp());
             log.info("Size: {}", best.size());
             log.info("Elapsed time: {}", Duration.ofMillis(deltaTime));
+            log.info("Candidates: {} ({} per second)", op.getCandidateCount(),
+                    op.getCandidateCount() * 1000 / Math.max(1, deltaTime));
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -0,0 +1,56 @@
+package wtd.slotsengine.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import wtd.slotsengine.slots.machines.analysis.ReelAnalyzer;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.reels.VirtualReel;
+import wtd.slotsengine.utils.simulator.MonteCarloSimulator;
+import wtd.slotsengine.utils.simulator.SimulationResult;
+import wtd.slotsengine.utils.simulator.SpinSource;
+
+import java.time.Duration;
+
+/**
+ * The RunSimulation class serves as the main driver for certifying a reel with the MonteCarloSimulator.
+ * It spins the demo reel against the demo pay table on every available core and compares the observed
+ * results with the exact statistics of the reel.
+ * <p>
+ * Features of this class include:
+ * - Running a configurable number of simulated spins, one billion by default.
+ * - Logging the observed RTP with its 99% confidence interval next to the exact RTP.
+ * - Logging the observed hit frequency, the win distribution and the simulation throughput.
+ */
+public class RunSimulation {
+    private static final Logger log = LoggerFactory.getLogger("MonteCarloSimulator");
+
+    /**
+     * The main method serves as the entry point for executing the simulation.
+     *
+     * @param args Command-line arguments passed to the application. The first argument, if present,
+     *             is the number of spins to simulate.
+     */
+    public static void main(String[] args) {
+        final long spins = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000_000L;
+        final PayTable payTable = PayTable.parse(SlotConstants.DEMO_PAYTABLE);
+        final VirtualReel reel = VirtualReel.loadFromString(SlotConstants.DEMO_MACHINE);
+        final OutcomeStats exact = new ReelAnalyzer(payTable).analyze(reel);
+        log.info("Starting simulation of {} spins", spins);
+        try (MonteCarloSimulator simulator = new MonteCarloSimulator(SpinSource.ofReel(reel, payTable))) {
+            SimulationResult result = simulator.run(spins);
+            double margin = result.confidenceMargin(SimulationResult.Z_99);
+            log.info("Simulation finished.");
+            log.info("Observed RTP: {} +/- {} (99%)", result.rtp(), margin);
+            log.info("Exact RTP: {}", exact.rtp());
+            log.info("Hit frequency: {} (exact {})", result.hitFrequency(), exact.hitFrequency());
+            log.info("Standard deviation: {} (exact {})", result.standardDeviation(), exact.standardDeviation());
+            long[] winCounts = result.winCounts();
+            for (int win = 0; win < winCounts.length; win++) {
+                if (winCounts[win] > 0) log.info("Win {}: {}", win, winCounts[win]);
+            }
+            log.info("Elapsed time: {}", Duration.ofNanos(result.elapsedNanos()));
+            log.info("Spins/sec: {}", String.format("%.0f", result.spinsPerSecond()));
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package wtd.slotsengine.utils;
 
-import java.util.Random;
-
 public final class SlotConstants {
     /**
      * A constant string representing a compressed and Base64-encoded virtual reel configuration
@@ -18,20 +16,12 @@ public final class SlotConstants {
     public static final String DEMO_MACHINE =
             "H4sIAAAAAAAA/+3BSw4AEAxAwfrT+x/Yzo6km0p4MyIAAAC4L8Aofiq9JzsrjqpBO+obY1HVCdYmCgzeDQAA";
     /**
-     * A shared instance of {@link Random} for generating random values across the application.
-     * This instance can be used to ensure consistency and avoid the overhead of repeatedly creating new random objects.
-     *
-     * <p>Primary Use Cases:
-     * - To generate random numbers or other randomized data during processing,
-     * such as shuffling distributions or producing randomized game outcomes.
-     *
-     * <p>Example scenarios include:
-     * - Shuffling elements in virtual reels.
-     * - Generating stochastic behaviors in simulations or gaming logic.
-     *
-     * <p>Note: The use of a single shared {@code Random} instance ensures thread-safety
-     * when accessed in sequential scenarios but may require external synchronization in
-     * multi-threaded use cases to prevent contention or unpredictable outcomes.
+     * A constant string representing the pay table specification of the demo machine, expressed as
+     * comma separated {@code symbol:multiplier} pairs. Symbol 0 is the losing symbol, symbols 1 to 9
+     * pay their own value and symbol 10 pays 100 times the bet.
+     * <p>
+     * The {@link #DEMO_MACHINE} reel is optimized against this pay table. It is used as the default
+     * when no pay table is configured through the {@code slots-engine.paytable} property.
      */
-    public static final Random RANDOM = new Random();
+    public static final String DEMO_PAYTABLE = "0:0,1:1,2:2,3:3,4:4,5:5,6:6,7:7,8:8,9:9,10:100";
 }
\ No newline at end of file
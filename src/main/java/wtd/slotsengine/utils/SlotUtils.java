@@ -1,9 +1,14 @@
 package wtd.slotsengine.utils;
 
+import wtd.slotsengine.slots.exceptions.SizeLimitExceededException;
+
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.Base64;
+import java.util.random.RandomGenerator;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -12,17 +17,69 @@ import java.util.zip.GZIPOutputStream;
  * A utility class that provides helper methods for encoding and decoding operations,
  * including GZIP compression combined with Base64 encoding and decoding.
  * This class is designed for scenarios requiring compact data storage or transmission.
+ * It also provides primitive helpers shared by reels and generators, such as in-place shuffling.
  */
 public final class SlotUtils {
     /**
      * Returns the current system time in milliseconds since the epoch (January 1, 1970, 00:00:00 GMT).
      *
-     * @return the current system time in milliseconds as a {@code Long}
+     * @return the current system time in milliseconds as a primitive {@code long}
      */
-    public static Long now() {
+    public static long now() {
         return System.currentTimeMillis();
     }
 
+    /**
+     * Parses a short duration such as {@code 30s}, {@code 5m} or {@code 24h}: a positive number of
+     * seconds, minutes or hours.
+     *
+     * @param duration the duration, a positive integer followed by {@code s}, {@code m} or {@code h}
+     * @return the duration in milliseconds
+     * @throws IllegalArgumentException if the duration is not a positive number of seconds, minutes or hours
+     */
+    public static long parseDuration(String duration) {
+        if (duration == null || duration.length() < 2) throw new IllegalArgumentException("Invalid duration.");
+        final long unitMs = switch (duration.charAt(duration.length() - 1)) {
+            case 's' -> 1_000L;
+            case 'm' -> 60_000L;
+            case 'h' -> 3_600_000L;
+            default -> throw new IllegalArgumentException("Invalid duration unit.");
+        };
+        final long amount;
+        try {
+            amount = Long.parseLong(duration, 0, duration.length() - 1, 10);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid duration.", e);
+        }
+        if (amount <= 0 || amount > Long.MAX_VALUE / unitMs) throw new IllegalArgumentException("Invalid duration.");
+        return amount * unitMs;
+    }
+
+    /**
+     * Writes the decimal ASCII representation of a value into a byte buffer, without creating any
+     * intermediate {@code String}.
+     *
+     * @param buffer the buffer to write into. Must have room for up to 20 bytes at the offset.
+     * @param offset the position of the first byte to write.
+     * @param value  the value to write.
+     * @return the position following the last written byte.
+     */
+    public static int appendAscii(byte[] buffer, int offset, long value) {
+        if (value < 0) {
+            buffer[offset++] = '-';
+        } else {
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value; rest <= -10; rest /= 10) digits++;
+        final int end = offset + digits;
+        for (int i = end - 1; i >= offset; i--) {
+            buffer[i] = (byte) ('0' - value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
     /**
      * Compresses the input data using GZIP and then encodes the compressed data into a Base64 string.
      * This method is useful for reducing data size while converting it into a Base64-encoded format
@@ -77,6 +134,33 @@ public final class SlotUtils {
         }
     }
 
+    /**
+     * Decodes a Base64 encoded string and decompresses it with GZIP, like {@link #decodeGzipBase64(String)},
+     * but stops reading as soon as the decompressed data exceeds the given size.
+     * <p>
+     * Use this method for data received from clients: a small compressed payload can expand to gigabytes,
+     * which would otherwise be read into memory in full before it could be rejected.
+     *
+     * @param dataString the Base64 encoded string representing GZIP-compressed binary data
+     * @param maxBytes   the largest accepted size of the decompressed data, in bytes
+     * @return a byte array containing the decompressed original data
+     * @throws SizeLimitExceededException if the decompressed data is larger than {@code maxBytes}
+     * @throws IllegalArgumentException    if the data is not valid Base64
+     * @throws UncheckedIOException        if the data is not valid GZIP or an I/O error occurs during the
+     *                                     decompression process
+     */
+    public static byte[] decodeGzipBase64(String dataString, int maxBytes) {
+        try (GZIPInputStream comp = new GZIPInputStream(new ByteArrayInputStream(decodeBase64(dataString)))) {
+            final byte[] data = comp.readNBytes(maxBytes);
+            if (comp.read() >= 0) {
+                throw new SizeLimitExceededException("Decompressed data exceeds %d bytes.".formatted(maxBytes));
+            }
+            return data;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Decodes a Base64 encoded string and returns the original byte array.
      * This method is used to reverse a Base64-encoded textual representation
@@ -88,4 +172,41 @@ public final class SlotUtils {
     public static byte[] decodeBase64(String data) {
         return Base64.getDecoder().decode(data);
     }
-}
\ No newline at end of file
+
+    /**
+     * Shuffles the given byte array in place using the Fisher-Yates algorithm.
+     * <p>
+     * Unlike {@code Collections.shuffle}, this works directly on the primitive array without boxing
+     * and accepts any {@link RandomGenerator}, such as a per-thread stream of an {@code RngProvider}.
+     *
+     * @param data   the byte array to shuffle
+     * @param random the random number generator used to pick the permutation
+     */
+    public static void shuffle(byte[] data, RandomGenerator random) {
+        for (int i = data.length - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final byte tmp = data[i];
+            data[i] = data[j];
+            data[j] = tmp;
+        }
+    }
+
+    /**
+     * Shuffles the remaining bytes of the given buffer in place using the Fisher-Yates algorithm.
+     * <p>
+     * Only absolute accessors are used, so the buffer position and limit are left unchanged. This allows
+     * shuffling reel strips stored off-heap or in a memory-mapped file without copying them onto the heap.
+     *
+     * @param data   the buffer to shuffle, from its position to its limit
+     * @param random the random number generator used to pick the permutation
+     */
+    public static void shuffle(ByteBuffer data, RandomGenerator random) {
+        final int base = data.position();
+        for (int i = data.remaining() - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final byte tmp = data.get(base + i);
+            data.put(base + i, data.get(base + j));
+            data.put(base + j, tmp);
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package wtd.slotsengine.utils.generator;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
 import wtd.slotsengine.slots.machines.reels.VirtualReel;
+import wtd.slotsengine.slots.rng.RngProvider;
+import wtd.slotsengine.utils.SlotConstants;
 
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The {@code ReelOptimizer} class provides a mechanism for optimizing virtual reels
@@ -14,27 +21,60 @@ import java.util.concurrent.atomic.AtomicInteger;
  * The class makes use of a rolling history for evaluation and provides callback support for notifying
  * when a new best configuration is found. It is designed to handle parallel processing using an
  * internal thread pool.
+ * <p>
+ * The number of evaluated candidates is counted as the optimizer runs. Bound to a Micrometer registry
+ * with {@link #bindTo(MeterRegistry)}, it is published as the {@code slots.optimizer.candidates}
+ * counter, whose rate is the number of candidates evaluated per second.
  */
-public final class ReelOptimizer implements AutoCloseable {
+public final class ReelOptimizer implements AutoCloseable, MeterBinder {
     private final ExecutorService workPool = Executors.newWorkStealingPool();
     private final double[] history;
     private final int historySize;
     private final double targetRtp;
+    private final PayTable payTable;
+    private final RngProvider rng;
+    private final LongAdder candidates = new LongAdder();
     private double bestRtp = 0.0;
     private VirtualReel bestReel;
     private BestReelCallback eventNewBest = (rtp, reel) -> {
     };
 
     /**
-     * Constructs a {@code ReelOptimizer} instance with the specified parameters.
+     * Constructs a {@code ReelOptimizer} instance with the specified parameters, evaluating reels
+     * against the demo pay table {@link SlotConstants#DEMO_PAYTABLE}.
      *
      * @param historySize the number of recent results to maintain in history for evaluation
      * @param targetRtp   the target return to player (RTP) value to optimize the reels towards
      */
     public ReelOptimizer(int historySize, double targetRtp) {
+        this(historySize, targetRtp, PayTable.parse(SlotConstants.DEMO_PAYTABLE));
+    }
+
+    /**
+     * Constructs a {@code ReelOptimizer} instance with the specified parameters.
+     *
+     * @param historySize the number of recent results to maintain in history for evaluation
+     * @param targetRtp   the target return to player (RTP) value to optimize the reels towards
+     * @param payTable    the pay table used to evaluate the generated reels
+     */
+    public ReelOptimizer(int historySize, double targetRtp, PayTable payTable) {
+        this(historySize, targetRtp, payTable, RngProvider.DEFAULT);
+    }
+
+    /**
+     * Constructs a {@code ReelOptimizer} instance with the specified parameters.
+     *
+     * @param historySize the number of recent results to maintain in history for evaluation
+     * @param targetRtp   the target return to player (RTP) value to optimize the reels towards
+     * @param payTable    the pay table used to evaluate the generated reels
+     * @param rng         the random number provider; every worker thread draws from its own stream
+     */
+    public ReelOptimizer(int historySize, double targetRtp, PayTable payTable, RngProvider rng) {
         this.historySize = historySize;
         this.history = new double[this.historySize];
         this.targetRtp = targetRtp;
+        this.payTable = payTable;
+        this.rng = rng;
     }
 
     /**
@@ -64,7 +104,7 @@ public final class ReelOptimizer implements AutoCloseable {
     public void runSingle(final GenStopCondition stopCondition) {
         int runCount = 0;
         while (stopCondition.apply(runCount)) {
-            ReelBufferedGenerator gen = new ReelBufferedGenerator(targetRtp);
+            ReelBufferedGenerator gen = new ReelBufferedGenerator(targetRtp, payTable, rng);
             processGeneratedResult(runCount, gen.generateReel());
             runCount++;
         }
@@ -79,6 +119,7 @@ public final class ReelOptimizer implements AutoCloseable {
      * @param candidate the generated result containing RTP value and reel configuration for evaluation
      */
     private void processGeneratedResult(final int runCount, GeneratedResult candidate) {
+        candidates.increment();
         int index = runCount % historySize;
         if (candidate.rtp() >= history[index]) {
             if (bestReel == null || candidate.rtp() > bestRtp || candidate.reelBytes().length < bestReel.size()) {
@@ -131,7 +172,7 @@ public final class ReelOptimizer implements AutoCloseable {
         Runnable generatingTask = () -> {
             while (stopCondition.apply(runCount.get())) {
                 try {
-                    ReelBufferedGenerator gen = new ReelBufferedGenerator(targetRtp);
+                    ReelBufferedGenerator gen = new ReelBufferedGenerator(targetRtp, payTable, rng);
                     blockQueue.put(workPool.submit(gen::generateReel));
                 } catch (InterruptedException | RejectedExecutionException e) {
                     Thread.currentThread().interrupt();
@@ -172,6 +213,27 @@ public final class ReelOptimizer implements AutoCloseable {
         return bestReel;
     }
 
+    /**
+     * Retrieves the number of candidate reels evaluated since the optimizer was created.
+     *
+     * @return the number of evaluated candidates.
+     */
+    public long getCandidateCount() {
+        return candidates.sum();
+    }
+
+    /**
+     * Publishes the number of evaluated candidates to a meter registry, as the
+     * {@code slots.optimizer.candidates} counter.
+     *
+     * @param registry the registry the counter is published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("slots.optimizer.candidates", this, ReelOptimizer::getCandidateCount)
+                .description("Candidate reels evaluated by the optimizer").register(registry);
+    }
+
     /**
      * Retrieves the best return-to-player (RTP) value identified during the optimization process.
      * The RTP value represents the highest performance metric achieved for a reel configuration.
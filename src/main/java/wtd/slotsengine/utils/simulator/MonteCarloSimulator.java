@@ -0,0 +1,109 @@
+package wtd.slotsengine.utils.simulator;
+
+import wtd.slotsengine.slots.rng.RngProvider;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+
+/**
+ * A headless, parallel Monte Carlo simulator for slot machines and reels.
+ * <p>
+ * The requested spins are split by a fork/join task tree into a few chunks per core. Each chunk is
+ * played by a worker thread drawing from its own stream of the {@link RngProvider} and filling its own
+ * {@link SimulationAccumulator}, so the hot loop shares no mutable state. The accumulators are merged
+ * while the task tree is joined.
+ */
+public final class MonteCarloSimulator implements AutoCloseable {
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final long MIN_CHUNK_SPINS = 1 << 16;
+    private final SpinSource source;
+    private final RngProvider rng;
+    private final ForkJoinPool workPool;
+
+    /**
+     * Constructs a {@code MonteCarloSimulator} using every available core and {@link RngProvider#DEFAULT}.
+     *
+     * @param source the game to simulate.
+     */
+    public MonteCarloSimulator(SpinSource source) {
+        this(source, RngProvider.DEFAULT, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a {@code MonteCarloSimulator} with the specified parameters.
+     *
+     * @param source      the game to simulate.
+     * @param rng         the random number provider; every worker thread draws from its own stream.
+     * @param parallelism the number of worker threads.
+     */
+    public MonteCarloSimulator(SpinSource source, RngProvider rng, int parallelism) {
+        this.source = source;
+        this.rng = rng;
+        this.workPool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Simulates the given number of spins and summarizes them.
+     *
+     * @param spins the number of spins to simulate. Must be a positive value.
+     * @return the result of the simulation.
+     * @throws IllegalArgumentException if the spin count is not positive.
+     */
+    public SimulationResult run(long spins) {
+        if (spins < 1) throw new IllegalArgumentException("Spin count must be positive.");
+        final long chunkSpins = Math.max(MIN_CHUNK_SPINS, spins / ((long) workPool.getParallelism() * CHUNKS_PER_WORKER));
+        final long start = System.nanoTime();
+        final SimulationAccumulator total = workPool.invoke(new SpinTask(spins, chunkSpins));
+        return total.toResult(source.getBetAmount(), System.nanoTime() - start);
+    }
+
+    /**
+     * Closes the simulator by shutting down its work pool.
+     */
+    @Override
+    public void close() {
+        workPool.shutdown();
+    }
+
+    /**
+     * A fork/join task simulating a number of spins, splitting itself in halves until the chunk size
+     * is reached.
+     */
+    private final class SpinTask extends RecursiveTask<SimulationAccumulator> {
+        private final long spins;
+        private final long chunkSpins;
+
+        /**
+         * Constructs a task simulating the given number of spins.
+         *
+         * @param spins      the number of spins to simulate.
+         * @param chunkSpins the largest number of spins simulated without splitting.
+         */
+        SpinTask(long spins, long chunkSpins) {
+            this.spins = spins;
+            this.chunkSpins = chunkSpins;
+        }
+
+        /**
+         * Simulates the spins of this task, or splits it and merges the accumulators of both halves.
+         *
+         * @return the accumulator holding the results of the spins of this task.
+         */
+        @Override
+        protected SimulationAccumulator compute() {
+            if (spins <= chunkSpins) {
+                final RandomGenerator random = rng.current();
+                final SimulationAccumulator accumulator = new SimulationAccumulator();
+                for (long i = 0; i < spins; i++) {
+                    accumulator.add(source.spin(random));
+                }
+                return accumulator;
+            }
+            final SpinTask left = new SpinTask(spins / 2, chunkSpins);
+            final SpinTask right = new SpinTask(spins - spins / 2, chunkSpins);
+            left.fork();
+            return right.compute().merge(left.join());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package wtd.slotsengine.utils.simulator;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates the results of simulated spins owned by a single worker.
+ * <p>
+ * Every worker of a {@link MonteCarloSimulator} fills its own accumulator without any synchronization.
+ * Accumulators are merged pairwise once the workers are done, so the totals never involve shared
+ * counters. The win distribution is kept as exact counts indexed by win amount, growing on demand up to
+ * {@link #MAX_TRACKED_WIN}; larger wins are only counted as a whole.
+ */
+public final class SimulationAccumulator {
+    /**
+     * The largest win amount whose occurrences are counted individually.
+     */
+    public static final int MAX_TRACKED_WIN = 1 << 20;
+    private long spins;
+    private long hits;
+    private long totalWin;
+    private double sumSquares;
+    private long maxWin;
+    private long untrackedWins;
+    private long[] winCounts = new long[64];
+
+    /**
+     * Records the win amount of one spin.
+     *
+     * @param win the amount of credits won by the spin, or 0 if it did not win.
+     */
+    public void add(final long win) {
+        spins++;
+        totalWin += win;
+        sumSquares += (double) win * win;
+        if (win > 0) hits++;
+        if (win > maxWin) maxWin = win;
+        if (win < winCounts.length) {
+            winCounts[(int) win]++;
+        } else if (win <= MAX_TRACKED_WIN) {
+            winCounts = Arrays.copyOf(winCounts, Math.min(Integer.highestOneBit((int) win) << 1, MAX_TRACKED_WIN + 1));
+            winCounts[(int) win]++;
+        } else {
+            untrackedWins++;
+        }
+    }
+
+    /**
+     * Adds the results of another accumulator to this one.
+     *
+     * @param other the accumulator to merge. It is left unchanged.
+     * @return this accumulator, holding the combined results.
+     */
+    public SimulationAccumulator merge(SimulationAccumulator other) {
+        spins += other.spins;
+        hits += other.hits;
+        totalWin += other.totalWin;
+        sumSquares += other.sumSquares;
+        maxWin = Math.max(maxWin, other.maxWin);
+        untrackedWins += other.untrackedWins;
+        if (other.winCounts.length > winCounts.length) winCounts = Arrays.copyOf(winCounts, other.winCounts.length);
+        for (int i = 0; i < other.winCounts.length; i++) {
+            winCounts[i] += other.winCounts[i];
+        }
+        return this;
+    }
+
+    /**
+     * Builds the summary of the accumulated spins.
+     *
+     * @param betAmount    the amount of credits wagered on every spin.
+     * @param elapsedNanos the wall clock time the simulation took, in nanoseconds.
+     * @return the simulation result.
+     */
+    public SimulationResult toResult(long betAmount, long elapsedNanos) {
+        final double meanWin = spins == 0 ? 0.0 : totalWin / (double) spins;
+        final double variance = spins == 0 ? 0.0 : Math.max(0.0, sumSquares / spins - meanWin * meanWin);
+        int last = winCounts.length - 1;
+        while (last > 0 && winCounts[last] == 0) last--;
+        return new SimulationResult(spins, betAmount, spins * betAmount, totalWin, meanWin / betAmount,
+                Math.sqrt(variance) / betAmount, spins == 0 ? 0.0 : hits / (double) spins, maxWin,
+                Arrays.copyOf(winCounts, last + 1), untrackedWins, elapsedNanos);
+    }
+}
@@ -0,0 +1,53 @@
+package wtd.slotsengine.utils.simulator;
+
+/**
+ * Represents the outcome of a Monte Carlo simulation run.
+ * <p>
+ * Fields:
+ * - spins: The number of simulated spins.
+ * - betAmount: The amount of credits wagered on every spin.
+ * - totalBet: The total amount of credits wagered.
+ * - totalWin: The total amount of credits won.
+ * - rtp: The observed Return to Player, i.e. the total win divided by the total bet.
+ * - standardDeviation: The observed standard deviation of a single spin result, per unit bet.
+ * - hitFrequency: The observed probability that a spin pays anything at all.
+ * - maxWin: The largest win amount observed.
+ * - winCounts: The number of spins that won each amount, indexed by win amount.
+ * - untrackedWins: The number of spins that won more than {@link SimulationAccumulator#MAX_TRACKED_WIN}
+ * and are therefore missing from {@code winCounts}.
+ * - elapsedNanos: The wall clock time the simulation took, in nanoseconds.
+ */
+public record SimulationResult(long spins, long betAmount, long totalBet, long totalWin, double rtp,
+                               double standardDeviation, double hitFrequency, long maxWin, long[] winCounts,
+                               long untrackedWins, long elapsedNanos) {
+    /**
+     * The z-score of a two-sided 95% confidence interval.
+     */
+    public static final double Z_95 = 1.96;
+    /**
+     * The z-score of a two-sided 99% confidence interval.
+     */
+    public static final double Z_99 = 2.576;
+
+    /**
+     * Computes the half width of the confidence interval of the observed RTP.
+     * <p>
+     * By the central limit theorem the observed RTP is normally distributed around the true RTP with a
+     * standard error of {@code standardDeviation / sqrt(spins)}.
+     *
+     * @param z the z-score of the desired confidence level, e.g. {@link #Z_99}.
+     * @return the margin to apply on both sides of the observed RTP.
+     */
+    public double confidenceMargin(double z) {
+        return spins == 0 ? 0.0 : z * standardDeviation / Math.sqrt(spins);
+    }
+
+    /**
+     * Computes the simulation throughput.
+     *
+     * @return the number of spins simulated per second of wall clock time.
+     */
+    public double spinsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : spins * 1e9 / elapsedNanos;
+    }
+}
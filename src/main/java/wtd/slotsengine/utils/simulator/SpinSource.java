@@ -0,0 +1,101 @@
+package wtd.slotsengine.utils.simulator;
+
+import wtd.slotsengine.slots.machines.abstracts.AbstractSlotMachine;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.records.SpinRecord;
+import wtd.slotsengine.slots.machines.reels.IReel;
+import wtd.slotsengine.slots.machines.reels.WeightedReel;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents the game driven by a {@link MonteCarloSimulator}.
+ * <p>
+ * A source plays one spin at a fixed bet amount and reports its win. Sources are shared by all the
+ * workers of a simulation, so they must be thread-safe; randomness is always drawn from the generator
+ * handed in by the calling worker.
+ */
+public interface SpinSource {
+    /**
+     * Creates a source spinning a single reel against a pay table, with a bet of one credit.
+     * <p>
+     * The multiplier of every stop is resolved once into a flat table, so a spin is a single random
+     * draw followed by an array read. A {@link WeightedReel} is sampled through its alias table instead,
+     * so no per-stop table is allocated.
+     *
+     * @param reel     the reel to spin.
+     * @param payTable the pay table defining the multiplier of every symbol.
+     * @return a new source whose win amounts are the pay table multipliers.
+     */
+    static SpinSource ofReel(IReel reel, PayTable payTable) {
+        if (reel instanceof WeightedReel weighted) {
+            return new SpinSource() {
+                @Override
+                public long getBetAmount() {
+                    return 1;
+                }
+
+                @Override
+                public long spin(RandomGenerator random) {
+                    return payTable.multiplier(weighted.sample(random));
+                }
+            };
+        }
+        final long[] stopPays = new long[reel.size()];
+        for (int i = 0; i < stopPays.length; i++) {
+            stopPays[i] = payTable.multiplier(reel.get(i));
+        }
+        return new SpinSource() {
+            @Override
+            public long getBetAmount() {
+                return 1;
+            }
+
+            @Override
+            public long spin(RandomGenerator random) {
+                return stopPays[random.nextInt(stopPays.length)];
+            }
+        };
+    }
+
+    /**
+     * Creates a source driving the spin logic of a slot machine, bypassing its wallet.
+     * <p>
+     * Every spin draws its outcome from the generator handed in by the worker, see
+     * {@link AbstractSlotMachine#simulateSpin(long, RandomGenerator)}, so the samples are independent
+     * and the reel cursor and random streams of the live machine are never advanced.
+     *
+     * @param machine   the slot machine to spin.
+     * @param betAmount the amount of credits wagered on every spin. Must be a positive value accepted by
+     *                  the machine.
+     * @return a new source reporting the machine's win amounts.
+     */
+    static SpinSource ofMachine(AbstractSlotMachine machine, long betAmount) {
+        return new SpinSource() {
+            @Override
+            public long getBetAmount() {
+                return betAmount;
+            }
+
+            @Override
+            public long spin(RandomGenerator random) {
+                return SpinRecord.winOf(machine.simulateSpin(betAmount, random));
+            }
+        };
+    }
+
+    /**
+     * Retrieves the amount of credits wagered on every spin.
+     *
+     * @return the bet amount of the source.
+     */
+    long getBetAmount();
+
+    /**
+     * Plays one spin.
+     *
+     * @param random the random number generator owned by the calling worker.
+     * @return the amount of credits won by the spin, or 0 if it did not win.
+     */
+    long spin(RandomGenerator random);
+}
@@ -0,0 +1,119 @@
+package wtd.slotsengine.utils.stats;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A concurrent histogram of non-negative {@code long} values with log-scaled buckets, in the style of
+ * HdrHistogram, for percentile queries over streams of any length in constant memory.
+ * <p>
+ * Values below {@code 2^}{@value #SIGNIFICANT_BITS} are counted exactly. Larger values are counted in
+ * buckets whose width grows with the magnitude of the value: every power of two is split into
+ * {@code 2^(}{@value #SIGNIFICANT_BITS}{@code  - 1)} linear sub-buckets, so the first
+ * {@value #SIGNIFICANT_BITS} significant bits of a value are kept and the relative error of a value
+ * read back is below {@code 1 / 2^(}{@value #SIGNIFICANT_BITS}{@code  - 1)}, under 0.8%. The whole
+ * {@code long} range is covered by {@value #BUCKETS} buckets.
+ * <p>
+ * Recording a value is a single atomic increment of its bucket, so concurrent writers never block
+ * each other and never lose a value. Reads copy the counts without blocking writers; values recorded
+ * concurrently with a read may or may not be included.
+ */
+public final class LogHistogram {
+    /**
+     * The number of significant bits of a value kept by its bucket.
+     */
+    public static final int SIGNIFICANT_BITS = 8;
+    /**
+     * The number of linear sub-buckets of a power of two.
+     */
+    private static final int HALF = 1 << (SIGNIFICANT_BITS - 1);
+    /**
+     * The number of buckets covering every non-negative {@code long} value.
+     */
+    public static final int BUCKETS = (Long.SIZE - SIGNIFICANT_BITS + 1) * HALF;
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private final long[] counts = new long[BUCKETS];
+
+    /**
+     * Records a value.
+     *
+     * @param value the value to record.
+     * @throws IllegalArgumentException if the value is negative.
+     */
+    public void record(long value) {
+        if (value < 0) throw new IllegalArgumentException("Negative values cannot be recorded.");
+        COUNTS.getAndAdd(counts, indexOf(value), 1L);
+    }
+
+    /**
+     * Adds the counts of another histogram, as if each of its values had been recorded, for example to
+     * restore the state saved by an earlier run.
+     *
+     * @param other the bucket counts to add, as returned by {@link #counts()}.
+     * @throws IllegalArgumentException if the counts do not have one entry per bucket.
+     */
+    public void merge(long[] other) {
+        if (other.length != BUCKETS) throw new IllegalArgumentException("Invalid histogram size.");
+        for (int i = 0; i < BUCKETS; i++) {
+            if (other[i] != 0) COUNTS.getAndAdd(counts, i, other[i]);
+        }
+    }
+
+    /**
+     * Copies the count of every bucket.
+     *
+     * @return a new array of {@value #BUCKETS} counts, indexed by bucket.
+     */
+    public long[] counts() {
+        final long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) copy[i] = (long) COUNTS.getOpaque(counts, i);
+        return copy;
+    }
+
+    /**
+     * Finds the value below or at which the given percentage of the counted values fall.
+     *
+     * @param counts     the bucket counts, as returned by {@link #counts()}.
+     * @param percentile the percentage, from 0 to 100.
+     * @return the highest value of the bucket holding the percentile, or 0 if nothing was counted.
+     * @throws IllegalArgumentException if the percentage is out of range.
+     */
+    public static long valueAtPercentile(long[] counts, double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) throw new IllegalArgumentException("Invalid percentile.");
+        long total = 0;
+        for (long count : counts) total += count;
+        if (total == 0) return 0;
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return highestValueOf(i);
+        }
+        return highestValueOf(counts.length - 1);
+    }
+
+    /**
+     * Computes the bucket of a value.
+     *
+     * @param value the non-negative value.
+     * @return the index of the bucket counting the value.
+     */
+    static int indexOf(long value) {
+        if (value < 2 * HALF) return (int) value;
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SIGNIFICANT_BITS + 1;
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * Computes the highest value counted by a bucket.
+     *
+     * @param index the index of the bucket.
+     * @return the highest value of the bucket.
+     */
+    static long highestValueOf(int index) {
+        if (index < 2 * HALF) return index;
+        final int shift = index / HALF - 1;
+        final long subBucket = index - (long) shift * HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
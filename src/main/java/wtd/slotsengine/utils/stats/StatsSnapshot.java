@@ -0,0 +1,33 @@
+package wtd.slotsengine.utils.stats;
+
+/**
+ * An immutable, consistent summary of a stream of values: their count, sum, minimum, maximum and
+ * average. The components carry the same names as the getters of
+ * {@link java.util.LongSummaryStatistics}, so the serialized form is unchanged for clients.
+ *
+ * @param count   the number of values.
+ * @param sum     the sum of the values.
+ * @param min     the smallest value, or 0 if there is none.
+ * @param max     the largest value, or 0 if there is none.
+ * @param average the arithmetic mean of the values, or 0 if there is none.
+ */
+public record StatsSnapshot(long count, long sum, long min, long max, double average) {
+    /**
+     * The summary of an empty stream of values.
+     */
+    public static final StatsSnapshot EMPTY = new StatsSnapshot(0, 0, 0, 0, 0.0);
+
+    /**
+     * Creates a snapshot from aggregated totals, deriving the average.
+     *
+     * @param count the number of values.
+     * @param sum   the sum of the values.
+     * @param min   the smallest value; ignored if the count is 0.
+     * @param max   the largest value; ignored if the count is 0.
+     * @return a new snapshot, or {@link #EMPTY} if the count is 0.
+     */
+    public static StatsSnapshot of(long count, long sum, long min, long max) {
+        if (count == 0) return EMPTY;
+        return new StatsSnapshot(count, sum, min, max, (double) sum / count);
+    }
+}
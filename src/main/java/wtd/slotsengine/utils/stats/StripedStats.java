@@ -0,0 +1,156 @@
+package wtd.slotsengine.utils.stats;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A concurrent accumulator of count, sum, minimum and maximum of a stream of {@code long} values.
+ * <p>
+ * Values are accumulated into one of several stripes selected by the calling thread, so threads
+ * recording concurrently rarely touch the same stripe. Every stripe lives on its own pair of cache
+ * lines and is guarded by a sequence lock: a writer makes the sequence odd with a compare-and-set,
+ * updates the fields and makes it even again, so writers on different stripes never interact, and
+ * two writers sharing a stripe only wait for each other's few field updates.
+ * <p>
+ * {@link #snapshot()} never blocks writers. It reads each stripe optimistically and retries a stripe
+ * whose sequence changed while it was read, so every stripe contributes a consistent state and the
+ * returned {@link StatsSnapshot} is immutable and safe to hand to any thread.
+ */
+public final class StripedStats {
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(long[].class);
+    /**
+     * The number of {@code long} cells per stripe, two cache lines, so stripes never share a line.
+     */
+    private static final int STRIDE = 16;
+    private static final int SEQUENCE = 0;
+    private static final int COUNT = 1;
+    private static final int SUM = 2;
+    private static final int MIN = 3;
+    private static final int MAX = 4;
+    private final long[] cells;
+    private final int mask;
+
+    /**
+     * Constructs an empty {@code StripedStats} with two stripes per available processor.
+     */
+    public StripedStats() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * Constructs an empty {@code StripedStats} with the given number of stripes.
+     *
+     * @param stripes the number of stripes, rounded up to the next power of two. Must be positive.
+     * @throws IllegalArgumentException if the stripe count is not a positive value or is too large.
+     */
+    public StripedStats(int stripes) {
+        if (stripes <= 0 || stripes > 1 << 16) throw new IllegalArgumentException("Invalid stripe count.");
+        final int count = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.mask = count - 1;
+        this.cells = new long[(count + 1) * STRIDE];
+        for (int i = 0; i < count; i++) {
+            cells[base(i) + MIN] = Long.MAX_VALUE;
+            cells[base(i) + MAX] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value to record.
+     */
+    public void accept(long value) {
+        final int base = base(stripeOf(Thread.currentThread()));
+        final long sequence = lock(base);
+        CELLS.setOpaque(cells, base + COUNT, (long) CELLS.getOpaque(cells, base + COUNT) + 1);
+        CELLS.setOpaque(cells, base + SUM, (long) CELLS.getOpaque(cells, base + SUM) + value);
+        if (value < (long) CELLS.getOpaque(cells, base + MIN)) CELLS.setOpaque(cells, base + MIN, value);
+        if (value > (long) CELLS.getOpaque(cells, base + MAX)) CELLS.setOpaque(cells, base + MAX, value);
+        CELLS.setRelease(cells, base + SEQUENCE, sequence + 2);
+    }
+
+    /**
+     * Adds the values summarized by a snapshot, as if each of them had been recorded, for example to
+     * restore the state saved by an earlier run.
+     *
+     * @param snapshot the summary of the values to add.
+     */
+    public void merge(StatsSnapshot snapshot) {
+        if (snapshot.count() == 0) return;
+        final int base = base(stripeOf(Thread.currentThread()));
+        final long sequence = lock(base);
+        CELLS.setOpaque(cells, base + COUNT, (long) CELLS.getOpaque(cells, base + COUNT) + snapshot.count());
+        CELLS.setOpaque(cells, base + SUM, (long) CELLS.getOpaque(cells, base + SUM) + snapshot.sum());
+        CELLS.setOpaque(cells, base + MIN, Math.min((long) CELLS.getOpaque(cells, base + MIN), snapshot.min()));
+        CELLS.setOpaque(cells, base + MAX, Math.max((long) CELLS.getOpaque(cells, base + MAX), snapshot.max()));
+        CELLS.setRelease(cells, base + SEQUENCE, sequence + 2);
+    }
+
+    /**
+     * Aggregates the stripes into an immutable snapshot. Values recorded concurrently with the call
+     * may or may not be included, but each of them is either fully included or not at all.
+     *
+     * @return a consistent snapshot of the recorded values.
+     */
+    public StatsSnapshot snapshot() {
+        long count = 0, sum = 0, min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            final int base = base(stripe);
+            long stripeCount, stripeSum, stripeMin, stripeMax, before;
+            do {
+                before = (long) CELLS.getAcquire(cells, base + SEQUENCE);
+                stripeCount = (long) CELLS.getOpaque(cells, base + COUNT);
+                stripeSum = (long) CELLS.getOpaque(cells, base + SUM);
+                stripeMin = (long) CELLS.getOpaque(cells, base + MIN);
+                stripeMax = (long) CELLS.getOpaque(cells, base + MAX);
+                VarHandle.loadLoadFence();
+            } while ((before & 1) != 0 || before != (long) CELLS.getOpaque(cells, base + SEQUENCE));
+            if (stripeCount == 0) continue;
+            count += stripeCount;
+            sum += stripeSum;
+            min = Math.min(min, stripeMin);
+            max = Math.max(max, stripeMax);
+        }
+        return StatsSnapshot.of(count, sum, min, max);
+    }
+
+    /**
+     * Acquires the sequence lock of a stripe by making its sequence odd.
+     *
+     * @param base the index of the first cell of the stripe.
+     * @return the even sequence observed before the lock was acquired.
+     */
+    private long lock(int base) {
+        while (true) {
+            final long sequence = (long) CELLS.getVolatile(cells, base + SEQUENCE);
+            if ((sequence & 1) == 0 && CELLS.compareAndSet(cells, base + SEQUENCE, sequence, sequence + 1)) {
+                return sequence;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Selects the stripe of a thread from a mixed hash of its identity, like the home slot of a
+     * {@link wtd.slotsengine.utils.LeasePool}. Unlike its id, the identity hash of a thread is neither
+     * deprecated nor sequential, and stays stable for virtual threads.
+     *
+     * @param thread the recording thread.
+     * @return the index of the stripe.
+     */
+    private int stripeOf(Thread thread) {
+        final int h = System.identityHashCode(thread) * 0x9E3779B9;
+        return (h ^ h >>> 16) & mask;
+    }
+
+    /**
+     * Computes the index of the first cell of a stripe. The first stride of the array is left unused,
+     * so the first stripe does not share a cache line with the array header.
+     *
+     * @param stripe the index of the stripe.
+     * @return the index of the first cell of the stripe.
+     */
+    private static int base(int stripe) {
+        return (stripe + 1) * STRIDE;
+    }
+}
@@ -0,0 +1,215 @@
+package wtd.slotsengine.utils.stats;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A concurrent ring of fixed time buckets accumulating the bets and wins recorded in each bucket, for
+ * summaries of rolling time windows such as the last five minutes.
+ * <p>
+ * Every bucket covers {@code bucketMs} milliseconds and the ring holds {@code buckets} of them, so it
+ * spans the most recent {@code bucketMs * buckets} milliseconds. A record is added to the bucket of its
+ * timestamp; when that slot of the ring still holds an older bucket, the slot is reset and reused, so
+ * the ring never allocates after construction and old data expires without a cleanup task. Records
+ * older than the bucket held by their slot are dropped.
+ * <p>
+ * Like {@link StripedStats}, every bucket lives on its own pair of cache lines and is guarded by a
+ * sequence lock, so writers of different buckets never interact and
+ * {@link #window(long, long)} never blocks writers: it reads each bucket optimistically and retries a
+ * bucket whose sequence changed while it was read. A window query reads only the buckets of the
+ * window, so its cost is bounded by the number of buckets and does not depend on the number of
+ * records.
+ * <p>
+ * Windows are aligned on buckets: the window of a query covers the bucket holding its end time and
+ * the buckets before it, so it may include up to one bucket of records older than its length.
+ */
+public final class TimeWindowStats {
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(long[].class);
+    /**
+     * The number of {@code long} cells per bucket, two cache lines, so buckets never share a line.
+     */
+    private static final int STRIDE = 16;
+    private static final int SEQUENCE = 0;
+    private static final int START = 1;
+    /**
+     * The first cell of the bets of a bucket: their count, sum, min and max, followed by the same
+     * four cells for the wins.
+     */
+    private static final int BET_COUNT = 2;
+    private static final int WIN_COUNT = 6;
+    /**
+     * The start time of a bucket that never held a record, older than any timestamp.
+     */
+    private static final long UNUSED = Long.MIN_VALUE;
+    private final long[] cells;
+    private final long bucketMs;
+    private final int buckets;
+
+    /**
+     * Constructs an empty {@code TimeWindowStats} ring.
+     *
+     * @param bucketMs the length of a bucket in milliseconds. Must be positive.
+     * @param buckets  the number of buckets of the ring. Must be positive.
+     * @throws IllegalArgumentException if the bucket length or count is not a positive value, or the
+     *                                  ring is too large.
+     */
+    public TimeWindowStats(long bucketMs, int buckets) {
+        if (bucketMs <= 0) throw new IllegalArgumentException("Invalid bucket length.");
+        if (buckets <= 0 || buckets > 1 << 20) throw new IllegalArgumentException("Invalid bucket count.");
+        this.bucketMs = bucketMs;
+        this.buckets = buckets;
+        this.cells = new long[(buckets + 1) * STRIDE];
+        for (int i = 0; i < buckets; i++) cells[base(i) + START] = UNUSED;
+    }
+
+    /**
+     * Records a bet and its win in the bucket of its timestamp. Wins are only counted if they are
+     * greater than zero, so the win count of a window is its number of hits.
+     *
+     * @param timestampMs the time of the bet in milliseconds since the epoch.
+     * @param betAmount   the amount of the bet.
+     * @param winAmount   the amount won by the bet.
+     */
+    public void accept(long timestampMs, long betAmount, long winAmount) {
+        final long start = Math.floorDiv(timestampMs, bucketMs) * bucketMs;
+        final int base = base(slotOf(start));
+        final long sequence = lock(base);
+        final long current = (long) CELLS.getOpaque(cells, base + START);
+        if (current < start) {
+            reset(base, start);
+        } else if (current > start) {
+            CELLS.setRelease(cells, base + SEQUENCE, sequence + 2);
+            return;
+        }
+        add(base, BET_COUNT, betAmount);
+        if (winAmount > 0) add(base, WIN_COUNT, winAmount);
+        CELLS.setRelease(cells, base + SEQUENCE, sequence + 2);
+    }
+
+    /**
+     * Summarizes the bets and wins of the window ending at the given time. Records added concurrently
+     * with the call may or may not be included, but each of them is either fully included or not at all.
+     *
+     * @param nowMs    the end time of the window in milliseconds since the epoch.
+     * @param windowMs the length of the window in milliseconds, from 1 to {@link #getSpanMs()}.
+     * @return a consistent summary of the bets and wins of the window.
+     * @throws IllegalArgumentException if the window length is out of range.
+     */
+    public WindowSnapshot window(long nowMs, long windowMs) {
+        if (windowMs <= 0 || windowMs > getSpanMs()) throw new IllegalArgumentException("Invalid window length.");
+        final long newest = Math.floorDiv(nowMs, bucketMs) * bucketMs;
+        final long count = (windowMs + bucketMs - 1) / bucketMs;
+        final long oldest = newest - (count - 1) * bucketMs;
+        final long[] totals = {0, 0, Long.MAX_VALUE, Long.MIN_VALUE, 0, 0, Long.MAX_VALUE, Long.MIN_VALUE};
+        final long[] bucket = new long[totals.length];
+        for (long start = oldest; start <= newest; start += bucketMs) {
+            final int base = base(slotOf(start));
+            long before, bucketStart;
+            do {
+                before = (long) CELLS.getAcquire(cells, base + SEQUENCE);
+                bucketStart = (long) CELLS.getOpaque(cells, base + START);
+                for (int i = 0; i < bucket.length; i++) {
+                    bucket[i] = (long) CELLS.getOpaque(cells, base + BET_COUNT + i);
+                }
+                VarHandle.loadLoadFence();
+            } while ((before & 1) != 0 || before != (long) CELLS.getOpaque(cells, base + SEQUENCE));
+            if (bucketStart != start) continue;
+            merge(totals, bucket, 0);
+            merge(totals, bucket, 4);
+        }
+        return WindowSnapshot.of(windowMs,
+                StatsSnapshot.of(totals[0], totals[1], totals[2], totals[3]),
+                StatsSnapshot.of(totals[4], totals[5], totals[6], totals[7]));
+    }
+
+    /**
+     * Retrieves the time span covered by the ring, the longest window it can summarize.
+     *
+     * @return the length of a bucket times the number of buckets, in milliseconds.
+     */
+    public long getSpanMs() {
+        return bucketMs * buckets;
+    }
+
+    /**
+     * Adds the count, sum, minimum and maximum of one side of a bucket to the totals of a window.
+     *
+     * @param totals the totals of the window, count, sum, min and max of the bets then of the wins.
+     * @param bucket the cells of the bucket, in the same layout.
+     * @param offset 0 for the bets, 4 for the wins.
+     */
+    private static void merge(long[] totals, long[] bucket, int offset) {
+        if (bucket[offset] == 0) return;
+        totals[offset] += bucket[offset];
+        totals[offset + 1] += bucket[offset + 1];
+        totals[offset + 2] = Math.min(totals[offset + 2], bucket[offset + 2]);
+        totals[offset + 3] = Math.max(totals[offset + 3], bucket[offset + 3]);
+    }
+
+    /**
+     * Adds a value to the count, sum, minimum and maximum of one side of a locked bucket.
+     *
+     * @param base  the index of the first cell of the bucket.
+     * @param count the index of the count cell of the side, followed by its sum, min and max cells.
+     * @param value the value to add.
+     */
+    private void add(int base, int count, long value) {
+        CELLS.setOpaque(cells, base + count, (long) CELLS.getOpaque(cells, base + count) + 1);
+        CELLS.setOpaque(cells, base + count + 1, (long) CELLS.getOpaque(cells, base + count + 1) + value);
+        if (value < (long) CELLS.getOpaque(cells, base + count + 2)) CELLS.setOpaque(cells, base + count + 2, value);
+        if (value > (long) CELLS.getOpaque(cells, base + count + 3)) CELLS.setOpaque(cells, base + count + 3, value);
+    }
+
+    /**
+     * Empties a locked bucket and assigns it a new start time.
+     *
+     * @param base  the index of the first cell of the bucket.
+     * @param start the start time of the new bucket.
+     */
+    private void reset(int base, long start) {
+        CELLS.setOpaque(cells, base + START, start);
+        for (int count = BET_COUNT; count <= WIN_COUNT; count += WIN_COUNT - BET_COUNT) {
+            CELLS.setOpaque(cells, base + count, 0L);
+            CELLS.setOpaque(cells, base + count + 1, 0L);
+            CELLS.setOpaque(cells, base + count + 2, Long.MAX_VALUE);
+            CELLS.setOpaque(cells, base + count + 3, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Acquires the sequence lock of a bucket by making its sequence odd.
+     *
+     * @param base the index of the first cell of the bucket.
+     * @return the even sequence observed before the lock was acquired.
+     */
+    private long lock(int base) {
+        while (true) {
+            final long sequence = (long) CELLS.getVolatile(cells, base + SEQUENCE);
+            if ((sequence & 1) == 0 && CELLS.compareAndSet(cells, base + SEQUENCE, sequence, sequence + 1)) {
+                return sequence;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Selects the slot of the ring holding the bucket starting at the given time.
+     *
+     * @param start the start time of the bucket.
+     * @return the index of the slot.
+     */
+    private int slotOf(long start) {
+        return (int) Math.floorMod(start / bucketMs, (long) buckets);
+    }
+
+    /**
+     * Computes the index of the first cell of a slot. The first stride of the array is left unused,
+     * so the first slot does not share a cache line with the array header.
+     *
+     * @param slot the index of the slot.
+     * @return the index of the first cell of the slot.
+     */
+    private static int base(int slot) {
+        return (slot + 1) * STRIDE;
+    }
+}
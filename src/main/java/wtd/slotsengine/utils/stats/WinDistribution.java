@@ -0,0 +1,27 @@
+package wtd.slotsengine.utils.stats;
+
+import java.util.List;
+
+/**
+ * An immutable summary of the distribution of the recorded spins: the percentiles of the win
+ * multipliers of the winning spins and the observed frequency of every resulting symbol.
+ *
+ * @param spins   the number of recorded spins.
+ * @param hits    the number of spins that won something.
+ * @param p50     the median win multiplier of the winning spins, or 0 if there is none.
+ * @param p99     the 99th percentile of the win multipliers of the winning spins, or 0 if there is none.
+ * @param p999    the 99.9th percentile of the win multipliers of the winning spins, or 0 if there is none.
+ * @param symbols the observed frequency of every symbol that resulted from at least one spin, by symbol.
+ */
+public record WinDistribution(long spins, long hits, double p50, double p99, double p999,
+                              List<SymbolFrequency> symbols) {
+    /**
+     * The number of times a symbol resulted from a spin and its share of all the spins.
+     *
+     * @param symbol    the symbol.
+     * @param count     the number of spins that resulted in the symbol.
+     * @param frequency the fraction of the spins that resulted in the symbol.
+     */
+    public record SymbolFrequency(int symbol, long count, double frequency) {
+    }
+}
@@ -0,0 +1,118 @@
+package wtd.slotsengine.utils.stats;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A concurrent accumulator of the distribution of spins: a {@link LogHistogram} of the win multipliers
+ * of the winning spins and one hit counter per resulting symbol.
+ * <p>
+ * Win multipliers are the win amount divided by the bet amount, recorded in hundredths so fractional
+ * multipliers keep two decimals before the relative error of the histogram applies. Symbols range
+ * from 0 to {@value #SYMBOL_COUNT} - 1 like the symbols of a pay table; the symbol counts of spins
+ * resulting in other symbols are ignored, and spins are counted through their symbols.
+ * <p>
+ * Every update is a single atomic increment, so recording never blocks and never loses a spin.
+ * {@link #snapshot()} copies the counters without blocking writers and derives the percentiles and
+ * frequencies from the copy.
+ */
+public final class WinDistributionStats {
+    /**
+     * The number of symbols counted individually.
+     */
+    public static final int SYMBOL_COUNT = 256;
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+    /**
+     * The scale of the recorded win multipliers, which are kept in hundredths.
+     */
+    private static final long SCALE = 100;
+    private final LogHistogram winMultipliers = new LogHistogram();
+    private final long[] symbolCounts = new long[SYMBOL_COUNT];
+
+    /**
+     * Records a spin.
+     *
+     * @param betAmount the amount bet on the spin.
+     * @param winAmount the amount won by the spin; its multiplier is recorded if it and the bet are
+     *                  greater than zero.
+     * @param symbol    the resulting symbol of the spin.
+     */
+    public void accept(long betAmount, long winAmount, int symbol) {
+        if (symbol >= 0 && symbol < SYMBOL_COUNT) COUNTS.getAndAdd(symbolCounts, symbol, 1L);
+        if (winAmount > 0 && betAmount > 0) {
+            winMultipliers.record(winAmount <= Long.MAX_VALUE / SCALE
+                    ? winAmount * SCALE / betAmount : winAmount / betAmount * SCALE);
+        }
+    }
+
+    /**
+     * Adds the counters saved from another accumulator, as if each of their spins had been recorded,
+     * for example to restore the state saved by an earlier run.
+     *
+     * @param winCounts    the counts of the win multiplier histogram, see {@link #winCounts()}.
+     * @param symbolCounts the counts of the symbols, see {@link #symbolCounts()}.
+     * @throws IllegalArgumentException if the arrays do not have the expected sizes.
+     */
+    public void merge(long[] winCounts, long[] symbolCounts) {
+        if (symbolCounts.length != SYMBOL_COUNT) throw new IllegalArgumentException("Invalid symbol count.");
+        winMultipliers.merge(winCounts);
+        for (int i = 0; i < SYMBOL_COUNT; i++) {
+            if (symbolCounts[i] != 0) COUNTS.getAndAdd(this.symbolCounts, i, symbolCounts[i]);
+        }
+    }
+
+    /**
+     * Copies the counts of the win multiplier histogram.
+     *
+     * @return a new array of {@value LogHistogram#BUCKETS} counts, indexed by histogram bucket.
+     */
+    public long[] winCounts() {
+        return winMultipliers.counts();
+    }
+
+    /**
+     * Copies the counts of the symbols.
+     *
+     * @return a new array of {@value #SYMBOL_COUNT} counts, indexed by symbol.
+     */
+    public long[] symbolCounts() {
+        final long[] copy = new long[SYMBOL_COUNT];
+        for (int i = 0; i < SYMBOL_COUNT; i++) copy[i] = (long) COUNTS.getOpaque(symbolCounts, i);
+        return copy;
+    }
+
+    /**
+     * Summarizes the recorded spins. Spins recorded concurrently with the call may be partially
+     * included, in the symbol counts but not yet in the win multipliers.
+     *
+     * @return a new summary of the percentiles of the win multipliers and the symbol frequencies.
+     */
+    public WinDistribution snapshot() {
+        final long[] wins = winCounts();
+        final long[] symbols = symbolCounts();
+        long spins = 0, hits = 0;
+        for (long count : symbols) spins += count;
+        for (long count : wins) hits += count;
+        final List<WinDistribution.SymbolFrequency> frequencies = new ArrayList<>();
+        for (int symbol = 0; symbol < SYMBOL_COUNT; symbol++) {
+            if (symbols[symbol] == 0) continue;
+            frequencies.add(new WinDistribution.SymbolFrequency(symbol, symbols[symbol],
+                    (double) symbols[symbol] / spins));
+        }
+        return new WinDistribution(spins, hits, multiplierAt(wins, 50), multiplierAt(wins, 99),
+                multiplierAt(wins, 99.9), List.copyOf(frequencies));
+    }
+
+    /**
+     * Finds the win multiplier at a percentile of the winning spins.
+     *
+     * @param wins       the counts of the win multiplier histogram.
+     * @param percentile the percentage, from 0 to 100.
+     * @return the win multiplier, or 0 if there is no winning spin.
+     */
+    private static double multiplierAt(long[] wins, double percentile) {
+        return (double) LogHistogram.valueAtPercentile(wins, percentile) / SCALE;
+    }
+}
@@ -0,0 +1,28 @@
+package wtd.slotsengine.utils.stats;
+
+/**
+ * An immutable, consistent summary of the bets and wins recorded during a time window.
+ *
+ * @param windowMs the length of the window in milliseconds.
+ * @param bets     the summary of the bet amounts of the window.
+ * @param wins     the summary of the positive win amounts of the window.
+ * @param rtp      the observed return to player of the window, the total win divided by the total bet,
+ *                 or 0 if nothing was bet.
+ * @param hitRate  the fraction of the bets of the window that won something, or 0 if there was no bet.
+ */
+public record WindowSnapshot(long windowMs, StatsSnapshot bets, StatsSnapshot wins, double rtp, double hitRate) {
+    /**
+     * Creates a window summary from the summaries of its bets and wins, deriving the observed return
+     * to player and the hit rate.
+     *
+     * @param windowMs the length of the window in milliseconds.
+     * @param bets     the summary of the bet amounts of the window.
+     * @param wins     the summary of the positive win amounts of the window.
+     * @return a new window summary.
+     */
+    public static WindowSnapshot of(long windowMs, StatsSnapshot bets, StatsSnapshot wins) {
+        return new WindowSnapshot(windowMs, bets, wins,
+                bets.sum() == 0 ? 0.0 : (double) wins.sum() / bets.sum(),
+                bets.count() == 0 ? 0.0 : (double) wins.count() / bets.count());
+    }
+}
@@ -30,6 +30,7 @@
         balance: 1,betAmount: 1,
     };
     let betPos = 0;
+    let spinning = false;
 
     function prettyNumber(num) {
         return numFormat.format(num);
@@ -46,7 +47,7 @@
             lblVersion.innerText = data.version;
             btnSpin.disabled = machineState.betAmount > machineState.balance;
             setStatusLabel("Balance",prettyNumber(machineState.balance));
-            refreshStats();
+            subscribeFeed();
 
         },"/api/load").then(() => appWindow.classList.remove("d-none"));
     }
@@ -72,22 +73,32 @@
         lblRollAmount.innerText = text;
     }
 
-    function refreshStats() {
-        sendCall((data) => {
-            if (data === undefined) {
-                data = {betStats: {count: 0,max: 0,sum: 0,},winStats: {count: 0,max: 0,sum: 0,},rtp: 0,};
+    function renderStats(data) {
+        let newText = `Bets: ${prettyNumber(data.betStats.count)} `;
+        newText += `Max: ${prettyNumber(data.betStats.max)} `;
+        newText += `Sum: ${prettyNumber(data.betStats.sum)} `;
+        lblBetStats.innerText = newText;
+
+        newText = `Wins: ${prettyNumber(data.winStats.count)} `;
+        newText += `Max: ${prettyNumber(data.winStats.max)} `;
+        newText += `Sum: ${prettyNumber(data.winStats.sum)} `;
+        lblWinStats.innerText = newText;
+        lblRtpStats.innerText = `RTP: ${(data.rtp * 100.0).toFixed(2)}%`;
+    }
+
+    function subscribeFeed() {
+        /* The server pushes the statistics once per tick and the balance when it changes, EventSource reconnects on its own */
+        const feed = new EventSource("/api/feed");
+        feed.addEventListener("stats",(e) => renderStats(JSON.parse(e.data)));
+        feed.addEventListener("balance",(e) => {
+            if (spinning) {
+                return;
             }
-            let newText = `Bets: ${prettyNumber(data.betStats.count)} `;
-            newText += `Max: ${prettyNumber(data.betStats.max)} `;
-            newText += `Sum: ${prettyNumber(data.betStats.sum)} `;
-            lblBetStats.innerText = newText;
-
-            newText = `Wins: ${prettyNumber(data.winStats.count)} `;
-            newText += `Max: ${prettyNumber(data.winStats.max)} `;
-            newText += `Sum: ${prettyNumber(data.winStats.sum)} `;
-            lblWinStats.innerText = newText;
-            lblRtpStats.innerText = `RTP: ${(data.rtp * 100.0).toFixed(2)}%`;
-        },"/api/machine-stats",{}).then();
+            const data = JSON.parse(e.data);
+            lblBalanceAmount.innerText = prettyNumber(data.balance);
+            machineState.balance = data.balance;
+            btnSpin.disabled = machineState.betAmount > machineState.balance;
+        });
     }
 
     function setButtonsState(state) {
@@ -127,10 +138,11 @@ ${isWin() ? "Win" : "Loss"}</span></td>`;
         }
         setButtonsState(false);
         btnSpin.disabled = machineState.betAmount > machineState.balance;
-        setTimeout(refreshStats,0);
+        spinning = false;
     }
 
     function spin() {
+        spinning = true;
         setButtonsState(true);
         blkDisplay.className = "animate-spin";
         const betAmount = machineState.betAmount;
@@ -0,0 +1,104 @@
+package wtd.slotsengine.rest.websocket;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.machines.BasicSlotMachine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static wtd.slotsengine.rest.websocket.SpinProtocol.*;
+
+class SpinCommandProcessorTest {
+
+    @Test
+    void executesPipelinedCommands() {
+        BasicSlotMachine machine = new BasicSlotMachine();
+        List<long[]> records = new ArrayList<>();
+        AtomicInteger rejected = new AtomicInteger();
+        SpinCommandProcessor processor = new SpinCommandProcessor(machine,
+                (ts, player, bet, win, balance, result) -> records.add(new long[]{player, bet, win, balance, result}),
+                rejected::incrementAndGet);
+
+        ByteBuffer commands = ByteBuffer.allocate(6 * COMMAND_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        putCommand(commands, 1, OP_SPIN, 7, 10);
+        putCommand(commands, 2, OP_DEPOSIT, 7, 100);
+        putCommand(commands, 3, OP_SPIN, 7, 10);
+        putCommand(commands, 4, OP_WITHDRAW, 7, 1_000);
+        putCommand(commands, 5, OP_BALANCE, 7, 0);
+        putCommand(commands, 6, (byte) 9, 7, 0);
+        commands.flip();
+        ByteBuffer responses = ByteBuffer.allocate(6 * RESPONSE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        processor.execute(commands, responses);
+        Assertions.assertEquals(0, responses.remaining(), "One response per command");
+        responses.flip();
+
+        assertResponse(responses, 1, OP_SPIN, STATUS_INSUFFICIENT_FUNDS, 0);
+        assertResponse(responses, 2, OP_DEPOSIT, STATUS_OK, 100);
+        Assertions.assertEquals(3, responses.getInt(), "Request id");
+        Assertions.assertEquals(OP_SPIN, responses.get(), "Operation");
+        Assertions.assertEquals(STATUS_OK, responses.get(), "Status");
+        responses.getShort();
+        final long win = responses.getLong();
+        final long balance = responses.getLong();
+        final int symbol = responses.getInt();
+        responses.getInt();
+        Assertions.assertEquals(90 + win, balance, "The spin is settled");
+        Assertions.assertEquals(balance, machine.getBalance(7), "Reported balance");
+        assertResponse(responses, 4, OP_WITHDRAW, STATUS_INSUFFICIENT_FUNDS, balance);
+        assertResponse(responses, 5, OP_BALANCE, STATUS_OK, balance);
+        assertResponse(responses, 6, (byte) 9, STATUS_INVALID, balance);
+
+        Assertions.assertEquals(1, rejected.get(), "Rejected spins are counted");
+        Assertions.assertEquals(1, records.size(), "Settled spins are recorded");
+        Assertions.assertArrayEquals(new long[]{7, 10, win, balance, symbol}, records.get(0), "Recorded spin");
+    }
+
+    @Test
+    void repliesToFailedAndUnrecordedCommands() {
+        BasicSlotMachine machine = new BasicSlotMachine();
+        SpinCommandProcessor processor = new SpinCommandProcessor(machine,
+                (ts, player, bet, win, balance, result) -> {
+                    throw new IllegalStateException("The results writer is closed.");
+                }, () -> {
+                });
+        machine.deposit(7, 100);
+
+        ByteBuffer commands = ByteBuffer.allocate(3 * COMMAND_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        putCommand(commands, 1, OP_DEPOSIT, 7, Long.MAX_VALUE);
+        putCommand(commands, 2, OP_SPIN, 7, 10);
+        putCommand(commands, 3, OP_BALANCE, 7, 0);
+        commands.flip();
+        ByteBuffer responses = ByteBuffer.allocate(3 * RESPONSE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        processor.execute(commands, responses);
+        Assertions.assertEquals(0, responses.remaining(), "One response per command");
+        responses.flip();
+
+        assertResponse(responses, 1, OP_DEPOSIT, STATUS_INVALID, 100);
+        Assertions.assertEquals(2, responses.getInt(), "Request id");
+        Assertions.assertEquals(OP_SPIN, responses.get(), "Operation");
+        Assertions.assertEquals(STATUS_OK, responses.get(), "Settled spins are answered even if not recorded");
+        responses.getShort();
+        final long win = responses.getLong();
+        final long balance = responses.getLong();
+        responses.getLong();
+        Assertions.assertEquals(90 + win, balance, "The reply carries the settled win");
+        Assertions.assertEquals(balance, machine.getBalance(7), "Reported balance");
+        assertResponse(responses, 3, OP_BALANCE, STATUS_OK, balance);
+    }
+
+    private static void assertResponse(ByteBuffer responses, int requestId, byte operation, byte status,
+                                       long balance) {
+        Assertions.assertEquals(requestId, responses.getInt(), "Request id");
+        Assertions.assertEquals(operation, responses.get(), "Operation of " + requestId);
+        Assertions.assertEquals(status, responses.get(), "Status of " + requestId);
+        Assertions.assertEquals(0, responses.getShort(), "Reserved");
+        Assertions.assertEquals(0, responses.getLong(), "Win of " + requestId);
+        Assertions.assertEquals(balance, responses.getLong(), "Balance of " + requestId);
+        Assertions.assertEquals(0, responses.getInt(), "Symbol of " + requestId);
+        Assertions.assertEquals(0, responses.getInt(), "Reserved");
+    }
+}
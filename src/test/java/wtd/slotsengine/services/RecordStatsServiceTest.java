@@ -0,0 +1,118 @@
+package wtd.slotsengine.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.rest.records.BatchResultMessage;
+import wtd.slotsengine.rest.records.BetResultMessage;
+import wtd.slotsengine.services.recorder.SegmentedSpinLog;
+import wtd.slotsengine.services.recorder.SpinLog;
+import wtd.slotsengine.services.recorder.StatsCheckpoint;
+import wtd.slotsengine.utils.stats.StatsSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+class RecordStatsServiceTest {
+    private static final long SEGMENT_RECORDS = 40;
+    private static final long HOUR = 3_600_000L;
+
+    private static RecordStatsService start(Path dir) throws InterruptedException {
+        RecordStatsService service = new RecordStatsService(dir.toString(), dir + ".csv", 64, 1, 1, 0,
+                SEGMENT_RECORDS, Long.MAX_VALUE, Long.MAX_VALUE, HOUR);
+        service.init();
+        while (!service.isLoaded()) {
+            Assertions.assertNull(service.getLoadFailure(), "Statistics load");
+            Thread.sleep(1);
+        }
+        return service;
+    }
+
+    private static SegmentedSpinLog open(Path dir) throws IOException {
+        return SegmentedSpinLog.open(dir, SEGMENT_RECORDS, Long.MAX_VALUE, 10 * HOUR, HOUR);
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void restartsFromCheckpointAndTail() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("results");
+        Path checkpoint = dir.resolve("stats.ckpt");
+        RecordStatsService service = start(dir);
+        for (int i = 1; i <= 100; i++) service.recordBet(7, new BetResultMessage(i, 10, i % 2 == 0 ? i : 0, i, 1));
+        service.destroy();
+        Assertions.assertEquals(100, StatsCheckpoint.read(checkpoint).records(), "Shutdown saves a checkpoint");
+
+        try (SegmentedSpinLog spinLog = open(dir)) {
+            spinLog.append(101, 7, 20, 500, 0, 1);
+        }
+        service = start(dir);
+        Assertions.assertEquals(StatsSnapshot.of(101, 1_020, 10, 20), service.getBetStats(),
+                "Checkpoint and tail are loaded");
+        Assertions.assertEquals(StatsSnapshot.of(51, 3_050, 2, 500), service.getWinStats(),
+                "Checkpoint and tail are loaded");
+        Assertions.assertEquals(101, service.getWinDistribution().spins(), "The win distribution is restored");
+        Assertions.assertEquals(5.2, service.getWinDistribution().p50(), 0.05, "Median win multiplier");
+        service.recordBatch(7, new BatchResultMessage(102, 5, 2, 10, 3, 1_000, new int[]{1, 0}, new long[]{3, 0}));
+        service.destroy();
+
+        final long[] balances = new long[2];
+        long records = 0;
+        for (Path segment : SegmentedSpinLog.detailedSegments(dir)) {
+            records += SpinLog.scan(segment, (ts, player, bet, win, balance, result) -> {
+                if (ts == 102) balances[bet == 5 && win == 3 ? 0 : 1] = balance;
+            });
+        }
+        Assertions.assertEquals(103, records, "History is preserved across restarts");
+        Assertions.assertArrayEquals(new long[]{1_005, 1_000}, balances, "Batch balances are derived per spin");
+
+        new StatsCheckpoint(1_000, StatsSnapshot.of(1, 1, 1, 1), StatsSnapshot.EMPTY).write(checkpoint);
+        service = start(dir);
+        Assertions.assertEquals(103, service.getBetStats().count(), "Checkpoints past the log are ignored");
+        service.destroy();
+        delete(dir);
+    }
+
+    @Test
+    void replaysCompactedSegmentsAsAggregates() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("results");
+        try (SegmentedSpinLog spinLog = open(dir)) {
+            for (int i = 0; i < 100; i++) spinLog.append(i * 60_000L, 1, 10, i == 50 ? 700 : 0, 0, 0);
+            Assertions.assertEquals(2, spinLog.compact(100 * HOUR), "Both closed segments are compacted");
+        }
+        new StatsCheckpoint(10, StatsSnapshot.of(10, 100, 10, 10), StatsSnapshot.EMPTY)
+                .write(dir.resolve("stats.ckpt"));
+        RecordStatsService service = start(dir);
+        Assertions.assertEquals(StatsSnapshot.of(100, 1_000, 10, 10), service.getBetStats(),
+                "Checkpoints inside compacted segments are ignored for the aggregates");
+        Assertions.assertEquals(StatsSnapshot.of(1, 700, 700, 700), service.getWinStats(), "Aggregated wins");
+        service.destroy();
+        Assertions.assertEquals(List.of(dir.resolve("00000000000000000080.slog")),
+                SegmentedSpinLog.detailedSegments(dir), "Only the live segment is kept in detail");
+        delete(dir);
+    }
+
+    @Test
+    void summarizesRollingWindows() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("results");
+        RecordStatsService service = start(dir);
+        final long now = System.currentTimeMillis();
+        service.recordBet(1, new BetResultMessage(now - 2 * HOUR, 10, 20, 0, 1));
+        service.recordBet(1, new BetResultMessage(now - 5_000, 10, 0, 0, 0));
+        service.recordBet(1, new BetResultMessage(now, 10, 5, 0, 1));
+        service.destroy();
+        Assertions.assertEquals(StatsSnapshot.of(2, 20, 10, 10), service.getWindowStats(60_000).bets(), "Last minute");
+        Assertions.assertEquals(0.25, service.getWindowStats(60_000).rtp(), "Observed RTP of the last minute");
+        Assertions.assertEquals(0.5, service.getWindowStats(60_000).hitRate(), "Hit rate of the last minute");
+        Assertions.assertEquals(3, service.getWindowStats(24 * HOUR).bets().count(), "Last day");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.getWindowStats(25 * HOUR), "Too long");
+        delete(dir);
+    }
+}
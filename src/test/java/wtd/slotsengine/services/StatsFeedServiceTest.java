@@ -0,0 +1,176 @@
+package wtd.slotsengine.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import wtd.slotsengine.rest.records.BetResultMessage;
+import wtd.slotsengine.slots.interfaces.SlotMachine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static wtd.slotsengine.utils.SlotUtils.now;
+
+class StatsFeedServiceTest {
+    private static final String PAY_TABLE = "0:0,1:1,2:2,3:3,4:4,5:5,6:6,7:7,8:8,9:9,10:100";
+
+    /**
+     * An emitter counting the events sent to it, or failing to send them.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final boolean reachable;
+        private int sent;
+
+        RecordingEmitter(boolean reachable) {
+            this.reachable = reachable;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (!reachable) throw new IOException("Client disconnected");
+            sent++;
+        }
+
+        int drain() {
+            final int count = sent;
+            sent = 0;
+            return count;
+        }
+    }
+
+    /**
+     * An emitter whose sends block, ignoring interrupts, until it is released.
+     */
+    private static final class StuckEmitter extends SseEmitter {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            entered.countDown();
+            while (true) {
+                try {
+                    release.await();
+                    return;
+                } catch (InterruptedException ex) {
+                    interrupted.countDown();
+                }
+            }
+        }
+    }
+
+    @Test
+    void pushesCoalescedChanges() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("results");
+        RecordStatsService stats = new RecordStatsService(dir.toString(), dir + ".csv", 64, 1, 1, 0,
+                1_000, Long.MAX_VALUE, Long.MAX_VALUE, 3_600_000L);
+        stats.init();
+        while (!stats.isLoaded()) Thread.sleep(1);
+        SlotManagerService slotManager = new SlotManagerService(PAY_TABLE, "L64X128MixRandom", "");
+        SlotMachine machine = slotManager.getSlotMachine();
+        StatsFeedService feed = new StatsFeedService(slotManager, stats, new ObjectMapper(), 1_000, 16);
+
+        RecordingEmitter client = new RecordingEmitter(true);
+        feed.subscribe(7, client);
+        feed.tick(Runnable::run, 0);
+        Assertions.assertEquals(2, client.drain(), "New subscribers get the statistics and their balance");
+        feed.tick(Runnable::run, 0);
+        Assertions.assertEquals(0, client.drain(), "Nothing is sent without changes");
+
+        machine.deposit(7, 100);
+        feed.tick(Runnable::run, 0);
+        Assertions.assertEquals(1, client.drain(), "Balance changes are pushed");
+
+        for (int i = 1; i <= 10; i++) stats.recordBet(7, new BetResultMessage(i, 10, 0, 100, 0));
+        while (stats.getBetStats().count() < 10) Thread.sleep(1);
+        feed.tick(Runnable::run, 0);
+        Assertions.assertEquals(1, client.drain(), "Recorded bets are coalesced into one update");
+
+        feed.subscribe(8, new RecordingEmitter(false));
+        Assertions.assertEquals(2, feed.getSubscriberCount(), "Subscribers are registered");
+        feed.tick(Runnable::run, 0);
+        Assertions.assertEquals(1, feed.getSubscriberCount(), "Unreachable subscribers are dropped");
+        Assertions.assertEquals(0, client.drain(), "Other subscribers are not affected");
+
+        feed.destroy();
+        Assertions.assertEquals(0, feed.getSubscriberCount(), "Subscriptions end with the feed");
+        stats.destroy();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void slowSubscribersAreSkippedThenDropped() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("results");
+        RecordStatsService stats = new RecordStatsService(dir.toString(), dir + ".csv", 64, 1, 1, 0,
+                1_000, Long.MAX_VALUE, Long.MAX_VALUE, 3_600_000L);
+        stats.init();
+        while (!stats.isLoaded()) Thread.sleep(1);
+        SlotManagerService slotManager = new SlotManagerService(PAY_TABLE, "L64X128MixRandom", "");
+        StatsFeedService feed = new StatsFeedService(slotManager, stats, new ObjectMapper(), 1_000, 2);
+
+        StuckEmitter slow = new StuckEmitter();
+        RecordingEmitter fast = new RecordingEmitter(true);
+        feed.subscribe(7, slow);
+        feed.subscribe(8, fast);
+        Assertions.assertThrows(IllegalStateException.class, () -> feed.subscribe(9, new RecordingEmitter(true)),
+                "Subscriptions are capped");
+
+        long start = now();
+        AtomicBoolean spawned = new AtomicBoolean();
+        feed.tick(task -> {
+            if (spawned.compareAndSet(false, true)) new Thread(task).start();
+            else task.run();
+        }, start);
+        Assertions.assertTrue(slow.entered.await(10, TimeUnit.SECONDS), "The stuck send started");
+        Assertions.assertEquals(2, fast.drain(), "Other subscribers do not wait for a stuck send");
+
+        slotManager.getSlotMachine().deposit(8, 100);
+        feed.tick(Runnable::run, start + StatsFeedService.SEND_DEADLINE_MS);
+        Assertions.assertEquals(1, fast.drain(), "Idle subscribers get the changes");
+        Assertions.assertEquals(2, feed.getSubscriberCount(), "Subscribers with a send in flight are skipped");
+        feed.tick(Runnable::run, now() + StatsFeedService.SEND_DEADLINE_MS + 1);
+        Assertions.assertEquals(1, feed.getSubscriberCount(), "Sends exceeding the deadline drop the subscriber");
+        Assertions.assertTrue(slow.interrupted.await(10, TimeUnit.SECONDS), "The stuck send is interrupted");
+        Assertions.assertThrows(IllegalStateException.class, () -> feed.subscribe(9, new RecordingEmitter(true)),
+                "A stuck send keeps its place");
+
+        slow.release.countDown();
+        long deadline = now() + 10_000;
+        while (true) {
+            try {
+                feed.subscribe(9, new RecordingEmitter(true));
+                break;
+            } catch (IllegalStateException ex) {
+                if (now() > deadline) throw ex;
+                Thread.sleep(1);
+            }
+        }
+        Assertions.assertEquals(2, feed.getSubscriberCount(), "Returned sends give their place back");
+
+        List<Runnable> queued = new ArrayList<>();
+        long later = now();
+        feed.tick(queued::add, later);
+        feed.tick(queued::add, later + 2 * StatsFeedService.SEND_DEADLINE_MS);
+        Assertions.assertEquals(2, queued.size(), "Subscribers with a send in flight are skipped");
+        Assertions.assertEquals(2, feed.getSubscriberCount(), "Sends that have not started are not timed out");
+
+        feed.destroy();
+        stats.destroy();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,55 @@
+package wtd.slotsengine.services.recorder;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RecordRingTest {
+
+    @Test
+    void fifoAndCapacity() {
+        RecordRing ring = new RecordRing(3);
+        Assertions.assertEquals(4, ring.capacity(), "Capacity is rounded up to a power of two");
+        for (int i = 0; i < 4; i++) Assertions.assertTrue(ring.offer(i, 7, 10, i * 2, 100 + i, i), "Record " + i + " fits");
+        Assertions.assertFalse(ring.offer(9, 9, 9, 9, 9, 9), "Full ring rejects offers");
+        Assertions.assertEquals(4, ring.size(), "Full ring");
+        long[] expected = {0};
+        Assertions.assertEquals(4, ring.drain((ts, player, bet, win, balance, result) -> {
+            Assertions.assertEquals(expected[0], ts, "Records are dequeued in order");
+            Assertions.assertEquals(expected[0] * 2, win, "Fields travel together");
+            Assertions.assertEquals(100 + expected[0], balance, "Balances travel together");
+            Assertions.assertEquals(7, player, "Players travel together");
+            expected[0]++;
+        }, 10), "Every record is dequeued");
+        Assertions.assertTrue(ring.offer(4, 7, 10, 8, 104, 4), "Drained slots are reused");
+        Assertions.assertEquals(1, ring.drain((ts, player, bet, win, balance, result) -> {
+        }, 10), "Only the new record is dequeued");
+        Assertions.assertEquals(0, ring.size(), "Empty ring");
+    }
+
+    @Test
+    void concurrentProducersWithBackpressure() throws InterruptedException {
+        RecordRing ring = new RecordRing(16);
+        final int producers = 4, perProducer = 50_000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) ring.put(i, producer, 1, producer, i, producer);
+            });
+            threads[p].start();
+        }
+        final long[] next = new long[producers];
+        long received = 0;
+        while (received < (long) producers * perProducer) {
+            received += ring.drain((ts, player, bet, win, balance, result) -> {
+                Assertions.assertEquals(next[result], ts, "Records of one producer keep their order");
+                next[result]++;
+            }, 8);
+        }
+        for (Thread thread : threads) thread.join();
+        ring.close();
+        Assertions.assertTrue(ring.isQuiescent(), "No producer is left after close");
+        Assertions.assertThrows(IllegalStateException.class, () -> ring.put(0, 0, 0, 0, 0, 0), "Closed ring");
+        for (int p = 0; p < producers; p++) Assertions.assertEquals(perProducer, next[p], "No record is lost");
+    }
+}
@@ -0,0 +1,95 @@
+package wtd.slotsengine.services.recorder;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ResultsLogWriterTest {
+
+    private static SegmentedSpinLog open(Path dir) throws IOException {
+        return SegmentedSpinLog.open(dir, 1_000, Long.MAX_VALUE, Long.MAX_VALUE, 60_000);
+    }
+
+    @Test
+    void appendsAndDrainsOnClose() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("results");
+        try (SegmentedSpinLog spinLog = open(dir)) {
+            spinLog.append(1, 2, 3, 4, 5, 6);
+        }
+        AtomicLong written = new AtomicLong();
+        AtomicLong checkpoint = new AtomicLong();
+        ResultsLogWriter writer = new ResultsLogWriter(open(dir), 8, 10_000, 10_000,
+                (ts, player, bet, win, balance, result) -> written.incrementAndGet(), 0, checkpoint::set);
+        Assertions.assertEquals(1, writer.getStartRecord(), "Appends follow the existing record");
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int player = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) writer.append(1_700_000_000_000L + i, player, 10, -i, i, i & 0xFF);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        writer.close();
+        Assertions.assertThrows(IllegalStateException.class, () -> writer.append(0, 0, 0, 0, 0, 0), "Closed writer");
+        Assertions.assertEquals(4_000, written.get(), "The handler sees every record");
+        Assertions.assertEquals(4_001, checkpoint.get(), "Closing checkpoints every record");
+        List<Path> segments = SegmentedSpinLog.detailedSegments(dir);
+        Assertions.assertEquals(5, segments.size(), "Segments are rotated at their record bound");
+        final long[] first = new long[1];
+        final long[] last = new long[4];
+        long count = 0;
+        for (Path segment : segments) {
+            count += SpinLog.scan(segment, (ts, player, bet, win, balance, result) -> {
+                if (first[0]++ == 0) {
+                    Assertions.assertEquals(1, ts, "Existing records are preserved");
+                    return;
+                }
+                Assertions.assertEquals(last[(int) player]++, balance, "Records of one producer keep their order");
+                Assertions.assertEquals(-balance, win, "Fields are written together");
+                Assertions.assertEquals(balance & 0xFF, result, "Symbols are written");
+            });
+        }
+        Assertions.assertEquals(4_001, count, "Every record is appended after the existing ones");
+        for (Path segment : segments) Files.delete(segment);
+        Files.delete(dir.resolve(SegmentedSpinLog.INDEX_FILE));
+        Files.delete(dir.resolve(SegmentedSpinLog.AGGREGATES_FILE));
+        Files.delete(dir);
+    }
+
+    @Test
+    void failedAppendsAreDroppedAndRotationRecovers() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("results");
+        Path blocker = dir.resolve("%020d.slog".formatted(10));
+        Files.createDirectory(blocker);
+        AtomicLong written = new AtomicLong();
+        AtomicLong checkpoint = new AtomicLong();
+        ResultsLogWriter writer = new ResultsLogWriter(SegmentedSpinLog.open(dir, 10, Long.MAX_VALUE, Long.MAX_VALUE,
+                60_000), 64, 10_000, 10_000, (ts, player, bet, win, balance, result) -> written.incrementAndGet(),
+                0, checkpoint::set);
+        for (int i = 0; i < 15; i++) writer.append(i, 1, 10, 0, i, 0);
+        while (written.get() + writer.getDroppedRecords() < 15) Thread.sleep(1);
+        Assertions.assertEquals(10, written.get(), "Records before the failed rotation are written");
+        Assertions.assertEquals(5, writer.getDroppedRecords(), "Records failing to start a segment are dropped");
+        Files.delete(blocker);
+        for (int i = 15; i < 20; i++) writer.append(i, 1, 10, 0, i, 0);
+        writer.close();
+        Assertions.assertEquals(15, written.get(), "The handler only sees the records of the log");
+        Assertions.assertEquals(15, checkpoint.get(), "The checkpoint matches the handler");
+        long count = 0;
+        List<Path> segments = SegmentedSpinLog.detailedSegments(dir);
+        for (Path segment : segments) count += SpinLog.scan(segment, (ts, player, bet, win, balance, result) -> {
+        });
+        Assertions.assertEquals(2, segments.size(), "The rotation is retried once the disk recovers");
+        Assertions.assertEquals(15, count, "Every handled record is in the log");
+        for (Path segment : segments) Files.delete(segment);
+        Files.delete(dir.resolve(SegmentedSpinLog.INDEX_FILE));
+        Files.delete(dir.resolve(SegmentedSpinLog.AGGREGATES_FILE));
+        Files.delete(dir);
+    }
+}
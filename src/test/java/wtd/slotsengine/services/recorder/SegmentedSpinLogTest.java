@@ -0,0 +1,85 @@
+package wtd.slotsengine.services.recorder;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.utils.stats.StatsSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class SegmentedSpinLogTest {
+    private static final long HOUR = 3_600_000L;
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void rotatesBySizeAndTime() throws IOException {
+        Path dir = Files.createTempDirectory("spins");
+        try (SegmentedSpinLog log = SegmentedSpinLog.open(dir, 10, HOUR, Long.MAX_VALUE, HOUR)) {
+            for (int i = 0; i < 25; i++) log.append(i, 0, 1, 0, 0, 0);
+            log.append(HOUR + 20, 0, 1, 0, 0, 0);
+            Assertions.assertEquals(26, log.size(), "Records are counted across segments");
+        }
+        Assertions.assertEquals(4, SegmentedSpinLog.detailedSegments(dir).size(),
+                "Two full segments, one closed by time and the live segment");
+        try (SegmentedSpinLog log = SegmentedSpinLog.open(dir, 10, HOUR, Long.MAX_VALUE, HOUR)) {
+            Assertions.assertEquals(26, log.size(), "Reopening continues the live segment");
+            log.append(HOUR + 21, 0, 1, 0, 0, 0);
+            log.commit();
+            final List<Long> timestamps = new ArrayList<>();
+            Assertions.assertEquals(22, log.replay(5, 27, (ts, player, bet, win, balance, result) ->
+                    timestamps.add(ts), aggregate -> Assertions.fail("Nothing is compacted")), "Range across segments");
+            Assertions.assertEquals(5L, (long) timestamps.get(0), "Replay starts at the first record of the range");
+            Assertions.assertEquals(HOUR + 21, (long) timestamps.get(timestamps.size() - 1),
+                    "Replay reaches the live segment");
+        }
+        delete(dir);
+    }
+
+    @Test
+    void compactsExpiredSegmentsIntoAggregates() throws IOException {
+        Path dir = Files.createTempDirectory("spins");
+        try (SegmentedSpinLog log = SegmentedSpinLog.open(dir, 4, Long.MAX_VALUE, 10 * HOUR, HOUR)) {
+            final long[][] spins = {{0, 10, 0}, {1, 20, 50}, {HOUR, 10, 5}, {HOUR + 1, 10, 0},
+                    {5 * HOUR, 30, 90}, {5 * HOUR, 10, 0}, {5 * HOUR, 10, 0}, {6 * HOUR, 10, 0},
+                    {20 * HOUR, 1, 1}};
+            for (long[] spin : spins) log.append(spin[0], 0, spin[1], spin[2], 0, 0);
+            log.suspendCompaction();
+            Assertions.assertEquals(0, log.compact(14 * HOUR), "Suspended compaction does nothing");
+            log.resumeCompaction();
+            Assertions.assertEquals(1, log.compact(14 * HOUR), "Only the segment out of the window is compacted");
+            Assertions.assertEquals(4, log.getFirstDetailedRecord(), "The first segment holds aggregates only");
+            Assertions.assertEquals(1, log.compact(17 * HOUR), "The next segment leaves the window");
+            Assertions.assertEquals(0, log.compact(17 * HOUR), "Compaction is idempotent");
+            log.commit();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> log.replay(2, 9,
+                    (ts, player, bet, win, balance, result) -> {
+                    }, aggregate -> {
+                    }), "Compacted segments cannot be split");
+        }
+        Assertions.assertEquals(1, SegmentedSpinLog.detailedSegments(dir).size(), "Compacted segments are deleted");
+        try (SegmentedSpinLog log = SegmentedSpinLog.open(dir, 4, Long.MAX_VALUE, 10 * HOUR, HOUR)) {
+            final List<SpinAggregate> aggregates = new ArrayList<>();
+            final long[] detailed = new long[1];
+            Assertions.assertEquals(9, log.replay(0, 9, (ts, player, bet, win, balance, result) -> detailed[0]++,
+                    aggregates::add), "Every record is replayed, in detail or aggregated");
+            Assertions.assertEquals(1, detailed[0], "Only the live segment is detailed");
+            Assertions.assertEquals(List.of(
+                    new SpinAggregate(0, StatsSnapshot.of(2, 30, 10, 20), StatsSnapshot.of(1, 50, 50, 50)),
+                    new SpinAggregate(HOUR, StatsSnapshot.of(2, 20, 10, 10), StatsSnapshot.of(1, 5, 5, 5)),
+                    new SpinAggregate(5 * HOUR, StatsSnapshot.of(3, 50, 10, 30), StatsSnapshot.of(1, 90, 90, 90)),
+                    new SpinAggregate(6 * HOUR, StatsSnapshot.of(1, 10, 10, 10), StatsSnapshot.EMPTY)),
+                    aggregates, "One aggregate per interval of the compacted segments, in order");
+        }
+        delete(dir);
+    }
+}
@@ -0,0 +1,113 @@
+package wtd.slotsengine.services.recorder;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class SpinLogTest {
+
+    @Test
+    void appendScanAndReopen() throws IOException {
+        Path file = Files.createTempFile("spins", ".slog");
+        Files.delete(file);
+        final int records = SpinLog.REGION_RECORDS + 10;
+        try (SpinLog spinLog = SpinLog.open(file)) {
+            for (int i = 0; i < records; i++) {
+                spinLog.append(1_000L + i, i % 3, 10, i * 2L, Long.MAX_VALUE - i, i & 0xFF);
+            }
+            Assertions.assertEquals(records, spinLog.size(), "Appended records are counted");
+        }
+        try (SpinLog spinLog = SpinLog.open(file)) {
+            Assertions.assertEquals(records, spinLog.size(), "Committed records survive a reopen");
+            spinLog.append(-1, -2, -3, -4, -5, -6);
+        }
+        final long[] next = {0};
+        long count = SpinLog.scan(file, (ts, player, bet, win, balance, result) -> {
+            final long i = next[0]++;
+            if (i == records) {
+                Assertions.assertEquals(-6, result, "Negative values round-trip");
+                Assertions.assertEquals(-5, balance, "Records are appended after the existing ones");
+                return;
+            }
+            Assertions.assertEquals(1_000L + i, ts, "Records are read in append order");
+            Assertions.assertEquals(i % 3, player, "Player round-trips");
+            Assertions.assertEquals(10, bet, "Bet round-trips");
+            Assertions.assertEquals(i * 2, win, "Win round-trips");
+            Assertions.assertEquals(Long.MAX_VALUE - i, balance, "Balance round-trips");
+            Assertions.assertEquals(i & 0xFF, result, "Symbol round-trips");
+        });
+        Assertions.assertEquals(records + 1, count, "Every record is scanned");
+        Assertions.assertEquals(SpinLog.HEADER_SIZE + (records + 1L) * SpinLog.RECORD_SIZE, Files.size(file),
+                "Fixed-width records");
+        Files.delete(file);
+    }
+
+    @Test
+    void uncommittedRecordsAreNotPartOfTheLog() throws IOException {
+        Path file = Files.createTempFile("spins", ".slog");
+        Files.delete(file);
+        SpinLog spinLog = SpinLog.open(file);
+        spinLog.append(1, 0, 1, 0, 0, 0);
+        spinLog.commit();
+        spinLog.append(2, 0, 1, 0, 0, 0);
+        Assertions.assertEquals(1, SpinLog.scan(file, (ts, player, bet, win, balance, result) ->
+                Assertions.assertEquals(1, ts, "Only committed records are read")), "Uncommitted record is skipped");
+        spinLog.close();
+        Assertions.assertEquals(2, SpinLog.scan(file, (ts, player, bet, win, balance, result) -> {
+        }), "Close commits");
+        Files.delete(file);
+    }
+
+    @Test
+    void scanRange() throws IOException {
+        Path file = Files.createTempFile("spins", ".slog");
+        Files.delete(file);
+        try (SpinLog spinLog = SpinLog.open(file)) {
+            for (int i = 0; i < 10; i++) spinLog.append(i, 0, 1, 0, 0, 0);
+        }
+        final long[] next = {4};
+        Assertions.assertEquals(3, SpinLog.scan(file, 4, 7, (ts, player, bet, win, balance, result) ->
+                Assertions.assertEquals(next[0]++, ts, "Records of the range in order")), "Range is read");
+        RecordHandler ignore = (ts, player, bet, win, balance, result) -> {
+        };
+        Assertions.assertEquals(0, SpinLog.scan(file, 10, -1, ignore), "Nothing after the last record");
+        Assertions.assertThrows(SlotUserException.class, () -> SpinLog.scan(file, 0, 11, ignore), "Past the log");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SpinLog.scan(file, 5, 4, ignore), "Reversed");
+        Files.delete(file);
+    }
+
+    @Test
+    void exportCsv() throws IOException {
+        Path file = Files.createTempFile("spins", ".slog");
+        Path csv = Files.createTempFile("spins", ".csv");
+        Files.delete(file);
+        try (SpinLog spinLog = SpinLog.open(file)) {
+            spinLog.append(1_700_000_000_000L, 42, 10, 50, 1_040, 5);
+            spinLog.append(1_700_000_000_001L, 42, 10, 0, 1_030, 0);
+        }
+        Assertions.assertEquals(2, SpinLog.exportCsv(file, csv), "Every record is exported");
+        Assertions.assertEquals(List.of(SpinLog.CSV_HEADER, "1700000000000,42,10,50,1040,5",
+                "1700000000001,42,10,0,1030,0"), Files.readAllLines(csv), "One line per record");
+        Files.delete(file);
+        Files.delete(csv);
+    }
+
+    @Test
+    void rejectsInvalidFiles() throws IOException {
+        Path file = Files.createTempFile("spins", ".slog");
+        Files.writeString(file, "1,2,3,4\n1,2,3,4\n1,2,3,4\n1,2,3,4\n");
+        Assertions.assertThrows(SlotUserException.class, () -> SpinLog.open(file), "Not a spin log");
+        RecordHandler ignore = (ts, player, bet, win, balance, result) -> {
+        };
+        Assertions.assertThrows(SlotUserException.class, () -> SpinLog.scan(file, ignore), "Not a spin log");
+        Files.writeString(file, "1,2,3,4\n");
+        Assertions.assertThrows(SlotUserException.class, () -> SpinLog.open(file), "Truncated header");
+        Assertions.assertEquals(8, Files.size(file), "Invalid files are left untouched");
+        Files.delete(file);
+    }
+}
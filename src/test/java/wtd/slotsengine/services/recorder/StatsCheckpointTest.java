@@ -0,0 +1,43 @@
+package wtd.slotsengine.services.recorder;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.utils.stats.StatsSnapshot;
+import wtd.slotsengine.utils.stats.WinDistributionStats;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class StatsCheckpointTest {
+
+    @Test
+    void roundTripAndVersionOne() throws IOException {
+        Path path = Files.createTempFile("stats", ".ckpt");
+        WinDistributionStats distribution = new WinDistributionStats();
+        distribution.accept(10, 50, 3);
+        distribution.accept(10, 0, 0);
+        new StatsCheckpoint(2, StatsSnapshot.of(2, 20, 10, 10), StatsSnapshot.of(1, 50, 50, 50),
+                distribution.winCounts(), distribution.symbolCounts()).write(path);
+        Assertions.assertEquals(StatsCheckpoint.SIZE, Files.size(path), "Fixed size");
+        StatsCheckpoint checkpoint = StatsCheckpoint.read(path);
+        Assertions.assertEquals(StatsSnapshot.of(1, 50, 50, 50), checkpoint.wins(), "Win statistics");
+        WinDistributionStats restored = new WinDistributionStats();
+        restored.merge(checkpoint.winCounts(), checkpoint.symbolCounts());
+        Assertions.assertEquals(distribution.snapshot(), restored.snapshot(), "Win distribution");
+
+        ByteBuffer v1 = ByteBuffer.allocate(16 + 8 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        v1.putInt(StatsCheckpoint.MAGIC).putInt(1).putLong(3).putLong(3).putLong(30).putLong(10).putLong(10);
+        Files.write(path, v1.array());
+        checkpoint = StatsCheckpoint.read(path);
+        Assertions.assertEquals(StatsSnapshot.of(3, 30, 10, 10), checkpoint.bets(), "Version 1 statistics");
+        Assertions.assertArrayEquals(new long[WinDistributionStats.SYMBOL_COUNT], checkpoint.symbolCounts(),
+                "No distribution in version 1");
+        Files.write(path, new byte[StatsCheckpoint.SIZE]);
+        Assertions.assertThrows(SlotUserException.class, () -> StatsCheckpoint.read(path), "Not a checkpoint");
+        Files.delete(path);
+    }
+}
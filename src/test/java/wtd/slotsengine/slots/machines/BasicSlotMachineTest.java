@@ -2,9 +2,24 @@ package wtd.slotsengine.slots.machines;
 
 import org.junit.jupiter.api.Test;
 import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
+import wtd.slotsengine.slots.interfaces.SpinOutcomeFactory;
+import wtd.slotsengine.slots.machines.abstracts.AbstractSlotMachine;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.records.RegisteredReel;
+import wtd.slotsengine.slots.machines.records.SpinBatchOutcome;
 import wtd.slotsengine.slots.machines.records.SpinOutcome;
+import wtd.slotsengine.slots.machines.records.SpinRecord;
+import wtd.slotsengine.slots.machines.reels.MappedReel;
+import wtd.slotsengine.slots.machines.reels.VirtualReelBuilder;
+import wtd.slotsengine.utils.SlotConstants;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Random;
+import java.util.random.RandomGenerator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -68,6 +83,32 @@ public class BasicSlotMachineTest {
         assertEquals(1L, result.betAmount(), "Bet amount is correct.");
     }
 
+    @Test
+    public void testSpinBatch() throws InsufficientFundsException {
+        BasicSlotMachine sm = new BasicSlotMachine();
+        sm.deposit(1000);
+
+        SpinBatchOutcome batch = sm.spinBatch(2, 100);
+        assertEquals(100, batch.count(), "Batch ran all spins.");
+        assertEquals(200, batch.totalBet(), "Total bet is correct.");
+        assertEquals(100, batch.symbols().length, "One symbol per spin.");
+        long totalWin = 0;
+        for (int i = 0; i < batch.count(); i++) {
+            assertEquals(sm.calculatePayout(2, batch.symbols()[i]), batch.wins()[i], "Win matches symbol.");
+            totalWin += batch.wins()[i];
+        }
+        assertEquals(totalWin, batch.totalWin(), "Total win is the sum of the wins.");
+        assertEquals(1000 - 200 + totalWin, batch.balance(), "Balance is settled once.");
+        assertEquals(batch.balance(), sm.getBalance(), "Machine balance matches the batch.");
+
+        long balance = sm.getBalance();
+        assertThrowsExactly(InsufficientFundsException.class, () -> sm.spinBatch(balance + 1, 2),
+                "Batch cannot exceed the balance.");
+        assertEquals(balance, sm.getBalance(), "Rejected batch does not change the balance.");
+        assertThrowsExactly(IllegalArgumentException.class, () -> sm.spinBatch(1, 0),
+                "Batch needs at least one spin.");
+    }
+
     @Test
     public void testCalculateRTP() {
         BasicSlotMachine sm = new BasicSlotMachine();
@@ -76,4 +117,176 @@ public class BasicSlotMachineTest {
         // Assuming the expected RTP based on the demo machine setup
         assertEquals(0.98, rtp, "Calculated RTP is correct.");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSwapReel() throws InterruptedException {
+        BasicSlotMachine sm = new BasicSlotMachine();
+        RegisteredReel demo = sm.getActiveReel();
+        String jackpotReel = VirtualReelBuilder.builder().addSymbol((byte) 10, 16).build().toString();
+
+        RegisteredReel jackpot = sm.swapReel(jackpotReel);
+        assertEquals(100.0, sm.getMachineRtp(), 1e-12, "Swapped reel always pays the top symbol.");
+        assertEquals(10, SpinRecord.symbolOf(sm.simulateSpin(1)), "Spins use the swapped reel.");
+        assertSame(demo, sm.swapReel(SlotConstants.DEMO_MACHINE), "Known reels are not decoded again.");
+        assertEquals(0.98, sm.getMachineRtp(), 1e-12, "Demo reel is active again.");
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        Thread spinner = new Thread(() -> {
+            for (int i = 0; i < 200_000; i++) {
+                int symbol = SpinRecord.symbolOf(sm.simulateSpin(1));
+                if (symbol < 0 || symbol > 10) failed.set(true);
+            }
+        });
+        spinner.start();
+        for (int i = 0; i < 1000; i++) {
+            sm.swapReel(i % 2 == 0 ? jackpotReel : SlotConstants.DEMO_MACHINE);
+        }
+        spinner.join();
+        assertFalse(failed.get(), "Spins in flight complete against a valid reel.");
+        assertSame(jackpot, sm.swapReel(jackpotReel), "Registry keeps one instance per reel.");
+    }
+
+    @Test
+    public void testSwapReelResumesCycle() {
+        BasicSlotMachine sm = new BasicSlotMachine();
+        RegisteredReel demo = sm.getActiveReel();
+        int start = demo.cursor().next();
+        for (int i = 0; i < 99; i++) sm.simulateSpin(1);
+        sm.swapReel(VirtualReelBuilder.builder().addSymbol((byte) 10, 16).build().toString());
+        sm.simulateSpin(1);
+        assertSame(demo, sm.swapReel(SlotConstants.DEMO_MACHINE), "Demo reel is active again.");
+        int expected = demo.reel().get((start + 100) % demo.reel().size());
+        assertEquals(expected, SpinRecord.symbolOf(sm.simulateSpin(1)), "Reactivated reel resumes its cycle.");
+        assertEquals(101, demo.cursor().allocated(), "Stops of the reel are never replayed.");
+    }
+
+    @Test
+    public void testSwapMappedReel() throws IOException {
+        Path file = Files.createTempFile("reel", ".strip");
+        try {
+            BasicSlotMachine sm = new BasicSlotMachine();
+            MappedReel.write(file, VirtualReelBuilder.builder().addSymbol((byte) 10, 16).build());
+            RegisteredReel mapped = sm.swapReel(file);
+            assertTrue(mapped.reel() instanceof MappedReel, "Strip is read from the mapping.");
+            assertEquals(100.0, sm.getMachineRtp(), 1e-12, "Mapped reel always pays the top symbol.");
+            assertEquals(10, SpinRecord.symbolOf(sm.simulateSpin(1)), "Spins use the mapped reel.");
+            assertEquals(10, SpinRecord.symbolOf(sm.simulateSpin(1, rng)), "Simulations use the mapped reel.");
+            assertSame(mapped, sm.swapReel(file), "Known strips are not registered again.");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testConcurrentSpinsNeverOverdraw() throws InterruptedException {
+        BasicSlotMachine sm = new BasicSlotMachine();
+        sm.deposit(7, 1000);
+        AtomicLong settled = new AtomicLong(1000);
+        AtomicBoolean overdrawn = new AtomicBoolean(false);
+        Thread[] spinners = new Thread[8];
+        for (int t = 0; t < spinners.length; t++) {
+            spinners[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    try {
+                        SpinOutcome outcome = sm.spin(7, 10);
+                        settled.addAndGet(outcome.winAmount() - outcome.betAmount());
+                        if (outcome.balance() < 0) overdrawn.set(true);
+                    } catch (InsufficientFundsException e) {
+                        return;
+                    }
+                }
+            });
+            spinners[t].start();
+        }
+        for (Thread spinner : spinners) spinner.join();
+        assertFalse(overdrawn.get(), "Balance never goes negative.");
+        assertEquals(settled.get(), sm.getBalance(7), "Every spin is settled exactly once.");
+        assertEquals(0L, sm.getBalance(), "Other wallets are untouched.");
+    }
+
+    @Test
+    public void testRejectedSpinsDrawNothing() throws InterruptedException {
+        AtomicLong draws = new AtomicLong();
+        AbstractSlotMachine sm = new AbstractSlotMachine() {
+            @Override
+            public double getMachineRtp() {
+                return 0.5;
+            }
+
+            @Override
+            public OutcomeStats getMachineStats() {
+                return OutcomeStats.of(new long[]{0, 1}, new long[]{1, 1}, 1);
+            }
+
+            @Override
+            protected long doSpin(long betAmount) {
+                return SpinRecord.pack(draws.incrementAndGet() % 2 == 0 ? betAmount : 0, 1);
+            }
+
+            @Override
+            protected long doSpin(long betAmount, RandomGenerator random) {
+                return doSpin(betAmount);
+            }
+        };
+        sm.deposit(9, 500);
+        AtomicLong spins = new AtomicLong();
+        AtomicBoolean overdrawn = new AtomicBoolean(false);
+        Thread[] spinners = new Thread[8];
+        for (int t = 0; t < spinners.length; t++) {
+            spinners[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    try {
+                        if (i % 2 == 0) {
+                            if (sm.spin(9, 10).balance() < 0) overdrawn.set(true);
+                            spins.incrementAndGet();
+                        } else {
+                            spins.addAndGet(sm.spinBatch(9, 10, 3).wins().length);
+                        }
+                    } catch (InsufficientFundsException ignored) {
+                    }
+                }
+            });
+            spinners[t].start();
+        }
+        for (Thread spinner : spinners) spinner.join();
+        assertFalse(overdrawn.get(), "Balance never goes negative.");
+        assertEquals(spins.get(), draws.get(), "Only settled spins draw an outcome.");
+    }
+
+    @Test
+    public void testSpinDoesNotAllocate() throws InsufficientFundsException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        BasicSlotMachine sm = new BasicSlotMachine();
+        sm.deposit(3, Long.MAX_VALUE / 2);
+        SpinOutcomeFactory<Boolean> won = (bet, win, symbol, balance) -> win > 0;
+        long wins = 0;
+        for (int i = 0; i < 200_000; i++) if (sm.spin(3, 1, won)) wins++;
+        final long threadId = Thread.currentThread().getId();
+        final long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) if (sm.spin(3, 1, won)) wins++;
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(wins > 0, "Spin results are consumed.");
+        assertTrue(allocated < 100_000, "Steady state spins allocate nothing, allocated " + allocated + " bytes.");
+    }
+
+    @Test
+    public void testSpinObserver() throws InsufficientFundsException {
+        BasicSlotMachine sm = new BasicSlotMachine();
+        sm.deposit(5, 1_000);
+        final long[] observed = new long[4];
+        sm.setSpinObserver((spins, hits, engineNanos, settleNanos) -> {
+            observed[0] += spins;
+            observed[1] += hits;
+            if (engineNanos >= 0 && settleNanos >= 0) observed[2]++;
+        });
+        SpinOutcome outcome = sm.spin(5, 1);
+        SpinBatchOutcome batch = sm.spinBatch(5, 1, 100);
+        long hits = outcome.winAmount() > 0 ? 1 : 0;
+        for (long win : batch.wins()) if (win > 0) hits++;
+        assertThrows(InsufficientFundsException.class, () -> sm.spin(6, 1), "No wallet.");
+        assertEquals(101, observed[0], "Every settled spin is observed.");
+        assertEquals(hits, observed[1], "Winning spins are observed.");
+        assertEquals(2, observed[2], "A single spin and a batch are observed once each.");
+    }
+}
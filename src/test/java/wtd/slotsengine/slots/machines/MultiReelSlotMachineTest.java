@@ -0,0 +1,226 @@
+package wtd.slotsengine.slots.machines;
+
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.slots.machines.lines.LineWinEvaluator;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.records.SpinOutcome;
+import wtd.slotsengine.slots.machines.records.SpinRecord;
+import wtd.slotsengine.slots.machines.reels.IReel;
+import wtd.slotsengine.slots.machines.reels.MappedReel;
+import wtd.slotsengine.slots.machines.reels.VirtualReel;
+import wtd.slotsengine.slots.machines.reels.VirtualReelBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiReelSlotMachineTest {
+
+    private static VirtualReel reel(int... symbols) {
+        VirtualReelBuilder builder = VirtualReelBuilder.builder();
+        for (int symbol : symbols) {
+            builder.addSymbol((byte) symbol, 1);
+        }
+        return builder.build();
+    }
+
+    private static MultiReelSlotMachine createMachine() {
+        return createMachine(reel(1, 2, 3, 4, 9, 1), reel(1, 2, 3, 9, 2), reel(1, 3, 2, 4, 9, 1, 1));
+    }
+
+    private static MultiReelSlotMachine createMachine(IReel first, IReel second, IReel third) {
+        return MultiReelSlotMachineBuilder.builder()
+                .rows(3)
+                .addReel(first)
+                .addReel(second)
+                .addReel(third)
+                .addPayline(1, 1, 1)
+                .addPayline(0, 0, 0)
+                .addPayline(2, 2, 2)
+                .addPayline(0, 1, 2)
+                .addLinePay(1, 3, 20)
+                .addLinePay(1, 2, 2)
+                .addLinePay(2, 3, 10)
+                .addLinePay(3, 3, 5)
+                .addLinePay(4, 2, 1)
+                .scatter(9)
+                .addScatterPay(2, 3)
+                .addScatterPay(3, 30)
+                .build();
+    }
+
+    @Test
+    public void testCalculateRTPMatchesEnumeration() {
+        MultiReelSlotMachine sm = createMachine();
+        LineWinEvaluator evaluator = sm.getEvaluator();
+        int[] stops = new int[3];
+        double total = 0;
+        long combinations = 0;
+        for (stops[0] = 0; stops[0] < evaluator.reelSize(0); stops[0]++) {
+            for (stops[1] = 0; stops[1] < evaluator.reelSize(1); stops[1]++) {
+                for (stops[2] = 0; stops[2] < evaluator.reelSize(2); stops[2]++) {
+                    total += LineWinEvaluator.multiplierOf(evaluator.evaluate(stops));
+                    combinations++;
+                }
+            }
+        }
+        double expected = total / combinations / evaluator.getLineCount();
+        assertEquals(expected, sm.getMachineRtp(), 1e-12, "Exact RTP matches full enumeration.");
+    }
+
+    @Test
+    public void testMachineStatsMatchEnumeration() {
+        MultiReelSlotMachine sm = createMachine();
+        LineWinEvaluator evaluator = sm.getEvaluator();
+        int[] stops = new int[3];
+        double sum = 0, sumSquares = 0;
+        long combinations = 0, hits = 0;
+        for (stops[0] = 0; stops[0] < evaluator.reelSize(0); stops[0]++) {
+            for (stops[1] = 0; stops[1] < evaluator.reelSize(1); stops[1]++) {
+                for (stops[2] = 0; stops[2] < evaluator.reelSize(2); stops[2]++) {
+                    double pay = LineWinEvaluator.multiplierOf(evaluator.evaluate(stops))
+                            / (double) evaluator.getLineCount();
+                    sum += pay;
+                    sumSquares += pay * pay;
+                    if (pay > 0) hits++;
+                    combinations++;
+                }
+            }
+        }
+        double mean = sum / combinations;
+        OutcomeStats stats = sm.getMachineStats();
+        assertEquals(combinations, stats.outcomes(), "Every stop combination is counted.");
+        assertEquals(sm.getMachineRtp(), stats.rtp(), 1e-12, "Statistics agree with the exact RTP.");
+        assertEquals(sumSquares / combinations - mean * mean, stats.variance(), 1e-9, "Variance is exact.");
+        assertEquals(hits / (double) combinations, stats.hitFrequency(), 1e-12, "Hit frequency is exact.");
+        assertSame(stats, sm.getMachineStats(), "Statistics are cached.");
+    }
+
+    @Test
+    public void testMappedReelsMatchVirtualReels() throws IOException {
+        Path directory = Files.createTempDirectory("reels");
+        try {
+            MultiReelSlotMachine virtual = createMachine();
+            LineWinEvaluator expected = virtual.getEvaluator();
+            MultiReelSlotMachine mapped = createMachine(
+                    MappedReel.write(directory.resolve("0.strip"), reel(1, 2, 3, 4, 9, 1)),
+                    MappedReel.write(directory.resolve("1.strip"), reel(1, 2, 3, 9, 2)),
+                    MappedReel.write(directory.resolve("2.strip"), reel(1, 3, 2, 4, 9, 1, 1)));
+            LineWinEvaluator evaluator = mapped.getEvaluator();
+            int[] stops = new int[3];
+            for (stops[0] = 0; stops[0] < evaluator.reelSize(0); stops[0]++) {
+                for (stops[1] = 0; stops[1] < evaluator.reelSize(1); stops[1]++) {
+                    for (stops[2] = 0; stops[2] < evaluator.reelSize(2); stops[2]++) {
+                        assertEquals(expected.evaluate(stops), evaluator.evaluate(stops), "Same window wins.");
+                    }
+                }
+            }
+            assertEquals(virtual.getMachineRtp(), mapped.getMachineRtp(), 1e-12, "Same RTP.");
+            assertEquals(virtual.getMachineStats(), mapped.getMachineStats(), "Same statistics.");
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testLargeMachineStatsAreSampled() {
+        int[] symbols = new int[128];
+        for (int i = 0; i < symbols.length; i++) symbols[i] = i % 8 == 0 ? 9 : 1 + i % 5;
+        MultiReelSlotMachineBuilder builder = MultiReelSlotMachineBuilder.builder().rows(3);
+        for (int r = 0; r < 5; r++) builder.addReel(reel(symbols));
+        MultiReelSlotMachine sm = builder.addPayline(1, 1, 1, 1, 1).addPayline(0, 0, 0, 0, 0)
+                .addLinePay(1, 3, 5).addLinePay(1, 5, 100).addLinePay(2, 4, 20)
+                .scatter(9).addScatterPay(3, 10).build();
+
+        OutcomeStats stats = sm.getMachineStats();
+        assertEquals(LineWinEvaluator.SAMPLED_WINDOWS, stats.outcomes(), "Too many windows to enumerate.");
+        assertEquals(sm.getMachineRtp(), stats.rtp(), 1e-12, "RTP stays exact.");
+        assertTrue(stats.variance() > 0 && stats.hitFrequency() > 0, "Spread is estimated from the sample.");
+        assertEquals(stats, sm.getEvaluator().calculateStats(), "Sample is seeded.");
+    }
+
+    @Test
+    public void testRealizedRtpMatchesCalculatedRtp() {
+        MultiReelSlotMachine sm = createMachine();
+        final int lines = sm.getEvaluator().getLineCount();
+        final int spins = 1_000_000;
+        long won = 0;
+        for (int i = 0; i < spins; i++) won += SpinRecord.winOf(sm.simulateSpin(lines));
+        double realized = won / ((double) spins * lines);
+        double tolerance = 5 * Math.sqrt(sm.getMachineStats().variance() / spins);
+        assertEquals(sm.getMachineRtp(), realized, tolerance, "Realized RTP matches the calculated RTP.");
+        assertThrows(IllegalArgumentException.class, () -> sm.simulateSpin(lines + 1),
+                "Bets must split evenly across the paylines.");
+        sm.deposit(100);
+        assertThrows(IllegalArgumentException.class, () -> sm.spin(lines * 2 + 1),
+                "Bets must split evenly across the paylines.");
+        assertEquals(100, sm.getBalance(), "Rejected bets are not settled.");
+    }
+
+    @Test
+    public void testEvaluateLineAndScatterWins() {
+        MultiReelSlotMachine sm = MultiReelSlotMachineBuilder.builder()
+                .rows(1)
+                .addReel(reel(1, 9))
+                .addReel(reel(1, 9))
+                .addReel(reel(2, 9))
+                .addPayline(0, 0, 0)
+                .addLinePay(1, 2, 4)
+                .scatter(9)
+                .addScatterPay(3, 50)
+                .build();
+        LineWinEvaluator evaluator = sm.getEvaluator();
+
+        long lineWin = evaluator.evaluate(new int[]{0, 0, 0});
+        assertEquals(4, LineWinEvaluator.multiplierOf(lineWin), "Two symbols from the left pay on the line.");
+        assertEquals(1, LineWinEvaluator.symbolOf(lineWin), "Winning symbol is reported.");
+
+        long scatterWin = evaluator.evaluate(new int[]{1, 1, 1});
+        assertEquals(50, LineWinEvaluator.multiplierOf(scatterWin), "Three scatters pay on the total bet.");
+        assertEquals(9, LineWinEvaluator.symbolOf(scatterWin), "Scatter symbol is reported.");
+
+        long loss = evaluator.evaluate(new int[]{1, 0, 0});
+        assertEquals(0, LineWinEvaluator.multiplierOf(loss), "Line pays must start from the leftmost reel.");
+        assertEquals(0, LineWinEvaluator.symbolOf(loss), "No symbol is reported for a loss.");
+    }
+
+    @Test
+    public void testSpin() throws InsufficientFundsException {
+        MultiReelSlotMachine sm = MultiReelSlotMachineBuilder.builder()
+                .addReel(reel(5))
+                .addReel(reel(5))
+                .addPayline(0, 0)
+                .addPayline(1, 1)
+                .addLinePay(5, 2, 3)
+                .build();
+        sm.deposit(100);
+        SpinOutcome result = sm.spin(10);
+        assertEquals(10, result.betAmount(), "Bet amount is correct.");
+        assertEquals(30, result.winAmount(), "Both lines win three times the line bet.");
+        assertEquals(5, result.symbol(), "Winning symbol is reported.");
+        assertEquals(120, result.balance(), "Balance is settled.");
+        assertEquals(3.0, sm.getMachineRtp(), 1e-12, "Machine always pays three times the bet.");
+    }
+
+    @Test
+    public void testInvalidLayout() {
+        assertThrows(SlotUserException.class, () -> MultiReelSlotMachineBuilder.builder()
+                .addReel(reel(1)).addPayline(0, 0).build(), "Payline must match the reel count.");
+        assertThrows(SlotUserException.class, () -> MultiReelSlotMachineBuilder.builder()
+                .rows(2).addReel(reel(1)).addPayline(2).build(), "Payline rows must be visible.");
+        assertThrows(SlotUserException.class, () -> MultiReelSlotMachineBuilder.builder()
+                .addReel(reel(1)).addPayline(0).scatter(1).addLinePay(1, 1, 1).build(),
+                "Scatter cannot pay on lines.");
+        assertThrows(SlotUserException.class, () -> MultiReelSlotMachineBuilder.builder()
+                .addReel(reel(1)).addPayline(0).addPayline(0).addLinePay(1, 1, LineWinEvaluator.MAX_MULTIPLIER)
+                .build(), "Total multipliers must not overflow.");
+    }
+}
@@ -0,0 +1,38 @@
+package wtd.slotsengine.slots.machines;
+
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.records.SpinOutcome;
+import wtd.slotsengine.slots.machines.reels.WeightedReel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeightedSlotMachineTest {
+
+    @Test
+    public void testMachineRtp() {
+        WeightedSlotMachine sm = new WeightedSlotMachine(WeightedReel.parse("0:90,2:5,10:4"),
+                PayTable.parse("0:0,2:2,10:10"));
+        assertEquals((5 * 2 + 4 * 10) / 99.0, sm.getMachineRtp(), 1e-12, "RTP is derived from the weights.");
+        assertEquals(4 / 99.0, sm.getMachineStats().maxWinProbability(), 1e-12, "Max win probability is exact.");
+    }
+
+    @Test
+    public void testSpin() throws InsufficientFundsException {
+        WeightedSlotMachine sm = new WeightedSlotMachine(WeightedReel.parse("5:1"), PayTable.parse("0:0,5:5"));
+        sm.deposit(100);
+        SpinOutcome result = sm.spin(10);
+        assertEquals(5, result.symbol(), "Only symbol is sampled.");
+        assertEquals(50, result.winAmount(), "Symbol pays five times the bet.");
+        assertEquals(140, result.balance(), "Balance is settled.");
+    }
+
+    @Test
+    public void testInvalidSymbol() {
+        assertThrows(SlotUserException.class,
+                () -> new WeightedSlotMachine(WeightedReel.parse("0:1,3:1"), PayTable.parse("0:0,1:1")),
+                "Reel symbols must be defined by the pay table.");
+    }
+}
@@ -0,0 +1,56 @@
+package wtd.slotsengine.slots.machines.analysis;
+
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.reels.VirtualReel;
+import wtd.slotsengine.slots.machines.reels.VirtualReelBuilder;
+import wtd.slotsengine.slots.machines.reels.WeightedReel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReelAnalyzerTest {
+
+    @Test
+    void histogram() {
+        VirtualReel reel = VirtualReelBuilder.builder().addSymbol((byte) 0, 6).addSymbol((byte) 2, 3)
+                .addSymbol((byte) 10, 1).build();
+        long[] histogram = ReelAnalyzer.histogram(reel);
+        assertEquals(6, histogram[0], "Losing stops are counted");
+        assertEquals(3, histogram[2], "Paying stops are counted");
+        assertEquals(1, histogram[10], "Top symbol is counted");
+        assertEquals(10, histogram[0] + histogram[2] + histogram[10], "Every stop is counted once");
+    }
+
+    @Test
+    void analyze() {
+        VirtualReel reel = VirtualReelBuilder.builder().addSymbol((byte) 0, 6).addSymbol((byte) 2, 3)
+                .addSymbol((byte) 10, 1).build();
+        ReelAnalyzer analyzer = new ReelAnalyzer(PayTable.parse("0:0,2:2,10:10"));
+        OutcomeStats stats = analyzer.analyze(reel);
+        // Payouts: 6 x 0, 3 x 2, 1 x 10 -> mean 1.6, E[X^2] = (3 * 4 + 100) / 10 = 11.2
+        assertEquals(10, stats.outcomes(), "Outcomes are the reel stops");
+        assertEquals(1.6, stats.rtp(), 1e-12, "RTP is the mean payout");
+        assertEquals(11.2 - 1.6 * 1.6, stats.variance(), 1e-12, "Variance is exact");
+        assertEquals(Math.sqrt(stats.variance()), stats.standardDeviation(), 1e-12, "Deviation is the root");
+        assertEquals(0.4, stats.hitFrequency(), 1e-12, "Four stops out of ten pay");
+        assertEquals(OutcomeStats.VOLATILITY_Z * stats.standardDeviation(), stats.volatilityIndex(), 1e-12,
+                "Volatility index scales the deviation");
+        assertEquals(10.0, stats.maxMultiplier(), "Top symbol is the maximum win");
+        assertEquals(0.1, stats.maxWinProbability(), 1e-12, "One stop out of ten hits the maximum win");
+        assertSame(stats, analyzer.analyze(reel), "Statistics are cached per reel");
+    }
+
+    @Test
+    void analyzeWeightedReel() {
+        VirtualReel strip = VirtualReelBuilder.builder().addSymbol((byte) 0, 6).addSymbol((byte) 2, 3)
+                .addSymbol((byte) 10, 1).build();
+        ReelAnalyzer analyzer = new ReelAnalyzer(PayTable.parse("0:0,2:2,10:10"));
+        OutcomeStats expected = analyzer.analyze(strip);
+        OutcomeStats weighted = analyzer.analyze(WeightedReel.from(strip));
+        assertEquals(expected.rtp(), weighted.rtp(), 1e-12, "Weights give the same RTP");
+        assertEquals(expected.variance(), weighted.variance(), 1e-12, "Weights give the same variance");
+        assertEquals(expected.maxWinProbability(), weighted.maxWinProbability(), 1e-12,
+                "Weights give the same max win probability");
+    }
+}
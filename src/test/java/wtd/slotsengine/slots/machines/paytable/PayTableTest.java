@@ -0,0 +1,58 @@
+package wtd.slotsengine.slots.machines.paytable;
+
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.slots.machines.reels.VirtualReelBuilder;
+import wtd.slotsengine.utils.SlotConstants;
+import wtd.slotsengine.utils.generator.GeneratedResult;
+import wtd.slotsengine.utils.generator.ReelBufferedGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayTableTest {
+
+    @Test
+    void parse() {
+        PayTable table = PayTable.parse(SlotConstants.DEMO_PAYTABLE);
+        assertEquals(0, table.multiplier(0), "Symbol 0 loses");
+        assertEquals(9, table.multiplier(9), "Symbol 9 pays nine times");
+        assertEquals(100, table.multiplier(10), "Symbol 10 pays a hundred times");
+        assertEquals(0, table.multiplier(11), "Undefined symbols do not pay");
+        assertEquals(500, table.payout(5, 10), "Payout multiplies the bet");
+        assertEquals(SlotConstants.DEMO_PAYTABLE, table.toString(), "Specification round-trips");
+        assertArrayEquals(new int[]{10, 9, 8, 7, 6, 5, 4, 3, 2, 1}, table.getPayingSymbols(),
+                "Paying symbols are ordered by multiplier");
+        assertEquals(0, table.getLosingSymbol(), "Symbol 0 is the losing symbol");
+    }
+
+    @Test
+    void parseInvalid() {
+        assertThrows(SlotUserException.class, () -> PayTable.parse(""), "Empty specification");
+        assertThrows(SlotUserException.class, () -> PayTable.parse("1:1,1:2"), "Duplicate symbol");
+        assertThrows(SlotUserException.class, () -> PayTable.parse("256:1"), "Symbol out of range");
+        assertThrows(SlotUserException.class, () -> PayTable.parse("1:-1"), "Negative multiplier");
+        assertThrows(SlotUserException.class, () -> PayTable.parse("1=1"), "Malformed entry");
+    }
+
+    @Test
+    void validate() {
+        PayTable table = PayTable.parse("0:0,1:5");
+        assertDoesNotThrow(() -> table.validate(
+                VirtualReelBuilder.builder().addSymbol((byte) 0, 3).addSymbol((byte) 1, 1).build()));
+        assertThrows(SlotUserException.class, () -> table.validate(
+                VirtualReelBuilder.builder().addSymbol((byte) 2, 1).build()), "Symbol 2 is not defined");
+    }
+
+    @Test
+    void generatorUsesPayTable() {
+        PayTable table = PayTable.parse("3:0,7:2,9:50");
+        GeneratedResult result = new ReelBufferedGenerator(0.9, table).generateReel();
+        long win = 0;
+        for (byte symbol : result.reelBytes()) {
+            assertTrue(table.contains(symbol), "Generated symbols are defined by the pay table");
+            win += table.multiplier(symbol);
+        }
+        assertEquals(win / (double) result.reelBytes().length, result.rtp(), 1e-12, "Generated RTP is exact");
+        assertTrue(result.rtp() <= 0.9, "Generated RTP does not exceed the target");
+    }
+}
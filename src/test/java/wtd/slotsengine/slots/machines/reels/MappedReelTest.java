@@ -0,0 +1,83 @@
+package wtd.slotsengine.slots.machines.reels;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.slots.rng.RngProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class MappedReelTest {
+
+    @Test
+    void writeAndLoad() throws IOException {
+        Path file = Files.createTempFile("reel", ".strip");
+        try {
+            VirtualReel strip = VirtualReelBuilder.builder().addSymbol((byte) 1, 3).addSymbol((byte) 200, 2).build();
+            MappedReel.write(file, strip);
+            MappedReel reel = MappedReel.load(file);
+            Assertions.assertEquals(5, reel.size(), "Size is kept");
+            for (int i = 0; i < 7; i++) {
+                Assertions.assertEquals(strip.get(i) & 0xFF, reel.get(i), "Stops are kept in order");
+            }
+            Assertions.assertEquals(200, reel.get(4), "Symbols are unsigned");
+            Assertions.assertArrayEquals(strip.histogram(), reel.histogram(), "Histogram is stored in the header");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void writeShuffled() throws IOException {
+        Path file = Files.createTempFile("reel", ".strip");
+        try {
+            WeightedReel weights = WeightedReel.parse("0:5000,1:300,2:7");
+            MappedReel reel = MappedReel.write(file, weights, RngProvider.DEFAULT.current());
+            Assertions.assertEquals(weights.size(), reel.size(), "Every virtual position is written");
+            long[] walked = new long[256];
+            for (int i = 0; i < reel.size(); i++) {
+                walked[reel.get(i)]++;
+            }
+            Assertions.assertArrayEquals(weights.histogram(), walked, "Shuffle keeps the exact distribution");
+            boolean sorted = true;
+            for (int i = 1; i < reel.size() && sorted; i++) {
+                sorted = reel.get(i - 1) <= reel.get(i);
+            }
+            Assertions.assertFalse(sorted, "Strip is shuffled");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void rewriteReplacesAtomically() throws IOException {
+        Path file = Files.createTempFile("reel", ".strip");
+        try {
+            MappedReel first = MappedReel.write(file, VirtualReelBuilder.builder().addSymbol((byte) 1, 4).build());
+            MappedReel second = MappedReel.write(file, VirtualReelBuilder.builder().addSymbol((byte) 2, 8).build());
+            Assertions.assertEquals(4, first.size(), "Mapped reel keeps its size");
+            for (int i = 0; i < first.size(); i++) {
+                Assertions.assertEquals(1, first.get(i), "Mapped reel keeps its stops");
+            }
+            Assertions.assertEquals(2, second.get(7), "Rewritten file holds the new strip");
+            Assertions.assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")), "No temp file");
+            Assertions.assertNotEquals(first.hash(), second.hash(), "Hash follows the stops");
+            Assertions.assertEquals(second.hash(), MappedReel.load(file).hash(), "Hash is stable");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void rejectsForeignFiles() throws IOException {
+        Path file = Files.createTempFile("reel", ".strip");
+        try {
+            Files.write(file, new byte[MappedReel.HEADER_SIZE + 4]);
+            Assertions.assertThrows(SlotUserException.class, () -> MappedReel.load(file), "Magic is checked");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package wtd.slotsengine.slots.machines.reels;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+class ReelCursorTest {
+
+    @Test
+    void next() {
+        ReelCursor cursor = new ReelCursor(3);
+        Assertions.assertEquals(0, cursor.next(), "Cursor starts at 0");
+        Assertions.assertEquals(1, cursor.next(), "Cursor advances by one");
+        Assertions.assertEquals(2, cursor.next(), "Cursor advances by one");
+        Assertions.assertEquals(0, cursor.next(), "Cursor wraps around the reel");
+        Assertions.assertEquals(4, cursor.allocated(), "Cursor counts allocations");
+    }
+
+    @Test
+    void start() {
+        ReelCursor cursor = new ReelCursor(3, 2);
+        Assertions.assertEquals(2, cursor.next(), "Cursor starts at the given position");
+        Assertions.assertEquals(0, cursor.next(), "Cursor wraps around the reel");
+        Assertions.assertEquals(2, cursor.allocated(), "Allocations are counted from the start");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ReelCursor(3, 3), "Start within the reel");
+    }
+
+    @Test
+    void claim() {
+        ReelCursor cursor = new ReelCursor(10);
+        Assertions.assertEquals(0, cursor.claim(8), "Run starts at 0");
+        Assertions.assertEquals(8, cursor.claim(4), "Run starts after the previous run");
+        Assertions.assertEquals(2, cursor.next(), "Run wrapped around the reel");
+    }
+
+    @Test
+    void concurrentCyclesAreExact() throws InterruptedException {
+        final int size = 1000, cycles = 50, threads = 8;
+        ReelCursor cursor = new ReelCursor(size);
+        AtomicIntegerArray hits = new AtomicIntegerArray(size);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < size * cycles / threads; i++) {
+                    hits.incrementAndGet(cursor.next());
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        for (int i = 0; i < size; i++) {
+            Assertions.assertEquals(cycles, hits.get(i), "Every stop is consumed once per cycle");
+        }
+    }
+
+    @Test
+    void invalidSize() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ReelCursor(0), "Reel cannot be empty");
+    }
+}
@@ -0,0 +1,79 @@
+package wtd.slotsengine.slots.machines.reels;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.exceptions.SizeLimitExceededException;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.records.RegisteredReel;
+import wtd.slotsengine.slots.rng.RngProvider;
+import wtd.slotsengine.utils.SlotConstants;
+import wtd.slotsengine.utils.SlotUtils;
+
+import java.util.Base64;
+
+class ReelRegistryTest {
+
+    private static String encode(int symbol, int stops) {
+        return VirtualReelBuilder.builder().addSymbol((byte) symbol, stops).build().toString();
+    }
+
+    @Test
+    void registerOnce() {
+        ReelRegistry registry = new ReelRegistry(PayTable.parse(SlotConstants.DEMO_PAYTABLE), RngProvider.DEFAULT);
+        RegisteredReel first = registry.register(SlotConstants.DEMO_MACHINE);
+        Assertions.assertSame(first, registry.register(SlotConstants.DEMO_MACHINE), "Same content is decoded once");
+        Assertions.assertSame(first, registry.get(first.hash()), "Reel is found by hash");
+        Assertions.assertEquals(ReelRegistry.hash(SlotConstants.DEMO_MACHINE), first.hash(), "Hash is the content digest");
+        Assertions.assertEquals(64, first.hash().length(), "Hash is hex encoded SHA-256");
+        Assertions.assertEquals(0.98, first.stats().rtp(), 1e-12, "Statistics are computed on registration");
+        Assertions.assertEquals(1, registry.getReels().size(), "Only one reel is registered");
+    }
+
+    @Test
+    void registerInvalid() {
+        ReelRegistry registry = new ReelRegistry(PayTable.parse("0:0,1:1"), RngProvider.DEFAULT);
+        SlotUserException base64 = Assertions.assertThrows(SlotUserException.class,
+                () -> registry.register("not a reel"), "Invalid Base64");
+        Assertions.assertTrue(base64.getMessage().startsWith("Invalid reel encoding: Illegal base64"),
+                base64.getMessage());
+        String notGzip = Base64.getEncoder().encodeToString(new byte[]{1, 2, 3, 4});
+        SlotUserException gzip = Assertions.assertThrows(SlotUserException.class,
+                () -> registry.register(notGzip), "Invalid GZIP");
+        Assertions.assertFalse(gzip instanceof SizeLimitExceededException, "Corrupt data is not a size problem");
+        Assertions.assertTrue(gzip.getMessage().startsWith("Invalid reel encoding: "), gzip.getMessage());
+        Assertions.assertThrows(SlotUserException.class, () -> registry.register(SlotConstants.DEMO_MACHINE),
+                "Reel symbols must be defined by the pay table");
+        Assertions.assertTrue(registry.getReels().isEmpty(), "Invalid reels are not registered");
+    }
+
+    @Test
+    void registerBounded() {
+        ReelRegistry registry = new ReelRegistry(PayTable.parse("0:0,1:1"), RngProvider.DEFAULT, 2);
+        RegisteredReel zeros = registry.register(encode(0, 8));
+        RegisteredReel ones = registry.register(encode(1, 8));
+        registry.get(zeros.hash());
+        registry.register(encode(1, 4));
+        Assertions.assertEquals(2, registry.getReels().size(), "Registry keeps its capacity");
+        Assertions.assertSame(zeros, registry.get(zeros.hash()), "Recently used reel is kept");
+        Assertions.assertNull(registry.get(ones.hash()), "Least recently used reel is evicted");
+
+        String bomb = SlotUtils.encodeGzipBase64(new byte[ReelRegistry.MAX_REEL_SIZE + 1]);
+        SlotUserException ex = Assertions.assertThrows(SlotUserException.class, () -> registry.register(bomb),
+                "Oversized reel");
+        Assertions.assertEquals("Reel exceeds %d stops.".formatted(ReelRegistry.MAX_REEL_SIZE), ex.getMessage());
+    }
+
+    @Test
+    void reRegisterKeepsCursorOfSpunReel() {
+        ReelRegistry registry = new ReelRegistry(PayTable.parse("0:0,1:1"), RngProvider.DEFAULT, 1);
+        RegisteredReel spun = registry.register(encode(0, 8));
+        spun.cursor().claim(3);
+        registry.register(encode(1, 8));
+        Assertions.assertNull(registry.get(spun.hash()), "Reel is evicted");
+        RegisteredReel again = registry.register(encode(0, 8));
+        Assertions.assertSame(spun, again, "A reel still referenced is registered again as is");
+        Assertions.assertEquals(3, again.cursor().allocated(), "Its cycle resumes where it stood");
+        Assertions.assertSame(again, registry.get(spun.hash()), "It is kept again");
+    }
+}
@@ -0,0 +1,56 @@
+package wtd.slotsengine.slots.machines.reels;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.exceptions.SlotUserException;
+import wtd.slotsengine.slots.rng.RngProvider;
+
+import java.util.random.RandomGenerator;
+
+class WeightedReelTest {
+
+    @Test
+    void positionsMatchWeights() {
+        WeightedReel reel = new WeightedReel(new int[]{0, 1, 2, 10}, new int[]{70, 20, 9, 1});
+        Assertions.assertEquals(400, reel.size(), "Size is total weight times columns");
+        long[] walked = new long[256];
+        for (int i = 0; i < reel.size(); i++) {
+            walked[reel.get(i)]++;
+        }
+        Assertions.assertArrayEquals(walked, reel.histogram(), "Histogram matches the positions");
+        Assertions.assertEquals(280, walked[0], "Every symbol covers weight times columns positions");
+        Assertions.assertEquals(4, walked[10], "Every symbol covers weight times columns positions");
+    }
+
+    @Test
+    void sample() {
+        WeightedReel reel = WeightedReel.parse("0:3,7:1");
+        RandomGenerator random = RngProvider.DEFAULT.current();
+        int sevens = 0, draws = 400_000;
+        for (int i = 0; i < draws; i++) {
+            int symbol = reel.sample(random);
+            Assertions.assertTrue(symbol == 0 || symbol == 7, "Only reel symbols are sampled");
+            if (symbol == 7) sevens++;
+        }
+        Assertions.assertEquals(0.25, sevens / (double) draws, 0.005, "Samples follow the weights");
+    }
+
+    @Test
+    void fromReel() {
+        VirtualReel strip = VirtualReelBuilder.builder().addSymbol((byte) 0, 5).addSymbol((byte) 3, 2).build();
+        WeightedReel reel = WeightedReel.from(strip);
+        Assertions.assertEquals("0:5,3:2", reel.toString(), "Weights are the symbol counts");
+        Assertions.assertEquals(reel.toString(), WeightedReel.parse(reel.toString()).toString(),
+                "Specification round-trips");
+    }
+
+    @Test
+    void invalid() {
+        Assertions.assertThrows(SlotUserException.class, () -> WeightedReel.parse(""), "Empty specification");
+        Assertions.assertThrows(SlotUserException.class, () -> WeightedReel.parse("1:0"), "Zero weight");
+        Assertions.assertThrows(SlotUserException.class, () -> WeightedReel.parse("1:1,1:2"), "Duplicate symbol");
+        Assertions.assertThrows(SlotUserException.class, () -> WeightedReel.parse("256:1"), "Invalid symbol");
+        Assertions.assertThrows(SlotUserException.class,
+                () -> new WeightedReel(new int[]{0, 1}, new int[]{Integer.MAX_VALUE / 2, 1}), "Too many positions");
+    }
+}
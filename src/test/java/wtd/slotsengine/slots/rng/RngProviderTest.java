@@ -0,0 +1,55 @@
+package wtd.slotsengine.slots.rng;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
+
+class RngProviderTest {
+
+    @Test
+    void streamPerThread() throws InterruptedException {
+        RngProvider provider = RngProvider.of("L64X128MixRandom");
+        RandomGenerator mine = provider.current();
+        Assertions.assertSame(mine, provider.current(), "Same thread gets the same stream");
+        AtomicReference<RandomGenerator> other = new AtomicReference<>();
+        Thread worker = new Thread(() -> other.set(provider.current()));
+        worker.start();
+        worker.join();
+        Assertions.assertNotNull(other.get(), "Worker got a stream");
+        Assertions.assertNotSame(mine, other.get(), "Different threads get different streams");
+    }
+
+    @Test
+    void leasedStreams() {
+        for (String algorithm : new String[]{"L64X128MixRandom", "DRBG"}) {
+            RngProvider provider = RngProvider.of(algorithm);
+            RandomGenerator leased = provider.acquire();
+            Assertions.assertNotSame(leased, provider.acquire(), "Leased streams are not shared");
+            provider.release(leased);
+            Assertions.assertSame(leased, provider.acquire(), "Released streams are reused");
+        }
+    }
+
+    @Test
+    void jumpableAlgorithm() {
+        RngProvider provider = RngProvider.of("Xoshiro256PlusPlus");
+        Assertions.assertEquals("Xoshiro256PlusPlus", provider.getAlgorithm());
+        int value = provider.current().nextInt(10);
+        Assertions.assertTrue(value >= 0 && value < 10, "Value is within bounds");
+    }
+
+    @Test
+    void secureAlgorithm() {
+        RngProvider provider = RngProvider.of("DRBG");
+        Assertions.assertInstanceOf(SecureRngProvider.class, provider);
+        int value = provider.current().nextInt(10);
+        Assertions.assertTrue(value >= 0 && value < 10, "Value is within bounds");
+    }
+
+    @Test
+    void unknownAlgorithm() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RngProvider.of("NoSuchRandom"));
+    }
+}
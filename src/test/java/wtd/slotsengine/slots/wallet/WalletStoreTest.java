@@ -0,0 +1,80 @@
+package wtd.slotsengine.slots.wallet;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.exceptions.InsufficientFundsException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class WalletStoreTest {
+
+    @Test
+    void creditAndDebit() throws InsufficientFundsException {
+        WalletStore store = new WalletStore();
+        Assertions.assertEquals(0, store.balance(42), "Unknown players have no balance");
+        Assertions.assertEquals(100, store.credit(42, 100), "Credit creates the wallet");
+        Assertions.assertEquals(70, store.debit(42, 30, "spin"), "Debit reduces the balance");
+        Assertions.assertEquals(0, store.balance(43), "Wallets are kept per player");
+        Assertions.assertThrows(InsufficientFundsException.class, () -> store.debit(42, 71, "spin"), "Overdraw");
+        Assertions.assertThrows(InsufficientFundsException.class, () -> store.debit(43, 1, "spin"), "No wallet");
+        Assertions.assertThrows(InsufficientFundsException.class, () -> store.debit(42, -1, "spin"), "Negative");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> store.credit(Long.MIN_VALUE, 1), "Reserved id");
+        Assertions.assertEquals(0, store.balance(Long.MIN_VALUE), "Reserved id has no balance");
+        Assertions.assertEquals(70, store.balance(42), "Failed debits keep the balance");
+        Assertions.assertEquals(1, store.size(), "Only credited players hold a wallet");
+    }
+
+    @Test
+    void settle() throws InsufficientFundsException {
+        WalletStore store = new WalletStore();
+        Assertions.assertEquals(5, store.settle(1, 0, 5, "spin"), "Free spin wins create the wallet");
+        Assertions.assertEquals(95, store.settle(1, 5, 95, "spin"), "Net amount is applied");
+        Assertions.assertEquals(0, store.settle(1, 95, 0, "spin"), "Whole balance can be wagered");
+        Assertions.assertThrows(InsufficientFundsException.class, () -> store.settle(1, 1, 100, "spin"),
+                "Wins do not cover the bet");
+        Assertions.assertThrows(InsufficientFundsException.class, () -> store.settle(1, 0, -1, "spin"), "Negative");
+        Assertions.assertEquals(0, store.balance(1), "Failed settlements keep the balance");
+    }
+
+    @Test
+    void manyAccounts() throws InsufficientFundsException {
+        WalletStore store = new WalletStore(8);
+        final int players = 1_000_000;
+        for (int i = 0; i < players; i++) store.credit(i * 7919L - 500_000L, i + 1);
+        Assertions.assertEquals(players, store.size(), "Every player holds a wallet");
+        Assertions.assertEquals((long) players * (players + 1) / 2, store.totalBalance(), "Total of every wallet");
+        for (int i = 0; i < players; i++) {
+            Assertions.assertEquals(0, store.debit(i * 7919L - 500_000L, i + 1, "withdraw"), "Balance of " + i);
+        }
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws InterruptedException {
+        WalletStore store = new WalletStore(4);
+        final int threads = 8, players = 64, balance = 1_000;
+        for (int p = 0; p < players; p++) store.credit(p, balance);
+        final AtomicLong debited = new AtomicLong();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < players * balance / 2; i++) {
+                    try {
+                        store.debit(i % players, 1, "spin");
+                        debited.incrementAndGet();
+                    } catch (InsufficientFundsException e) {
+                        // The wallet is empty.
+                    }
+                }
+                for (int p = 0; p < players; p++) store.credit(1_000 + p, 1);
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        Assertions.assertEquals((long) players * balance, debited.get(), "Exactly the credited amount is debited");
+        for (int p = 0; p < players; p++) {
+            Assertions.assertEquals(0, store.balance(p), "Wallet is emptied");
+            Assertions.assertEquals(threads, store.balance(1_000 + p), "Concurrent credits to a new wallet");
+        }
+        Assertions.assertEquals(2L * players, store.size(), "Concurrent creations claim one wallet each");
+    }
+}
@@ -0,0 +1,36 @@
+package wtd.slotsengine.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+class LeasePoolTest {
+
+    @Test
+    void reusesReleasedObjects() throws InterruptedException {
+        AtomicInteger created = new AtomicInteger();
+        LeasePool<int[]> pool = new LeasePool<>(() -> new int[created.incrementAndGet()], 4);
+        int[] first = pool.acquire();
+        int[] second = pool.acquire();
+        Assertions.assertNotSame(first, second, "Borrowed objects are not shared");
+        pool.release(first);
+        pool.release(second);
+        Assertions.assertEquals(2, pool.size(), "Released objects are pooled");
+        AtomicReference<int[]> other = new AtomicReference<>();
+        Thread worker = new Thread(() -> other.set(pool.acquire()));
+        worker.start();
+        worker.join();
+        Assertions.assertTrue(other.get() == first || other.get() == second, "Other threads reuse them");
+        Assertions.assertEquals(2, created.get(), "No object is created while one is pooled");
+    }
+
+    @Test
+    void dropsObjectsBeyondCapacity() {
+        LeasePool<Object> pool = new LeasePool<>(Object::new, 4);
+        for (int i = 0; i < 8; i++) pool.release(new Object());
+        Assertions.assertEquals(4, pool.size(), "Pool holds its capacity");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LeasePool<>(Object::new, 0));
+    }
+}
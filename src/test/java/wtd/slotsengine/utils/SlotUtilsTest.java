@@ -1,6 +1,7 @@
 package wtd.slotsengine.utils;
 
 import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.exceptions.SizeLimitExceededException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -52,9 +53,37 @@ public class SlotUtilsTest {
         assertEquals(new String(inputData), new String(decoded));
     }
 
+    @Test
+    void testDecodeGzipBase64_withSizeLimit() {
+        // A payload compressing a megabyte of zeros to about a kilobyte.
+        String encoded = SlotUtils.encodeGzipBase64(new byte[1 << 20]);
+
+        assertEquals(1 << 20, SlotUtils.decodeGzipBase64(encoded, 1 << 20).length);
+        assertThrows(SizeLimitExceededException.class, () -> SlotUtils.decodeGzipBase64(encoded, (1 << 20) - 1));
+    }
+
     @Test
     void testEncodeGzipBase64_withNullInput() {
         // Expect a RuntimeException when trying to encode a null input.
         assertThrows(RuntimeException.class, () -> SlotUtils.encodeGzipBase64(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAppendAscii() {
+        byte[] buffer = new byte[32];
+        for (long value : new long[]{0, 7, -7, 10, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            int end = SlotUtils.appendAscii(buffer, 3, value);
+            assertEquals(Long.toString(value), new String(buffer, 3, end - 3), "ASCII of " + value);
+        }
+    }
+
+    @Test
+    void testParseDuration() {
+        assertEquals(30_000L, SlotUtils.parseDuration("30s"));
+        assertEquals(300_000L, SlotUtils.parseDuration("5m"));
+        assertEquals(86_400_000L, SlotUtils.parseDuration("24h"));
+        for (String invalid : new String[]{null, "", "m", "0m", "-5m", "5", "5d", "1.5h", "99999999999999999h"}) {
+            assertThrows(IllegalArgumentException.class, () -> SlotUtils.parseDuration(invalid), "Invalid " + invalid);
+        }
+    }
+}
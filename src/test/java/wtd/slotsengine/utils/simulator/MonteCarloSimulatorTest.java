@@ -0,0 +1,83 @@
+package wtd.slotsengine.utils.simulator;
+
+import org.junit.jupiter.api.Test;
+import wtd.slotsengine.slots.machines.BasicSlotMachine;
+import wtd.slotsengine.slots.machines.MultiReelSlotMachine;
+import wtd.slotsengine.slots.machines.MultiReelSlotMachineBuilder;
+import wtd.slotsengine.slots.machines.analysis.ReelAnalyzer;
+import wtd.slotsengine.slots.machines.paytable.PayTable;
+import wtd.slotsengine.slots.machines.records.OutcomeStats;
+import wtd.slotsengine.slots.machines.reels.VirtualReel;
+import wtd.slotsengine.slots.machines.reels.VirtualReelBuilder;
+import wtd.slotsengine.slots.rng.RngProvider;
+import wtd.slotsengine.utils.SlotConstants;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloSimulatorTest {
+
+    @Test
+    void reelMatchesExactStatistics() {
+        PayTable payTable = PayTable.parse(SlotConstants.DEMO_PAYTABLE);
+        VirtualReel reel = VirtualReel.loadFromString(SlotConstants.DEMO_MACHINE);
+        OutcomeStats exact = new ReelAnalyzer(payTable).analyze(reel);
+        try (MonteCarloSimulator simulator =
+                     new MonteCarloSimulator(SpinSource.ofReel(reel, payTable), RngProvider.DEFAULT, 4)) {
+            SimulationResult result = simulator.run(2_000_000);
+            assertEquals(2_000_000, result.spins(), "Every spin is simulated");
+            assertEquals(result.spins(), Arrays.stream(result.winCounts()).sum(), "Distribution covers every spin");
+            assertEquals(result.totalWin(), result.rtp() * result.totalBet(), 1e-3, "RTP is win over bet");
+            // Five standard errors make a false failure practically impossible.
+            double margin = 5 * exact.standardDeviation() / Math.sqrt(result.spins());
+            assertEquals(exact.rtp(), result.rtp(), margin, "Observed RTP converges to the exact RTP");
+            assertTrue(result.spinsPerSecond() > 0, "Throughput is reported");
+        }
+    }
+
+    @Test
+    void machineIsDrivenWithoutWallet() {
+        VirtualReel reel = VirtualReelBuilder.builder().addSymbol((byte) 5, 1).build();
+        MultiReelSlotMachine machine = MultiReelSlotMachineBuilder.builder()
+                .addReel(reel).addReel(reel).addPayline(0, 0).addLinePay(5, 2, 3).build();
+        try (MonteCarloSimulator simulator = new MonteCarloSimulator(SpinSource.ofMachine(machine, 10))) {
+            SimulationResult result = simulator.run(100_000);
+            assertEquals(3.0, result.rtp(), 1e-12, "Machine always pays three times the bet");
+            assertEquals(0.0, result.confidenceMargin(SimulationResult.Z_99), 1e-12, "No spread");
+            assertEquals(1.0, result.hitFrequency(), 1e-12, "Every spin wins");
+            assertEquals(100_000, result.winCounts()[30], "Every spin wins 30 credits");
+            assertEquals(0, machine.getBalance(), "Wallet is untouched");
+        }
+    }
+
+    @Test
+    void machineSamplesLeaveLiveSpinsUntouched() {
+        BasicSlotMachine machine = new BasicSlotMachine();
+        try (MonteCarloSimulator simulator =
+                     new MonteCarloSimulator(SpinSource.ofMachine(machine, 1), RngProvider.DEFAULT, 4)) {
+            SimulationResult result = simulator.run(1_000_000);
+            OutcomeStats exact = machine.getMachineStats();
+            double margin = 5 * exact.standardDeviation() / Math.sqrt(result.spins());
+            assertEquals(exact.rtp(), result.rtp(), margin, "Worker draws converge to the exact RTP");
+        }
+        assertEquals(0, machine.getActiveReel().cursor().allocated(), "Reel cursor is not advanced");
+    }
+
+    @Test
+    void accumulatorsMerge() {
+        SimulationAccumulator a = new SimulationAccumulator();
+        SimulationAccumulator b = new SimulationAccumulator();
+        a.add(0);
+        a.add(2);
+        b.add(500);
+        b.add(SimulationAccumulator.MAX_TRACKED_WIN + 1L);
+        SimulationResult result = a.merge(b).toResult(1, 1);
+        assertEquals(4, result.spins(), "Spins are summed");
+        assertEquals(502 + SimulationAccumulator.MAX_TRACKED_WIN + 1L, result.totalWin(), "Wins are summed");
+        assertEquals(0.75, result.hitFrequency(), 1e-12, "Hits are summed");
+        assertEquals(1, result.winCounts()[500], "Distribution grows on demand");
+        assertEquals(1, result.untrackedWins(), "Huge wins are counted separately");
+        assertEquals(SimulationAccumulator.MAX_TRACKED_WIN + 1L, result.maxWin(), "Max win is kept");
+    }
+}
@@ -0,0 +1,54 @@
+package wtd.slotsengine.utils.stats;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class LogHistogramTest {
+
+    @Test
+    void bucketsKeepTheSignificantBits() {
+        for (long value = 0; value < 1 << 20; value++) {
+            final long highest = LogHistogram.highestValueOf(LogHistogram.indexOf(value));
+            Assertions.assertTrue(highest >= value && highest - value <= value >> 7, "Bucket of " + value);
+        }
+        Assertions.assertEquals(LogHistogram.BUCKETS - 1, LogHistogram.indexOf(Long.MAX_VALUE), "Last bucket");
+        Assertions.assertEquals(Long.MAX_VALUE, LogHistogram.highestValueOf(LogHistogram.BUCKETS - 1), "Last value");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LogHistogram().record(-1), "Negative");
+    }
+
+    @Test
+    void percentiles() {
+        LogHistogram histogram = new LogHistogram();
+        Assertions.assertEquals(0, LogHistogram.valueAtPercentile(histogram.counts(), 50), "Empty histogram");
+        for (int value = 1; value <= 1_000; value++) histogram.record(value);
+        final long[] counts = histogram.counts();
+        Assertions.assertEquals(1, LogHistogram.valueAtPercentile(counts, 0), "Lowest value");
+        Assertions.assertEquals(500, LogHistogram.valueAtPercentile(counts, 50), 500 >> 7, "Median");
+        Assertions.assertEquals(990, LogHistogram.valueAtPercentile(counts, 99), 990 >> 7, "99th percentile");
+        Assertions.assertEquals(1_000, LogHistogram.valueAtPercentile(counts, 100), 1_000 >> 7, "Highest value");
+        histogram.merge(counts);
+        final int index = LogHistogram.indexOf(1_000);
+        Assertions.assertEquals(2 * counts[index], histogram.counts()[index], "Merged counts are added");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> LogHistogram.valueAtPercentile(counts, 101),
+                "Invalid percentile");
+    }
+
+    @Test
+    void winDistribution() {
+        WinDistributionStats stats = new WinDistributionStats();
+        for (int i = 0; i < 1_000; i++) stats.accept(10, i < 900 ? 0 : i < 995 ? 20 : 1_000, i < 900 ? 0 : 1);
+        stats.accept(10, 0, WinDistributionStats.SYMBOL_COUNT);
+        WinDistribution distribution = stats.snapshot();
+        Assertions.assertEquals(1_000, distribution.spins(), "Spins are counted through their symbols");
+        Assertions.assertEquals(100, distribution.hits(), "Winning spins");
+        Assertions.assertEquals(2.0, distribution.p50(), "Median multiplier");
+        Assertions.assertEquals(100.0, distribution.p99(), 1.0, "99th percentile multiplier");
+        Assertions.assertEquals(List.of(new WinDistribution.SymbolFrequency(0, 900, 0.9),
+                new WinDistribution.SymbolFrequency(1, 100, 0.1)), distribution.symbols(), "Symbol frequencies");
+        WinDistributionStats restored = new WinDistributionStats();
+        restored.merge(stats.winCounts(), stats.symbolCounts());
+        Assertions.assertEquals(distribution, restored.snapshot(), "Merged counters");
+    }
+}
@@ -0,0 +1,58 @@
+package wtd.slotsengine.utils.stats;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class StripedStatsTest {
+
+    @Test
+    void emptyAndSingleThread() {
+        StripedStats stats = new StripedStats(4);
+        Assertions.assertSame(StatsSnapshot.EMPTY, stats.snapshot(), "No values recorded");
+        stats.accept(5);
+        stats.accept(-3);
+        stats.accept(10);
+        Assertions.assertEquals(new StatsSnapshot(3, 12, -3, 10, 4.0), stats.snapshot(), "Summary of 5, -3, 10");
+    }
+
+    @Test
+    void merge() {
+        StripedStats stats = new StripedStats(4);
+        stats.merge(StatsSnapshot.EMPTY);
+        Assertions.assertSame(StatsSnapshot.EMPTY, stats.snapshot(), "Empty snapshots add nothing");
+        stats.accept(5);
+        stats.merge(StatsSnapshot.of(2, 30, 10, 20));
+        Assertions.assertEquals(StatsSnapshot.of(3, 35, 5, 20), stats.snapshot(), "Merged like recorded values");
+    }
+
+    @Test
+    void concurrentWritersAndConsistentReads() throws InterruptedException {
+        StripedStats stats = new StripedStats(2);
+        final int writers = 6, perWriter = 200_000;
+        AtomicBoolean torn = new AtomicBoolean();
+        Thread[] threads = new Thread[writers];
+        for (int w = 0; w < writers; w++) {
+            threads[w] = new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) stats.accept(7);
+            });
+            threads[w].start();
+        }
+        Thread reader = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                StatsSnapshot snapshot = stats.snapshot();
+                if (snapshot.sum() != snapshot.count() * 7) torn.set(true);
+            }
+        });
+        reader.start();
+        for (Thread thread : threads) thread.join();
+        reader.join();
+        Assertions.assertFalse(torn.get(), "Every snapshot is consistent");
+        StatsSnapshot snapshot = stats.snapshot();
+        Assertions.assertEquals((long) writers * perWriter, snapshot.count(), "No update is lost");
+        Assertions.assertEquals(7, snapshot.min(), "Minimum");
+        Assertions.assertEquals(7, snapshot.max(), "Maximum");
+        Assertions.assertEquals(7.0, snapshot.average(), "Average");
+    }
+}
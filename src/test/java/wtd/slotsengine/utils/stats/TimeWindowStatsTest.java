@@ -0,0 +1,69 @@
+package wtd.slotsengine.utils.stats;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class TimeWindowStatsTest {
+
+    @Test
+    void windowsSumTheirBuckets() {
+        TimeWindowStats stats = new TimeWindowStats(1_000, 60);
+        Assertions.assertEquals(WindowSnapshot.of(5_000, StatsSnapshot.EMPTY, StatsSnapshot.EMPTY),
+                stats.window(100_000, 5_000), "No values recorded");
+        stats.accept(100_500, 10, 0);
+        stats.accept(99_000, 20, 30);
+        stats.accept(96_999, 10, 5);
+        stats.accept(90_000, 40, 100);
+        Assertions.assertEquals(new WindowSnapshot(1_000, StatsSnapshot.of(1, 10, 10, 10), StatsSnapshot.EMPTY,
+                0.0, 0.0), stats.window(100_900, 1_000), "The current bucket");
+        Assertions.assertEquals(new WindowSnapshot(4_000, StatsSnapshot.of(2, 30, 10, 20),
+                StatsSnapshot.of(1, 30, 30, 30), 1.0, 0.5), stats.window(100_900, 4_000), "The last four buckets");
+        Assertions.assertEquals(StatsSnapshot.of(4, 80, 10, 40), stats.window(100_900, 60_000).bets(),
+                "The whole ring");
+        Assertions.assertEquals(StatsSnapshot.of(3, 135, 5, 100), stats.window(100_900, 60_000).wins(),
+                "Only positive wins are counted");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> stats.window(100_900, 61_000), "Too long");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> stats.window(100_900, 0), "Empty window");
+    }
+
+    @Test
+    void bucketsExpireAsTheRingTurns() {
+        TimeWindowStats stats = new TimeWindowStats(1_000, 10);
+        stats.accept(5_000, 10, 10);
+        stats.accept(15_000, 1, 0);
+        Assertions.assertEquals(StatsSnapshot.of(1, 1, 1, 1), stats.window(15_000, 10_000).bets(),
+                "The slot of the old bucket is reused");
+        stats.accept(5_000, 10, 10);
+        Assertions.assertEquals(StatsSnapshot.of(1, 1, 1, 1), stats.window(15_000, 10_000).bets(),
+                "Records older than their slot are dropped");
+        Assertions.assertEquals(StatsSnapshot.EMPTY, stats.window(30_000, 10_000).bets(), "Expired buckets");
+    }
+
+    @Test
+    void concurrentWritersAndConsistentReads() throws InterruptedException {
+        TimeWindowStats stats = new TimeWindowStats(10, 4);
+        final int writers = 4, perWriter = 200_000;
+        AtomicBoolean torn = new AtomicBoolean();
+        Thread[] threads = new Thread[writers];
+        for (int w = 0; w < writers; w++) {
+            threads[w] = new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) stats.accept(i % 40, 7, 3);
+            });
+            threads[w].start();
+        }
+        Thread reader = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                WindowSnapshot window = stats.window(39, 40);
+                if (window.bets().sum() != window.bets().count() * 7) torn.set(true);
+                if (window.wins().count() != window.bets().count()) torn.set(true);
+            }
+        });
+        reader.start();
+        for (Thread thread : threads) thread.join();
+        reader.join();
+        Assertions.assertFalse(torn.get(), "Readers never see a partially recorded value");
+        Assertions.assertEquals(writers * perWriter, stats.window(39, 40).bets().count(), "No value is lost");
+    }
+}